@@ -0,0 +1,61 @@
+package com.ss.editor.executor.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The benchmark of adding tasks to the executor of the FX UI Thread by many producer threads, like the file watcher,
+ * the render thread and background threads. Each iteration waits for executing all added tasks, so the throughput
+ * includes draining the tasks in the FX UI Thread. The benchmark requires a JDK with JavaFX.
+ *
+ * @author JavaSaBr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(8)
+@Fork(1)
+public class FXEditorTaskExecutorBenchmark {
+
+    private FXEditorTaskExecutor executor;
+
+    private LongAdder executed;
+
+    private Runnable task;
+
+    @Setup
+    public void setup() {
+        executor = new FXEditorTaskExecutor();
+        executed = new LongAdder();
+        task = executed::increment;
+    }
+
+    @TearDown(Level.Iteration)
+    public void waitTasks() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(latch::countDown);
+        latch.await();
+    }
+
+    @Benchmark
+    public void execute() {
+        executor.execute(task);
+    }
+}
@@ -0,0 +1,203 @@
+package com.ss.editor.file.reader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of previews of DDS and TGA images: the old readers which read the whole file and decode the full image
+ * against positional reads of only the sampled rows of the nearest mipmap level. Both paths scale the result to the
+ * preview like the image manager.
+ *
+ * @author JavaSaBr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ImageReaderBenchmark {
+
+    private static final int PREVIEW_SIZE = 128;
+
+    /**
+     * The size of the generated images.
+     */
+    @Param({"1024", "4096"})
+    private int size;
+
+    private Path ddsFile;
+
+    private Path tgaFile;
+
+    @Setup
+    public void setup() throws IOException {
+        ddsFile = Files.createTempFile("benchmark", ".dds");
+        tgaFile = Files.createTempFile("benchmark", ".tga");
+        Files.write(ddsFile, createDXT1(size));
+        Files.write(tgaFile, createTGA(size));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(ddsFile);
+        Files.delete(tgaFile);
+    }
+
+    /**
+     * The preview path before the change: read the whole file, decode the full image by the old reader and scale it.
+     */
+    @Benchmark
+    public BufferedImage ddsBaseline() throws IOException {
+
+        final byte[] content = Files.readAllBytes(ddsFile);
+        final int[] pixels = LegacyDDSReader.read(content, LegacyDDSReader.ARGB, 0);
+        final int width = LegacyDDSReader.getWidth(content);
+        final int height = LegacyDDSReader.getHeight(content);
+
+        final BufferedImage read = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        read.setRGB(0, 0, width, height, pixels, 0, width);
+
+        return scaleImage(read);
+    }
+
+    /**
+     * The current preview path: read the header and only the sampled rows of the smallest sufficient mipmap level.
+     */
+    @Benchmark
+    public BufferedImage ddsPreview() throws IOException {
+        try (final FileChannel channel = FileChannel.open(ddsFile, StandardOpenOption.READ)) {
+
+            final ByteBuffer header = DDSReader.readHeader(channel);
+            final int level = DDSReader.getMipmapLevel(header, PREVIEW_SIZE, PREVIEW_SIZE);
+            final int width = DDSReader.getWidth(header, level);
+            final int height = DDSReader.getHeight(header, level);
+            final int step = Math.max(1, Math.min(width, height) / PREVIEW_SIZE);
+
+            final int[] pixels = DDSReader.read(channel, header, DDSReader.ARGB, level, 0, 0, width, height, step);
+            final int currentWidth = (width + step - 1) / step;
+            final int currentHeight = (height + step - 1) / step;
+
+            final BufferedImage read = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+            read.setRGB(0, 0, currentWidth, currentHeight, pixels, 0, currentWidth);
+
+            return scaleImage(read);
+        }
+    }
+
+    /**
+     * The preview path before the change: read the whole file, decode the full image by the old reader and scale it.
+     */
+    @Benchmark
+    public BufferedImage tgaBaseline() throws IOException {
+        return scaleImage((BufferedImage) LegacyTGAReader.getImage(Files.readAllBytes(tgaFile)));
+    }
+
+    /**
+     * The current preview path: read the header and only the sampled rows of the image.
+     */
+    @Benchmark
+    public BufferedImage tgaPreview() throws IOException {
+        try (final FileChannel channel = FileChannel.open(tgaFile, StandardOpenOption.READ)) {
+            final ByteBuffer header = TGAReader.readHeader(channel);
+            final int step = Math.max(1, Math.min(TGAReader.getWidth(header), TGAReader.getHeight(header)) /
+                    PREVIEW_SIZE);
+            return scaleImage(TGAReader.getImage(channel, header, step));
+        }
+    }
+
+    /**
+     * Scale the decoded image to the preview like the image manager does.
+     */
+    private static BufferedImage scaleImage(final BufferedImage read) {
+
+        final Image scaled = read.getScaledInstance(PREVIEW_SIZE, PREVIEW_SIZE, Image.SCALE_DEFAULT);
+        final BufferedImage preview = new BufferedImage(PREVIEW_SIZE, PREVIEW_SIZE, BufferedImage.TYPE_INT_ARGB);
+
+        final Graphics2D g2d = preview.createGraphics();
+        g2d.drawImage(scaled, 0, 0, null);
+        g2d.dispose();
+
+        return preview;
+    }
+
+    /**
+     * Create a DXT1 image with the full chain of mipmap levels.
+     */
+    private static byte[] createDXT1(final int size) {
+
+        int levels = 1;
+        int length = 128;
+
+        for (int levelSize = size; ; levelSize /= 2, levels++) {
+            length += 8 * Math.max(1, levelSize / 4) * Math.max(1, levelSize / 4);
+            if (levelSize == 1) break;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[]{'D', 'D', 'S', ' '});
+        buffer.putInt(4, 124);
+        buffer.putInt(8, 0x1 | 0x2 | 0x4 | 0x1000 | 0x20000);
+        buffer.putInt(12, size);
+        buffer.putInt(16, size);
+        buffer.putInt(28, levels);
+        buffer.putInt(76, 32);
+        buffer.putInt(80, 0x4);
+        buffer.position(84);
+        buffer.put(new byte[]{'D', 'X', 'T', '1'});
+
+        final Random random = new Random(1);
+        final byte[] blocks = new byte[length - 128];
+        random.nextBytes(blocks);
+
+        buffer.position(128);
+        buffer.put(blocks);
+
+        return buffer.array();
+    }
+
+    /**
+     * Create an uncompressed 32 bit TGA image.
+     */
+    private static byte[] createTGA(final int size) {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(18 + size * size * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(2, (byte) 2);
+        buffer.putShort(12, (short) size);
+        buffer.putShort(14, (short) size);
+        buffer.put(16, (byte) 32);
+        buffer.put(17, (byte) 0x28);
+
+        final Random random = new Random(1);
+        final byte[] pixels = new byte[size * size * 4];
+        random.nextBytes(pixels);
+
+        buffer.position(18);
+        buffer.put(pixels);
+
+        return buffer.array();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ss.editor.ui.component.editing.terrain.control;
+
+import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
+import com.jme3.terrain.geomipmap.TerrainQuad;
+import com.ss.editor.ui.component.editing.terrain.control.ChangeHeightTerrainToolControl.BrushArea;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of one step of the smooth brush: the previous implementation which read five heights of each point
+ * through the terrain and changed each point separately against the brush kernel over the array of heights which
+ * changes all points in one batch.
+ *
+ * @author JavaSaBr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SmoothBrushBenchmark {
+
+    private static final int TERRAIN_SIZE = 1025;
+
+    private static final float POWER = 0.5F;
+
+    /**
+     * The radius of the brush in points of the terrain.
+     */
+    @Param({"8", "32", "64", "128", "256"})
+    private int radius;
+
+    private TerrainQuad terrain;
+
+    private BrushArea area;
+
+    @Setup
+    public void setup() {
+
+        final float[] heightMap = new float[TERRAIN_SIZE * TERRAIN_SIZE];
+        final Random random = new Random(1);
+
+        for (int i = 0; i < heightMap.length; i++) {
+            heightMap[i] = random.nextFloat() * 10F;
+        }
+
+        terrain = new TerrainQuad("terrain", 65, TERRAIN_SIZE, heightMap);
+        area = new BrushArea();
+    }
+
+    @Benchmark
+    public void perPoint() {
+
+        final Vector2f terrainLoc = new Vector2f();
+        final Vector2f terrainLocLeft = new Vector2f();
+        final Vector2f terrainLocRight = new Vector2f();
+        final Vector2f terrainLocUp = new Vector2f();
+        final Vector2f terrainLocDown = new Vector2f();
+
+        final float radiusSquared = radius * radius;
+
+        for (int z = -radius; z < radius; z++) {
+            for (int x = -radius; x < radius; x++) {
+
+                if (x * x + z * z > radiusSquared) {
+                    continue;
+                }
+
+                terrainLoc.set(x, z);
+                terrainLocLeft.set(x - 1, z);
+                terrainLocRight.set(x + 1, z);
+                terrainLocUp.set(x, z + 1);
+                terrainLocDown.set(x, z - 1);
+
+                final float center = terrain.getHeightmapHeight(terrainLoc);
+                final float left = terrain.getHeightmapHeight(terrainLocLeft);
+                final float right = terrain.getHeightmapHeight(terrainLocRight);
+                final float up = terrain.getHeightmapHeight(terrainLocUp);
+                final float down = terrain.getHeightmapHeight(terrainLocDown);
+
+                final float amount = (center + left + right + up + down) / 5;
+
+                terrain.setHeight(terrainLoc.clone(), center + (amount - center) * POWER);
+            }
+        }
+
+        terrain.updateModelBound();
+    }
+
+    @Benchmark
+    public void kernel() {
+
+        final int halfSize = TERRAIN_SIZE / 2;
+
+        area.prepare(halfSize, halfSize, radius, radius, Vector3f.UNIT_XYZ, radius);
+
+        ChangeHeightTerrainToolControl.calculate(terrain, area,
+                (target, fromRow, toRow) -> SmoothTerrainToolControl.smooth(target, fromRow, toRow, POWER));
+
+        final float[] result = area.getResult();
+        final List<Vector2f> locs = new ArrayList<>();
+        final List<Float> heights = new ArrayList<>();
+
+        for (int z = 0, sizeZ = area.getSizeZ(), sizeX = area.getSizeX(); z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++) {
+
+                final float newHeight = result[area.getIndex(x, z)];
+                if (Float.isNaN(newHeight)) continue;
+
+                locs.add(new Vector2f(x - radius, z - radius));
+                heights.add(newHeight);
+            }
+        }
+
+        terrain.setHeight(locs, heights);
+        terrain.updateModelBound();
+    }
+}
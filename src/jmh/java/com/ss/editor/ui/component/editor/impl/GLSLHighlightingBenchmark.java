@@ -0,0 +1,86 @@
+package com.ss.editor.ui.component.editor.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of highlighting a large GLSL file after typing a symbol in the middle of the file: highlighting the
+ * whole text like before against highlighting only the changed lines.
+ *
+ * @author JavaSaBr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GLSLHighlightingBenchmark {
+
+    private static final String[] SOURCES = {
+            "Common/ShaderLib/Shadows.glsllib",
+            "Common/MatDefs/Light/PBRLighting.frag",
+            "Common/MatDefs/Light/SPLighting.frag",
+            "Common/MatDefs/Light/Lighting.frag",
+            "Common/ShaderLib/PBR.glsllib",
+            "Common/MatDefs/Light/Lighting.vert",
+    };
+
+    /**
+     * The count of lines of the highlighted text.
+     */
+    @Param({"3000", "10000"})
+    private int lines;
+
+    private String text;
+
+    private int position;
+
+    @Setup
+    public void setup() throws IOException {
+
+        final StringBuilder builder = new StringBuilder();
+        final ClassLoader classLoader = getClass().getClassLoader();
+
+        for (int count = 0; count < lines; ) {
+            for (final String source : SOURCES) {
+                try (final InputStream in = classLoader.getResourceAsStream(source)) {
+                    final String content = IOUtils.toString(in, "UTF-8");
+                    builder.append(content).append('\n');
+                    count += content.split("\n", -1).length;
+                }
+            }
+        }
+
+        position = builder.indexOf("\n", builder.length() / 2) + 1;
+        text = builder.insert(position, 'a').toString();
+    }
+
+    @Benchmark
+    public Object wholeText() {
+        return GLSLFileEditor.computeHighlighting(text);
+    }
+
+    @Benchmark
+    public Object changedLines() {
+
+        final int start = CodeAreaFileEditor.getHighlightingStart(text, position);
+        final int end = CodeAreaFileEditor.getHighlightingEnd(text, position + 1);
+
+        return GLSLFileEditor.computeHighlighting(text.substring(start, end));
+    }
+}
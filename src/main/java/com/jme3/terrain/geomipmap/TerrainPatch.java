@@ -50,6 +50,7 @@ import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.terrain.geomipmap.TerrainQuad.LocationHeight;
 import com.jme3.terrain.geomipmap.lodcalc.util.EntropyComputeUtil;
 import com.jme3.util.BufferUtils;
+import com.jme3.util.TempVars;
 import com.jme3.util.clone.Cloner;
 import java.io.IOException;
 import java.nio.Buffer;
@@ -83,6 +84,9 @@ import java.util.List;
 public class TerrainPatch extends Geometry {
 
     protected LODGeomap geomap;
+
+    // true if the height array is shared with a clone, so it is copied before the next change
+    protected boolean sharedHeights;
     protected int lod = 0; // this terrain patch's LOD
     private int maxLod = -1;
     protected int previousLod = -1;
@@ -115,6 +119,15 @@ public class TerrainPatch extends Geometry {
 
     protected float[] lodEntropy;
 
+    // the area of the heightmap which was changed after the last normals update, empty if minX > maxX
+    protected int dirtyMinX = 0, dirtyMinZ = 0, dirtyMaxX = -1, dirtyMaxZ = -1;
+
+    // the area of the normals which was updated but wasn't matched with the neighbours yet, empty if minX > maxX
+    protected int edgeMinX = 0, edgeMinZ = 0, edgeMaxX = -1, edgeMaxZ = -1;
+
+    // the world scale which was used to calculate the current normals, null if they need a full update
+    protected Vector3f normalScale;
+
     public TerrainPatch() {
         super("TerrainPatch");
         setBatchHint(BatchHint.Never);
@@ -301,12 +314,23 @@ public class TerrainPatch extends Geometry {
         return geomap.getGridTrianglesAtPoint(x, z, getWorldScale() , getWorldTranslation());
     }
 
+    /**
+     * Changes the heights and rewrites the Y values of only the changed area of the position buffer.
+     * The changed area is remembered to recalculate only its normals in {@link #updateNormals()}.
+     */
     protected void setHeight(List<LocationHeight> locationHeights, boolean overrideHeight) {
 
+        if (sharedHeights) {
+            geomap = new LODGeomap(size, geomap.getHeightArray().clone());
+            sharedHeights = false;
+        }
+
         final float[] heightArray = geomap.getHeightArray();
         final VertexBuffer vertexBuffer = mesh.getBuffer(Type.Position);
         final FloatBuffer floatBuffer = mesh.getFloatBuffer(Type.Position);
 
+        int minX = size, minZ = size, maxX = -1, maxZ = -1;
+
         for (LocationHeight lh : locationHeights) {
 
             if (lh.x < 0 || lh.z < 0 || lh.x >= size || lh.z >= size) {
@@ -321,18 +345,123 @@ public class TerrainPatch extends Geometry {
                 float currentHeight = floatBuffer.get(idx * 3 + 1);
                 heightArray[idx] = currentHeight + lh.h;
             }
+
+            minX = Math.min(minX, lh.x);
+            minZ = Math.min(minZ, lh.z);
+            maxX = Math.max(maxX, lh.x);
+            maxZ = Math.max(maxZ, lh.z);
+        }
+
+        if (maxX < 0) {
+            return;
+        }
+
+        // only Y values depend on the heights, see GeoMap.writeVertexArray
+        final float scaleY = stepScale.y;
+
+        for (int z = minZ; z <= maxZ; z++) {
+            for (int x = minX; x <= maxX; x++) {
+                int idx = z * size + x;
+                floatBuffer.put(idx * 3 + 1, heightArray[idx] * scaleY);
+            }
         }
 
-        floatBuffer.clear();
-        geomap.writeVertexArray(floatBuffer, stepScale, false);
         vertexBuffer.setUpdateNeeded();
+
+        if (dirtyMinX > dirtyMaxX) {
+            dirtyMinX = minX;
+            dirtyMinZ = minZ;
+            dirtyMaxX = maxX;
+            dirtyMaxZ = maxZ;
+        } else {
+            dirtyMinX = Math.min(dirtyMinX, minX);
+            dirtyMinZ = Math.min(dirtyMinZ, minZ);
+            dirtyMaxX = Math.max(dirtyMaxX, maxX);
+            dirtyMaxZ = Math.max(dirtyMaxZ, maxZ);
+        }
     }
 
     /**
-     * recalculate all of the normal vectors in this terrain patch
+     * recalculate the normal vectors in this terrain patch.
+     *
+     * Only the normals around the area changed by setHeight are recalculated, all of them are recalculated
+     * only the first time or when the world scale was changed.
      */
     protected void updateNormals() {
 
+        final Vector3f scale = getWorldScale();
+
+        if (normalScale == null || !normalScale.equals(scale)) {
+            updateAllNormals();
+            normalScale = scale.clone();
+            dirtyMinX = dirtyMinZ = 0;
+            dirtyMaxX = dirtyMaxZ = -1;
+            edgeMinX = edgeMinZ = 0;
+            edgeMaxX = edgeMaxZ = size - 1;
+            return;
+        } else if (dirtyMinX > dirtyMaxX) {
+            return;
+        }
+
+        // a normal depends on the heights of the neighbour vertices
+        final int minX = Math.max(dirtyMinX - 1, 0);
+        final int minZ = Math.max(dirtyMinZ - 1, 0);
+        final int maxX = Math.min(dirtyMaxX + 1, size - 1);
+        final int maxZ = Math.min(dirtyMaxZ + 1, size - 1);
+
+        dirtyMinX = dirtyMinZ = 0;
+        dirtyMaxX = dirtyMaxZ = -1;
+
+        final Mesh mesh = getMesh();
+        final VertexBuffer normalVertexBuffer = mesh.getBuffer(Type.Normal);
+        final VertexBuffer tangentVertexBuffer = mesh.getBuffer(Type.Tangent);
+        final VertexBuffer binormalVertexBuffer = mesh.getBuffer(Type.Binormal);
+
+        final FloatBuffer normalData = (FloatBuffer) normalVertexBuffer.getData();
+        final FloatBuffer tangentData = (FloatBuffer) tangentVertexBuffer.getData();
+        final FloatBuffer binormalData = (FloatBuffer) binormalVertexBuffer.getData();
+
+        final float[] heightArray = geomap.getHeightArray();
+
+        TempVars vars = TempVars.get();
+        try {
+
+            Vector3f normal = vars.vect1;
+            Vector3f tangent = vars.vect2;
+            Vector3f binormal = vars.vect3;
+
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+
+                    calculateVertexNormal(heightArray, x, z, scale, normal);
+
+                    // the same as LODGeomap.writeTangentArray
+                    normal.cross(Vector3f.UNIT_Z, tangent).normalizeLocal();
+                    Vector3f.UNIT_X.cross(normal, binormal).normalizeLocal();
+
+                    int idx = (z * size + x) * 3;
+                    putInBuffer(normal, normalData, idx);
+                    putInBuffer(tangent, tangentData, idx);
+                    putInBuffer(binormal, binormalData, idx);
+                }
+            }
+
+        } finally {
+            vars.release();
+        }
+
+        normalVertexBuffer.setUpdateNeeded();
+        tangentVertexBuffer.setUpdateNeeded();
+        binormalVertexBuffer.setUpdateNeeded();
+
+        markEdgesChanged(minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * recalculate all of the normal vectors in this terrain patch
+     */
+    protected void updateAllNormals() {
+
         final Mesh mesh = getMesh();
         final VertexBuffer normalVertexBuffer = mesh.getBuffer(Type.Normal);
         final VertexBuffer tangentVertexBuffer = mesh.getBuffer(Type.Tangent);
@@ -360,6 +489,79 @@ public class TerrainPatch extends Geometry {
         binormalVertexBuffer.updateData(binormalData);
     }
 
+    /**
+     * Remembers the area of the normals which should be matched with the neighbours in fixNormalEdges.
+     */
+    private void markEdgesChanged(int minX, int minZ, int maxX, int maxZ) {
+        if (edgeMinX > edgeMaxX) {
+            edgeMinX = minX;
+            edgeMinZ = minZ;
+            edgeMaxX = maxX;
+            edgeMaxZ = maxZ;
+        } else {
+            edgeMinX = Math.min(edgeMinX, minX);
+            edgeMinZ = Math.min(edgeMinZ, minZ);
+            edgeMaxX = Math.max(edgeMaxX, maxX);
+            edgeMaxZ = Math.max(edgeMaxZ, maxZ);
+        }
+    }
+
+    /**
+     * Calculates the normal of the vertex the same way as LODGeomap.writeNormalArray: the sum of the normals
+     * of the quadrants around the vertex which exist in this patch.
+     */
+    private void calculateVertexNormal(float[] heights, int x, int z, Vector3f scale, Vector3f store) {
+
+        final float root = heights[z * size + x];
+
+        final boolean hasTop = z > 0;
+        final boolean hasBottom = z < size - 1;
+        final boolean hasLeft = x > 0;
+        final boolean hasRight = x < size - 1;
+
+        // the deltas from the root point to the neighbour points
+        final float topY = hasTop ? (heights[(z - 1) * size + x] - root) * scale.y : 0;
+        final float bottomY = hasBottom ? (heights[(z + 1) * size + x] - root) * scale.y : 0;
+        final float leftY = hasLeft ? (heights[z * size + x - 1] - root) * scale.y : 0;
+        final float rightY = hasRight ? (heights[z * size + x + 1] - root) * scale.y : 0;
+
+        store.set(0, 0, 0);
+
+        if (hasTop && hasLeft) {
+            addNormal(0, topY, -scale.z, -scale.x, leftY, 0, store);
+        }
+        if (hasLeft && hasBottom) {
+            addNormal(-scale.x, leftY, 0, 0, bottomY, scale.z, store);
+        }
+        if (hasBottom && hasRight) {
+            addNormal(0, bottomY, scale.z, scale.x, rightY, 0, store);
+        }
+        if (hasRight && hasTop) {
+            addNormal(scale.x, rightY, 0, 0, topY, -scale.z, store);
+        }
+
+        store.normalizeLocal();
+    }
+
+    /**
+     * Adds the normalized cross product of the two vectors to the store.
+     */
+    private static void addNormal(float x1, float y1, float z1, float x2, float y2, float z2, Vector3f store) {
+        float x3 = (y1 * z2) - (z1 * y2);
+        float y3 = (z1 * x2) - (x1 * z2);
+        float z3 = (x1 * y2) - (y1 * x2);
+        float inv = 1.0f / FastMath.sqrt(x3 * x3 + y3 * y3 + z3 * z3);
+        store.x += x3 * inv;
+        store.y += y3 * inv;
+        store.z += z3 * inv;
+    }
+
+    private static void putInBuffer(Vector3f vector, FloatBuffer buffer, int index) {
+        buffer.put(index, vector.x);
+        buffer.put(index + 1, vector.y);
+        buffer.put(index + 2, vector.z);
+    }
+
     private void setInBuffer(Mesh mesh, int index, Vector3f normal, Vector3f tangent, Vector3f binormal) {
         VertexBuffer NB = mesh.getBuffer(Type.Normal);
         VertexBuffer TB = mesh.getBuffer(Type.Tangent);
@@ -387,6 +589,10 @@ public class TerrainPatch extends Geometry {
      * It works across the right side of the patch, from the top down to
      * the bottom. Then it works on the bottom side of the patch, from the
      * left to the right.
+     *
+     * Only the sides which are touched by the normals updated in updateNormals
+     * are matched, and only in the updated range. The other sides are matched
+     * by the neighbours if their normals were updated.
      */
     protected void fixNormalEdges(TerrainPatch right,
                                   TerrainPatch bottom,
@@ -411,8 +617,21 @@ public class TerrainPatch extends Geometry {
 
         int s = this.getSize()-1;
 
-        if (right != null) { // right side,    works its way down
-            for (int i=0; i<s+1; i++) {
+        if (normalScale != null && edgeMinX > edgeMaxX) {
+            return; // nothing was changed after the last matching
+        }
+
+        final boolean full = normalScale == null;
+        final int minX = full ? 0 : edgeMinX;
+        final int minZ = full ? 0 : edgeMinZ;
+        final int maxX = full ? s : edgeMaxX;
+        final int maxZ = full ? s : edgeMaxZ;
+
+        edgeMinX = edgeMinZ = 0;
+        edgeMaxX = edgeMaxZ = -1;
+
+        if (right != null && maxX == s) { // right side,    works its way down
+            for (int i=minZ; i<=maxZ; i++) {
                 rootPoint.set(0, this.getHeightmapHeight(s,i), 0);
                 leftPoint.set(-1, this.getHeightmapHeight(s-1,i), 0);
                 rightPoint.set(1, right.getHeightmapHeight(1,i), 0);
@@ -464,8 +683,8 @@ public class TerrainPatch extends Geometry {
             }
         }
 
-        if (left != null) { // left side,    works its way down
-            for (int i=0; i<s+1; i++) {
+        if (left != null && minX == 0) { // left side,    works its way down
+            for (int i=minZ; i<=maxZ; i++) {
                 rootPoint.set(0, this.getHeightmapHeight(0,i), 0);
                 leftPoint.set(-1, left.getHeightmapHeight(s-1,i), 0);
                 rightPoint.set(1, this.getHeightmapHeight(1,i), 0);
@@ -519,8 +738,8 @@ public class TerrainPatch extends Geometry {
             }
         }
 
-        if (top != null) { // top side,    works its way right
-            for (int i=0; i<s+1; i++) {
+        if (top != null && minZ == 0) { // top side,    works its way right
+            for (int i=minX; i<=maxX; i++) {
                 rootPoint.set(0, this.getHeightmapHeight(i,0), 0);
                 topPoint.set(0, top.getHeightmapHeight(i,s-1), -1);
                 bottomPoint.set(0, this.getHeightmapHeight(i,1), 1);
@@ -543,8 +762,8 @@ public class TerrainPatch extends Geometry {
 
         }
 
-        if (bottom != null) { // bottom side,    works its way right
-            for (int i=0; i<s+1; i++) {
+        if (bottom != null && maxZ == s) { // bottom side,    works its way right
+            for (int i=minX; i<=maxX; i++) {
                 rootPoint.set(0, this.getHeightmapHeight(i,s), 0);
                 topPoint.set(0, this.getHeightmapHeight(i,s-1), -1);
                 bottomPoint.set(0, bottom.getHeightmapHeight(i,1), 1);
@@ -968,6 +1187,7 @@ public class TerrainPatch extends Geometry {
         //clone.lodCalculator.setTerrainPatch(clone);
         //clone.setLodCalculator(lodCalculatorFactory.clone());
         clone.geomap = new LODGeomap(size, geomap.getHeightArray());
+        clone.sharedHeights = sharedHeights = true;
         clone.setLocalTranslation(getLocalTranslation().clone());
         Mesh m = clone.geomap.createMesh(clone.stepScale, Vector2f.UNIT_XY, clone.offset, clone.offsetAmount, clone.totalSize, false);
         clone.setMesh(m);
@@ -990,9 +1210,17 @@ public class TerrainPatch extends Geometry {
         this.rightNeighbour = null;
         this.bottomNeighbour = null;
 
+        // the new mesh needs to calculate all normals
+        this.normalScale = null;
+        this.dirtyMinX = this.dirtyMinZ = this.edgeMinX = this.edgeMinZ = 0;
+        this.dirtyMaxX = this.dirtyMaxZ = this.edgeMaxX = this.edgeMaxZ = -1;
+
         // Don't feel like making geomap cloneable tonight
-        // so I'll copy the old logic.
+        // so I'll copy the old logic. The heights are shared until
+        // the original or the clone is changed, see setHeight.
         this.geomap = new LODGeomap(size, geomap.getHeightArray());
+        this.sharedHeights = true;
+        ((TerrainPatch) original).sharedHeights = true;
         Mesh m = geomap.createMesh(stepScale, Vector2f.UNIT_XY, offset, offsetAmount, totalSize, false);
         this.setMesh(m);
 
@@ -1241,6 +1241,11 @@ public class Image extends NativeObject implements Savable /*, Cloneable*/ {
 
     private int changes;
 
+    /**
+     * The count of changes at the moment of the last saving.
+     */
+    private int savedChanges;
+
     /**
      * Increment change.
      */
@@ -1261,13 +1266,32 @@ public class Image extends NativeObject implements Savable /*, Cloneable*/ {
      * @return the boolean
      */
     public boolean isChanged() {
-        return changes != 0;
+        return changes != savedChanges;
+    }
+
+    /**
+     * Gets changes.
+     *
+     * @return the count of changes.
+     */
+    public int getChanges() {
+        return changes;
     }
 
     /**
      * Clear changes.
      */
     public void clearChanges() {
-        changes = 0;
+        savedChanges = changes;
+    }
+
+    /**
+     * Mark the state with the count of changes as saved. The count isn't subtracted, so changes and undo made while
+     * saving keep the image changed.
+     *
+     * @param changes the count of changes of the saved state.
+     */
+    public void clearChanges(final int changes) {
+        this.savedChanges = changes;
     }
 }
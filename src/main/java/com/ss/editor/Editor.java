@@ -35,6 +35,7 @@ import com.ss.editor.config.EditorConfig;
 import com.ss.editor.executor.impl.JMEThreadExecutor;
 import com.ss.editor.extension.loader.SceneLoader;
 import com.ss.editor.manager.ExecutorManager;
+import com.ss.editor.manager.ResourceManager;
 import com.ss.editor.manager.WorkspaceManager;
 import com.ss.editor.ui.event.FXEventManager;
 import com.ss.editor.ui.event.impl.WindowChangeFocusEvent;
@@ -242,6 +243,9 @@ public class Editor extends JmeToJFXApplication {
         final WorkspaceManager workspaceManager = WorkspaceManager.getInstance();
         workspaceManager.save();
 
+        final ResourceManager resourceManager = ResourceManager.getInstance();
+        resourceManager.flushAssetIndex();
+
         System.exit(0);
     }
 
@@ -11,6 +11,7 @@ import com.jme3x.jfx.injfx.JmeToJFXApplication;
 import com.jme3x.jfx.injfx.processor.FrameTransferSceneProcessor;
 import com.ss.editor.analytics.google.GAEvent;
 import com.ss.editor.analytics.google.GAnalytics;
+import com.ss.editor.annotation.BackgroundThread;
 import com.ss.editor.annotation.FXThread;
 import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.config.CommandLineConfig;
@@ -30,14 +31,15 @@ import com.ss.editor.ui.css.CSSRegistry;
 import com.ss.editor.ui.dialog.ConfirmDialog;
 import com.ss.editor.ui.scene.EditorFXScene;
 import com.ss.editor.util.OpenGLVersion;
+import com.ss.editor.util.StartupTrace;
 import com.ss.editor.util.svg.SvgImageLoaderFactory;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
-import com.ss.rlib.manager.InitializeManager;
 import com.ss.rlib.util.ArrayUtils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
 import com.ss.rlib.util.array.ConcurrentArray;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
@@ -53,6 +55,7 @@ import javax.imageio.ImageIO;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The starter of the JavaFX application.
@@ -94,9 +97,13 @@ public class JFXApplication extends Application {
      * Main.
      *
      * @param args the args
-     * @throws IOException the io exception
+     * @throws IOException          the io exception
+     * @throws InterruptedException if the main thread was interrupted while initializing managers
      */
-    public static void main(final String[] args) throws IOException {
+    public static void main(final String[] args) throws IOException, InterruptedException {
+
+        final StartupTrace trace = StartupTrace.getInstance();
+        final long begin = trace.begin();
 
         // need to disable to work on macos
         Configuration.GLFW_CHECK_THREAD0.set(false);
@@ -143,13 +150,22 @@ public class JFXApplication extends Application {
             return;
         }
 
-        InitializeManager.register(ClasspathManager.class);
-        InitializeManager.register(ResourceManager.class);
-        InitializeManager.register(JavaFXImageManager.class);
-        InitializeManager.register(FileIconManager.class);
-        InitializeManager.register(WorkspaceManager.class);
-        InitializeManager.register(PluginManager.class);
-        InitializeManager.initialize();
+        trace.end("prepare to start", begin);
+
+        final long initBegin = trace.begin();
+
+        // plugins can use any manager while initializing, so they are initialized last
+        final ManagerInitializer initializer = new ManagerInitializer();
+        initializer.register(ClasspathManager.class, ClasspathManager::getInstance);
+        initializer.register(ResourceManager.class, ResourceManager::getInstance, ClasspathManager.class);
+        initializer.register(JavaFXImageManager.class, JavaFXImageManager::getInstance);
+        initializer.register(FileIconManager.class, FileIconManager::getInstance);
+        initializer.register(WorkspaceManager.class, WorkspaceManager::getInstance);
+        initializer.register(PluginManager.class, PluginManager::getInstance, ClasspathManager.class,
+                ResourceManager.class, JavaFXImageManager.class, FileIconManager.class, WorkspaceManager.class);
+        initializer.initialize();
+
+        trace.end("initialize managers", initBegin);
 
         new EditorThread(new ThreadGroup("LWJGL"),
                 () -> startJMEApplication(application), "LWJGL Render").start();
@@ -215,6 +231,12 @@ public class JFXApplication extends Application {
     @Nullable
     private volatile FrameTransferSceneProcessor sceneProcessor;
 
+    /**
+     * The future of reloading resources of the current asset folder after the first frame.
+     */
+    @NotNull
+    private final CompletableFuture<Void> reloadedResources;
+
     /**
      * The stage.
      */
@@ -223,6 +245,7 @@ public class JFXApplication extends Application {
 
     public JFXApplication() {
         this.openedWindows = ArrayFactory.newConcurrentStampedLockArray(Window.class);
+        this.reloadedResources = new CompletableFuture<>();
     }
 
     /**
@@ -261,8 +284,8 @@ public class JFXApplication extends Application {
         addWindow(stage);
         try {
 
-            final ResourceManager resourceManager = ResourceManager.getInstance();
-            resourceManager.reload();
+            final StartupTrace trace = StartupTrace.getInstance();
+            final long begin = trace.begin();
 
             final PluginManager pluginManager = PluginManager.getInstance();
             pluginManager.onBeforeCreateJavaFXContext();
@@ -306,12 +329,47 @@ public class JFXApplication extends Application {
 
             buildScene();
 
+            trace.end("build the first window", begin);
+
+            // the asset folder is reloaded after the first frame to not delay showing the window
+            new AnimationTimer() {
+
+                @Override
+                public void handle(final long now) {
+                    stop();
+                    trace.mark("first frame");
+                    final ExecutorManager executorManager = ExecutorManager.getInstance();
+                    executorManager.addBackgroundTask(JFXApplication.this::reloadResources);
+                }
+
+            }.start();
+
         } catch (final Throwable e) {
             LOGGER.error(this, e);
             throw e;
         }
     }
 
+    /**
+     * Reload resources of the current asset folder and write the trace of starting.
+     */
+    @BackgroundThread
+    private void reloadResources() {
+
+        final StartupTrace trace = StartupTrace.getInstance();
+        final long begin = trace.begin();
+        try {
+            final ResourceManager resourceManager = ResourceManager.getInstance();
+            resourceManager.reload();
+        } catch (final RuntimeException e) {
+            LOGGER.warning(e);
+        } finally {
+            trace.end("reload resources", begin);
+            trace.write();
+            reloadedResources.complete(null);
+        }
+    }
+
     @Override
     public void stop() throws Exception {
         super.stop();
@@ -330,8 +388,11 @@ public class JFXApplication extends Application {
         final EditorConfig config = EditorConfig.getInstance();
         config.save();
 
+        final JavaFXImageManager imageManager = JavaFXImageManager.getInstance();
+        imageManager.flushCache();
+
         final JMEThreadExecutor executor = JMEThreadExecutor.getInstance();
-        executor.addToExecute(() -> {
+        executor.addUrgentToExecute(() -> {
             final Editor editor = Editor.getInstance();
             editor.destroy();
         });
@@ -406,7 +467,8 @@ public class JFXApplication extends Application {
             editor.setPaused(editorConfig.isStopRenderOnLostFocus() && !newValue);
         });
 
-        Platform.runLater(scene::notifyFinishBuild);
+        // opened files are restored only when resources of the asset folder are reloaded
+        reloadedResources.thenRun(() -> Platform.runLater(scene::notifyFinishBuild));
     }
 
     /**
@@ -106,6 +106,10 @@ public class Messages {
      * The constant ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_FILE.
      */
     public static final String ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_FILE;
+    /**
+     * The constant ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_MODELS.
+     */
+    public static final String ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_MODELS;
     /**
      * The constant ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_OPEN_FILE_BY_EXTERNAL_EDITOR.
      */
@@ -2229,6 +2233,22 @@ public class Messages {
      * The constant MODEL_CONVERTER_DIALOG_BUTTON_OK.
      */
     public static final String MODEL_CONVERTER_DIALOG_BUTTON_OK;
+    /**
+     * The constant MODEL_CONVERTER_DIALOG_BATCH_TITLE.
+     */
+    public static final String MODEL_CONVERTER_DIALOG_BATCH_TITLE;
+    /**
+     * The constant MODEL_CONVERTER_DIALOG_SKIP_UNCHANGED.
+     */
+    public static final String MODEL_CONVERTER_DIALOG_SKIP_UNCHANGED;
+    /**
+     * The constant MODEL_CONVERTER_DIALOG_PROGRESS.
+     */
+    public static final String MODEL_CONVERTER_DIALOG_PROGRESS;
+    /**
+     * The constant MODEL_CONVERTER_DIALOG_SUMMARY.
+     */
+    public static final String MODEL_CONVERTER_DIALOG_SUMMARY;
 
     /**
      * The constant FILE_DELETE_HANDLER_DELETE_MATERIALS.
@@ -2349,6 +2369,7 @@ public class Messages {
         ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_DELETE_FILE = bundle.getString("AssetComponentResourceTreeContextMenuDeleteFile");
         ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_DELETE_FILE_QUESTION = bundle.getString("AssetComponentResourceTreeContextMenuDeleteFileQuestion");
         ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_FILE = bundle.getString("AssetComponentResourceTreeContextMenuConvertFile");
+        ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_MODELS = bundle.getString("AssetComponentResourceTreeContextMenuConvertModels");
         ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_OPEN_FILE_BY_EXTERNAL_EDITOR = bundle.getString("AssetComponentResourceTreeContextMenuOpenFileByExternalEditor");
         ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_RENAME_FILE = bundle.getString("AssetComponentResourceTreeContextMenuRenameFile");
 
@@ -2919,6 +2940,10 @@ public class Messages {
         MODEL_CONVERTER_DIALOG_MATERIAL_FOLDER = bundle.getString("ModelConverterDialogMaterialsFolder");
         MODEL_CONVERTER_DIALOG_OVERWRITE_MATERIALS = bundle.getString("ModelConverterDialogOverwriteMaterials");
         MODEL_CONVERTER_DIALOG_BUTTON_OK = bundle.getString("ModelConverterDialogButtonOk");
+        MODEL_CONVERTER_DIALOG_BATCH_TITLE = bundle.getString("ModelConverterDialogBatchTitle");
+        MODEL_CONVERTER_DIALOG_SKIP_UNCHANGED = bundle.getString("ModelConverterDialogSkipUnchanged");
+        MODEL_CONVERTER_DIALOG_PROGRESS = bundle.getString("ModelConverterDialogProgress");
+        MODEL_CONVERTER_DIALOG_SUMMARY = bundle.getString("ModelConverterDialogSummary");
 
         FILE_DELETE_HANDLER_DELETE_MATERIALS = bundle.getString("FileDeleteHandlerDeleteMaterials");
 
@@ -0,0 +1,32 @@
+package com.ss.editor.executor;
+
+/**
+ * The priority lanes of background tasks.
+ *
+ * @author JavaSaBr
+ */
+public enum TaskPriority {
+    /**
+     * Tasks which are started by the user and the user waits their results.
+     */
+    INTERACTIVE,
+    /**
+     * Tasks to build previews of files.
+     */
+    PREVIEW,
+    /**
+     * Long tasks to process a lot of data, like converting or importing models.
+     */
+    BULK;
+
+    private static final TaskPriority[] VALUES = values();
+
+    /**
+     * Get all priorities ordered from the highest.
+     *
+     * @return the priorities.
+     */
+    public static TaskPriority[] all() {
+        return VALUES;
+    }
+}
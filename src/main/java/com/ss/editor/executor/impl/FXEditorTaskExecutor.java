@@ -2,118 +2,95 @@ package com.ss.editor.executor.impl;
 
 import com.ss.editor.annotation.FXThread;
 import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.EditorTaskExecutor;
 import com.ss.editor.util.EditorUtil;
 import com.sun.javafx.application.PlatformImpl;
 
 import org.jetbrains.annotations.NotNull;
 
-import com.ss.rlib.concurrent.util.ConcurrentUtils;
-import com.ss.rlib.concurrent.util.ThreadUtils;
-import com.ss.rlib.util.array.Array;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * The executor to execute tasks in the FX UI Thread.
+ * The executor to execute tasks in the FX UI Thread. Tasks are added to a lock-free queue by any threads and are
+ * drained in the FX UI Thread by bounded batches, each next batch is executed in a next pulse of the FX UI Thread.
  *
  * @author JavaSaBr
  */
-public class FXEditorTaskExecutor extends AbstractEditorTaskExecutor {
+public class FXEditorTaskExecutor implements EditorTaskExecutor {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(EditorTaskExecutor.class);
 
     private static final int EXECUTE_LIMIT = 300;
 
     /**
-     * The task for executing editor tasks in the FX UI Thread.
+     * The queue of task to execute.
+     */
+    @NotNull
+    private final Queue<Runnable> waitTasks;
+
+    /**
+     * True if draining of the queue is scheduled in the FX UI Thread.
      */
     @NotNull
-    private final Runnable fxTask = () -> doExecute(execute, executed);
+    private final AtomicBoolean scheduled;
+
+    /**
+     * True if the FX UI Thread is started.
+     */
+    private volatile boolean started;
 
     /**
      * Instantiates a new Fx editor task executor.
      */
     public FXEditorTaskExecutor() {
-        setName(FXEditorTaskExecutor.class.getSimpleName());
-        setPriority(NORM_PRIORITY);
-        PlatformImpl.startup(this::start);
+        this.waitTasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+        PlatformImpl.startup(this::onStarted);
     }
 
-    @Override
     @FXThread
-    protected void doExecute(@NotNull final Array<Runnable> execute, @NotNull final Array<Runnable> executed) {
-
-        final Runnable[] array = execute.array();
-
-        for (int i = 0, length = execute.size(); i < length; ) {
-            try {
-
-                for (int count = 0; count < EXECUTE_LIMIT && i < length; count++, i++) {
-
-                    final Runnable task = array[i];
-                    try {
-                        task.run();
-                    } catch (final Exception e) {
-                        EditorUtil.handleException(LOGGER, this, e);
-                    }
-
-                    executed.add(task);
-                }
-
-            } catch (final Exception e) {
-                LOGGER.warning(e);
-            }
-        }
+    private void onStarted() {
+        started = true;
+        schedule();
     }
 
-
     @Override
-    public void run() {
-        while (true) {
-
-            executed.clear();
-            execute.clear();
-
-            lock();
-            try {
+    @FromAnyThread
+    public void execute(@NotNull final Runnable task) {
+        waitTasks.add(task);
+        if (started) schedule();
+    }
 
-                if (waitTasks.isEmpty()) {
-                    wait.getAndSet(true);
-                } else {
-                    execute.addAll(waitTasks);
-                }
+    @FromAnyThread
+    private void schedule() {
+        if (waitTasks.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+        PlatformImpl.runLater(this::drain);
+    }
 
-            } finally {
-                unlock();
-            }
+    @FXThread
+    private void drain() {
 
-            if (wait.get()) {
-                synchronized (wait) {
-                    if (wait.get()) {
-                        ConcurrentUtils.waitInSynchronize(wait);
-                    }
-                }
-            }
+        for (int count = 0; count < EXECUTE_LIMIT; count++) {
 
-            if (execute.isEmpty()) continue;
-            executeInFXUIThread();
-            if (executed.isEmpty()) continue;
+            final Runnable task = waitTasks.poll();
+            if (task == null) break;
 
-            lock();
             try {
-                waitTasks.removeAll(executed);
-            } finally {
-                unlock();
+                task.run();
+            } catch (final Exception e) {
+                EditorUtil.handleException(LOGGER, this, e);
             }
         }
-    }
 
-    @FromAnyThread
-    private void executeInFXUIThread() {
-        while (true) {
-            try {
-                PlatformImpl.runAndWait(fxTask);
-                break;
-            } catch (final IllegalStateException e) {
-                LOGGER.warning(this, e);
-                ThreadUtils.sleep(1000);
-            }
-        }
+        scheduled.set(false);
+
+        // the rest of tasks or tasks which were added during draining
+        schedule();
     }
 }
@@ -13,8 +13,12 @@ import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
 import com.ss.rlib.util.array.ConcurrentArray;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
 /**
- * The executor to execute tasks in the editor thread.
+ * The executor to execute tasks in the editor thread. Urgent tasks are executed in the next frame, other tasks are
+ * executed in order under the time budget of a frame and the rest of them are carried over to the next frames.
  *
  * @author JavaSaBr
  */
@@ -23,6 +27,11 @@ public class JMEThreadExecutor {
     @NotNull
     private static final Logger LOGGER = LoggerManager.getLogger(JMEThreadExecutor.class);
 
+    /**
+     * The time budget of a frame to execute deferrable tasks in ms.
+     */
+    private static final long PROP_FRAME_BUDGET = Long.getLong("editor.jme.taskFrameBudget", 4);
+
     @NotNull
     private static final JMEThreadExecutor INSTANCE = new JMEThreadExecutor();
 
@@ -35,6 +44,12 @@ public class JMEThreadExecutor {
         return INSTANCE;
     }
 
+    /**
+     * The list of waited urgent tasks.
+     */
+    @NotNull
+    private final ConcurrentArray<Runnable> urgentTasks;
+
     /**
      * The list of waited tasks.
      */
@@ -47,13 +62,42 @@ public class JMEThreadExecutor {
     @NotNull
     private final Array<Runnable> execute;
 
+    /**
+     * The queue of tasks which were carried over from previous frames.
+     */
+    @NotNull
+    private final ArrayDeque<Runnable> deferred;
+
+    /**
+     * The time budget of a frame in ns.
+     */
+    private final long frameBudget;
+
+    /**
+     * The count of tasks which are waiting to execute after the last frame.
+     */
+    private volatile int queueDepth;
+
+    /**
+     * The time which was spent to execute tasks in the last frame in ns.
+     */
+    private volatile long lastFrameTime;
+
+    /**
+     * The max time which was spent to execute tasks in a frame in ns.
+     */
+    private volatile long maxFrameTime;
+
     private JMEThreadExecutor() {
+        this.urgentTasks = ArrayFactory.newConcurrentAtomicARSWLockArray(Runnable.class);
         this.waitTasks = ArrayFactory.newConcurrentAtomicARSWLockArray(Runnable.class);
         this.execute = ArrayFactory.newArray(Runnable.class);
+        this.deferred = new ArrayDeque<>();
+        this.frameBudget = TimeUnit.MILLISECONDS.toNanos(PROP_FRAME_BUDGET);
     }
 
     /**
-     * Add a task to execute.
+     * Add a deferrable task to execute, the task can be executed in one of next frames.
      *
      * @param task the task.
      */
@@ -62,20 +106,107 @@ public class JMEThreadExecutor {
         ArrayUtils.runInWriteLock(waitTasks, task, (tasks, toAdd) -> tasks.add(task));
     }
 
+    /**
+     * Add an urgent task to execute, the task is executed in the next frame before all deferrable tasks.
+     *
+     * @param task the task.
+     */
+    @FromAnyThread
+    public void addUrgentToExecute(@NotNull final Runnable task) {
+        ArrayUtils.runInWriteLock(urgentTasks, task, (tasks, toAdd) -> tasks.add(task));
+    }
+
     /**
      * Execute waited tasks.
      */
     @JMEThread
     public void execute() {
-        if (waitTasks.isEmpty()) return;
+        if (urgentTasks.isEmpty() && waitTasks.isEmpty() && deferred.isEmpty()) {
+            lastFrameTime = 0;
+            return;
+        }
 
-        ArrayUtils.runInWriteLock(waitTasks, execute, ArrayUtils::move);
+        final long startTime = System.nanoTime();
+
+        if (!urgentTasks.isEmpty()) {
+
+            ArrayUtils.runInWriteLock(urgentTasks, execute, ArrayUtils::move);
+
+            try {
+                execute.forEach(JMEThreadExecutor::execute);
+            } finally {
+                execute.clear();
+            }
+        }
+
+        if (!waitTasks.isEmpty()) {
+            ArrayUtils.runInWriteLock(waitTasks, execute, ArrayUtils::move);
+
+            final Runnable[] array = execute.array();
+
+            for (int i = 0, length = execute.size(); i < length; i++) {
+                deferred.add(array[i]);
+            }
 
-        try {
-            execute.forEach(JMEThreadExecutor::execute);
-        } finally {
             execute.clear();
         }
+
+        final long deadline = startTime + frameBudget;
+
+        // at least one deferrable task is executed in each frame
+        for (Runnable task = deferred.poll(); task != null; task = deferred.poll()) {
+            execute(task);
+            if (System.nanoTime() >= deadline) break;
+        }
+
+        final long frameTime = System.nanoTime() - startTime;
+
+        lastFrameTime = frameTime;
+        queueDepth = deferred.size() + waitTasks.size();
+
+        if (frameTime > maxFrameTime) {
+            maxFrameTime = frameTime;
+        }
+    }
+
+    /**
+     * Get the count of tasks which were waiting to execute after the last frame.
+     *
+     * @return the count of waiting tasks.
+     */
+    @FromAnyThread
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Get the time which was spent to execute tasks in the last frame.
+     *
+     * @return the time in ns.
+     */
+    @FromAnyThread
+    public long getLastFrameTime() {
+        return lastFrameTime;
+    }
+
+    /**
+     * Get the max time which was spent to execute tasks in a frame.
+     *
+     * @return the time in ns.
+     */
+    @FromAnyThread
+    public long getMaxFrameTime() {
+        return maxFrameTime;
+    }
+
+    /**
+     * Check of saturation of the editor thread.
+     *
+     * @return true if some tasks were carried over to the next frame.
+     */
+    @FromAnyThread
+    public boolean isSaturated() {
+        return queueDepth > 0;
     }
 
     @JMEThread
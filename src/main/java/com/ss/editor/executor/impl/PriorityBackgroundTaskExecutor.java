@@ -0,0 +1,177 @@
+package com.ss.editor.executor.impl;
+
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.EditorTaskExecutor;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.util.EditorUtil;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The executor to execute tasks in the background using a shared work-stealing pool of threads. Tasks are taken
+ * from the priority lanes, so a task with a higher priority is started before all waiting tasks with lower
+ * priorities and a long task doesn't block other tasks while there are free threads.
+ *
+ * @author JavaSaBr
+ */
+public class PriorityBackgroundTaskExecutor implements EditorTaskExecutor {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(PriorityBackgroundTaskExecutor.class);
+
+    /**
+     * The task in a priority lane.
+     *
+     * @param <T> the type of a result.
+     */
+    private static final class LaneTask<T> {
+
+        /**
+         * The future of the result.
+         */
+        @NotNull
+        private final CompletableFuture<T> future;
+
+        /**
+         * The task.
+         */
+        @NotNull
+        private final Callable<T> task;
+
+        private LaneTask(@NotNull final Callable<T> task) {
+            this.task = task;
+            this.future = new CompletableFuture<>();
+        }
+
+        private void run() {
+
+            // the task was cancelled
+            if (future.isDone()) return;
+
+            try {
+                future.complete(task.call());
+            } catch (final Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * The lanes of waiting tasks by priorities.
+     */
+    @NotNull
+    private final Queue<LaneTask<?>>[] lanes;
+
+    /**
+     * The shared pool.
+     */
+    @NotNull
+    private final ForkJoinPool pool;
+
+    /**
+     * Instantiates a new priority background task executor.
+     *
+     * @param parallelism the count of threads.
+     */
+    public PriorityBackgroundTaskExecutor(final int parallelism) {
+
+        final TaskPriority[] priorities = TaskPriority.all();
+
+        @SuppressWarnings("unchecked")
+        final Queue<LaneTask<?>>[] lanes = new Queue[priorities.length];
+
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+        }
+
+        this.lanes = lanes;
+        this.pool = new ForkJoinPool(parallelism, PriorityBackgroundTaskExecutor::newWorker,
+                (thread, e) -> LOGGER.warning(thread, e), true);
+    }
+
+    @NotNull
+    private static ForkJoinWorkerThread newWorker(@NotNull final ForkJoinPool pool) {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(PriorityBackgroundTaskExecutor.class.getSimpleName() + "_" + thread.getPoolIndex());
+        thread.setPriority(Thread.NORM_PRIORITY - 2);
+        return thread;
+    }
+
+    @Override
+    @FromAnyThread
+    public void execute(@NotNull final Runnable task) {
+        execute(task, TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Add a new task with the priority.
+     *
+     * @param task     the task.
+     * @param priority the priority.
+     */
+    @FromAnyThread
+    public void execute(@NotNull final Runnable task, @NotNull final TaskPriority priority) {
+        submit(() -> {
+            try {
+                task.run();
+            } catch (final Exception e) {
+                EditorUtil.handleException(LOGGER, this, e);
+            }
+            return null;
+        }, priority);
+    }
+
+    /**
+     * Submit a new task with the priority. Cancelling of the returned future removes the task if it isn't started
+     * yet.
+     *
+     * @param <T>      the type of a result.
+     * @param task     the task.
+     * @param priority the priority.
+     * @return the future of the result.
+     */
+    @NotNull
+    @FromAnyThread
+    public <T> CompletableFuture<T> submit(@NotNull final Callable<T> task, @NotNull final TaskPriority priority) {
+
+        final LaneTask<T> laneTask = new LaneTask<>(task);
+
+        lanes[priority.ordinal()].add(laneTask);
+
+        // each added task is paired with one poll of the lanes, so all tasks are executed
+        pool.execute(this::pollAndRun);
+
+        return laneTask.future;
+    }
+
+    private void pollAndRun() {
+        for (final Queue<LaneTask<?>> lane : lanes) {
+
+            final LaneTask<?> task = lane.poll();
+
+            if (task != null) {
+                task.run();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the count of waiting tasks with the priority.
+     *
+     * @param priority the priority.
+     * @return the count of waiting tasks.
+     */
+    @FromAnyThread
+    public int getWaitingTasks(@NotNull final TaskPriority priority) {
+        return lanes[priority.ordinal()].size();
+    }
+}
@@ -0,0 +1,534 @@
+package com.ss.editor.file.cache;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The persistent storage of image previews.
+ * <p>
+ * All previews are kept in one data file, the index of the data file maps a key of a preview (the source and the size
+ * of the preview) to a region of the data file and the size/last modified time of the source at the moment when the
+ * preview was made. The index is ordered by access, so the least recently used previews are evicted when the total
+ * size of the previews exceeds the budget.
+ * <p>
+ * The data file is only appended to. Compaction writes a new generation of the data file, then the index which names
+ * the new generation replaces the old index atomically and only after that the old generation is deleted, so the
+ * index on the disk always points to the data file it was written for.
+ *
+ * @author JavaSaBr
+ */
+public class ImagePreviewCache {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(ImagePreviewCache.class);
+
+    @NotNull
+    private static final String DATA_FILE_PREFIX = "previews.";
+
+    @NotNull
+    private static final String DATA_FILE_SUFFIX = ".data";
+
+    @NotNull
+    private static final String INDEX_FILE = "previews.index";
+
+    /**
+     * The data file of the first version which wasn't versioned by generations.
+     */
+    @NotNull
+    private static final String LEGACY_DATA_FILE = "previews.data";
+
+    private static final int INDEX_VERSION = 2;
+
+    /**
+     * The entry of the index.
+     */
+    private static class Entry {
+
+        /**
+         * The source of the preview.
+         */
+        @NotNull
+        private final String source;
+
+        /**
+         * The size of the source.
+         */
+        private final long sourceSize;
+
+        /**
+         * The last modified time of the source.
+         */
+        private final long sourceModified;
+
+        /**
+         * The offset of the preview in the data file.
+         */
+        private final long offset;
+
+        /**
+         * The length of the preview in the data file.
+         */
+        private final int length;
+
+        private Entry(@NotNull final String source, final long sourceSize, final long sourceModified,
+                      final long offset, final int length) {
+            this.source = source;
+            this.sourceSize = sourceSize;
+            this.sourceModified = sourceModified;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The index of previews ordered by access.
+     */
+    @NotNull
+    private final LinkedHashMap<String, Entry> index;
+
+    /**
+     * The folder of this cache.
+     */
+    @NotNull
+    private final Path folder;
+
+    /**
+     * The max size of all previews in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * The channel of the data file.
+     */
+    @Nullable
+    private FileChannel channel;
+
+    /**
+     * The size of all live previews in the data file.
+     */
+    private long liveSize;
+
+    /**
+     * The size of the data file.
+     */
+    private long dataSize;
+
+    /**
+     * The generation of the data file.
+     */
+    private long generation;
+
+    /**
+     * True if the index was changed after the last flush.
+     */
+    private boolean dirty;
+
+    /**
+     * Instantiates a new image preview cache.
+     *
+     * @param folder  the folder to store the cache.
+     * @param maxSize the max size of all previews in bytes.
+     */
+    public ImagePreviewCache(@NotNull final Path folder, final long maxSize) {
+        this.folder = folder;
+        this.maxSize = maxSize;
+        this.index = new LinkedHashMap<>(64, 0.75F, true);
+        open();
+    }
+
+    /**
+     * Build a key of a preview.
+     *
+     * @param source the source of the preview.
+     * @param width  the width of the preview.
+     * @param height the height of the preview.
+     * @return the key.
+     */
+    @NotNull
+    @FromAnyThread
+    public static String toKey(@NotNull final String source, final int width, final int height) {
+        return source + '|' + width + 'x' + height;
+    }
+
+    /**
+     * Get the stored preview.
+     *
+     * @param key            the key of the preview.
+     * @param sourceSize     the current size of the source or -1.
+     * @param sourceModified the current last modified time of the source or -1.
+     * @return the content of the preview or null if the preview doesn't exist or is outdated.
+     */
+    @Nullable
+    @FromAnyThread
+    public synchronized byte[] get(@NotNull final String key, final long sourceSize, final long sourceModified) {
+
+        final Entry entry = index.get(key);
+        if (entry == null || channel == null) {
+            return null;
+        } else if (entry.sourceSize != sourceSize || entry.sourceModified != sourceModified) {
+            remove(key);
+            return null;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        try {
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.offset + buffer.position()) < 0) break;
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+            remove(key);
+            return null;
+        }
+
+        if (buffer.hasRemaining()) {
+            remove(key);
+            return null;
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Store a preview.
+     *
+     * @param key            the key of the preview.
+     * @param source         the source of the preview.
+     * @param sourceSize     the current size of the source or -1.
+     * @param sourceModified the current last modified time of the source or -1.
+     * @param content        the content of the preview.
+     */
+    @FromAnyThread
+    public synchronized void put(@NotNull final String key, @NotNull final String source, final long sourceSize,
+                                 final long sourceModified, @NotNull final byte[] content) {
+
+        if (channel == null || content.length > maxSize) return;
+
+        remove(key);
+
+        final long offset = dataSize;
+        final ByteBuffer buffer = ByteBuffer.wrap(content);
+        try {
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+            return;
+        }
+
+        index.put(key, new Entry(source, sourceSize, sourceModified, offset, content.length));
+
+        dataSize += content.length;
+        liveSize += content.length;
+        dirty = true;
+
+        evict();
+    }
+
+    /**
+     * Remove all previews of the source.
+     *
+     * @param source    the source.
+     * @param recursive true if need to remove all previews of sources which are inside the source.
+     */
+    @FromAnyThread
+    public synchronized void removeSource(@NotNull final String source, final boolean recursive) {
+
+        final String prefix = source.endsWith("/") ? source : source + "/";
+
+        for (final Iterator<Entry> iterator = index.values().iterator(); iterator.hasNext(); ) {
+
+            final Entry entry = iterator.next();
+
+            if (source.equals(entry.source) || (recursive && entry.source.startsWith(prefix))) {
+                iterator.remove();
+                liveSize -= entry.length;
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Write the index to the disk and compact the data file if it has too much dead space.
+     */
+    @FromAnyThread
+    public synchronized void flush() {
+        if (channel == null || !dirty) return;
+
+        if (dataSize - liveSize > Math.max(liveSize, maxSize / 4)) {
+            compact();
+        }
+
+        if (channel == null) return;
+
+        try {
+            channel.force(false);
+            writeIndex();
+            dirty = false;
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    /**
+     * Flush and close this cache.
+     */
+    @FromAnyThread
+    public synchronized void close() {
+        flush();
+        closeChannel();
+    }
+
+    private void remove(@NotNull final String key) {
+
+        final Entry removed = index.remove(key);
+        if (removed == null) return;
+
+        liveSize -= removed.length;
+        dirty = true;
+    }
+
+    private void evict() {
+
+        for (final Iterator<Entry> iterator = index.values().iterator(); liveSize > maxSize && iterator.hasNext(); ) {
+            liveSize -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private void open() {
+        try {
+
+            Files.createDirectories(folder);
+
+            readIndex();
+
+            channel = FileChannel.open(getDataFile(generation), CREATE, READ, WRITE);
+            dataSize = channel.size();
+
+            // the data file could be truncated after a crash
+            for (final Iterator<Entry> iterator = index.values().iterator(); iterator.hasNext(); ) {
+
+                final Entry entry = iterator.next();
+
+                if (entry.offset + entry.length > dataSize) {
+                    iterator.remove();
+                    liveSize -= entry.length;
+                }
+            }
+
+            evict();
+            deleteOtherGenerations();
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+            closeChannel();
+        }
+    }
+
+    private void readIndex() {
+
+        final Path indexFile = folder.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) return;
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+
+            if (in.readInt() != INDEX_VERSION) return;
+
+            final long generation = in.readLong();
+
+            for (int i = 0, count = in.readInt(); i < count; i++) {
+
+                final String key = in.readUTF();
+                final String source = in.readUTF();
+                final long sourceSize = in.readLong();
+                final long sourceModified = in.readLong();
+                final long offset = in.readLong();
+                final int length = in.readInt();
+
+                index.put(key, new Entry(source, sourceSize, sourceModified, offset, length));
+                liveSize += length;
+            }
+
+            this.generation = generation;
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read the index of previews, the cache will be reset.");
+            index.clear();
+            liveSize = 0;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        writeIndex(index, generation);
+    }
+
+    /**
+     * Replace the index on the disk atomically.
+     *
+     * @param index      the entries of the index.
+     * @param generation the generation of the data file which the entries point to.
+     * @throws IOException if the index can't be written.
+     */
+    private void writeIndex(@NotNull final LinkedHashMap<String, Entry> index, final long generation)
+            throws IOException {
+
+        final Path indexFile = folder.resolve(INDEX_FILE);
+        final Path tempFile = folder.resolve(INDEX_FILE + ".tmp");
+
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)))) {
+
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(generation);
+            out.writeInt(index.size());
+
+            // the access order is kept, so the least recently used previews are restored first
+            for (final Map.Entry<String, Entry> mapEntry : index.entrySet()) {
+                final Entry entry = mapEntry.getValue();
+                out.writeUTF(mapEntry.getKey());
+                out.writeUTF(entry.source);
+                out.writeLong(entry.sourceSize);
+                out.writeLong(entry.sourceModified);
+                out.writeLong(entry.offset);
+                out.writeInt(entry.length);
+            }
+        }
+
+        move(tempFile, indexFile);
+    }
+
+    private void compact() {
+        if (channel == null) return;
+
+        final long newGeneration = generation + 1;
+        final Path newDataFile = getDataFile(newGeneration);
+        final LinkedHashMap<String, Entry> newIndex = new LinkedHashMap<>(index.size() * 2, 0.75F, true);
+
+        long offset = 0;
+
+        try (final FileChannel target = FileChannel.open(newDataFile, CREATE, WRITE, TRUNCATE_EXISTING)) {
+
+            for (final Map.Entry<String, Entry> mapEntry : index.entrySet()) {
+
+                final Entry entry = mapEntry.getValue();
+
+                long transferred = 0;
+                while (transferred < entry.length) {
+                    transferred += channel.transferTo(entry.offset + transferred,
+                            entry.length - transferred, target);
+                }
+
+                newIndex.put(mapEntry.getKey(), new Entry(entry.source, entry.sourceSize,
+                        entry.sourceModified, offset, entry.length));
+
+                offset += entry.length;
+            }
+
+            target.force(false);
+
+            // the old generation stays valid until the new index is written
+            writeIndex(newIndex, newGeneration);
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+            deleteFile(newDataFile);
+            return;
+        }
+
+        closeChannel();
+        deleteFile(getDataFile(generation));
+
+        generation = newGeneration;
+        index.clear();
+        index.putAll(newIndex);
+        liveSize = offset;
+
+        try {
+            channel = FileChannel.open(newDataFile, CREATE, READ, WRITE);
+            dataSize = channel.size();
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+            index.clear();
+            liveSize = 0;
+        }
+    }
+
+    @NotNull
+    private Path getDataFile(final long generation) {
+        return folder.resolve(DATA_FILE_PREFIX + generation + DATA_FILE_SUFFIX);
+    }
+
+    /**
+     * Delete data files of other generations which were left after a crash or by old versions.
+     */
+    private void deleteOtherGenerations() throws IOException {
+
+        final Path dataFile = getDataFile(generation);
+
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(folder,
+                DATA_FILE_PREFIX + "*" + DATA_FILE_SUFFIX)) {
+
+            for (final Path file : stream) {
+                if (!file.equals(dataFile)) deleteFile(file);
+            }
+        }
+
+        deleteFile(folder.resolve(LEGACY_DATA_FILE));
+    }
+
+    private void deleteFile(@NotNull final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+        channel = null;
+    }
+
+    private static void move(@NotNull final Path source, @NotNull final Path target) throws IOException {
+        try {
+            Files.move(source, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, REPLACE_EXISTING);
+        }
+    }
+}
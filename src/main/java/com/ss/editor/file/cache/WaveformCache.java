@@ -0,0 +1,372 @@
+package com.ss.editor.file.cache;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.config.Config;
+import com.ss.editor.file.reader.Waveform;
+import com.ss.editor.util.EditorUtil;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The storage of waveforms of audio files. Each waveform is stored in a small separated file which is named by the
+ * hash of the content of the audio file, so a waveform is found again after moving or renaming the audio file.
+ * <p>
+ * The hash is computed only if the index of paths doesn't have the hash of the same path with the same size and last
+ * modified time. The total size of stored waveforms is limited, the least recently used waveforms are deleted, a
+ * waveform file is touched on each reading, so its last modified time is the time of the last use.
+ *
+ * @author JavaSaBr
+ */
+public class WaveformCache {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(WaveformCache.class);
+
+    @NotNull
+    private static final WaveformCache INSTANCE = new WaveformCache();
+
+    @NotNull
+    private static final String CACHE_FOLDER = "waveform-cache";
+
+    @NotNull
+    private static final String FILE_EXTENSION = ".peaks";
+
+    @NotNull
+    private static final String PATHS_INDEX_FILE = "paths.index";
+
+    private static final int CACHE_VERSION = 1;
+
+    private static final int PATHS_INDEX_VERSION = 1;
+
+    /**
+     * The max total size of stored waveforms in bytes.
+     */
+    private static final long MAX_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The max count of paths in the index of paths.
+     */
+    private static final int MAX_PATHS = 4096;
+
+    /**
+     * The hash of the content of an audio file with the size and last modified time of the file.
+     */
+    private static class PathEntry {
+
+        /**
+         * The hash of the content.
+         */
+        @NotNull
+        private final String hash;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private PathEntry(@NotNull final String hash, final long size, final long lastModified) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Gets instance.
+     *
+     * @return the instance
+     */
+    @NotNull
+    public static WaveformCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The folder of stored waveforms.
+     */
+    @NotNull
+    private final Path folder;
+
+    /**
+     * The index of hashes by paths of audio files ordered by access, it's loaded on first use.
+     */
+    @Nullable
+    private LinkedHashMap<String, PathEntry> paths;
+
+    /**
+     * The total size of stored waveforms or -1 if it isn't calculated yet.
+     */
+    private long storedSize;
+
+    private WaveformCache() {
+        this.folder = Config.getAppFolderInUserHome().resolve(CACHE_FOLDER);
+        this.storedSize = -1;
+    }
+
+    /**
+     * Get the hash of the content of the audio file. The hash is computed only if the file was changed after the
+     * last computing.
+     *
+     * @param file the audio file.
+     * @return the hash in hex format.
+     * @throws IOException if the file can't be read.
+     */
+    @NotNull
+    @BackgroundThread
+    public String getHash(@NotNull final Path file) throws IOException {
+
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        final String key = file.toAbsolutePath().toString();
+        final long size = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+
+            final PathEntry entry = getPaths().get(key);
+
+            if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+                return entry.hash;
+            }
+        }
+
+        final String hash = EditorUtil.computeHash(file);
+
+        synchronized (this) {
+            getPaths().put(key, new PathEntry(hash, size, lastModified));
+            writePaths();
+        }
+
+        return hash;
+    }
+
+    /**
+     * Get the stored waveform.
+     *
+     * @param hash the hash of the content of the audio file.
+     * @return the waveform or null if it isn't stored.
+     */
+    @Nullable
+    @BackgroundThread
+    public Waveform get(@NotNull final String hash) {
+
+        final Path file = folder.resolve(hash + FILE_EXTENSION);
+        if (!Files.exists(file)) return null;
+
+        final Waveform waveform;
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+
+            if (in.readInt() != CACHE_VERSION) return null;
+
+            final float duration = in.readFloat();
+            final byte[] peaks = new byte[in.readInt()];
+
+            in.readFully(peaks);
+
+            waveform = new Waveform(duration, peaks);
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read the stored waveform " + file + ", it will be computed again.");
+            return null;
+        }
+
+        // the last modified time is the time of the last use for evicting
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+
+        return waveform;
+    }
+
+    /**
+     * Store the waveform.
+     *
+     * @param hash     the hash of the content of the audio file.
+     * @param waveform the waveform.
+     */
+    @BackgroundThread
+    public void put(@NotNull final String hash, @NotNull final Waveform waveform) {
+
+        final Path file = folder.resolve(hash + FILE_EXTENSION);
+        final Path tempFile = folder.resolve(hash + FILE_EXTENSION + ".tmp");
+
+        try {
+
+            Files.createDirectories(folder);
+
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)))) {
+
+                final byte[] peaks = waveform.getPeaks();
+
+                out.writeInt(CACHE_VERSION);
+                out.writeFloat(waveform.getDuration());
+                out.writeInt(peaks.length);
+                out.write(peaks);
+            }
+
+            final long oldSize = Files.exists(file) ? Files.size(file) : 0;
+            final long newSize = Files.size(tempFile);
+
+            move(tempFile, file);
+
+            synchronized (this) {
+                if (storedSize >= 0) storedSize += newSize - oldSize;
+                evict();
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    /**
+     * Delete the least recently used waveforms until the total size is under the limit.
+     */
+    private void evict() throws IOException {
+
+        final List<Path> files = new ArrayList<>();
+
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*" + FILE_EXTENSION)) {
+            stream.forEach(files::add);
+        }
+
+        if (storedSize < 0) {
+
+            storedSize = 0;
+
+            for (final Path file : files) {
+                storedSize += Files.size(file);
+            }
+        }
+
+        if (storedSize <= MAX_SIZE) {
+            return;
+        }
+
+        final Map<Path, Long> lastModified = new HashMap<>();
+
+        for (final Path file : files) {
+            lastModified.put(file, Files.getLastModifiedTime(file).toMillis());
+        }
+
+        files.sort(Comparator.comparing(lastModified::get));
+
+        for (final Iterator<Path> iterator = files.iterator(); storedSize > MAX_SIZE && iterator.hasNext(); ) {
+            final Path file = iterator.next();
+            storedSize -= Files.size(file);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * @return the index of hashes by paths of audio files.
+     */
+    @NotNull
+    private LinkedHashMap<String, PathEntry> getPaths() {
+
+        if (paths == null) {
+            paths = new LinkedHashMap<String, PathEntry>(64, 0.75F, true) {
+
+                @Override
+                protected boolean removeEldestEntry(@NotNull final Map.Entry<String, PathEntry> eldest) {
+                    return size() > MAX_PATHS;
+                }
+            };
+            readPaths(paths);
+        }
+
+        return paths;
+    }
+
+    private void readPaths(@NotNull final LinkedHashMap<String, PathEntry> paths) {
+
+        final Path indexFile = folder.resolve(PATHS_INDEX_FILE);
+        if (!Files.exists(indexFile)) return;
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+
+            if (in.readInt() != PATHS_INDEX_VERSION) return;
+
+            for (int i = 0, count = in.readInt(); i < count; i++) {
+                final String path = in.readUTF();
+                final String hash = in.readUTF();
+                final long size = in.readLong();
+                final long lastModified = in.readLong();
+                paths.put(path, new PathEntry(hash, size, lastModified));
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read the index of paths, hashes will be computed again.");
+            paths.clear();
+        }
+    }
+
+    private void writePaths() {
+
+        final LinkedHashMap<String, PathEntry> paths = getPaths();
+        final Path indexFile = folder.resolve(PATHS_INDEX_FILE);
+        final Path tempFile = folder.resolve(PATHS_INDEX_FILE + ".tmp");
+
+        try {
+
+            Files.createDirectories(folder);
+
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)))) {
+
+                out.writeInt(PATHS_INDEX_VERSION);
+                out.writeInt(paths.size());
+
+                // the access order is kept, so the least recently used paths are restored first
+                for (final Map.Entry<String, PathEntry> mapEntry : paths.entrySet()) {
+                    final PathEntry entry = mapEntry.getValue();
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeUTF(entry.hash);
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.lastModified);
+                }
+            }
+
+            move(tempFile, indexFile);
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    private static void move(@NotNull final Path source, @NotNull final Path target) throws IOException {
+        try {
+            Files.move(source, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, REPLACE_EXISTING);
+        }
+    }
+}
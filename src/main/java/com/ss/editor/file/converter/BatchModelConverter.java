@@ -0,0 +1,656 @@
+package com.ss.editor.file.converter;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.ss.editor.FileExtensions;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.config.EditorConfig;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.file.converter.impl.AbstractModelFileConverter;
+import com.ss.editor.file.index.AssetIndex;
+import com.ss.editor.manager.ExecutorManager;
+import com.ss.editor.manager.ResourceManager;
+import com.ss.editor.util.EditorUtil;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.FileUtils;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.ConcurrentObjectDictionary;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.DictionaryUtils;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The converter of all model files of selected files and folders.
+ * <p>
+ * Model files are converted in parallel by a limited count of workers, so only the limited count of models are kept
+ * in memory at the same time. The structure of the selected files and folders is repeated in the destination folder
+ * and each model exports its materials to an own subfolder of the materials folder. A model which wasn't changed
+ * after the last converting to the same result file with the same settings is skipped, a model is changed if its
+ * file or a companion file (a file of the same folder which isn't a model, like .mtl, .bin or a texture) is changed.
+ *
+ * @author JavaSaBr
+ */
+public class BatchModelConverter {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(BatchModelConverter.class);
+
+    @NotNull
+    private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
+
+    @NotNull
+    private static final FileConverterRegistry FILE_CONVERTER_REGISTRY = FileConverterRegistry.getInstance();
+
+    /**
+     * The max count of models which are converted at the same time.
+     */
+    private static final int PROP_WORKERS = Integer.getInteger("editor.converter.batchWorkers",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * The selected files and folders.
+     */
+    @NotNull
+    private final Array<Path> sources;
+
+    /**
+     * The folder which contains all selected files and folders.
+     */
+    @NotNull
+    private final Path baseFolder;
+
+    /**
+     * The destination folder.
+     */
+    @NotNull
+    private final Path destinationFolder;
+
+    /**
+     * The folder to export materials or null if don't need to export them.
+     */
+    @Nullable
+    private final Path materialsFolder;
+
+    /**
+     * True if need to overwrite already exported materials.
+     */
+    private final boolean overwriteMaterials;
+
+    /**
+     * True if need to skip unchanged models.
+     */
+    private final boolean skipUnchanged;
+
+    /**
+     * The serialized settings of converting which are a part of the hash of a model.
+     */
+    @NotNull
+    private final String settings;
+
+    /**
+     * The queue of waiting model files.
+     */
+    @NotNull
+    private final Queue<Path> queue;
+
+    /**
+     * The list of failed model files.
+     */
+    @NotNull
+    private final Queue<Path> failedFiles;
+
+    /**
+     * The converters by extensions of model files.
+     */
+    @NotNull
+    private final ObjectDictionary<String, AbstractModelFileConverter> converters;
+
+    /**
+     * The companion files of model files by folders.
+     */
+    @NotNull
+    private final ObjectDictionary<Path, Array<Path>> companions;
+
+    /**
+     * The hashes of already read files, a companion file can be shared by several models.
+     */
+    @NotNull
+    private final ConcurrentObjectDictionary<Path, String> hashes;
+
+    /**
+     * The flag of cancelling.
+     */
+    @NotNull
+    private final AtomicBoolean cancelled;
+
+    /**
+     * The flag of waiting to notify about progress.
+     */
+    @NotNull
+    private final AtomicBoolean progressNotifying;
+
+    /**
+     * The count of running workers.
+     */
+    @NotNull
+    private final AtomicInteger workers;
+
+    /**
+     * The count of processed model files.
+     */
+    @NotNull
+    private final AtomicInteger processed;
+
+    /**
+     * The count of converted model files.
+     */
+    @NotNull
+    private final AtomicInteger converted;
+
+    /**
+     * The count of skipped model files.
+     */
+    @NotNull
+    private final AtomicInteger skipped;
+
+    /**
+     * The handler of progress.
+     */
+    @Nullable
+    private Consumer<BatchModelConverter> progressHandler;
+
+    /**
+     * The handler of finishing.
+     */
+    @Nullable
+    private Consumer<BatchModelConverter> finishHandler;
+
+    /**
+     * The cache of converted model files.
+     */
+    @Nullable
+    private ConversionCache cache;
+
+    /**
+     * The count of found model files.
+     */
+    private volatile int total;
+
+    /**
+     * Instantiates a new Batch model converter.
+     *
+     * @param sources            the selected files and folders.
+     * @param destinationFolder  the destination folder.
+     * @param materialsFolder    the folder to export materials or null if don't need to export them.
+     * @param overwriteMaterials true if need to overwrite already exported materials.
+     * @param skipUnchanged      true if need to skip unchanged models.
+     */
+    public BatchModelConverter(@NotNull final Array<Path> sources, @NotNull final Path destinationFolder,
+                               @Nullable final Path materialsFolder, final boolean overwriteMaterials,
+                               final boolean skipUnchanged) {
+        this.sources = sources;
+        this.baseFolder = getBaseFolder(sources);
+        this.destinationFolder = destinationFolder;
+        this.materialsFolder = materialsFolder;
+        this.overwriteMaterials = overwriteMaterials;
+        this.skipUnchanged = skipUnchanged;
+        this.settings = "materials=" + (materialsFolder == null ? "" : materialsFolder) +
+                ";overwriteMaterials=" + overwriteMaterials +
+                ";tangents=" + EditorConfig.getInstance().isAutoTangentGenerating();
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.failedFiles = new ConcurrentLinkedQueue<>();
+        this.converters = DictionaryFactory.newObjectDictionary();
+        this.companions = DictionaryFactory.newObjectDictionary();
+        this.hashes = DictionaryFactory.newConcurrentAtomicObjectDictionary();
+        this.cancelled = new AtomicBoolean();
+        this.progressNotifying = new AtomicBoolean();
+        this.workers = new AtomicInteger();
+        this.processed = new AtomicInteger();
+        this.converted = new AtomicInteger();
+        this.skipped = new AtomicInteger();
+    }
+
+    /**
+     * Get the folder which contains all selected files and folders, the structure of the selected files and folders
+     * is repeated from this folder. A single selected folder is the base folder itself.
+     *
+     * @param sources the selected files and folders.
+     * @return the base folder.
+     */
+    @NotNull
+    @FromAnyThread
+    public static Path getBaseFolder(@NotNull final Array<Path> sources) {
+
+        final Path first = sources.first();
+
+        if (sources.size() == 1 && Files.isDirectory(first)) {
+            return first;
+        }
+
+        Path result = first.getParent();
+
+        for (final Path source : sources) {
+            while (result != null && !source.startsWith(result)) {
+                result = result.getParent();
+            }
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException("The files " + sources + " don't have a common folder.");
+        }
+
+        return result;
+    }
+
+    /**
+     * Set the handler of progress, the handler is called in the FX thread.
+     *
+     * @param progressHandler the handler of progress.
+     */
+    @FXThread
+    public void setProgressHandler(@Nullable final Consumer<BatchModelConverter> progressHandler) {
+        this.progressHandler = progressHandler;
+    }
+
+    /**
+     * Set the handler of finishing, the handler is called in the FX thread.
+     *
+     * @param finishHandler the handler of finishing.
+     */
+    @FXThread
+    public void setFinishHandler(@Nullable final Consumer<BatchModelConverter> finishHandler) {
+        this.finishHandler = finishHandler;
+    }
+
+    /**
+     * Start converting.
+     */
+    @FXThread
+    public void start() {
+        EXECUTOR_MANAGER.addBackgroundTask(this::prepare, TaskPriority.BULK);
+    }
+
+    /**
+     * Cancel converting, already started models are converted to the end.
+     */
+    @FromAnyThread
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Is cancelled boolean.
+     *
+     * @return true if converting was cancelled.
+     */
+    @FromAnyThread
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Gets total.
+     *
+     * @return the count of found model files.
+     */
+    @FromAnyThread
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets processed.
+     *
+     * @return the count of processed model files.
+     */
+    @FromAnyThread
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Gets converted.
+     *
+     * @return the count of converted model files.
+     */
+    @FromAnyThread
+    public int getConverted() {
+        return converted.get();
+    }
+
+    /**
+     * Gets skipped.
+     *
+     * @return the count of skipped unchanged model files.
+     */
+    @FromAnyThread
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Gets failed.
+     *
+     * @return the count of failed model files.
+     */
+    @FromAnyThread
+    public int getFailed() {
+        return failedFiles.size();
+    }
+
+    /**
+     * Collect model files and start workers.
+     */
+    @BackgroundThread
+    private void prepare() {
+
+        final EditorConfig editorConfig = EditorConfig.getInstance();
+        final Path currentAsset = editorConfig.getCurrentAsset();
+
+        if (currentAsset != null) {
+            cache = new ConversionCache(currentAsset);
+            cache.load();
+        }
+
+        final Array<Path> files = ArrayFactory.newArray(Path.class);
+
+        for (final Path source : sources) {
+            if (Files.isDirectory(source)) {
+                collectFiles(source, files);
+            } else {
+                files.add(source);
+            }
+        }
+
+        // a selected file can be also in a selected folder
+        final Set<Path> added = new HashSet<>();
+
+        for (final Path file : files) {
+            if (getConverter(file) != null && added.add(file)) queue.add(file);
+        }
+
+        if (skipUnchanged) {
+            for (final Path file : queue) {
+                collectCompanions(notNull(file.getParent()));
+            }
+        }
+
+        total = queue.size();
+
+        final int count = Math.min(PROP_WORKERS, total);
+
+        if (count < 1) {
+            finish();
+            return;
+        }
+
+        workers.set(count);
+
+        for (int i = 0; i < count; i++) {
+            EXECUTOR_MANAGER.addBackgroundTask(this::convertNext, TaskPriority.BULK);
+        }
+    }
+
+    /**
+     * Collect all files of the folder.
+     *
+     * @param folder the folder.
+     * @param files  the container of files.
+     */
+    @BackgroundThread
+    private void collectFiles(@NotNull final Path folder, @NotNull final Array<Path> files) {
+
+        final ResourceManager resourceManager = ResourceManager.getInstance();
+        final AssetIndex assetIndex = resourceManager.findAssetIndex(folder);
+        final int size = files.size();
+
+        if (assetIndex != null) {
+            assetIndex.collect(folder, files, ArrayFactory.newArray(Path.class));
+            if (files.size() > size) return;
+        }
+
+        try (final Stream<Path> stream = Files.walk(folder)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    /**
+     * Collect companion files of models of the folder: all files of the folder which aren't models or results of
+     * converting, so a changed .mtl, .bin or texture file changes the hash of the models which can use it.
+     *
+     * @param folder the folder of models.
+     */
+    @BackgroundThread
+    private void collectCompanions(@NotNull final Path folder) {
+        if (companions.containsKey(folder)) return;
+
+        final Array<Path> result = ArrayFactory.newArray(Path.class);
+
+        try (final Stream<Path> stream = Files.list(folder)) {
+            stream.filter(Files::isRegularFile)
+                    .filter(file -> !isConverted(file))
+                    .forEach(result::add);
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+
+        companions.put(folder, result.sort((first, second) -> first.compareTo(second)));
+    }
+
+    /**
+     * @param file the file.
+     * @return true if the file is a model or a result of converting.
+     */
+    @BackgroundThread
+    private boolean isConverted(@NotNull final Path file) {
+
+        final String extension = FileUtils.getExtension(file);
+
+        return FileExtensions.JME_OBJECT.equals(extension) || FileExtensions.JME_MATERIAL.equals(extension) ||
+                getConverter(file) != null;
+    }
+
+    /**
+     * Get a converter of the model file.
+     *
+     * @param file the model file.
+     * @return the converter or null if the file isn't a model file.
+     */
+    @Nullable
+    @BackgroundThread
+    private AbstractModelFileConverter getConverter(@NotNull final Path file) {
+
+        final String extension = FileUtils.getExtension(file);
+
+        if (converters.containsKey(extension)) {
+            return converters.get(extension);
+        }
+
+        AbstractModelFileConverter result = null;
+
+        for (final FileConverterDescription description : FILE_CONVERTER_REGISTRY.getDescriptions(file)) {
+
+            final FileConverter converter = FILE_CONVERTER_REGISTRY.newCreator(description, file);
+
+            if (converter instanceof AbstractModelFileConverter) {
+                result = (AbstractModelFileConverter) converter;
+                break;
+            }
+        }
+
+        // the converters are stateless, so one instance is used by all workers
+        converters.put(extension, result);
+
+        return result;
+    }
+
+    /**
+     * Convert the next model file, a worker is finished if there are no waiting model files.
+     */
+    @BackgroundThread
+    private void convertNext() {
+
+        final Path source = isCancelled() ? null : queue.poll();
+
+        if (source == null) {
+            if (workers.decrementAndGet() == 0) finish();
+            return;
+        }
+
+        try {
+            convert(source);
+        } catch (final Exception e) {
+            LOGGER.warning(this, "can't convert the model " + source);
+            LOGGER.warning(this, e);
+            failedFiles.add(source);
+        }
+
+        processed.incrementAndGet();
+        notifyProgress();
+
+        // the worker is added again to let other tasks be executed between models
+        EXECUTOR_MANAGER.addBackgroundTask(this::convertNext, TaskPriority.BULK);
+    }
+
+    /**
+     * Convert the model file.
+     *
+     * @param source the model file.
+     * @throws IOException if the model can't be converted.
+     */
+    @BackgroundThread
+    private void convert(@NotNull final Path source) throws IOException {
+
+        final AbstractModelFileConverter converter = converters.get(FileUtils.getExtension(source));
+        if (converter == null) return;
+
+        final Path relative = baseFolder.relativize(source);
+        final Path relativeFolder = relative.getParent();
+        final String name = FileUtils.getNameWithoutExtension(source);
+
+        final Path folder = relativeFolder == null ? destinationFolder : destinationFolder.resolve(relativeFolder);
+        final Path destination = folder.resolve(name + "." + FileExtensions.JME_OBJECT);
+
+        final ConversionCache cache = this.cache;
+        final String hash = cache == null || !skipUnchanged ? null : computeHash(source);
+
+        if (hash != null && cache.isConverted(source, destination, hash)) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        Files.createDirectories(folder);
+
+        Path modelMaterialsFolder = null;
+
+        if (materialsFolder != null) {
+            modelMaterialsFolder = relativeFolder == null ? materialsFolder : materialsFolder.resolve(relativeFolder);
+            modelMaterialsFolder = modelMaterialsFolder.resolve(name);
+            Files.createDirectories(modelMaterialsFolder);
+        }
+
+        converter.convertModel(source, destination, modelMaterialsFolder, overwriteMaterials);
+        converted.incrementAndGet();
+
+        if (cache != null && hash != null) {
+            cache.update(source, destination, hash);
+        }
+    }
+
+    /**
+     * Compute the hash of the model file, its companion files and the settings of converting.
+     *
+     * @param source the model file.
+     * @return the hash in hex format.
+     * @throws IOException if a file can't be read.
+     */
+    @NotNull
+    @BackgroundThread
+    private String computeHash(@NotNull final Path source) throws IOException {
+
+        final StringBuilder key = new StringBuilder(getHash(source));
+        final Array<Path> files = companions.get(source.getParent());
+
+        if (files != null) {
+            for (final Path file : files) {
+                key.append(';').append(file.getFileName()).append('=').append(getHash(file));
+            }
+        }
+
+        key.append(';').append(settings);
+
+        return EditorUtil.computeHash(key.toString());
+    }
+
+    /**
+     * Get the hash of the content of the file, a file is read only once.
+     *
+     * @param file the file.
+     * @return the hash in hex format.
+     * @throws IOException if the file can't be read.
+     */
+    @NotNull
+    @BackgroundThread
+    private String getHash(@NotNull final Path file) throws IOException {
+
+        final String hash = DictionaryUtils.getInReadLock(hashes, file, ObjectDictionary::get);
+        if (hash != null) return hash;
+
+        final String result = EditorUtil.computeHash(file);
+        DictionaryUtils.runInWriteLock(hashes, file, result, ObjectDictionary::put);
+
+        return result;
+    }
+
+    /**
+     * Notify about progress if the last notification was already handled.
+     */
+    @BackgroundThread
+    private void notifyProgress() {
+        if (progressNotifying.compareAndSet(false, true)) {
+            EXECUTOR_MANAGER.addFXTask(() -> {
+                progressNotifying.set(false);
+                final Consumer<BatchModelConverter> handler = this.progressHandler;
+                if (handler != null) handler.accept(this);
+            });
+        }
+    }
+
+    /**
+     * Finish converting.
+     */
+    @BackgroundThread
+    private void finish() {
+
+        final ConversionCache cache = this.cache;
+        if (cache != null) cache.flush();
+
+        if (!failedFiles.isEmpty()) {
+            LOGGER.warning(this, "can't convert " + failedFiles.size() + " models: " + failedFiles);
+        }
+
+        EXECUTOR_MANAGER.addFXTask(() -> {
+            final Consumer<BatchModelConverter> handler = this.finishHandler;
+            if (handler != null) handler.accept(this);
+        });
+    }
+}
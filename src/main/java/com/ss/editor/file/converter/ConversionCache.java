@@ -0,0 +1,209 @@
+package com.ss.editor.file.converter;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.manager.WorkspaceManager;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The persistent cache of converted model files of an asset folder.
+ * <p>
+ * The cache keeps the hash of each converted source file and the result file, so a source file which wasn't changed
+ * after the last converting can be skipped. The hash is computed by the converter and can contain not only the
+ * content of the source file, but also the content of its companion files and the settings of converting.
+ *
+ * @author JavaSaBr
+ */
+public class ConversionCache {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(ConversionCache.class);
+
+    @NotNull
+    private static final String CACHE_FILE = "conversions.index";
+
+    private static final int CACHE_VERSION = 2;
+
+    /**
+     * The result of converting a source file.
+     */
+    private static class Entry {
+
+        /**
+         * The source file.
+         */
+        @NotNull
+        private final Path source;
+
+        /**
+         * The result file.
+         */
+        @NotNull
+        private final Path destination;
+
+        /**
+         * The hash of converting the source file.
+         */
+        @NotNull
+        private final String hash;
+
+        private Entry(@NotNull final Path source, @NotNull final Path destination, @NotNull final String hash) {
+            this.source = source;
+            this.destination = destination;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * The asset folder.
+     */
+    @NotNull
+    private final Path assetFolder;
+
+    /**
+     * The table of entries by source files.
+     */
+    @NotNull
+    private final ObjectDictionary<Path, Entry> entries;
+
+    /**
+     * True if the cache was changed after the last flush.
+     */
+    private boolean dirty;
+
+    /**
+     * Instantiates a new conversion cache.
+     *
+     * @param assetFolder the asset folder.
+     */
+    public ConversionCache(@NotNull final Path assetFolder) {
+        this.assetFolder = assetFolder;
+        this.entries = DictionaryFactory.newObjectDictionary();
+    }
+
+    /**
+     * Load the stored cache.
+     */
+    @FromAnyThread
+    public synchronized void load() {
+
+        final Path cacheFile = getCacheFolder().resolve(CACHE_FILE);
+        if (!Files.exists(cacheFile)) return;
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+
+            if (in.readInt() != CACHE_VERSION) return;
+
+            final int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                final Path source = assetFolder.resolve(in.readUTF());
+                final Path destination = Paths.get(in.readUTF());
+                entries.put(source, new Entry(source, destination, in.readUTF()));
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read the cache of converted models, all models will be converted.");
+            entries.clear();
+        }
+    }
+
+    /**
+     * Check the result of the last converting of the source file.
+     *
+     * @param source      the source file.
+     * @param destination the result file.
+     * @param hash        the current hash of converting the source file.
+     * @return true if the source file was already converted to the result file and wasn't changed after that.
+     */
+    @FromAnyThread
+    public synchronized boolean isConverted(@NotNull final Path source, @NotNull final Path destination,
+                                            @NotNull final String hash) {
+
+        final Entry entry = entries.get(source);
+
+        return entry != null && entry.hash.equals(hash) && entry.destination.equals(destination) &&
+                Files.exists(destination);
+    }
+
+    /**
+     * Store the result of converting the source file.
+     *
+     * @param source      the source file.
+     * @param destination the result file.
+     * @param hash        the hash of converting the source file.
+     */
+    @FromAnyThread
+    public synchronized void update(@NotNull final Path source, @NotNull final Path destination,
+                                    @NotNull final String hash) {
+        entries.put(source, new Entry(source, destination, hash));
+        dirty = true;
+    }
+
+    /**
+     * Write this cache to the disk if it was changed.
+     */
+    @FromAnyThread
+    public synchronized void flush() {
+        if (!dirty) return;
+
+        try {
+            writeCache();
+            dirty = false;
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    private void writeCache() throws IOException {
+
+        final Path cacheFolder = getCacheFolder();
+        final Path cacheFile = cacheFolder.resolve(CACHE_FILE);
+        final Path tempFile = cacheFolder.resolve(CACHE_FILE + ".tmp");
+
+        Files.createDirectories(cacheFolder);
+
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)))) {
+
+            out.writeInt(CACHE_VERSION);
+            out.writeInt(entries.size());
+
+            for (final Entry entry : entries) {
+                out.writeUTF(assetFolder.relativize(entry.source).toString());
+                // the result file can be outside of the asset folder
+                out.writeUTF(entry.destination.toString());
+                out.writeUTF(entry.hash);
+            }
+        }
+
+        try {
+            Files.move(tempFile, cacheFile, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, cacheFile, REPLACE_EXISTING);
+        }
+    }
+
+    @NotNull
+    private Path getCacheFolder() {
+        return assetFolder.resolve(WorkspaceManager.FOLDER_EDITOR);
+    }
+}
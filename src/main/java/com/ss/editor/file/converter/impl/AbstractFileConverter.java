@@ -6,6 +6,7 @@ import com.ss.editor.JFXApplication;
 import com.ss.editor.annotation.FXThread;
 import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.config.EditorConfig;
+import com.ss.editor.executor.TaskPriority;
 import com.ss.editor.file.converter.FileConverter;
 import com.ss.editor.manager.ExecutorManager;
 import com.ss.editor.ui.event.FXEventManager;
@@ -109,7 +110,7 @@ public abstract class AbstractFileConverter implements FileConverter {
                 EditorUtil.handleException(LOGGER, this, e);
                 EXECUTOR_MANAGER.addFXTask(() -> notifyFileCreatedImpl(null));
             }
-        });
+        }, TaskPriority.BULK);
     }
 
     /**
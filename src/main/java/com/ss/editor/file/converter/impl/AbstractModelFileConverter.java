@@ -15,6 +15,7 @@ import com.jme3.scene.Spatial;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.annotation.BackgroundThread;
 import com.ss.editor.annotation.FXThread;
+import com.ss.editor.executor.TaskPriority;
 import com.ss.editor.model.tool.TangentGenerator;
 import com.ss.editor.serializer.MaterialSerializer;
 import com.ss.editor.ui.dialog.converter.ModelConverterDialog;
@@ -26,6 +27,7 @@ import com.ss.rlib.util.array.ArrayFactory;
 import com.ss.rlib.util.dictionary.DictionaryFactory;
 import com.ss.rlib.util.dictionary.ObjectDictionary;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -61,28 +63,61 @@ public abstract class AbstractModelFileConverter extends AbstractFileConverter {
      */
     @FXThread
     private void convert(@NotNull final Path source, @NotNull final ModelConverterDialog dialog) {
+
+        final String filename = dialog.getFilename();
+        final Path destinationFolder = dialog.getDestinationFolder();
+        final Path destination = destinationFolder.resolve(filename + "." + FileExtensions.JME_OBJECT);
+        final Path materialsFolder = dialog.isExportMaterials() ? dialog.getMaterialsFolder() : null;
+        final boolean overwriteMaterials = dialog.isOverwriteMaterials();
+
         EditorUtil.incrementLoading();
         EXECUTOR_MANAGER.addBackgroundTask(() -> {
             try {
-                convertImpl(source, dialog);
+                convertImpl(source, destination, materialsFolder, overwriteMaterials);
             } catch (final Exception e) {
                 EditorUtil.handleException(LOGGER, this, e);
                 EXECUTOR_MANAGER.addFXTask(EditorUtil::decrementLoading);
             }
-        });
+        }, TaskPriority.BULK);
     }
 
     /**
-     * Convert a file using settings from the dialog.
+     * Convert a file and notify about the result file.
      */
     @BackgroundThread
-    private void convertImpl(@NotNull final Path source, @NotNull final ModelConverterDialog dialog) {
+    private void convertImpl(@NotNull final Path source, @NotNull final Path destination,
+                             @Nullable final Path materialsFolder, final boolean overwriteMaterials) {
 
-        final String filename = dialog.getFilename();
-        final Path destinationFolder = dialog.getDestinationFolder();
-        final Path destination = destinationFolder.resolve(filename + "." + FileExtensions.JME_OBJECT);
         final boolean isOverwrite = Files.exists(destination);
 
+        try {
+            convertModel(source, destination, materialsFolder, overwriteMaterials);
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+
+        if (isOverwrite) {
+            notifyFileChanged(destination);
+        } else {
+            notifyFileCreated(destination);
+        }
+    }
+
+    /**
+     * Convert a model file to a j3o file without any notifications, this method can be called from several
+     * background threads at the same time.
+     *
+     * @param source             the source file.
+     * @param destination        the destination file.
+     * @param materialsFolder    the folder to export embedded materials or null if don't need to export them.
+     * @param overwriteMaterials true if need to overwrite already exported materials.
+     * @throws IOException if the destination file can't be written.
+     */
+    @BackgroundThread
+    public void convertModel(@NotNull final Path source, @NotNull final Path destination,
+                             @Nullable final Path materialsFolder, final boolean overwriteMaterials)
+            throws IOException {
+
         final Path assetFile = notNull(getAssetFile(source), "Not found asset file for " + source);
         final ModelKey modelKey = new ModelKey(assetFile.toString());
 
@@ -93,31 +128,21 @@ public abstract class AbstractModelFileConverter extends AbstractFileConverter {
             TangentGenerator.useMikktspaceGenerator(model);
         }
 
-        if (dialog.isExportMaterials()) {
+        if (materialsFolder != null) {
 
             final Array<Geometry> geometries = ArrayFactory.newArray(Geometry.class);
             final ObjectDictionary<String, Geometry> mapping = DictionaryFactory.newObjectDictionary();
 
-            final Path materialsFolder = dialog.getMaterialsFolder();
-            final boolean canOverwrite = dialog.isOverwriteMaterials();
-
             NodeUtils.visitGeometry(model, geometry -> checkAndAdd(geometries, geometry));
             geometries.forEach(geometry -> generateNames(mapping, geometry));
-            mapping.forEach((materialName, geometry) -> storeMaterials(materialsFolder, canOverwrite, materialName, geometry));
+            mapping.forEach((materialName, geometry) ->
+                    storeMaterials(materialsFolder, overwriteMaterials, materialName, geometry));
         }
 
         final BinaryExporter exporter = BinaryExporter.getInstance();
 
         try (final OutputStream out = Files.newOutputStream(destination, WRITE, TRUNCATE_EXISTING, CREATE)) {
             exporter.save(model, out);
-        } catch (final IOException e) {
-            LOGGER.warning(this, e);
-        }
-
-        if (isOverwrite) {
-            notifyFileChanged(destination);
-        } else {
-            notifyFileCreated(destination);
         }
     }
 
@@ -0,0 +1,531 @@
+package com.ss.editor.file.index;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.manager.WorkspaceManager;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The persistent index of files in an asset folder.
+ * <p>
+ * The index keeps the type, the size and the last modified time of each file of the asset folder. At loading, only
+ * folders are checked against the file system: the content of a folder is listed again only if the last modified
+ * time of the folder was changed, all other changes are applied by the watcher of the asset folder. Hidden files and
+ * folders aren't indexed.
+ *
+ * @author JavaSaBr
+ */
+public class AssetIndex {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(AssetIndex.class);
+
+    @NotNull
+    private static final String INDEX_FILE = "assets.index";
+
+    private static final int INDEX_VERSION = 1;
+
+    /**
+     * The entry of the index.
+     */
+    public static class Entry {
+
+        /**
+         * The file.
+         */
+        @NotNull
+        private final Path file;
+
+        /**
+         * The flag of a folder.
+         */
+        private final boolean directory;
+
+        /**
+         * The size of the file.
+         */
+        private long size;
+
+        /**
+         * The last modified time of the file or -1 if content of the folder wasn't listed yet.
+         */
+        private long lastModified;
+
+        private Entry(@NotNull final Path file, final boolean directory, final long size, final long lastModified) {
+            this.file = file;
+            this.directory = directory;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets file.
+         *
+         * @return the file.
+         */
+        @NotNull
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Is directory boolean.
+         *
+         * @return true if the file is a folder.
+         */
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        /**
+         * Gets size.
+         *
+         * @return the size of the file.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets last modified.
+         *
+         * @return the last modified time of the file.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * The table of entries by files.
+     */
+    @NotNull
+    private final ObjectDictionary<Path, Entry> entries;
+
+    /**
+     * The tables of children entries by folders.
+     */
+    @NotNull
+    private final ObjectDictionary<Path, ObjectDictionary<Path, Entry>> children;
+
+    /**
+     * The asset folder.
+     */
+    @NotNull
+    private final Path assetFolder;
+
+    /**
+     * True if the index was changed after the last flush.
+     */
+    private boolean dirty;
+
+    /**
+     * Instantiates a new asset index.
+     *
+     * @param assetFolder the asset folder.
+     */
+    public AssetIndex(@NotNull final Path assetFolder) {
+        this.assetFolder = assetFolder;
+        this.entries = DictionaryFactory.newObjectDictionary();
+        this.children = DictionaryFactory.newObjectDictionary();
+    }
+
+    /**
+     * Gets asset folder.
+     *
+     * @return the asset folder.
+     */
+    @NotNull
+    @FromAnyThread
+    public Path getAssetFolder() {
+        return assetFolder;
+    }
+
+    /**
+     * Load the stored index and check it against the file system.
+     */
+    @FromAnyThread
+    public synchronized void load() {
+        readIndex();
+        validate();
+    }
+
+    /**
+     * Check all folders of this index against the file system and list again changed folders.
+     */
+    @FromAnyThread
+    public synchronized void validate() {
+
+        final Entry root = entries.get(assetFolder);
+
+        if (root == null || !root.isDirectory()) {
+            clear();
+            add(assetFolder, true, 0, -1);
+        }
+
+        validate(assetFolder);
+    }
+
+    /**
+     * Get an entry of the file.
+     *
+     * @param file the file.
+     * @return the entry or null if the file isn't indexed.
+     */
+    @Nullable
+    @FromAnyThread
+    public synchronized Entry get(@NotNull final Path file) {
+        return entries.get(file);
+    }
+
+    /**
+     * Get entries of children of the folder.
+     *
+     * @param folder the folder.
+     * @return the list of entries or null if the folder isn't indexed.
+     */
+    @Nullable
+    @FromAnyThread
+    public synchronized Array<Entry> getChildren(@NotNull final Path folder) {
+
+        final ObjectDictionary<Path, Entry> entries = children.get(folder);
+        if (entries == null) return null;
+
+        return entries.values(ArrayFactory.newArray(Entry.class, entries.size()));
+    }
+
+    /**
+     * Collect all indexed files and folders inside the folder.
+     *
+     * @param folder  the folder.
+     * @param files   the list to collect files.
+     * @param folders the list to collect folders including the folder.
+     */
+    @FromAnyThread
+    public synchronized void collect(@NotNull final Path folder, @NotNull final Array<Path> files,
+                                     @NotNull final Array<Path> folders) {
+
+        final ObjectDictionary<Path, Entry> folderChildren = children.get(folder);
+        if (folderChildren == null) return;
+
+        folders.add(folder);
+
+        for (final Entry child : folderChildren) {
+            if (child.isDirectory()) {
+                collect(child.getFile(), files, folders);
+            } else {
+                files.add(child.getFile());
+            }
+        }
+    }
+
+    /**
+     * Update the file in this index, a new folder is listed recursively.
+     *
+     * @param file the created or modified file.
+     */
+    @FromAnyThread
+    public synchronized void update(@NotNull final Path file) {
+
+        final Path parent = file.getParent();
+
+        if (parent == null || !children.containsKey(parent) || isHidden(file)) {
+            return;
+        }
+
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final IOException e) {
+            remove(file);
+            return;
+        }
+
+        final Entry entry = entries.get(file);
+
+        if (entry != null && entry.isDirectory() == attrs.isDirectory()) {
+
+            if (!entry.isDirectory()) {
+                entry.size = attrs.size();
+                entry.lastModified = attrs.lastModifiedTime().toMillis();
+                dirty = true;
+            }
+
+            return;
+        }
+
+        if (entry != null) {
+            remove(file);
+        }
+
+        if (attrs.isDirectory()) {
+            add(file, true, 0, -1);
+            validate(file);
+        } else {
+            add(file, false, attrs.size(), attrs.lastModifiedTime().toMillis());
+        }
+    }
+
+    /**
+     * Remove the file and all files inside from this index.
+     *
+     * @param file the deleted file.
+     */
+    @FromAnyThread
+    public synchronized void remove(@NotNull final Path file) {
+
+        final Entry entry = entries.remove(file);
+        if (entry == null) return;
+
+        final ObjectDictionary<Path, Entry> siblings = children.get(file.getParent());
+        if (siblings != null) siblings.remove(file);
+
+        removeChildren(file);
+        dirty = true;
+    }
+
+    /**
+     * Write this index to the disk if it was changed.
+     */
+    @FromAnyThread
+    public synchronized void flush() {
+        if (!dirty) return;
+
+        try {
+            writeIndex();
+            dirty = false;
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    /**
+     * List the folder again if it was changed and check all subfolders.
+     *
+     * @param folder the folder.
+     */
+    private void validate(@NotNull final Path folder) {
+
+        final Entry entry = entries.get(folder);
+        if (entry == null) return;
+
+        final long lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(folder).toMillis();
+        } catch (final IOException e) {
+            remove(folder);
+            return;
+        }
+
+        if (entry.lastModified != lastModified && list(folder)) {
+            entry.lastModified = lastModified;
+            dirty = true;
+        }
+
+        final ObjectDictionary<Path, Entry> folderChildren = children.get(folder);
+        if (folderChildren == null) return;
+
+        final Array<Path> subfolders = ArrayFactory.newArray(Path.class);
+
+        for (final Entry child : folderChildren) {
+            if (child.isDirectory()) subfolders.add(child.getFile());
+        }
+
+        for (final Path subfolder : subfolders) {
+            validate(subfolder);
+        }
+    }
+
+    /**
+     * List content of the folder and update entries of the children.
+     *
+     * @param folder the folder.
+     * @return true if the folder was listed.
+     */
+    private boolean list(@NotNull final Path folder) {
+
+        final ObjectDictionary<Path, Entry> oldChildren = children.get(folder);
+        final Set<Path> actual = new HashSet<>();
+
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (final Path child : stream) {
+
+                if (isHidden(child)) continue;
+
+                final BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                final Entry entry = entries.get(child);
+
+                actual.add(child);
+
+                if (entry == null || entry.isDirectory() != attrs.isDirectory()) {
+
+                    if (entry != null) remove(child);
+
+                    final long size = attrs.isDirectory() ? 0 : attrs.size();
+                    final long lastModified = attrs.isDirectory() ? -1 : attrs.lastModifiedTime().toMillis();
+
+                    add(child, attrs.isDirectory(), size, lastModified);
+
+                } else if (!entry.isDirectory()) {
+                    entry.size = attrs.size();
+                    entry.lastModified = attrs.lastModifiedTime().toMillis();
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+            return false;
+        }
+
+        if (oldChildren == null) return true;
+
+        final Array<Path> removed = ArrayFactory.newArray(Path.class);
+
+        for (final Entry child : oldChildren) {
+            if (!actual.contains(child.getFile())) removed.add(child.getFile());
+        }
+
+        for (final Path file : removed) {
+            remove(file);
+        }
+
+        return true;
+    }
+
+    private void add(@NotNull final Path file, final boolean directory, final long size, final long lastModified) {
+
+        final Entry entry = new Entry(file, directory, size, lastModified);
+        entries.put(file, entry);
+
+        if (directory) {
+            children.put(file, DictionaryFactory.newObjectDictionary());
+        }
+
+        final Path parent = file.getParent();
+        final ObjectDictionary<Path, Entry> siblings = parent == null ? null : children.get(parent);
+        if (siblings != null) siblings.put(file, entry);
+
+        dirty = true;
+    }
+
+    private void removeChildren(@NotNull final Path folder) {
+
+        final ObjectDictionary<Path, Entry> folderChildren = children.remove(folder);
+        if (folderChildren == null) return;
+
+        for (final Entry child : folderChildren) {
+            entries.remove(child.getFile());
+            if (child.isDirectory()) removeChildren(child.getFile());
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        children.clear();
+        dirty = true;
+    }
+
+    private boolean isHidden(@NotNull final Path file) {
+        final Path fileName = file.getFileName();
+        return fileName != null && fileName.toString().startsWith(".");
+    }
+
+    private void readIndex() {
+
+        final Path indexFile = getIndexFolder().resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) return;
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+
+            if (in.readInt() != INDEX_VERSION) return;
+
+            final int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+
+                final Path file = assetFolder.resolve(in.readUTF());
+                final boolean directory = in.readBoolean();
+                final long size = in.readLong();
+                final long lastModified = in.readLong();
+
+                entries.put(file, new Entry(file, directory, size, lastModified));
+
+                if (directory) {
+                    children.put(file, DictionaryFactory.newObjectDictionary());
+                }
+            }
+
+            entries.forEach((file, entry) -> {
+
+                final Path parent = file.getParent();
+                final ObjectDictionary<Path, Entry> siblings = parent == null ? null : children.get(parent);
+
+                if (siblings != null && !file.equals(assetFolder)) {
+                    siblings.put(file, entry);
+                }
+            });
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read the index of the asset folder, the index will be rebuilt.");
+            entries.clear();
+            children.clear();
+        }
+    }
+
+    private void writeIndex() throws IOException {
+
+        final Path indexFolder = getIndexFolder();
+        final Path indexFile = indexFolder.resolve(INDEX_FILE);
+        final Path tempFile = indexFolder.resolve(INDEX_FILE + ".tmp");
+
+        Files.createDirectories(indexFolder);
+
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)))) {
+
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(entries.size());
+
+            for (final Entry entry : entries) {
+                out.writeUTF(assetFolder.relativize(entry.getFile()).toString());
+                out.writeBoolean(entry.isDirectory());
+                out.writeLong(entry.getSize());
+                out.writeLong(entry.getLastModified());
+            }
+        }
+
+        try {
+            Files.move(tempFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, indexFile, REPLACE_EXISTING);
+        }
+    }
+
+    @NotNull
+    private Path getIndexFolder() {
+        return assetFolder.resolve(WorkspaceManager.FOLDER_EDITOR);
+    }
+}
@@ -0,0 +1,705 @@
+package com.ss.editor.file.index;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.stream.Stream;
+
+/**
+ * The persistent index of classes and resources of jars and class folders.
+ * <p>
+ * The index keeps the names, the super types and the modifiers of classes of each jar or class folder, so classes
+ * don't need to be loaded to find implementations of an interface. A jar is read again only if its size or last
+ * modified time was changed, a class folder is read again only if the total size or the last modified time of its
+ * files was changed.
+ *
+ * @author JavaSaBr
+ */
+public class ClassIndex {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(ClassIndex.class);
+
+    private static final int INDEX_VERSION = 1;
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+    @NotNull
+    private static final String CLASS_EXTENSION = ".class";
+
+    @NotNull
+    private static final String SOURCE_EXTENSION = ".java";
+
+    @NotNull
+    private static final String[] EMPTY_NAMES = new String[0];
+
+    /**
+     * The indexed class.
+     */
+    private static class ClassEntry {
+
+        /**
+         * The name of the class.
+         */
+        @NotNull
+        private final String name;
+
+        /**
+         * The name of the super class or empty string.
+         */
+        @NotNull
+        private final String superName;
+
+        /**
+         * The names of the implemented interfaces.
+         */
+        @NotNull
+        private final String[] interfaces;
+
+        /**
+         * The access flags of the class.
+         */
+        private final int modifiers;
+
+        private ClassEntry(@NotNull final String name, @NotNull final String superName,
+                           @NotNull final String[] interfaces, final int modifiers) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.modifiers = modifiers;
+        }
+
+        /**
+         * @return true if the class can be instantiated.
+         */
+        private boolean isConcrete() {
+            return !Modifier.isInterface(modifiers) && !Modifier.isAbstract(modifiers);
+        }
+    }
+
+    /**
+     * The indexed jar or class folder.
+     */
+    private static class Source {
+
+        /**
+         * The size of the jar or the total size of files of the folder.
+         */
+        private final long size;
+
+        /**
+         * The last modified time of the jar or the max last modified time of files of the folder.
+         */
+        private final long lastModified;
+
+        /**
+         * The classes of this source.
+         */
+        @NotNull
+        private final Array<ClassEntry> classes;
+
+        /**
+         * The resources of this source.
+         */
+        @NotNull
+        private final Array<String> resources;
+
+        private Source(final long size, final long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.classes = ArrayFactory.newArray(ClassEntry.class);
+            this.resources = ArrayFactory.newArray(String.class);
+        }
+    }
+
+    /**
+     * The table of implementations of interfaces of some indexed sources.
+     */
+    public static class Implementations {
+
+        /**
+         * The class loader of the sources.
+         */
+        @NotNull
+        private final ClassLoader loader;
+
+        /**
+         * The table of names of concrete classes by names of interfaces which they implement.
+         */
+        @NotNull
+        private final ObjectDictionary<String, Array<String>> table;
+
+        /**
+         * The resources of the sources.
+         */
+        @NotNull
+        private final Array<String> resources;
+
+        private Implementations(@NotNull final ClassLoader loader) {
+            this.loader = loader;
+            this.table = DictionaryFactory.newObjectDictionary();
+            this.resources = ArrayFactory.newArray(String.class);
+        }
+
+        /**
+         * Find and load all concrete classes which implement the interface.
+         *
+         * @param <T>            the type of the interface.
+         * @param container      the container of found classes.
+         * @param interfaceClass the interface.
+         */
+        @FromAnyThread
+        @SuppressWarnings("unchecked")
+        public <T> void findImplements(@NotNull final Array<Class<T>> container,
+                                       @NotNull final Class<T> interfaceClass) {
+
+            final Array<String> names = table.get(interfaceClass.getName());
+            if (names == null) return;
+
+            for (final String name : names) {
+                try {
+
+                    final Class<?> type = Class.forName(name, false, loader);
+
+                    if (interfaceClass.isAssignableFrom(type)) {
+                        container.add((Class<T>) type);
+                    }
+
+                } catch (final ClassNotFoundException | LinkageError e) {
+                    LOGGER.warning("can't load class: " + name + ", " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Get all resources of the sources.
+         *
+         * @param container the container of resources.
+         */
+        @FromAnyThread
+        public void getAllResources(@NotNull final Array<String> container) {
+            container.addAll(resources);
+        }
+    }
+
+    /**
+     * The indexed sources by their paths.
+     */
+    @NotNull
+    private final ObjectDictionary<String, Source> sources;
+
+    /**
+     * The paths of sources which were requested after loading, only these sources are written to the disk.
+     */
+    @NotNull
+    private final Array<String> used;
+
+    /**
+     * The file of this index.
+     */
+    @NotNull
+    private final Path indexFile;
+
+    /**
+     * True if the index was changed after the last flush.
+     */
+    private boolean dirty;
+
+    /**
+     * Instantiates a new class index.
+     *
+     * @param indexFile the file of the index.
+     */
+    public ClassIndex(@NotNull final Path indexFile) {
+        this.indexFile = indexFile;
+        this.sources = DictionaryFactory.newObjectDictionary();
+        this.used = ArrayFactory.newArraySet(String.class);
+    }
+
+    /**
+     * Load the stored index.
+     */
+    @FromAnyThread
+    public synchronized void load() {
+
+        if (!Files.exists(indexFile)) return;
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+
+            if (in.readInt() != INDEX_VERSION) return;
+
+            for (int i = 0, count = in.readInt(); i < count; i++) {
+
+                final String path = in.readUTF();
+                final Source source = new Source(in.readLong(), in.readLong());
+
+                for (int j = 0, classes = in.readInt(); j < classes; j++) {
+
+                    final String name = in.readUTF();
+                    final String superName = in.readUTF();
+                    final int modifiers = in.readInt();
+                    final String[] interfaces = new String[in.readInt()];
+
+                    for (int k = 0; k < interfaces.length; k++) {
+                        interfaces[k] = in.readUTF();
+                    }
+
+                    source.classes.add(new ClassEntry(name, superName, interfaces, modifiers));
+                }
+
+                for (int j = 0, resources = in.readInt(); j < resources; j++) {
+                    source.resources.add(in.readUTF());
+                }
+
+                sources.put(path, source);
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read the class index, the classpath will be scanned again.");
+            sources.clear();
+        }
+    }
+
+    /**
+     * Build the table of implementations of the sources, changed sources are read again.
+     *
+     * @param paths  the paths of jars and class folders.
+     * @param loader the class loader of the sources.
+     * @return the table of implementations.
+     */
+    @NotNull
+    @FromAnyThread
+    public synchronized Implementations index(@NotNull final Array<Path> paths, @NotNull final ClassLoader loader) {
+
+        final Implementations implementations = new Implementations(loader);
+        final ObjectDictionary<String, ClassEntry> classes = DictionaryFactory.newObjectDictionary();
+        final Array<Source> actual = ArrayFactory.newArray(Source.class);
+
+        for (final Path path : paths) {
+
+            final Source source = getActualSource(path);
+            if (source == null) continue;
+
+            for (final ClassEntry entry : source.classes) {
+                if (!classes.containsKey(entry.name)) classes.put(entry.name, entry);
+            }
+
+            implementations.resources.addAll(source.resources);
+            actual.add(source);
+        }
+
+        final ObjectDictionary<String, String[]> interfaces = DictionaryFactory.newObjectDictionary();
+
+        for (final Source source : actual) {
+            for (final ClassEntry entry : source.classes) {
+
+                if (!entry.isConcrete() || classes.get(entry.name) != entry) {
+                    continue;
+                }
+
+                for (final String name : getInterfaces(entry.name, classes, interfaces, loader)) {
+
+                    Array<String> names = implementations.table.get(name);
+
+                    if (names == null) {
+                        names = ArrayFactory.newArray(String.class);
+                        implementations.table.put(name, names);
+                    }
+
+                    names.add(entry.name);
+                }
+            }
+        }
+
+        return implementations;
+    }
+
+    /**
+     * Write this index to the disk if it was changed.
+     */
+    @FromAnyThread
+    public synchronized void flush() {
+        if (!dirty) return;
+
+        try {
+            writeIndex();
+            dirty = false;
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    /**
+     * Get the indexed source which is actual for the jar or class folder, the source is read again if it was
+     * changed.
+     *
+     * @param path the path of the jar or class folder.
+     * @return the source or null if it can't be read.
+     */
+    @Nullable
+    private Source getActualSource(@NotNull final Path path) {
+
+        final String key = path.toString();
+        final boolean directory = Files.isDirectory(path);
+
+        used.add(key);
+
+        final long[] stamp;
+        try {
+            stamp = directory ? getFolderStamp(path) : getFileStamp(path);
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read " + path + ", " + e.getMessage());
+            return null;
+        }
+
+        final Source stored = sources.get(key);
+
+        if (stored != null && stored.size == stamp[0] && stored.lastModified == stamp[1]) {
+            return stored;
+        }
+
+        final Source source = new Source(stamp[0], stamp[1]);
+
+        try {
+
+            if (directory) {
+                readFolder(path, source);
+            } else {
+                readJar(path, source);
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, "can't read " + path + ", " + e.getMessage());
+            return null;
+        }
+
+        sources.put(key, source);
+        dirty = true;
+
+        return source;
+    }
+
+    /**
+     * Collect names of all interfaces of the class including the class if it's an interface.
+     *
+     * @param name       the name of the class.
+     * @param classes    the indexed classes by names.
+     * @param interfaces the already collected interfaces by names of classes.
+     * @param loader     the class loader to load not indexed classes.
+     * @return the names of the interfaces.
+     */
+    @NotNull
+    private static String[] getInterfaces(@NotNull final String name,
+                                          @NotNull final ObjectDictionary<String, ClassEntry> classes,
+                                          @NotNull final ObjectDictionary<String, String[]> interfaces,
+                                          @NotNull final ClassLoader loader) {
+
+        final String[] collected = interfaces.get(name);
+        if (collected != null) return collected;
+
+        // a broken hierarchy can't loop forever
+        interfaces.put(name, EMPTY_NAMES);
+
+        final ClassEntry entry = classes.get(name);
+        final Array<String> result = ArrayFactory.newArraySet(String.class);
+
+        if (entry == null) {
+            collectInterfaces(name, loader, result);
+        } else {
+
+            if (Modifier.isInterface(entry.modifiers)) {
+                result.add(name);
+            }
+
+            if (!entry.superName.isEmpty()) {
+                result.addAll(getInterfaces(entry.superName, classes, interfaces, loader));
+            }
+
+            for (final String superInterface : entry.interfaces) {
+                result.addAll(getInterfaces(superInterface, classes, interfaces, loader));
+            }
+        }
+
+        final String[] names = result.toArray(String.class);
+        interfaces.put(name, names);
+
+        return names;
+    }
+
+    /**
+     * Collect names of all interfaces of the not indexed class by the reflection.
+     *
+     * @param name   the name of the class.
+     * @param loader the class loader.
+     * @param result the names of the interfaces.
+     */
+    private static void collectInterfaces(@NotNull final String name, @NotNull final ClassLoader loader,
+                                          @NotNull final Array<String> result) {
+
+        final Class<?> type;
+        try {
+            type = Class.forName(name, false, loader);
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return;
+        }
+
+        collectInterfaces(type, result);
+    }
+
+    private static void collectInterfaces(@NotNull final Class<?> type, @NotNull final Array<String> result) {
+
+        if (type.isInterface()) {
+            result.add(type.getName());
+        }
+
+        final Class<?> superclass = type.getSuperclass();
+
+        if (superclass != null) {
+            collectInterfaces(superclass, result);
+        }
+
+        for (final Class<?> superInterface : type.getInterfaces()) {
+            collectInterfaces(superInterface, result);
+        }
+    }
+
+    @NotNull
+    private static long[] getFileStamp(@NotNull final Path file) throws IOException {
+        final BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        return new long[]{attrs.size(), attrs.lastModifiedTime().toMillis()};
+    }
+
+    @NotNull
+    private static long[] getFolderStamp(@NotNull final Path folder) throws IOException {
+
+        final long[] stamp = new long[2];
+
+        try (final Stream<Path> files = Files.walk(folder)) {
+            files.forEach(file -> {
+                try {
+                    final BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    stamp[0] += attrs.isDirectory() ? 0 : attrs.size();
+                    stamp[1] = Math.max(stamp[1], attrs.lastModifiedTime().toMillis());
+                } catch (final IOException e) {
+                    LOGGER.warning(e);
+                }
+            });
+        }
+
+        return stamp;
+    }
+
+    private static void readJar(@NotNull final Path jar, @NotNull final Source source) throws IOException {
+        try (final JarInputStream in = new JarInputStream(Files.newInputStream(jar))) {
+            for (JarEntry entry = in.getNextJarEntry(); entry != null; entry = in.getNextJarEntry()) {
+                if (!entry.isDirectory()) read(entry.getName(), in, source);
+            }
+        }
+    }
+
+    private static void readFolder(@NotNull final Path folder, @NotNull final Source source) throws IOException {
+
+        final Array<Path> files = ArrayFactory.newArray(Path.class);
+
+        try (final Stream<Path> stream = Files.walk(folder)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        }
+
+        for (final Path file : files) {
+            try (final InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                read(folder.relativize(file).toString(), in, source);
+            }
+        }
+    }
+
+    /**
+     * Read the entry of a jar or a class folder.
+     *
+     * @param name   the relative path of the entry.
+     * @param in     the content of the entry.
+     * @param source the source to add the entry.
+     * @throws IOException if the entry can't be read.
+     */
+    private static void read(@NotNull final String name, @NotNull final InputStream in,
+                             @NotNull final Source source) throws IOException {
+
+        if (name.endsWith(CLASS_EXTENSION)) {
+            final ClassEntry entry = readClass(name, new DataInputStream(in));
+            if (entry != null) source.classes.add(entry);
+        } else if (!name.endsWith(SOURCE_EXTENSION)) {
+            source.resources.add(name);
+        }
+    }
+
+    /**
+     * Read the name, the super types and the modifiers of a class from its class file.
+     *
+     * @param name the relative path of the class file.
+     * @param in   the content of the class file.
+     * @return the class entry or null if it isn't a class file or it has an unknown format.
+     * @throws IOException if the class file can't be read.
+     */
+    @Nullable
+    private static ClassEntry readClass(@NotNull final String name, @NotNull final DataInputStream in)
+            throws IOException {
+
+        if (in.readInt() != CLASS_FILE_MAGIC) return null;
+
+        // minor and major versions
+        in.readInt();
+
+        final int poolSize = in.readUnsignedShort();
+        final String[] utf8 = new String[poolSize];
+        final int[] classNames = new int[poolSize];
+
+        for (int i = 1; i < poolSize; i++) {
+
+            final int tag = in.readUnsignedByte();
+
+            switch (tag) {
+                case 1: {
+                    utf8[i] = in.readUTF();
+                    break;
+                }
+                case 7: {
+                    classNames[i] = in.readUnsignedShort();
+                    break;
+                }
+                case 8:
+                case 16:
+                case 19:
+                case 20: {
+                    in.skipBytes(2);
+                    break;
+                }
+                case 15: {
+                    in.skipBytes(3);
+                    break;
+                }
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18: {
+                    in.skipBytes(4);
+                    break;
+                }
+                case 5:
+                case 6: {
+                    // long and double constants take two entries of the pool
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                }
+                default: {
+                    // a class of a newer format is skipped, other classes of the library are still indexed
+                    LOGGER.warning("can't index the class " + name + ", unknown constant pool tag " + tag);
+                    return null;
+                }
+            }
+        }
+
+        final int modifiers = in.readUnsignedShort();
+        final String className = getClassName(in.readUnsignedShort(), utf8, classNames);
+        final String superName = getClassName(in.readUnsignedShort(), utf8, classNames);
+        final String[] interfaces = new String[in.readUnsignedShort()];
+
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = getClassName(in.readUnsignedShort(), utf8, classNames);
+        }
+
+        return className.isEmpty() ? null : new ClassEntry(className, superName, interfaces, modifiers);
+    }
+
+    @NotNull
+    private static String getClassName(final int index, @NotNull final String[] utf8,
+                                       @NotNull final int[] classNames) {
+
+        if (index < 1 || index >= classNames.length) return "";
+
+        final String name = utf8[classNames[index]];
+        return name == null ? "" : name.replace('/', '.');
+    }
+
+    private void writeIndex() throws IOException {
+
+        final Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+
+        Files.createDirectories(indexFile.getParent());
+
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)))) {
+
+            final Array<String> paths = ArrayFactory.newArray(String.class);
+
+            for (final String path : used) {
+                if (sources.containsKey(path)) paths.add(path);
+            }
+
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(paths.size());
+
+            for (final String path : paths) {
+
+                final Source source = sources.get(path);
+
+                out.writeUTF(path);
+                out.writeLong(source.size);
+                out.writeLong(source.lastModified);
+                out.writeInt(source.classes.size());
+
+                for (final ClassEntry entry : source.classes) {
+
+                    out.writeUTF(entry.name);
+                    out.writeUTF(entry.superName);
+                    out.writeInt(entry.modifiers);
+                    out.writeInt(entry.interfaces.length);
+
+                    for (final String superInterface : entry.interfaces) {
+                        out.writeUTF(superInterface);
+                    }
+                }
+
+                out.writeInt(source.resources.size());
+
+                for (final String resource : source.resources) {
+                    out.writeUTF(resource);
+                }
+            }
+        }
+
+        try {
+            Files.move(tempFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, indexFile, REPLACE_EXISTING);
+        }
+    }
+}
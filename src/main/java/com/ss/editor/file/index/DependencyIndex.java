@@ -0,0 +1,249 @@
+package com.ss.editor.file.index;
+
+import com.jme3.asset.TextureKey;
+import com.jme3.material.MatParam;
+import com.jme3.material.Material;
+import com.jme3.material.MaterialDef;
+import com.jme3.material.TechniqueDef;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Spatial;
+import com.jme3.shader.VarType;
+import com.jme3.texture.Texture;
+import com.ss.editor.annotation.JMEThread;
+import com.ss.editor.util.NodeUtils;
+import com.ss.rlib.util.StringUtils;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The reverse index of assets which are used by geometries of a model.
+ * <p>
+ * Each geometry is indexed by the asset paths of its material, the material definition, shaders of the default
+ * technique of the definition and 2D textures of the material. The index should be updated about all changes of
+ * geometries and their materials, so a changed asset can be resolved to its dependents without visiting the model.
+ *
+ * @author JavaSaBr
+ */
+public class DependencyIndex {
+
+    @NotNull
+    private static final String DEFAULT_TECHNIQUE = "Default";
+
+    /**
+     * The table of geometries by asset paths which are used by them.
+     */
+    @NotNull
+    private final ObjectDictionary<String, Array<Geometry>> dependents;
+
+    /**
+     * The table of used asset paths by geometries.
+     */
+    @NotNull
+    private final ObjectDictionary<Geometry, Array<String>> dependencies;
+
+    /**
+     * The table of geometries by their materials.
+     */
+    @NotNull
+    private final ObjectDictionary<Material, Array<Geometry>> materialUsers;
+
+    /**
+     * The table of indexed materials by geometries.
+     */
+    @NotNull
+    private final ObjectDictionary<Geometry, Material> materials;
+
+    /**
+     * Instantiates a new Dependency index.
+     */
+    public DependencyIndex() {
+        this.dependents = DictionaryFactory.newObjectDictionary();
+        this.dependencies = DictionaryFactory.newObjectDictionary();
+        this.materialUsers = DictionaryFactory.newObjectDictionary();
+        this.materials = DictionaryFactory.newObjectDictionary();
+    }
+
+    /**
+     * Clear this index.
+     */
+    @JMEThread
+    public void clear() {
+        dependents.clear();
+        dependencies.clear();
+        materialUsers.clear();
+        materials.clear();
+    }
+
+    /**
+     * Rebuild this index for the model.
+     *
+     * @param model the model.
+     */
+    @JMEThread
+    public void rebuild(@NotNull final Spatial model) {
+        clear();
+        add(model);
+    }
+
+    /**
+     * Add all geometries of the spatial to this index.
+     *
+     * @param spatial the spatial.
+     */
+    @JMEThread
+    public void add(@NotNull final Spatial spatial) {
+        NodeUtils.visitGeometry(spatial, this::addGeometry);
+    }
+
+    /**
+     * Remove all geometries of the spatial from this index.
+     *
+     * @param spatial the spatial.
+     */
+    @JMEThread
+    public void remove(@NotNull final Spatial spatial) {
+        NodeUtils.visitGeometry(spatial, this::removeGeometry);
+    }
+
+    /**
+     * Update this index for the changed object.
+     *
+     * @param object the changed spatial or material.
+     */
+    @JMEThread
+    public void update(@NotNull final Object object) {
+
+        if (object instanceof Spatial) {
+            remove((Spatial) object);
+            add((Spatial) object);
+            return;
+        } else if (!(object instanceof Material)) {
+            return;
+        }
+
+        final Array<Geometry> users = materialUsers.get((Material) object);
+        if (users == null) return;
+
+        final Array<Geometry> geometries = ArrayFactory.newArray(Geometry.class, users.size());
+        geometries.addAll(users);
+        geometries.forEach(this::removeGeometry);
+        geometries.forEach(this::addGeometry);
+    }
+
+    /**
+     * Collect geometries which use the asset.
+     *
+     * @param assetPath the asset path.
+     * @param container the container.
+     */
+    @JMEThread
+    public void collectDependents(@NotNull final String assetPath, @NotNull final Array<Geometry> container) {
+        final Array<Geometry> geometries = dependents.get(assetPath);
+        if (geometries != null) container.addAll(geometries);
+    }
+
+    /**
+     * Add the geometry to this index.
+     */
+    @JMEThread
+    private void addGeometry(@NotNull final Geometry geometry) {
+
+        final Material material = geometry.getMaterial();
+        if (material == null || dependencies.containsKey(geometry)) return;
+
+        final Array<String> assetPaths = ArrayFactory.newArray(String.class);
+        collectDependencies(material, assetPaths);
+
+        dependencies.put(geometry, assetPaths);
+        materials.put(geometry, material);
+
+        assetPaths.forEach(geometry, (assetPath, toAdd) -> getOrCreate(dependents, assetPath).add(toAdd));
+        getOrCreate(materialUsers, material).add(geometry);
+    }
+
+    /**
+     * Remove the geometry from this index.
+     */
+    @JMEThread
+    private void removeGeometry(@NotNull final Geometry geometry) {
+
+        final Array<String> assetPaths = dependencies.remove(geometry);
+        if (assetPaths == null) return;
+
+        assetPaths.forEach(geometry, (assetPath, toRemove) -> {
+
+            final Array<Geometry> geometries = dependents.get(assetPath);
+            if (geometries == null) return;
+
+            geometries.fastRemove(toRemove);
+
+            if (geometries.isEmpty()) {
+                dependents.remove(assetPath);
+            }
+        });
+
+        // the material of the geometry can be already changed, so the indexed material is used
+        final Material material = materials.remove(geometry);
+        final Array<Geometry> users = material == null ? null : materialUsers.get(material);
+        if (users == null) return;
+
+        users.fastRemove(geometry);
+
+        if (users.isEmpty()) {
+            materialUsers.remove(material);
+        }
+    }
+
+    /**
+     * Collect asset paths which are used by the material.
+     */
+    private static void collectDependencies(@NotNull final Material material, @NotNull final Array<String> container) {
+
+        addIfNotEmpty(container, material.getAssetName());
+
+        final MaterialDef materialDef = material.getMaterialDef();
+        addIfNotEmpty(container, materialDef.getAssetName());
+
+        final List<TechniqueDef> techniqueDefs = materialDef.getTechniqueDefs(DEFAULT_TECHNIQUE);
+
+        if (techniqueDefs != null) {
+            for (final TechniqueDef techniqueDef : techniqueDefs) {
+                techniqueDef.getShaderProgramNames().values()
+                        .forEach(shader -> addIfNotEmpty(container, shader));
+            }
+        }
+
+        for (final MatParam param : material.getParams()) {
+            if (param.getVarType() != VarType.Texture2D) continue;
+            final Texture texture = (Texture) param.getValue();
+            final TextureKey textureKey = texture == null ? null : (TextureKey) texture.getKey();
+            if (textureKey != null) addIfNotEmpty(container, textureKey.getName());
+        }
+    }
+
+    private static void addIfNotEmpty(@NotNull final Array<String> container, @Nullable final String assetPath) {
+        if (!StringUtils.isEmpty(assetPath) && !container.contains(assetPath)) {
+            container.add(assetPath);
+        }
+    }
+
+    @NotNull
+    private static <K> Array<Geometry> getOrCreate(@NotNull final ObjectDictionary<K, Array<Geometry>> dictionary,
+                                                   @NotNull final K key) {
+
+        Array<Geometry> geometries = dictionary.get(key);
+
+        if (geometries == null) {
+            geometries = ArrayFactory.newArray(Geometry.class);
+            dictionary.put(key, geometries);
+        }
+
+        return geometries;
+    }
+}
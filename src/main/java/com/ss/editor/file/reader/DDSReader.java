@@ -14,6 +14,12 @@
 
 package com.ss.editor.file.reader;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
 /**
  * The type Dds reader.
  */
@@ -35,7 +41,7 @@ public final class DDSReader {
      * @return the height
      */
     public static int getHeight(byte[] buffer) {
-        return (buffer[12] & 0xFF) | (buffer[13] & 0xFF) << 8 | (buffer[14] & 0xFF) << 16 | (buffer[15] & 0xFF) << 24;
+        return getHeight(wrap(buffer));
     }
 
     /**
@@ -45,41 +51,123 @@ public final class DDSReader {
      * @return the width
      */
     public static int getWidth(byte[] buffer) {
-        return (buffer[16] & 0xFF) | (buffer[17] & 0xFF) << 8 | (buffer[18] & 0xFF) << 16 | (buffer[19] & 0xFF) << 24;
+        return getWidth(wrap(buffer));
     }
 
-    private static int getMipmap(byte[] buffer) {
-        return (buffer[28] & 0xFF) | (buffer[29] & 0xFF) << 8 | (buffer[30] & 0xFF) << 16 | (buffer[31] & 0xFF) << 24;
+    /**
+     * Gets height.
+     *
+     * @param buffer the buffer
+     * @return the height
+     */
+    public static int getHeight(ByteBuffer buffer) {
+        return getInt(buffer, 12);
     }
 
-    private static int getPixelFormatFlags(byte[] buffer) {
-        return (buffer[80] & 0xFF) | (buffer[81] & 0xFF) << 8 | (buffer[82] & 0xFF) << 16 | (buffer[83] & 0xFF) << 24;
+    /**
+     * Gets width.
+     *
+     * @param buffer the buffer
+     * @return the width
+     */
+    public static int getWidth(ByteBuffer buffer) {
+        return getInt(buffer, 16);
     }
 
-    private static int getFourCC(byte[] buffer) {
-        return (buffer[84] & 0xFF) << 24 | (buffer[85] & 0xFF) << 16 | (buffer[86] & 0xFF) << 8 | (buffer[87] & 0xFF);
+    /**
+     * Gets height of the mipmap level.
+     *
+     * @param buffer      the buffer
+     * @param mipmapLevel the mipmap level
+     * @return the height
+     */
+    public static int getHeight(ByteBuffer buffer, int mipmapLevel) {
+        return Math.max(1, getHeight(buffer) >> clampMipmapLevel(buffer, mipmapLevel));
     }
 
-    private static int getBitCount(byte[] buffer) {
-        return (buffer[88] & 0xFF) | (buffer[89] & 0xFF) << 8 | (buffer[90] & 0xFF) << 16 | (buffer[91] & 0xFF) << 24;
+    /**
+     * Gets width of the mipmap level.
+     *
+     * @param buffer      the buffer
+     * @param mipmapLevel the mipmap level
+     * @return the width
+     */
+    public static int getWidth(ByteBuffer buffer, int mipmapLevel) {
+        return Math.max(1, getWidth(buffer) >> clampMipmapLevel(buffer, mipmapLevel));
     }
 
-    private static int getRedMask(byte[] buffer) {
-        return (buffer[92] & 0xFF) | (buffer[93] & 0xFF) << 8 | (buffer[94] & 0xFF) << 16 | (buffer[95] & 0xFF) << 24;
+    /**
+     * Find the smallest mipmap level which is still not less than the required size.
+     *
+     * @param buffer the buffer
+     * @param width  the required width
+     * @param height the required height
+     * @return the mipmap level
+     */
+    public static int getMipmapLevel(ByteBuffer buffer, int width, int height) {
+
+        int levelWidth = getWidth(buffer);
+        int levelHeight = getHeight(buffer);
+        int level = 0;
+
+        for (int count = getMipmap(buffer); level + 1 < count; level++) {
+
+            int nextWidth = Math.max(1, levelWidth / 2);
+            int nextHeight = Math.max(1, levelHeight / 2);
+
+            if (nextWidth < width || nextHeight < height) break;
+
+            levelWidth = nextWidth;
+            levelHeight = nextHeight;
+        }
+
+        return level;
+    }
+
+    private static int clampMipmapLevel(ByteBuffer buffer, int mipmapLevel) {
+        return mipmapLevel > 0 && mipmapLevel < getMipmap(buffer) ? mipmapLevel : 0;
+    }
+
+    private static int getMipmap(ByteBuffer buffer) {
+        return getInt(buffer, 28);
+    }
+
+    private static int getPixelFormatFlags(ByteBuffer buffer) {
+        return getInt(buffer, 80);
+    }
+
+    private static int getFourCC(ByteBuffer buffer) {
+        return (buffer.get(84) & 0xFF) << 24 | (buffer.get(85) & 0xFF) << 16 | (buffer.get(86) & 0xFF) << 8 |
+                (buffer.get(87) & 0xFF);
+    }
+
+    private static int getBitCount(ByteBuffer buffer) {
+        return getInt(buffer, 88);
+    }
+
+    private static int getRedMask(ByteBuffer buffer) {
+        return getInt(buffer, 92);
+    }
+
+    private static int getGreenMask(ByteBuffer buffer) {
+        return getInt(buffer, 96);
     }
 
-    private static int getGreenMask(byte[] buffer) {
-        return (buffer[96] & 0xFF) | (buffer[97] & 0xFF) << 8 | (buffer[98] & 0xFF) << 16 | (buffer[99] & 0xFF) << 24;
+    private static int getBlueMask(ByteBuffer buffer) {
+        return getInt(buffer, 100);
     }
 
-    private static int getBlueMask(byte[] buffer) {
-        return (buffer[100] & 0xFF) | (buffer[101] & 0xFF) << 8 | (buffer[102] & 0xFF) << 16 |
-                (buffer[103] & 0xFF) << 24;
+    private static int getAlphaMask(ByteBuffer buffer) {
+        return getInt(buffer, 104);
     }
 
-    private static int getAlphaMask(byte[] buffer) {
-        return (buffer[104] & 0xFF) | (buffer[105] & 0xFF) << 8 | (buffer[106] & 0xFF) << 16 |
-                (buffer[107] & 0xFF) << 24;
+    private static int getInt(ByteBuffer buffer, int index) {
+        return (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8 |
+                (buffer.get(index + 2) & 0xFF) << 16 | (buffer.get(index + 3) & 0xFF) << 24;
+    }
+
+    private static ByteBuffer wrap(byte[] buffer) {
+        return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
     }
 
     /**
@@ -91,11 +179,25 @@ public final class DDSReader {
      * @return the int [ ]
      */
     public static int[] read(byte[] buffer, Order order, int mipmapLevel) {
+        return read(wrap(buffer), order, mipmapLevel, 1);
+    }
+
+    /**
+     * Read pixels of the mipmap level. The buffer can be a mapped file, only the required regions of the buffer are
+     * read. If the step is more than 1, only each step pixel of each step row is decoded, so the result has the size
+     * ceil(mipmap width / step) x ceil(mipmap height / step).
+     *
+     * @param buffer      the buffer
+     * @param order       the order
+     * @param mipmapLevel the mipmap level
+     * @param step        the step between decoded pixels
+     * @return the int [ ] or null if the format isn't supported
+     */
+    public static int[] read(ByteBuffer buffer, Order order, int mipmapLevel, int step) {
 
         // header
         int width = getWidth(buffer);
         int height = getHeight(buffer);
-        int mipmap = getMipmap(buffer);
 
         // type
         int type = getType(buffer);
@@ -103,36 +205,16 @@ public final class DDSReader {
 
         // offset
         int offset = 128; // header size
-        if (mipmapLevel > 0 && mipmapLevel < mipmap) {
-            for (int i = 0; i < mipmapLevel; i++) {
-                switch (type) {
-                    case DXT1:
-                        offset += 8 * ((width + 3) / 4) * ((height + 3) / 4);
-                        break;
-                    case DXT2:
-                    case DXT3:
-                    case DXT4:
-                    case DXT5:
-                        offset += 16 * ((width + 3) / 4) * ((height + 3) / 4);
-                        break;
-                    case A1R5G5B5:
-                    case X1R5G5B5:
-                    case A4R4G4B4:
-                    case X4R4G4B4:
-                    case R5G6B5:
-                    case R8G8B8:
-                    case A8B8G8R8:
-                    case X8B8G8R8:
-                    case A8R8G8B8:
-                    case X8R8G8B8:
-                        offset += (type & 0xFF) * width * height;
-                        break;
-                }
-                width /= 2;
-                height /= 2;
-            }
-            if (width <= 0) width = 1;
-            if (height <= 0) height = 1;
+        int level = clampMipmapLevel(buffer, mipmapLevel);
+
+        for (int i = 0; i < level; i++) {
+            offset += getLevelSize(type, width, height);
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+        }
+
+        if (step > 1) {
+            return readSampled(width, height, offset, buffer, order, type, 0, 0, width, height, step);
         }
 
         int[] pixels = null;
@@ -152,42 +234,178 @@ public final class DDSReader {
             case DXT5:
                 pixels = decodeDXT5(width, height, offset, buffer, order);
                 break;
-            case A1R5G5B5:
-                pixels = readA1R5G5B5(width, height, offset, buffer, order);
-                break;
-            case X1R5G5B5:
-                pixels = readX1R5G5B5(width, height, offset, buffer, order);
-                break;
-            case A4R4G4B4:
-                pixels = readA4R4G4B4(width, height, offset, buffer, order);
-                break;
-            case X4R4G4B4:
-                pixels = readX4R4G4B4(width, height, offset, buffer, order);
-                break;
-            case R5G6B5:
-                pixels = readR5G6B5(width, height, offset, buffer, order);
-                break;
-            case R8G8B8:
-                pixels = readR8G8B8(width, height, offset, buffer, order);
-                break;
-            case A8B8G8R8:
-                pixels = readA8B8G8R8(width, height, offset, buffer, order);
-                break;
-            case X8B8G8R8:
-                pixels = readX8B8G8R8(width, height, offset, buffer, order);
-                break;
-            case A8R8G8B8:
-                pixels = readA8R8G8B8(width, height, offset, buffer, order);
-                break;
-            case X8R8G8B8:
-                pixels = readX8R8G8B8(width, height, offset, buffer, order);
+            default:
+                pixels = readSampled(width, height, offset, buffer, order, type, 0, 0, width, height, 1);
                 break;
         }
 
         return pixels;
     }
 
-    private static int getType(byte[] buffer) {
+    /**
+     * Read pixels of the region of the mipmap level. Only the blocks or pixels of the region are read, so the buffer
+     * can be a mapped file of any size. If the step is more than 1, only each step pixel of each step row of the
+     * region is decoded, so the result has the size ceil(regionWidth / step) x ceil(regionHeight / step).
+     *
+     * @param buffer       the buffer
+     * @param order        the order
+     * @param mipmapLevel  the mipmap level
+     * @param x            the left of the region in pixels of the mipmap level
+     * @param y            the top of the region in pixels of the mipmap level
+     * @param regionWidth  the width of the region, it should be inside of the mipmap level
+     * @param regionHeight the height of the region, it should be inside of the mipmap level
+     * @param step         the step between decoded pixels
+     * @return the int [ ] or null if the format isn't supported
+     */
+    public static int[] read(ByteBuffer buffer, Order order, int mipmapLevel, int x, int y, int regionWidth,
+                             int regionHeight, int step) {
+
+        // header
+        int width = getWidth(buffer);
+        int height = getHeight(buffer);
+
+        // type
+        int type = getType(buffer);
+        if (type == 0) return null;
+
+        // offset
+        int offset = 128; // header size
+        int level = clampMipmapLevel(buffer, mipmapLevel);
+
+        for (int i = 0; i < level; i++) {
+            offset += getLevelSize(type, width, height);
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+        }
+
+        return readSampled(width, height, offset, buffer, order, type, x, y, regionWidth, regionHeight,
+                Math.max(step, 1));
+    }
+
+    /**
+     * Read the header of the file, the header is enough to get the size, the format and mipmap levels of the image.
+     *
+     * @param channel the channel of the file
+     * @return the header
+     * @throws IOException if the header can't be read
+     */
+    public static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, 0);
+        return header;
+    }
+
+    /**
+     * Read pixels of the region of the mipmap level from the file. Only the sampled rows of the region are read by
+     * positional reads, so memory doesn't depend on the size of the file. If the step is more than 1, only each step
+     * pixel of each step row of the region is decoded, so the result has the size
+     * ceil(regionWidth / step) x ceil(regionHeight / step).
+     *
+     * @param channel      the channel of the file
+     * @param header       the header of the file
+     * @param order        the order
+     * @param mipmapLevel  the mipmap level
+     * @param x            the left of the region in pixels of the mipmap level
+     * @param y            the top of the region in pixels of the mipmap level
+     * @param regionWidth  the width of the region, it should be inside of the mipmap level
+     * @param regionHeight the height of the region, it should be inside of the mipmap level
+     * @param step         the step between decoded pixels
+     * @return the int [ ] or null if the format isn't supported
+     * @throws IOException if the file can't be read
+     */
+    public static int[] read(FileChannel channel, ByteBuffer header, Order order, int mipmapLevel, int x, int y,
+                             int regionWidth, int regionHeight, int step) throws IOException {
+
+        // header
+        int width = getWidth(header);
+        int height = getHeight(header);
+
+        // type
+        int type = getType(header);
+        if (type == 0) return null;
+
+        // offset
+        long offset = HEADER_SIZE;
+        int level = clampMipmapLevel(header, mipmapLevel);
+
+        for (int i = 0; i < level; i++) {
+            offset += getLevelSize(type, width, height);
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+        }
+
+        step = Math.max(step, 1);
+
+        // a row of the file is a row of blocks for compressed formats
+        boolean compressed = isCompressed(type);
+        int rowHeight = compressed ? 4 : 1;
+        int unitSize = compressed ? (type == DXT1 ? 8 : 16) : type & 0xFF;
+        long rowSize = (long) unitSize * ((width + rowHeight - 1) / rowHeight);
+
+        int firstX = x - x % rowHeight;
+        int endX = Math.min(x + regionWidth, width);
+        int units = (endX - firstX + rowHeight - 1) / rowHeight;
+        int endY = Math.min(y + regionHeight, height);
+
+        int sampledWidth = (regionWidth + step - 1) / step;
+        int sampledHeight = (regionHeight + step - 1) / step;
+        int[] pixels = new int[sampledWidth * sampledHeight];
+
+        ByteBuffer row = ByteBuffer.allocate(units * unitSize).order(ByteOrder.LITTLE_ENDIAN);
+        int loadedRow = -1;
+
+        for (int sampledY = y, index = 0; sampledY < endY; sampledY += step, index += sampledWidth) {
+
+            int fileRow = sampledY / rowHeight;
+
+            if (fileRow != loadedRow) {
+                row.clear();
+                readFully(channel, row, offset + fileRow * rowSize + (long) (firstX / rowHeight) * unitSize);
+                loadedRow = fileRow;
+            }
+
+            int[] line = readSampled(units * rowHeight, rowHeight, 0, row, order, type, x - firstX,
+                    sampledY % rowHeight, endX - x, 1, step);
+
+            System.arraycopy(line, 0, pixels, index, line.length);
+        }
+
+        return pixels;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException();
+            position += read;
+        }
+    }
+
+    /**
+     * Gets count of mipmap levels.
+     *
+     * @param buffer the buffer
+     * @return the count of mipmap levels, at least 1
+     */
+    public static int getMipmapCount(ByteBuffer buffer) {
+        return Math.max(1, getMipmap(buffer));
+    }
+
+    private static int getLevelSize(int type, int width, int height) {
+        switch (type) {
+            case DXT1:
+                return 8 * ((width + 3) / 4) * ((height + 3) / 4);
+            case DXT2:
+            case DXT3:
+            case DXT4:
+            case DXT5:
+                return 16 * ((width + 3) / 4) * ((height + 3) / 4);
+            default:
+                return (type & 0xFF) * width * height;
+        }
+    }
+
+    private static int getType(ByteBuffer buffer) {
 
         int type = 0;
 
@@ -264,23 +482,24 @@ public final class DDSReader {
 
     }
 
-    private static int[] decodeDXT1(int width, int height, int offset, byte[] buffer, Order order) {
+    private static int[] decodeDXT1(int width, int height, int offset, ByteBuffer buffer, Order order) {
         int[] pixels = new int[width * height];
         int index = offset;
         int w = (width + 3) / 4;
         int h = (height + 3) / 4;
         for (int i = 0; i < h; i++) {
             for (int j = 0; j < w; j++) {
-                int c0 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+                index = offset + 8 * (i * w + j);
+                int c0 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
                 index += 2;
-                int c1 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+                int c1 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
                 index += 2;
                 for (int k = 0; k < 4; k++) {
                     if (4 * i + k >= height) break;
-                    int t0 = (buffer[index] & 0x03);
-                    int t1 = (buffer[index] & 0x0C) >> 2;
-                    int t2 = (buffer[index] & 0x30) >> 4;
-                    int t3 = (buffer[index++] & 0xC0) >> 6;
+                    int t0 = (buffer.get(index) & 0x03);
+                    int t1 = (buffer.get(index) & 0x0C) >> 2;
+                    int t2 = (buffer.get(index) & 0x30) >> 4;
+                    int t3 = (buffer.get(index++) & 0xC0) >> 6;
                     pixels[4 * width * i + 4 * j + width * k + 0] = getDXTColor(c0, c1, 0xFF, t0, order);
                     if (4 * j + 1 >= width) continue;
                     pixels[4 * width * i + 4 * j + width * k + 1] = getDXTColor(c0, c1, 0xFF, t1, order);
@@ -294,11 +513,11 @@ public final class DDSReader {
         return pixels;
     }
 
-    private static int[] decodeDXT2(int width, int height, int offset, byte[] buffer, Order order) {
+    private static int[] decodeDXT2(int width, int height, int offset, ByteBuffer buffer, Order order) {
         return decodeDXT3(width, height, offset, buffer, order);
     }
 
-    private static int[] decodeDXT3(int width, int height, int offset, byte[] buffer, Order order) {
+    private static int[] decodeDXT3(int width, int height, int offset, ByteBuffer buffer, Order order) {
         int index = offset;
         int w = (width + 3) / 4;
         int h = (height + 3) / 4;
@@ -306,26 +525,27 @@ public final class DDSReader {
         int[] alphaTable = new int[16];
         for (int i = 0; i < h; i++) {
             for (int j = 0; j < w; j++) {
+                index = offset + 16 * (i * w + j);
                 // create alpha table(4bit to 8bit)
                 for (int k = 0; k < 4; k++) {
-                    int a0 = (buffer[index++] & 0xFF);
-                    int a1 = (buffer[index++] & 0xFF);
+                    int a0 = (buffer.get(index++) & 0xFF);
+                    int a1 = (buffer.get(index++) & 0xFF);
                     // 4bit alpha to 8bit alpha
                     alphaTable[4 * k + 0] = 17 * ((a0 & 0xF0) >> 4);
                     alphaTable[4 * k + 1] = 17 * (a0 & 0x0F);
                     alphaTable[4 * k + 2] = 17 * ((a1 & 0xF0) >> 4);
                     alphaTable[4 * k + 3] = 17 * (a1 & 0x0F);
                 }
-                int c0 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+                int c0 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
                 index += 2;
-                int c1 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+                int c1 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
                 index += 2;
                 for (int k = 0; k < 4; k++) {
                     if (4 * i + k >= height) break;
-                    int t0 = (buffer[index] & 0x03);
-                    int t1 = (buffer[index] & 0x0C) >> 2;
-                    int t2 = (buffer[index] & 0x30) >> 4;
-                    int t3 = (buffer[index++] & 0xC0) >> 6;
+                    int t0 = (buffer.get(index) & 0x03);
+                    int t1 = (buffer.get(index) & 0x0C) >> 2;
+                    int t2 = (buffer.get(index) & 0x30) >> 4;
+                    int t3 = (buffer.get(index++) & 0xC0) >> 6;
                     pixels[4 * width * i + 4 * j + width * k + 0] = getDXTColor(c0, c1, alphaTable[4 * k +
                             0], t0, order);
                     if (4 * j + 1 >= width) continue;
@@ -343,11 +563,11 @@ public final class DDSReader {
         return pixels;
     }
 
-    private static int[] decodeDXT4(int width, int height, int offset, byte[] buffer, Order order) {
+    private static int[] decodeDXT4(int width, int height, int offset, ByteBuffer buffer, Order order) {
         return decodeDXT5(width, height, offset, buffer, order);
     }
 
-    private static int[] decodeDXT5(int width, int height, int offset, byte[] buffer, Order order) {
+    private static int[] decodeDXT5(int width, int height, int offset, ByteBuffer buffer, Order order) {
         int index = offset;
         int w = (width + 3) / 4;
         int h = (height + 3) / 4;
@@ -355,12 +575,13 @@ public final class DDSReader {
         int[] alphaTable = new int[16];
         for (int i = 0; i < h; i++) {
             for (int j = 0; j < w; j++) {
+                index = offset + 16 * (i * w + j);
                 // create alpha table
-                int a0 = (buffer[index++] & 0xFF);
-                int a1 = (buffer[index++] & 0xFF);
-                int b0 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8 | (buffer[index + 2] & 0xFF) << 16;
+                int a0 = (buffer.get(index++) & 0xFF);
+                int a1 = (buffer.get(index++) & 0xFF);
+                int b0 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8 | (buffer.get(index + 2) & 0xFF) << 16;
                 index += 3;
-                int b1 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8 | (buffer[index + 2] & 0xFF) << 16;
+                int b1 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8 | (buffer.get(index + 2) & 0xFF) << 16;
                 index += 3;
                 alphaTable[0] = b0 & 0x07;
                 alphaTable[1] = (b0 >> 3) & 0x07;
@@ -378,16 +599,16 @@ public final class DDSReader {
                 alphaTable[13] = (b1 >> 15) & 0x07;
                 alphaTable[14] = (b1 >> 18) & 0x07;
                 alphaTable[15] = (b1 >> 21) & 0x07;
-                int c0 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+                int c0 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
                 index += 2;
-                int c1 = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
+                int c1 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
                 index += 2;
                 for (int k = 0; k < 4; k++) {
                     if (4 * i + k >= height) break;
-                    int t0 = (buffer[index] & 0x03);
-                    int t1 = (buffer[index] & 0x0C) >> 2;
-                    int t2 = (buffer[index] & 0x30) >> 4;
-                    int t3 = (buffer[index++] & 0xC0) >> 6;
+                    int t0 = (buffer.get(index) & 0x03);
+                    int t1 = (buffer.get(index) & 0x0C) >> 2;
+                    int t2 = (buffer.get(index) & 0x30) >> 4;
+                    int t3 = (buffer.get(index++) & 0xC0) >> 6;
                     pixels[4 * width * i + 4 * j + width * k + 0] = getDXTColor(c0, c1, getDXT5Alpha(a0, a1, alphaTable[
                             4 * k + 0]), t0, order);
                     if (4 * j + 1 >= width) continue;
@@ -405,156 +626,135 @@ public final class DDSReader {
         return pixels;
     }
 
-    private static int[] readA1R5G5B5(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int rgba = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
-            index += 2;
-            int r = BIT5[(rgba & A1R5G5B5_MASKS[0]) >> 10];
-            int g = BIT5[(rgba & A1R5G5B5_MASKS[1]) >> 5];
-            int b = BIT5[(rgba & A1R5G5B5_MASKS[2])];
-            int a = 255 * ((rgba & A1R5G5B5_MASKS[3]) >> 15);
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readX1R5G5B5(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int rgba = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
-            index += 2;
-            int r = BIT5[(rgba & X1R5G5B5_MASKS[0]) >> 10];
-            int g = BIT5[(rgba & X1R5G5B5_MASKS[1]) >> 5];
-            int b = BIT5[(rgba & X1R5G5B5_MASKS[2])];
-            int a = 255;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readA4R4G4B4(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int rgba = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
-            index += 2;
-            int r = 17 * ((rgba & A4R4G4B4_MASKS[0]) >> 8);
-            int g = 17 * ((rgba & A4R4G4B4_MASKS[1]) >> 4);
-            int b = 17 * ((rgba & A4R4G4B4_MASKS[2]));
-            int a = 17 * ((rgba & A4R4G4B4_MASKS[3]) >> 12);
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readX4R4G4B4(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int rgba = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
-            index += 2;
-            int r = 17 * ((rgba & A4R4G4B4_MASKS[0]) >> 8);
-            int g = 17 * ((rgba & A4R4G4B4_MASKS[1]) >> 4);
-            int b = 17 * ((rgba & A4R4G4B4_MASKS[2]));
-            int a = 255;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readR5G6B5(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int rgba = (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8;
-            index += 2;
-            int r = BIT5[((rgba & R5G6B5_MASKS[0]) >> 11)];
-            int g = BIT6[((rgba & R5G6B5_MASKS[1]) >> 5)];
-            int b = BIT5[((rgba & R5G6B5_MASKS[2]))];
-            int a = 255;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readR8G8B8(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int b = buffer[index++] & 0xFF;
-            int g = buffer[index++] & 0xFF;
-            int r = buffer[index++] & 0xFF;
-            int a = 255;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readA8B8G8R8(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int r = buffer[index++] & 0xFF;
-            int g = buffer[index++] & 0xFF;
-            int b = buffer[index++] & 0xFF;
-            int a = buffer[index++] & 0xFF;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
-        }
-        return pixels;
-    }
-
-    private static int[] readX8B8G8R8(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int r = buffer[index++] & 0xFF;
-            int g = buffer[index++] & 0xFF;
-            int b = buffer[index++] & 0xFF;
-            int a = 255;
-            index++;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
+    private static int[] readSampled(int width, int height, int offset, ByteBuffer buffer, Order order, int type,
+                                     int regionX, int regionY, int regionWidth, int regionHeight, int step) {
+        int sampledWidth = (regionWidth + step - 1) / step;
+        int sampledHeight = (regionHeight + step - 1) / step;
+        int[] pixels = new int[sampledWidth * sampledHeight];
+        boolean compressed = isCompressed(type);
+        int blockSize = type == DXT1 ? 8 : 16;
+        int blocks = (width + 3) / 4;
+        int bytesPerPixel = type & 0xFF;
+        int endX = Math.min(regionX + regionWidth, width);
+        int endY = Math.min(regionY + regionHeight, height);
+        for (int y = regionY; y < endY; y += step) {
+            int index = ((y - regionY) / step) * sampledWidth;
+            for (int x = regionX; x < endX; x += step) {
+                if (compressed) {
+                    int blockOffset = offset + blockSize * ((y / 4) * blocks + x / 4);
+                    pixels[index++] = getDXTPixel(buffer, type, blockOffset, x & 3, y & 3, order);
+                } else {
+                    pixels[index++] = getRGBPixel(buffer, type, offset + (y * width + x) * bytesPerPixel, order);
+                }
+            }
         }
         return pixels;
     }
 
-    private static int[] readA8R8G8B8(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int b = buffer[index++] & 0xFF;
-            int g = buffer[index++] & 0xFF;
-            int r = buffer[index++] & 0xFF;
-            int a = buffer[index++] & 0xFF;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
+    private static boolean isCompressed(int type) {
+        return type == DXT1 || type == DXT2 || type == DXT3 || type == DXT4 || type == DXT5;
+    }
+
+    private static int getDXTPixel(ByteBuffer buffer, int type, int index, int x, int y, Order order) {
+        int a = 0xFF;
+        if (type == DXT2 || type == DXT3) {
+            // 4bit alpha to 8bit alpha
+            int alpha = buffer.get(index + 2 * y + x / 2) & 0xFF;
+            a = 17 * ((x & 1) == 0 ? (alpha & 0xF0) >> 4 : alpha & 0x0F);
+            index += 8;
+        } else if (type == DXT4 || type == DXT5) {
+            int a0 = (buffer.get(index) & 0xFF);
+            int a1 = (buffer.get(index + 1) & 0xFF);
+            int pixel = 4 * y + x;
+            int bitsIndex = pixel < 8 ? index + 2 : index + 5;
+            int bits = (buffer.get(bitsIndex) & 0xFF) | (buffer.get(bitsIndex + 1) & 0xFF) << 8 |
+                    (buffer.get(bitsIndex + 2) & 0xFF) << 16;
+            a = getDXT5Alpha(a0, a1, (bits >> (3 * (pixel & 7))) & 0x07);
+            index += 8;
         }
-        return pixels;
+        int c0 = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
+        int c1 = (buffer.get(index + 2) & 0xFF) | (buffer.get(index + 3) & 0xFF) << 8;
+        int t = (buffer.get(index + 4 + y) >> (2 * x)) & 0x03;
+        return getDXTColor(c0, c1, a, t, order);
     }
 
-    private static int[] readX8R8G8B8(int width, int height, int offset, byte[] buffer, Order order) {
-        int index = offset;
-        int[] pixels = new int[width * height];
-        for (int i = 0; i < height * width; i++) {
-            int b = buffer[index++] & 0xFF;
-            int g = buffer[index++] & 0xFF;
-            int r = buffer[index++] & 0xFF;
-            int a = 255;
-            index++;
-            pixels[i] =
-                    (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
+    private static int getRGBPixel(ByteBuffer buffer, int type, int index, Order order) {
+        int r, g, b, a;
+        switch (type) {
+            case A1R5G5B5: {
+                int rgba = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
+                r = BIT5[(rgba & A1R5G5B5_MASKS[0]) >> 10];
+                g = BIT5[(rgba & A1R5G5B5_MASKS[1]) >> 5];
+                b = BIT5[(rgba & A1R5G5B5_MASKS[2])];
+                a = 255 * ((rgba & A1R5G5B5_MASKS[3]) >> 15);
+                break;
+            }
+            case X1R5G5B5: {
+                int rgba = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
+                r = BIT5[(rgba & X1R5G5B5_MASKS[0]) >> 10];
+                g = BIT5[(rgba & X1R5G5B5_MASKS[1]) >> 5];
+                b = BIT5[(rgba & X1R5G5B5_MASKS[2])];
+                a = 255;
+                break;
+            }
+            case A4R4G4B4: {
+                int rgba = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
+                r = 17 * ((rgba & A4R4G4B4_MASKS[0]) >> 8);
+                g = 17 * ((rgba & A4R4G4B4_MASKS[1]) >> 4);
+                b = 17 * ((rgba & A4R4G4B4_MASKS[2]));
+                a = 17 * ((rgba & A4R4G4B4_MASKS[3]) >> 12);
+                break;
+            }
+            case X4R4G4B4: {
+                int rgba = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
+                r = 17 * ((rgba & A4R4G4B4_MASKS[0]) >> 8);
+                g = 17 * ((rgba & A4R4G4B4_MASKS[1]) >> 4);
+                b = 17 * ((rgba & A4R4G4B4_MASKS[2]));
+                a = 255;
+                break;
+            }
+            case R5G6B5: {
+                int rgba = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8;
+                r = BIT5[((rgba & R5G6B5_MASKS[0]) >> 11)];
+                g = BIT6[((rgba & R5G6B5_MASKS[1]) >> 5)];
+                b = BIT5[((rgba & R5G6B5_MASKS[2]))];
+                a = 255;
+                break;
+            }
+            case R8G8B8:
+                b = buffer.get(index) & 0xFF;
+                g = buffer.get(index + 1) & 0xFF;
+                r = buffer.get(index + 2) & 0xFF;
+                a = 255;
+                break;
+            case A8B8G8R8:
+                r = buffer.get(index) & 0xFF;
+                g = buffer.get(index + 1) & 0xFF;
+                b = buffer.get(index + 2) & 0xFF;
+                a = buffer.get(index + 3) & 0xFF;
+                break;
+            case X8B8G8R8:
+                r = buffer.get(index) & 0xFF;
+                g = buffer.get(index + 1) & 0xFF;
+                b = buffer.get(index + 2) & 0xFF;
+                a = 255;
+                break;
+            case A8R8G8B8:
+                b = buffer.get(index) & 0xFF;
+                g = buffer.get(index + 1) & 0xFF;
+                r = buffer.get(index + 2) & 0xFF;
+                a = buffer.get(index + 3) & 0xFF;
+                break;
+            case X8R8G8B8:
+                b = buffer.get(index) & 0xFF;
+                g = buffer.get(index + 1) & 0xFF;
+                r = buffer.get(index + 2) & 0xFF;
+                a = 255;
+                break;
+            default:
+                return 0;
         }
-        return pixels;
+        return (a << order.alphaShift) | (r << order.redShift) | (g << order.greenShift) | (b << order.blueShift);
     }
 
     private static int getDXTColor(int c0, int c1, int a, int t, Order order) {
@@ -634,6 +834,9 @@ public final class DDSReader {
         return 0;
     }
 
+    // Size of the magic number and the header
+    private static final int HEADER_SIZE = 128;
+
     // Image Type
     private static final int DXT1 = (0x44585431);
     private static final int DXT2 = (0x44585432);
@@ -5,6 +5,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * The TGA image reader.
@@ -13,6 +17,16 @@ import java.awt.image.BufferedImage;
  */
 public class TGAReader {
 
+    /**
+     * The size of the header.
+     */
+    private static final int HEADER_SIZE = 18;
+
+    /**
+     * The size of chunks to read compressed images.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     /**
      * Gets image.
      *
@@ -21,90 +35,275 @@ public class TGAReader {
      */
     @Nullable
     public static Image getImage(@NotNull final byte[] buffer) {
-        return decode(buffer);
+        return decode(ByteBuffer.wrap(buffer), 1);
     }
 
-    private static int btoi(final byte b) {
-        return ((int) b < 0 ? 256 + (int) b : (int) b);
+    /**
+     * Gets image reduced by the step. Only each step pixel of each step row is decoded, uncompressed images are read
+     * only in the sampled regions, so the buffer can be a mapped file.
+     *
+     * @param buffer the buffer
+     * @param step   the step between decoded pixels
+     * @return the image
+     */
+    @Nullable
+    public static BufferedImage getImage(@NotNull final ByteBuffer buffer, final int step) {
+        return decode(buffer, Math.max(step, 1));
     }
 
-    private static int read(final int offset, @NotNull final byte[] buffer) {
-        return btoi(buffer[offset]);
+    /**
+     * Read the header of the file, the header is enough to get the size and the format of the image.
+     *
+     * @param channel the channel of the file
+     * @return the header
+     * @throws IOException if the header can't be read
+     */
+    @NotNull
+    public static ByteBuffer readHeader(@NotNull final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        return header;
     }
 
-    @Nullable
-    private static Image decode(@NotNull final byte[] buffer) {
+    /**
+     * Gets image reduced by the step from the file. Uncompressed images are read only in the sampled rows by
+     * positional reads, compressed images are read through a small buffer, so memory doesn't depend on the size of
+     * the file.
+     *
+     * @param channel the channel of the file
+     * @param header  the header of the file
+     * @param step    the step between decoded pixels
+     * @return the image
+     * @throws IOException if the file can't be read
+     */
+    @NotNull
+    public static BufferedImage getImage(@NotNull final FileChannel channel, @NotNull final ByteBuffer header,
+                                         final int step) throws IOException {
 
-        int offset = 0;
+        final int width = getWidth(header);
+        final int height = getHeight(header);
+        final int sampleStep = Math.max(step, 1);
 
-        for (int i = 0; i < 12; i++) {
-            read(offset++, buffer);
-        }
+        // the header and the image id
+        long offset = HEADER_SIZE + read(0, header);
 
-        int width = read(offset++, buffer) + (read(offset++, buffer) << 8);   // 00,04=1024
-        int height = read(offset++, buffer) + (read(offset++, buffer) << 8);  // 40,02=576
+        final int sampledWidth = (width + sampleStep - 1) / sampleStep;
+        final int sampledHeight = (height + sampleStep - 1) / sampleStep;
 
-        read(offset++, buffer);
-        read(offset++, buffer);
+        final int[] pixels = new int[sampledWidth * sampledHeight];
 
-        int n = width * height;
-        int[] pixels = new int[n];
-        int idx = 0;
+        final byte imageType = header.get(2);
+        final byte bitCount = header.get(16);
 
-        if (buffer[2] == 0x02 && buffer[16] == 0x20) { // uncompressed BGRA
+        if (imageType == 0x02 && (bitCount == 0x20 || bitCount == 0x18)) { // uncompressed BGRA or BGR
 
-            while (n > 0) {
-                int b = read(offset++, buffer);
-                int g = read(offset++, buffer);
-                int r = read(offset++, buffer);
-                int a = read(offset++, buffer);
-                int v = (a << 24) | (r << 16) | (g << 8) | b;
-                pixels[idx++] = v;
-                n -= 1;
+            final int bytesPerPixel = bitCount == 0x20 ? 4 : 3;
+            final ByteBuffer row = ByteBuffer.allocate(width * bytesPerPixel);
+            int idx = 0;
+
+            for (int y = 0; y < height; y += sampleStep) {
+
+                row.clear();
+                readFully(channel, row, offset + (long) y * width * bytesPerPixel);
+
+                for (int x = 0; x < width; x += sampleStep) {
+
+                    final int index = x * bytesPerPixel;
+
+                    int b = read(index, row);
+                    int g = read(index + 1, row);
+                    int r = read(index + 2, row);
+                    int a = bytesPerPixel == 4 ? read(index + 3, row) : 255; // opaque pixel
+
+                    pixels[idx++] = (a << 24) | (r << 16) | (g << 8) | b;
+                }
             }
 
-        } else if (buffer[2] == 0x02 && buffer[16] == 0x18) {  // uncompressed BGR
+        } else {
+
+            // RLE compressed, the packets are read by chunks, a pixel is never split between chunks
+            final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            chunk.limit(0);
+
+            int n = width * height;
+            int pixel = 0;
 
             while (n > 0) {
-                int b = read(offset++, buffer);
-                int g = read(offset++, buffer);
-                int r = read(offset++, buffer);
-                int a = 255; // opaque pixel
-                int v = (a << 24) | (r << 16) | (g << 8) | b;
-                pixels[idx++] = v;
-                n -= 1;
+
+                offset = ensure(channel, chunk, offset, 1);
+                int nb = read(chunk.position(), chunk); // num of pixels
+                chunk.position(chunk.position() + 1);
+
+                if ((nb & 0x80) == 0) { // 0x80=dec 128, bits 10000000
+                    for (int i = 0; i <= nb; i++, pixel++) {
+                        offset = ensure(channel, chunk, offset, 3);
+                        storeSampled(pixels, pixel, width, sampledWidth, sampleStep, chunk.position(), chunk);
+                        chunk.position(chunk.position() + 3);
+                    }
+                } else {
+                    nb &= 0x7f;
+                    offset = ensure(channel, chunk, offset, 3);
+                    for (int i = 0; i <= nb; i++, pixel++) {
+                        storeSampled(pixels, pixel, width, sampledWidth, sampleStep, chunk.position(), chunk);
+                    }
+                    chunk.position(chunk.position() + 3);
+                }
+
+                n -= nb + 1;
+            }
+        }
+
+        final BufferedImage bufferedImage = new BufferedImage(sampledWidth, sampledHeight, BufferedImage.TYPE_INT_ARGB);
+        bufferedImage.setRGB(0, 0, sampledWidth, sampledHeight, pixels, 0, sampledWidth);
+
+        return bufferedImage;
+    }
+
+    /**
+     * Gets width.
+     *
+     * @param buffer the buffer
+     * @return the width
+     */
+    public static int getWidth(@NotNull final ByteBuffer buffer) {
+        return read(12, buffer) + (read(13, buffer) << 8);
+    }
+
+    /**
+     * Gets height.
+     *
+     * @param buffer the buffer
+     * @return the height
+     */
+    public static int getHeight(@NotNull final ByteBuffer buffer) {
+        return read(14, buffer) + (read(15, buffer) << 8);
+    }
+
+    private static int read(final int offset, @NotNull final ByteBuffer buffer) {
+        return buffer.get(offset) & 0xFF;
+    }
+
+    private static void readFully(@NotNull final FileChannel channel, @NotNull final ByteBuffer buffer,
+                                  long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException();
+            position += read;
+        }
+    }
+
+    /**
+     * Ensure that the chunk has the count of bytes after its position, the rest of the chunk is moved to the start
+     * and the chunk is filled from the file.
+     *
+     * @return the position in the file after the chunk.
+     */
+    private static long ensure(@NotNull final FileChannel channel, @NotNull final ByteBuffer chunk, long offset,
+                               final int count) throws IOException {
+
+        if (chunk.remaining() >= count) {
+            return offset;
+        }
+
+        chunk.compact();
+
+        while (chunk.position() < count) {
+            final int read = channel.read(chunk, offset);
+            if (read < 0) throw new EOFException();
+            offset += read;
+        }
+
+        chunk.flip();
+        return offset;
+    }
+
+    @Nullable
+    private static BufferedImage decode(@NotNull final ByteBuffer buffer, final int step) {
+
+        final int width = getWidth(buffer);
+        final int height = getHeight(buffer);
+
+        // the header and the image id
+        int offset = HEADER_SIZE + read(0, buffer);
+
+        final int sampledWidth = (width + step - 1) / step;
+        final int sampledHeight = (height + step - 1) / step;
+
+        final int[] pixels = new int[sampledWidth * sampledHeight];
+
+        final byte imageType = buffer.get(2);
+        final byte bitCount = buffer.get(16);
+
+        if (imageType == 0x02 && (bitCount == 0x20 || bitCount == 0x18)) { // uncompressed BGRA or BGR
+
+            final int bytesPerPixel = bitCount == 0x20 ? 4 : 3;
+            int idx = 0;
+
+            for (int y = 0; y < height; y += step) {
+                for (int x = 0; x < width; x += step) {
+
+                    final int index = offset + (y * width + x) * bytesPerPixel;
+
+                    int b = read(index, buffer);
+                    int g = read(index + 1, buffer);
+                    int r = read(index + 2, buffer);
+                    int a = bytesPerPixel == 4 ? read(index + 3, buffer) : 255; // opaque pixel
+
+                    pixels[idx++] = (a << 24) | (r << 16) | (g << 8) | b;
+                }
             }
 
         } else {
 
-            // RLE compressed
+            // RLE compressed, need to go through all packets, but only sampled pixels are stored
+            int n = width * height;
+            int pixel = 0;
+
             while (n > 0) {
 
                 int nb = read(offset++, buffer); // num of pixels
 
                 if ((nb & 0x80) == 0) { // 0x80=dec 128, bits 10000000
-                    for (int i = 0; i <= nb; i++) {
-                        int b = read(offset++, buffer);
-                        int g = read(offset++, buffer);
-                        int r = read(offset++, buffer);
-                        pixels[idx++] = 0xff000000 | (r << 16) | (g << 8) | b;
+                    for (int i = 0; i <= nb; i++, pixel++) {
+                        storeSampled(pixels, pixel, width, sampledWidth, step, offset, buffer);
+                        offset += 3;
                     }
                 } else {
                     nb &= 0x7f;
-                    int b = read(offset++, buffer);
-                    int g = read(offset++, buffer);
-                    int r = read(offset++, buffer);
-                    int v = 0xff000000 | (r << 16) | (g << 8) | b;
-                    for (int i = 0; i <= nb; i++)
-                        pixels[idx++] = v;
+                    for (int i = 0; i <= nb; i++, pixel++) {
+                        storeSampled(pixels, pixel, width, sampledWidth, step, offset, buffer);
+                    }
+                    offset += 3;
                 }
+
                 n -= nb + 1;
             }
         }
 
-        final BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        bufferedImage.setRGB(0, 0, width, height, pixels, 0, width);
+        final BufferedImage bufferedImage = new BufferedImage(sampledWidth, sampledHeight, BufferedImage.TYPE_INT_ARGB);
+        bufferedImage.setRGB(0, 0, sampledWidth, sampledHeight, pixels, 0, sampledWidth);
 
         return bufferedImage;
     }
-}
\ No newline at end of file
+
+    private static void storeSampled(@NotNull final int[] pixels, final int pixel, final int width,
+                                     final int sampledWidth, final int step, final int offset,
+                                     @NotNull final ByteBuffer buffer) {
+
+        final int x = pixel % width;
+        final int y = pixel / width;
+
+        if (x % step != 0 || y % step != 0) {
+            return;
+        }
+
+        final int index = (y / step) * sampledWidth + x / step;
+        if (index >= pixels.length) return;
+
+        int b = read(offset, buffer);
+        int g = read(offset + 1, buffer);
+        int r = read(offset + 2, buffer);
+
+        pixels[index] = 0xff000000 | (r << 16) | (g << 8) | b;
+    }
+}
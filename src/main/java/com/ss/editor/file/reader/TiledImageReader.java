@@ -0,0 +1,473 @@
+package com.ss.editor.file.reader;
+
+import com.ss.editor.FileExtensions;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.rlib.util.FileUtils;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * The reader of regions of an image file. Regions are decoded reduced by a step, so any region of a huge image can be
+ * read without decoding the whole image into memory.
+ *
+ * @author JavaSaBr
+ */
+public abstract class TiledImageReader implements Closeable {
+
+    /**
+     * The max size of images which are decoded completely because their format doesn't support reading regions.
+     */
+    private static final int MAX_DECODED_SIZE = 4096;
+
+    /**
+     * The max count of pixels of decoded row bands which are kept by a reader of ImageIO formats.
+     */
+    private static final int MAX_BAND_PIXELS = 8 * 1024 * 1024;
+
+    /**
+     * Open a reader of the image file.
+     *
+     * @param file the image file.
+     * @return the reader or null if the format of the file isn't supported.
+     * @throws IOException if the file can't be read.
+     */
+    @Nullable
+    @BackgroundThread
+    public static TiledImageReader open(@NotNull final Path file) throws IOException {
+
+        final String extension = FileUtils.getExtension(file, true);
+
+        if (FileExtensions.IMAGE_DDS.equals(extension)) {
+            return DDSImageReader.ofDDS(file);
+        } else if (FileExtensions.IMAGE_TGA.equals(extension)) {
+            return DecodedImageReader.ofTGA(file);
+        }
+
+        final ImageInputStream stream = ImageIO.createImageInputStream(file.toFile());
+        if (stream == null) return null;
+
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+
+        if (!readers.hasNext()) {
+            stream.close();
+            return null;
+        }
+
+        final ImageReader reader = readers.next();
+        reader.setInput(stream, false, true);
+
+        return new IOImageReader(reader, stream);
+    }
+
+    /**
+     * Gets width.
+     *
+     * @return the width of the image.
+     */
+    public abstract int getWidth();
+
+    /**
+     * Gets height.
+     *
+     * @return the height of the image.
+     */
+    public abstract int getHeight();
+
+    /**
+     * Read the region of the image, only each step pixel of each step row of the region is decoded, so the result
+     * has the size ceil(width / step) x ceil(height / step).
+     *
+     * @param x      the left of the region.
+     * @param y      the top of the region.
+     * @param width  the width of the region, the region should be inside of the image.
+     * @param height the height of the region, the region should be inside of the image.
+     * @param step   the step between decoded pixels.
+     * @return the decoded region.
+     * @throws IOException if the region can't be read.
+     */
+    @NotNull
+    @BackgroundThread
+    public abstract BufferedImage read(final int x, final int y, final int width, final int height, final int step)
+            throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * The reader of formats which are supported by ImageIO, the readers of these formats support reading regions
+     * with subsampling. Most of these formats are decoded from the top of the image to any region, so a region is
+     * cut from the decoded row band of the whole width and the last decoded bands are kept for next regions.
+     */
+    private static class IOImageReader extends TiledImageReader {
+
+        /**
+         * The image reader.
+         */
+        @NotNull
+        private final ImageReader reader;
+
+        /**
+         * The stream of the file.
+         */
+        @NotNull
+        private final ImageInputStream stream;
+
+        /**
+         * The last decoded row bands, the last used band is the last.
+         */
+        @NotNull
+        private final Array<Band> bands;
+
+        private final int width;
+
+        private final int height;
+
+        private IOImageReader(@NotNull final ImageReader reader, @NotNull final ImageInputStream stream)
+                throws IOException {
+            this.reader = reader;
+            this.stream = stream;
+            this.bands = ArrayFactory.newArray(Band.class);
+            this.width = reader.getWidth(0);
+            this.height = reader.getHeight(0);
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @NotNull
+        @Override
+        public BufferedImage read(final int x, final int y, final int width, final int height, final int step)
+                throws IOException {
+
+            // the band is decoded by the same subsampling grid only if the region is aligned by the step
+            if (x % step != 0) {
+                synchronized (reader) {
+                    return decode(x, y, width, height, step);
+                }
+            }
+
+            Band band = findBand(y, height, step);
+
+            if (band == null) {
+                synchronized (reader) {
+
+                    band = findBand(y, height, step);
+
+                    if (band == null) {
+                        band = new Band(y, height, step, decode(0, y, getWidth(), height, step));
+                        addBand(band);
+                    }
+                }
+            }
+
+            final BufferedImage image = band.image;
+            final int resultX = x / step;
+            final int resultWidth = Math.min((width + step - 1) / step, image.getWidth() - resultX);
+
+            return image.getSubimage(resultX, 0, resultWidth, image.getHeight());
+        }
+
+        /**
+         * Decode the region of the image, the reader should be locked.
+         */
+        @NotNull
+        private BufferedImage decode(final int x, final int y, final int width, final int height, final int step)
+                throws IOException {
+
+            final ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(new Rectangle(x, y, width, height));
+            param.setSourceSubsampling(step, step, 0, 0);
+
+            return reader.read(0, param);
+        }
+
+        /**
+         * Find the decoded band and mark it as last used.
+         */
+        @Nullable
+        private Band findBand(final int y, final int height, final int step) {
+            synchronized (bands) {
+
+                for (int i = bands.size() - 1; i >= 0; i--) {
+
+                    final Band band = bands.get(i);
+                    if (band.y != y || band.height != height || band.step != step) continue;
+
+                    if (i != bands.size() - 1) {
+                        bands.slowRemove(i);
+                        bands.add(band);
+                    }
+
+                    return band;
+                }
+
+                return null;
+            }
+        }
+
+        /**
+         * Add the decoded band and remove the least used bands over the limit of pixels.
+         */
+        private void addBand(@NotNull final Band band) {
+            synchronized (bands) {
+
+                bands.add(band);
+
+                long pixels = 0;
+
+                for (final Band decoded : bands) {
+                    pixels += decoded.getPixels();
+                }
+
+                while (pixels > MAX_BAND_PIXELS && bands.size() > 1) {
+                    pixels -= bands.get(0).getPixels();
+                    bands.slowRemove(0);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            synchronized (bands) {
+                bands.clear();
+            }
+
+            synchronized (reader) {
+                reader.dispose();
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * The decoded row band of the whole width of an image.
+     */
+    private static class Band {
+
+        /**
+         * The decoded band.
+         */
+        @NotNull
+        private final BufferedImage image;
+
+        private final int y;
+
+        private final int height;
+
+        private final int step;
+
+        private Band(final int y, final int height, final int step, @NotNull final BufferedImage image) {
+            this.y = y;
+            this.height = height;
+            this.step = step;
+            this.image = image;
+        }
+
+        /**
+         * Gets pixels.
+         *
+         * @return the count of pixels of the band.
+         */
+        private long getPixels() {
+            return (long) image.getWidth() * image.getHeight();
+        }
+    }
+
+    /**
+     * The reader of DDS images, regions are read from the nearest mipmap level by positional reads of the file, so
+     * only the header and the blocks of regions are kept in memory.
+     */
+    private static class DDSImageReader extends TiledImageReader {
+
+        @NotNull
+        private static TiledImageReader ofDDS(@NotNull final Path file) throws IOException {
+
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                return new DDSImageReader(channel, DDSReader.readHeader(channel));
+            } catch (final IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * The channel of the file.
+         */
+        @NotNull
+        private final FileChannel channel;
+
+        /**
+         * The header of the file.
+         */
+        @NotNull
+        private final ByteBuffer header;
+
+        private final int width;
+
+        private final int height;
+
+        private final int mipmapCount;
+
+        private DDSImageReader(@NotNull final FileChannel channel, @NotNull final ByteBuffer header) {
+            this.channel = channel;
+            this.header = header;
+            this.width = DDSReader.getWidth(header);
+            this.height = DDSReader.getHeight(header);
+            this.mipmapCount = DDSReader.getMipmapCount(header);
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @NotNull
+        @Override
+        public BufferedImage read(final int x, final int y, final int width, final int height, final int step)
+                throws IOException {
+
+            int level = 0;
+
+            // the smallest mipmap level which still has enough pixels for the step
+            while (level + 1 < mipmapCount && (2 << level) <= step) {
+                level++;
+            }
+
+            final int levelStep = Math.max(1, step >> level);
+            final int levelX = x >> level;
+            final int levelY = y >> level;
+            final int levelWidth = Math.max(1, Math.min(width >> level, DDSReader.getWidth(header, level) - levelX));
+            final int levelHeight = Math.max(1, Math.min(height >> level,
+                    DDSReader.getHeight(header, level) - levelY));
+
+            final int[] pixels = DDSReader.read(channel, header, DDSReader.ARGB, level, levelX, levelY, levelWidth,
+                    levelHeight, levelStep);
+
+            if (pixels == null) {
+                throw new IOException("unsupported DDS format.");
+            }
+
+            final int resultWidth = (levelWidth + levelStep - 1) / levelStep;
+            final int resultHeight = (levelHeight + levelStep - 1) / levelStep;
+
+            final BufferedImage result = new BufferedImage(resultWidth, resultHeight, BufferedImage.TYPE_INT_ARGB);
+            result.setRGB(0, 0, resultWidth, resultHeight, pixels, 0, resultWidth);
+
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * The reader of formats which can't be read by regions, the image is decoded once reduced to the max decoded
+     * size and regions are copied from the decoded image.
+     */
+    private static class DecodedImageReader extends TiledImageReader {
+
+        @NotNull
+        private static TiledImageReader ofTGA(@NotNull final Path file) throws IOException {
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+                final ByteBuffer header = TGAReader.readHeader(channel);
+                final int width = TGAReader.getWidth(header);
+                final int height = TGAReader.getHeight(header);
+                final int step = Math.max(1, (Math.max(width, height) + MAX_DECODED_SIZE - 1) / MAX_DECODED_SIZE);
+                final BufferedImage image = TGAReader.getImage(channel, header, step);
+
+                return new DecodedImageReader(image, width, height, step);
+            }
+        }
+
+        /**
+         * The decoded image.
+         */
+        @NotNull
+        private final BufferedImage image;
+
+        private final int width;
+
+        private final int height;
+
+        /**
+         * The step between decoded pixels of the decoded image.
+         */
+        private final int decodedStep;
+
+        private DecodedImageReader(@NotNull final BufferedImage image, final int width, final int height,
+                                   final int decodedStep) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            this.decodedStep = decodedStep;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @NotNull
+        @Override
+        public BufferedImage read(final int x, final int y, final int width, final int height, final int step) {
+
+            final int resultWidth = (width + step - 1) / step;
+            final int resultHeight = (height + step - 1) / step;
+            final int maxX = image.getWidth() - 1;
+            final int maxY = image.getHeight() - 1;
+
+            final BufferedImage result = new BufferedImage(resultWidth, resultHeight, BufferedImage.TYPE_INT_ARGB);
+
+            for (int row = 0; row < resultHeight; row++) {
+
+                final int sourceY = Math.min((y + row * step) / decodedStep, maxY);
+
+                for (int column = 0; column < resultWidth; column++) {
+                    final int sourceX = Math.min((x + column * step) / decodedStep, maxX);
+                    result.setRGB(column, row, image.getRGB(sourceX, sourceY));
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.ss.editor.file.reader;
+
+import com.jme3.audio.AudioBuffer;
+import com.jme3.audio.AudioData;
+import com.jme3.audio.AudioStream;
+import com.ss.editor.annotation.BackgroundThread;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The overview of the amplitude of an audio. The audio is split to equal parts and each part is presented by the
+ * min and the max values of its samples in the range [-128, 127].
+ *
+ * @author JavaSaBr
+ */
+public class Waveform {
+
+    /**
+     * The max count of parts of the audio.
+     */
+    public static final int MAX_PEAKS = 2048;
+
+    /**
+     * The count of parts of a second which are computed before reducing to the max count of parts.
+     */
+    private static final int BLOCKS_PER_SECOND = 100;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * The source of samples of an audio.
+     */
+    @FunctionalInterface
+    private interface SampleSource {
+
+        /**
+         * Read next samples to the buffer.
+         *
+         * @param buffer the buffer.
+         * @param offset the offset in the buffer.
+         * @param length the max count of bytes to read.
+         * @return the count of read bytes or -1 if the audio is ended.
+         */
+        int readSamples(@NotNull byte[] buffer, int offset, int length);
+    }
+
+    /**
+     * Read all samples of the stream and compute the waveform of them.
+     *
+     * @param stream the stream, it's read until the end.
+     * @return the waveform.
+     */
+    @NotNull
+    @BackgroundThread
+    public static Waveform read(@NotNull final AudioStream stream) {
+        return read(stream, stream::readSamples);
+    }
+
+    /**
+     * Compute the waveform of all samples of the buffer, the position of the data of the buffer isn't changed.
+     *
+     * @param buffer the buffer.
+     * @return the waveform.
+     */
+    @NotNull
+    @BackgroundThread
+    public static Waveform read(@NotNull final AudioBuffer buffer) {
+
+        final ByteBuffer data = buffer.getData().duplicate();
+        data.rewind();
+
+        return read(buffer, (target, offset, length) -> {
+
+            final int count = Math.min(length, data.remaining());
+            if (count < 1) return -1;
+
+            data.get(target, offset, count);
+            return count;
+        });
+    }
+
+    @NotNull
+    private static Waveform read(@NotNull final AudioData audioData, @NotNull final SampleSource stream) {
+
+        final int bytesPerSample = Math.max(1, audioData.getBitsPerSample() / 8);
+        final int channels = Math.max(1, audioData.getChannels());
+        final int sampleRate = Math.max(1, audioData.getSampleRate());
+        final int blockSamples = Math.max(1, sampleRate / BLOCKS_PER_SECOND) * channels;
+
+        final ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        long samples = 0;
+        int min = Byte.MAX_VALUE;
+        int max = Byte.MIN_VALUE;
+        int blockCount = 0;
+        int pending = 0;
+
+        for (int read = stream.readSamples(buffer, pending, buffer.length - pending); read > 0;
+             read = stream.readSamples(buffer, pending, buffer.length - pending)) {
+
+            final int available = pending + read;
+            final int end = available - available % bytesPerSample;
+
+            for (int i = 0; i < end; i += bytesPerSample) {
+
+                // 8 bit samples are unsigned, 16 bit samples are signed little endian
+                final int value = bytesPerSample == 1 ? (buffer[i] & 0xFF) - 128 : buffer[i + bytesPerSample - 1];
+
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                samples++;
+
+                if (++blockCount == blockSamples) {
+                    blocks.write(min);
+                    blocks.write(max);
+                    min = Byte.MAX_VALUE;
+                    max = Byte.MIN_VALUE;
+                    blockCount = 0;
+                }
+            }
+
+            pending = available - end;
+            System.arraycopy(buffer, end, buffer, 0, pending);
+        }
+
+        if (blockCount > 0) {
+            blocks.write(min);
+            blocks.write(max);
+        }
+
+        final float duration = (float) (samples / channels) / sampleRate;
+
+        return new Waveform(duration, reduce(blocks.toByteArray()));
+    }
+
+    /**
+     * Merge neighbour parts to get not more than the max count of parts.
+     *
+     * @param peaks the pairs of the min and max values.
+     * @return the reduced pairs.
+     */
+    @NotNull
+    private static byte[] reduce(@NotNull final byte[] peaks) {
+
+        final int count = peaks.length / 2;
+
+        if (count <= MAX_PEAKS) {
+            return peaks;
+        }
+
+        final int group = (count + MAX_PEAKS - 1) / MAX_PEAKS;
+        final byte[] result = new byte[((count + group - 1) / group) * 2];
+
+        for (int i = 0, index = 0; i < count; i += group, index += 2) {
+
+            byte min = Byte.MAX_VALUE;
+            byte max = Byte.MIN_VALUE;
+
+            for (int j = i, last = Math.min(i + group, count); j < last; j++) {
+                min = (byte) Math.min(min, peaks[j * 2]);
+                max = (byte) Math.max(max, peaks[j * 2 + 1]);
+            }
+
+            result[index] = min;
+            result[index + 1] = max;
+        }
+
+        return result;
+    }
+
+    /**
+     * The duration of the audio in seconds.
+     */
+    private final float duration;
+
+    /**
+     * The pairs of the min and max values of each part.
+     */
+    @NotNull
+    private final byte[] peaks;
+
+    /**
+     * Instantiates a new Waveform.
+     *
+     * @param duration the duration of the audio in seconds
+     * @param peaks    the pairs of the min and max values of each part
+     */
+    public Waveform(final float duration, @NotNull final byte[] peaks) {
+        this.duration = duration;
+        this.peaks = peaks;
+    }
+
+    /**
+     * Gets duration.
+     *
+     * @return the duration of the audio in seconds.
+     */
+    public float getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets count.
+     *
+     * @return the count of parts of the audio.
+     */
+    public int getCount() {
+        return peaks.length / 2;
+    }
+
+    /**
+     * Gets min.
+     *
+     * @param index the index of the part.
+     * @return the min value of the part.
+     */
+    public int getMin(final int index) {
+        return peaks[index * 2];
+    }
+
+    /**
+     * Gets max.
+     *
+     * @param index the index of the part.
+     * @return the max value of the part.
+     */
+    public int getMax(final int index) {
+        return peaks[index * 2 + 1];
+    }
+
+    /**
+     * Gets peaks.
+     *
+     * @return the pairs of the min and max values of each part.
+     */
+    @NotNull
+    public byte[] getPeaks() {
+        return peaks;
+    }
+
+    @Override
+    public String toString() {
+        return "Waveform{" + "duration=" + duration + ", count=" + getCount() + '}';
+    }
+}
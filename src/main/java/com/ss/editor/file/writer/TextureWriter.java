@@ -0,0 +1,554 @@
+package com.ss.editor.file.writer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.jme3.texture.Image;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.manager.ExecutorManager;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import jme3tools.converters.ImageToAwt;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * The writer of changed textures to PNG files.
+ * <p>
+ * Textures are encoded in parallel by the background executor and the caller thread, each texture is written to a
+ * temp file which replaces the texture file after writing. The writer remembers the hash of the content of each
+ * written texture, so a texture which has the same content as the written file isn't encoded again.
+ *
+ * @author JavaSaBr
+ */
+public class TextureWriter {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(TextureWriter.class);
+
+    @NotNull
+    private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
+
+    @NotNull
+    private static final TextureWriter INSTANCE = new TextureWriter();
+
+    @NotNull
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @NotNull
+    private static final byte[] CHUNK_IHDR = {'I', 'H', 'D', 'R'};
+
+    @NotNull
+    private static final byte[] CHUNK_IDAT = {'I', 'D', 'A', 'T'};
+
+    @NotNull
+    private static final byte[] CHUNK_IEND = {'I', 'E', 'N', 'D'};
+
+    private static final int COLOR_TYPE_RGB = 2;
+    private static final int COLOR_TYPE_RGBA = 6;
+
+    private static final byte FILTER_SUB = 1;
+
+    /**
+     * The size of buffers of encoding and the max size of IDAT chunks.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The max count of threads to encode textures.
+     */
+    private static final int PROP_THREADS = Integer.getInteger("editor.texture.writeThreads",
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Gets instance.
+     *
+     * @return the instance
+     */
+    @NotNull
+    public static TextureWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The state of a written file.
+     */
+    private static class Written {
+
+        /**
+         * The hash of the written content.
+         */
+        private final long hash;
+
+        /**
+         * The last modified time of the file after writing.
+         */
+        private final long lastModified;
+
+        private Written(final long hash, final long lastModified) {
+            this.hash = hash;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * The group of textures which are written together.
+     */
+    private static class WriteBatch {
+
+        /**
+         * The queue of waiting files.
+         */
+        @NotNull
+        private final Queue<Path> queue;
+
+        /**
+         * The images by files.
+         */
+        @NotNull
+        private final ObjectDictionary<Path, Image> textures;
+
+        /**
+         * The count of running helpers.
+         */
+        private int running;
+
+        /**
+         * True if the batch doesn't accept new helpers.
+         */
+        private boolean closed;
+
+        /**
+         * The error of writing some texture.
+         */
+        @Nullable
+        private IOException error;
+
+        private WriteBatch(@NotNull final ObjectDictionary<Path, Image> textures) {
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.textures = textures;
+            textures.forEach((file, image) -> queue.add(file));
+        }
+
+        private synchronized boolean enter() {
+            if (closed) return false;
+            running++;
+            return true;
+        }
+
+        private synchronized void exit() {
+            if (--running == 0) notifyAll();
+        }
+
+        private synchronized void fail(@NotNull final IOException exception) {
+            if (error == null) {
+                error = exception;
+            } else {
+                error.addSuppressed(exception);
+            }
+        }
+
+        private synchronized void close() {
+
+            closed = true;
+
+            while (running > 0) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The states of written files.
+     */
+    @NotNull
+    private final ObjectDictionary<Path, Written> writtenFiles;
+
+    private TextureWriter() {
+        this.writtenFiles = DictionaryFactory.newObjectDictionary();
+    }
+
+    /**
+     * Write the textures in parallel and wait for the end of writing.
+     *
+     * @param textures the images by files to write, the images shouldn't be changed during writing.
+     * @throws IOException if some texture wasn't written, other textures are written anyway.
+     */
+    @BackgroundThread
+    public void write(@NotNull final ObjectDictionary<Path, Image> textures) throws IOException {
+        if (textures.isEmpty()) return;
+
+        final WriteBatch batch = new WriteBatch(textures);
+        final int helpers = Math.min(textures.size(), PROP_THREADS) - 1;
+
+        for (int i = 0; i < helpers; i++) {
+            EXECUTOR_MANAGER.addBackgroundTask(() -> help(batch), TaskPriority.INTERACTIVE);
+        }
+
+        // the caller writes textures too, so writing isn't blocked by busy background threads
+        drain(batch);
+
+        batch.close();
+
+        final IOException error = batch.error;
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Write the texture.
+     *
+     * @param file  the file.
+     * @param image the image, the image shouldn't be changed during writing.
+     * @throws IOException if the texture wasn't written.
+     */
+    @BackgroundThread
+    public void write(@NotNull final Path file, @NotNull final Image image) throws IOException {
+        writeImpl(file, image);
+    }
+
+    @BackgroundThread
+    private void help(@NotNull final WriteBatch batch) {
+        if (!batch.enter()) return;
+        try {
+            drain(batch);
+        } finally {
+            batch.exit();
+        }
+    }
+
+    @BackgroundThread
+    private void drain(@NotNull final WriteBatch batch) {
+        for (Path file = batch.queue.poll(); file != null; file = batch.queue.poll()) {
+            final Image image = batch.textures.get(file);
+            if (image == null) continue;
+            try {
+                writeImpl(file, image);
+            } catch (final IOException e) {
+                LOGGER.warning(this, e);
+                batch.fail(e);
+            }
+        }
+    }
+
+    @BackgroundThread
+    private void writeImpl(@NotNull final Path file, @NotNull final Image image) throws IOException {
+
+        final long hash = computeHash(image);
+
+        if (isWritten(file, hash)) {
+            return;
+        }
+
+        final BufferedImage bufferedImage = toBufferedImage(image);
+        final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (final OutputStream out = Files.newOutputStream(tempFile, WRITE, TRUNCATE_EXISTING, CREATE)) {
+            encode(bufferedImage, out);
+        }
+
+        try {
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, REPLACE_EXISTING);
+        }
+
+        final long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        synchronized (writtenFiles) {
+            writtenFiles.put(file, new Written(hash, lastModified));
+        }
+    }
+
+    /**
+     * Check the written state of the file.
+     *
+     * @param file the file.
+     * @param hash the hash of new content.
+     * @return true if the file has the same content and wasn't changed after writing.
+     */
+    @FromAnyThread
+    private boolean isWritten(@NotNull final Path file, final long hash) throws IOException {
+
+        final Written written;
+
+        synchronized (writtenFiles) {
+            written = writtenFiles.get(file);
+        }
+
+        return written != null && written.hash == hash && Files.exists(file) &&
+                Files.getLastModifiedTime(file).toMillis() == written.lastModified;
+    }
+
+    /**
+     * Encode the image to PNG using the fastest deflate level. The PNG writer of ImageIO in JDK 8 doesn't support
+     * changing the compression level, so the PNG stream is written directly.
+     *
+     * @param image the image.
+     * @param out   the output stream.
+     * @throws IOException if the image can't be encoded.
+     */
+    @BackgroundThread
+    private static void encode(@NotNull final BufferedImage image, @NotNull final OutputStream out)
+            throws IOException {
+
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final boolean alpha = image.getColorModel().hasAlpha();
+        final int bpp = alpha ? 4 : 3;
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        output.write(PNG_SIGNATURE);
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        final DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(width);
+        headerOut.writeInt(height);
+        headerOut.writeByte(8);
+        headerOut.writeByte(alpha ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB);
+        headerOut.writeByte(0);
+        headerOut.writeByte(0);
+        headerOut.writeByte(0);
+
+        writeChunk(output, CHUNK_IHDR, header.toByteArray(), header.size());
+
+        final ChunkOutputStream chunks = new ChunkOutputStream(output, CHUNK_IDAT);
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        try (final DeflaterOutputStream deflated = new DeflaterOutputStream(chunks, deflater, BUFFER_SIZE)) {
+
+            final int[] pixels = new int[width];
+            final byte[] row = new byte[width * bpp + 1];
+
+            // each row is filtered by the sub filter which is cheap and makes the fast deflate much better
+            row[0] = FILTER_SUB;
+
+            for (int y = 0; y < height; y++) {
+
+                image.getRGB(0, y, width, 1, pixels, 0, width);
+
+                int prevR = 0, prevG = 0, prevB = 0, prevA = 0;
+
+                for (int x = 0, offset = 1; x < width; x++) {
+
+                    final int pixel = pixels[x];
+                    final int r = pixel >>> 16, g = pixel >>> 8, b = pixel, a = pixel >>> 24;
+
+                    row[offset++] = (byte) (r - prevR);
+                    row[offset++] = (byte) (g - prevG);
+                    row[offset++] = (byte) (b - prevB);
+
+                    if (alpha) {
+                        row[offset++] = (byte) (a - prevA);
+                    }
+
+                    prevR = r;
+                    prevG = g;
+                    prevB = b;
+                    prevA = a;
+                }
+
+                deflated.write(row);
+            }
+
+        } finally {
+            deflater.end();
+        }
+
+        writeChunk(output, CHUNK_IEND, new byte[0], 0);
+        output.flush();
+    }
+
+    /**
+     * Write the PNG chunk.
+     *
+     * @param out    the output stream.
+     * @param type   the type of the chunk.
+     * @param data   the data of the chunk.
+     * @param length the length of the data.
+     * @throws IOException if the chunk can't be written.
+     */
+    private static void writeChunk(@NotNull final DataOutputStream out, @NotNull final byte[] type,
+                                   @NotNull final byte[] data, final int length) throws IOException {
+
+        final CRC32 crc32 = new CRC32();
+        crc32.update(type);
+        crc32.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(type);
+        out.write(data, 0, length);
+        out.writeInt((int) crc32.getValue());
+    }
+
+    /**
+     * The stream which splits written data to PNG chunks of the same type.
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        /**
+         * The output stream of the PNG file.
+         */
+        @NotNull
+        private final DataOutputStream out;
+
+        /**
+         * The type of chunks.
+         */
+        @NotNull
+        private final byte[] type;
+
+        /**
+         * The data of the current chunk.
+         */
+        @NotNull
+        private final byte[] buffer;
+
+        /**
+         * The length of data of the current chunk.
+         */
+        private int length;
+
+        private ChunkOutputStream(@NotNull final DataOutputStream out, @NotNull final byte[] type) {
+            this.out = out;
+            this.type = type;
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+
+        @Override
+        public void write(final int value) throws IOException {
+            if (length == buffer.length) flushChunk();
+            buffer[length++] = (byte) value;
+        }
+
+        @Override
+        public void write(@NotNull final byte[] data, int offset, int count) throws IOException {
+            while (count > 0) {
+
+                if (length == buffer.length) flushChunk();
+
+                final int toCopy = Math.min(count, buffer.length - length);
+                System.arraycopy(data, offset, buffer, length, toCopy);
+
+                length += toCopy;
+                offset += toCopy;
+                count -= toCopy;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (length > 0) flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            writeChunk(out, type, buffer, length);
+            length = 0;
+        }
+    }
+
+    /**
+     * Convert the image to an AWT image, 8 bit RGB formats are copied directly and other formats are converted by
+     * {@link ImageToAwt}.
+     *
+     * @param image the image.
+     * @return the AWT image.
+     */
+    @NotNull
+    @BackgroundThread
+    private static BufferedImage toBufferedImage(@NotNull final Image image) {
+
+        final Image.Format format = image.getFormat();
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final ByteBuffer data = image.getData(0).duplicate();
+
+        data.rewind();
+
+        final int r, g, b, a, bpp;
+
+        switch (format) {
+            case RGBA8: r = 0; g = 1; b = 2; a = 3; bpp = 4; break;
+            case ABGR8: r = 3; g = 2; b = 1; a = 0; bpp = 4; break;
+            case BGRA8: r = 2; g = 1; b = 0; a = 3; bpp = 4; break;
+            case ARGB8: r = 1; g = 2; b = 3; a = 0; bpp = 4; break;
+            case RGB8: r = 0; g = 1; b = 2; a = -1; bpp = 3; break;
+            case BGR8: r = 2; g = 1; b = 0; a = -1; bpp = 3; break;
+            default: return ImageToAwt.convert(image, false, true, 0);
+        }
+
+        final int type = a < 0 ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        final BufferedImage result = new BufferedImage(width, height, type);
+        final int[] pixels = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+        final byte[] pixel = new byte[bpp];
+
+        for (int i = 0, length = width * height; i < length; i++) {
+
+            data.get(pixel);
+
+            final int alpha = a < 0 ? 0xFF : pixel[a] & 0xFF;
+
+            pixels[i] = (alpha << 24) | ((pixel[r] & 0xFF) << 16) | ((pixel[g] & 0xFF) << 8) | (pixel[b] & 0xFF);
+        }
+
+        return result;
+    }
+
+    /**
+     * Compute the 64 bit hash of the content of the image.
+     *
+     * @param image the image.
+     * @return the hash.
+     */
+    @BackgroundThread
+    private static long computeHash(@NotNull final Image image) {
+
+        final CRC32 crc32 = new CRC32();
+        final Adler32 adler32 = new Adler32();
+
+        for (final ByteBuffer buffer : image.getData()) {
+
+            final ByteBuffer data = buffer.duplicate();
+            data.rewind();
+            crc32.update(data);
+
+            data.rewind();
+            adler32.update(data);
+        }
+
+        final long size = ((long) image.getWidth() << 32) | image.getHeight();
+
+        return ((crc32.getValue() << 32) | adler32.getValue()) ^ size ^ image.getFormat().ordinal();
+    }
+}
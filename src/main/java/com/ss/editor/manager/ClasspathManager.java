@@ -5,24 +5,36 @@ import com.jme3.asset.AssetManager;
 import com.ss.editor.Editor;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.config.Config;
 import com.ss.editor.config.EditorConfig;
-import com.ss.rlib.classpath.ClassPathScanner;
-import com.ss.rlib.classpath.ClassPathScannerFactory;
-import com.ss.rlib.manager.InitializeManager;
+import com.ss.editor.file.index.ClassIndex;
+import com.ss.editor.file.index.ClassIndex.Implementations;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
 import com.ss.rlib.plugin.PluginContainer;
 import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.Utils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 /**
  * The class to manage classpath.
@@ -31,6 +43,15 @@ import java.nio.file.Paths;
  */
 public class ClasspathManager {
 
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(ClasspathManager.class);
+
+    @NotNull
+    private static final String INDEX_FILE = "classes.index";
+
+    @NotNull
+    private static final String CLASS_PATH_KEY = "Class-Path";
+
     @NotNull
     private static final EditorConfig EDITOR_CONFIG = EditorConfig.getInstance();
 
@@ -58,16 +79,33 @@ public class ClasspathManager {
     }
 
     /**
-     * The core classpath scanner.
+     * The index of classes of the core and custom classpath.
      */
     @NotNull
-    private final ClassPathScanner coreScanner;
+    private final ClassIndex classIndex;
 
     /**
-     * The custom classpath scanner.
+     * The implementations of the core classpath.
+     */
+    @NotNull
+    private final Implementations coreImplementations;
+
+    /**
+     * The implementations of the custom classpath.
      */
     @Nullable
-    private volatile ClassPathScanner customScanner;
+    private volatile Implementations customImplementations;
+
+    /**
+     * The found implementations by interfaces.
+     */
+    @NotNull
+    private final ObjectDictionary<Class<?>, Array<Class<?>>> foundImplements;
+
+    /**
+     * The version of found implementations, it is changed on each reloading of the classpath.
+     */
+    private int foundVersion;
 
     /**
      * The libraries class loader.
@@ -82,27 +120,109 @@ public class ClasspathManager {
     private volatile URLClassLoader classesLoader;
 
     private ClasspathManager() {
-        InitializeManager.valid(getClass());
-
-        coreScanner = ClassPathScannerFactory.newManifestScanner(Editor.class, "Class-Path");
-        coreScanner.setUseSystemClasspath(true);
-        coreScanner.scan(path -> {
-
-            if (CORE_LIBRARIES_NAMES.search(path, (pattern, pth) -> pth.contains(pattern)) == null) {
-                return false;
-            } else if (path.contains("natives")) {
-                return false;
-            } else if (path.contains("sources") || path.contains("javadoc")) {
-                return false;
-            }
-
-            return true;
-        });
+        this.classIndex = new ClassIndex(Config.getAppFolderInUserHome().resolve(INDEX_FILE));
+        this.classIndex.load();
+        this.coreImplementations = classIndex.index(getCorePaths(), getClass().getClassLoader());
+        this.classIndex.flush();
+        this.foundImplements = DictionaryFactory.newObjectDictionary();
 
         final ExecutorManager executorManager = ExecutorManager.getInstance();
         executorManager.addJMETask(this::reload);
     }
 
+    /**
+     * Get paths of the core libraries from the system classpath and the manifest classpath of the editor.
+     *
+     * @return the paths of the core libraries.
+     */
+    @NotNull
+    private static Array<Path> getCorePaths() {
+
+        final Array<Path> result = ArrayFactory.newArraySet(Path.class);
+
+        for (final String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!isCoreLibrary(path)) continue;
+            try {
+                addCorePath(result, Paths.get(path));
+            } catch (final InvalidPathException e) {
+                LOGGER.warning("can't read the classpath entry " + path);
+            }
+        }
+
+        final CodeSource codeSource = Editor.class.getProtectionDomain().getCodeSource();
+        final URL location = codeSource == null ? null : codeSource.getLocation();
+        final Manifest manifest = location == null ? null : getManifest(location);
+        final String value = manifest == null ? null : manifest.getMainAttributes().getValue(CLASS_PATH_KEY);
+        if (value == null) return result;
+
+        for (final String entry : value.split(" ")) {
+            if (!isCoreLibrary(entry)) continue;
+            // entries of the manifest classpath are URLs relative to the jar of the editor
+            try {
+                addCorePath(result, Paths.get(new URL(location, entry).toURI()));
+            } catch (final MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+                LOGGER.warning("can't decode the manifest classpath entry " + entry);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the manifest of the jar.
+     *
+     * @param location the location of the jar.
+     * @return the manifest or null if the location isn't a jar or the jar doesn't have a manifest.
+     */
+    @Nullable
+    private static Manifest getManifest(@NotNull final URL location) {
+
+        try {
+
+            final Path file = Paths.get(location.toURI());
+            if (!Files.isRegularFile(file)) return null;
+
+            try (final JarFile jarFile = new JarFile(file.toFile())) {
+                return jarFile.getManifest();
+            }
+
+        } catch (final URISyntaxException | IOException | IllegalArgumentException e) {
+            LOGGER.warning(e);
+            return null;
+        }
+    }
+
+    /**
+     * Check the classpath entry.
+     *
+     * @param path the classpath entry.
+     * @return true if the entry is a core library.
+     */
+    private static boolean isCoreLibrary(@NotNull final String path) {
+
+        if (CORE_LIBRARIES_NAMES.search(path, (pattern, pth) -> pth.contains(pattern)) == null) {
+            return false;
+        } else if (path.contains("natives")) {
+            return false;
+        } else if (path.contains("sources") || path.contains("javadoc")) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Add the path of the core library to the list if it exists.
+     *
+     * @param result the list of paths of the core libraries.
+     * @param file   the path of the core library.
+     */
+    private static void addCorePath(@NotNull final Array<Path> result, @NotNull final Path file) {
+        if (Files.exists(file)) {
+            result.add(file);
+        }
+    }
+
     /**
      * Get all available resources from classpath.
      *
@@ -111,7 +231,7 @@ public class ClasspathManager {
     @NotNull
     public Array<String> getAllResources() {
         final Array<String> result = ArrayFactory.newArray(String.class);
-        coreScanner.getAllResources(result);
+        coreImplementations.getAllResources(result);
         return result;
     }
 
@@ -126,14 +246,6 @@ public class ClasspathManager {
         final URLClassLoader classesLoader = getClassesLoader();
         final ClassLoader classLoader = classesLoader == null ? librariesLoader : classesLoader;
 
-        final ClassPathScanner scanner = classesLoader == null ? ClassPathScannerFactory.newDefaultScanner() :
-                ClassPathScannerFactory.newDefaultScanner(classLoader);
-
-        if (librariesLoader == null && classesLoader == null) {
-            this.customScanner = scanner;
-            return;
-        }
-
         final Array<URL> urls = ArrayFactory.newArray(URL.class);
 
         if (librariesLoader != null) {
@@ -144,16 +256,22 @@ public class ClasspathManager {
             urls.addAll(classesLoader.getURLs());
         }
 
-        final String[] paths = urls.stream().map(url -> Utils.get(url, URL::toURI))
+        final Array<Path> paths = ArrayFactory.newArray(Path.class);
+
+        urls.stream().map(url -> Utils.get(url, URL::toURI))
                 .map(Paths::get)
-                .map(Path::toString)
-                .toArray(String[]::new);
+                .forEach(paths::add);
+
+        final ClassLoader loader = classLoader == null ? getClass().getClassLoader() : classLoader;
 
-        scanner.addAdditionalPaths(paths);
-        scanner.setUseSystemClasspath(false);
-        scanner.scan(path -> true);
+        this.customImplementations = classIndex.index(paths, loader);
 
-        this.customScanner = scanner;
+        classIndex.flush();
+
+        synchronized (foundImplements) {
+            foundImplements.clear();
+            foundVersion++;
+        }
     }
 
     /**
@@ -265,24 +383,73 @@ public class ClasspathManager {
     }
 
     /**
-     * Find all implementations of the interface class.
+     * Find all implementations of the interface class. Implementations of the core and custom classpath are looked
+     * up in the class index, found implementations are kept until the next reload.
      *
      * @return the list of all available implementations.
      */
     @NotNull
+    @FromAnyThread
+    @SuppressWarnings("unchecked")
     public <T> Array<Class<T>> findImplements(@NotNull final Class<T> interfaceClass) {
 
-        final Array<Class<T>> result = ArrayFactory.newArray(Class.class);
+        if (!interfaceClass.isInterface()) {
+            throw new RuntimeException("class " + interfaceClass + " is not interface.");
+        }
+
+        Array<Class<?>> found;
+        int version;
 
-        coreScanner.findImplements(result, interfaceClass);
-        customScanner.findImplements(result, interfaceClass);
+        synchronized (foundImplements) {
+            found = foundImplements.get(interfaceClass);
+            version = foundVersion;
+        }
+
+        if (found == null) {
+
+            // loading classes can take time, so implementations are collected without the lock and the first
+            // collected list is kept, a list collected before reloading of the classpath isn't kept
+            final Array<Class<?>> collected = ArrayFactory.newArray(Class.class);
+            collectImplements(interfaceClass, (Array<Class<T>>) (Array) collected);
+
+            synchronized (foundImplements) {
+
+                found = foundImplements.get(interfaceClass);
+
+                if (found == null) {
+                    found = collected;
+                    if (version == foundVersion) foundImplements.put(interfaceClass, collected);
+                }
+            }
+        }
+
+        final Array<Class<T>> result = ArrayFactory.newArray(Class.class, found.size());
+        result.addAll((Array<Class<T>>) (Array) found);
+
+        return result;
+    }
+
+    /**
+     * Collect all implementations of the interface class from the core and custom classpath and plugins.
+     *
+     * @param interfaceClass the interface class.
+     * @param result         the list of found implementations.
+     */
+    private <T> void collectImplements(@NotNull final Class<T> interfaceClass,
+                                       @NotNull final Array<Class<T>> result) {
+
+        coreImplementations.findImplements(result, interfaceClass);
+
+        final Implementations customImplementations = this.customImplementations;
+
+        if (customImplementations != null) {
+            customImplementations.findImplements(result, interfaceClass);
+        }
 
         final PluginManager pluginManager = PluginManager.getInstance();
         pluginManager.handlePlugins(plugin -> {
             final PluginContainer container = plugin.getContainer();
             container.getScanner().findImplements(result, interfaceClass);
         });
-
-        return result;
     }
 }
@@ -2,15 +2,17 @@ package com.ss.editor.manager;
 
 import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.executor.EditorTaskExecutor;
-import com.ss.editor.executor.impl.BackgroundEditorTaskExecutor;
+import com.ss.editor.executor.TaskPriority;
 import com.ss.editor.executor.impl.FXEditorTaskExecutor;
 import com.ss.editor.executor.impl.JMEThreadExecutor;
-import com.ss.rlib.concurrent.atomic.AtomicInteger;
+import com.ss.editor.executor.impl.PriorityBackgroundTaskExecutor;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -51,10 +53,10 @@ public class ExecutorManager {
     private final ScheduledExecutorService scheduledExecutorService;
 
     /**
-     * The list of background tasks executors.
+     * The executor of background tasks.
      */
     @NotNull
-    private final EditorTaskExecutor[] backgroundTaskExecutors;
+    private final PriorityBackgroundTaskExecutor backgroundTaskExecutor;
 
     /**
      * The executor of editor tasks.
@@ -68,48 +70,70 @@ public class ExecutorManager {
     @NotNull
     private final EditorTaskExecutor fxEditorTaskExecutor;
 
-    /**
-     * The index of a next background executor.
-     */
-    @NotNull
-    private final AtomicInteger nextBackgroundTaskExecutor;
-
     private ExecutorManager() {
 
         this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-        this.backgroundTaskExecutors = new EditorTaskExecutor[PROP_BACKGROUND_TASK_EXECUTORS];
-
-        for (int i = 0, length = backgroundTaskExecutors.length; i < length; i++) {
-            backgroundTaskExecutors[i] = new BackgroundEditorTaskExecutor(i + 1);
-        }
-
+        this.backgroundTaskExecutor = new PriorityBackgroundTaskExecutor(PROP_BACKGROUND_TASK_EXECUTORS);
         this.jmeTasksExecutor = JMEThreadExecutor.getInstance();
         this.fxEditorTaskExecutor = new FXEditorTaskExecutor();
 
-        this.nextBackgroundTaskExecutor = new AtomicInteger(0);
-
         LOGGER.info("initialized.");
     }
 
     /**
-     * Add a new background task.
+     * Add a new background task with the interactive priority.
      *
      * @param task the background task.
      */
     @FromAnyThread
     public void addBackgroundTask(@NotNull final Runnable task) {
+        addBackgroundTask(task, TaskPriority.INTERACTIVE);
+    }
 
-        final EditorTaskExecutor[] executors = getBackgroundTaskExecutors();
-        final AtomicInteger nextTaskExecutor = getNextBackgroundTaskExecutor();
+    /**
+     * Add a new background task.
+     *
+     * @param task     the background task.
+     * @param priority the priority of the task.
+     */
+    @FromAnyThread
+    public void addBackgroundTask(@NotNull final Runnable task, @NotNull final TaskPriority priority) {
+        final PriorityBackgroundTaskExecutor executor = getBackgroundTaskExecutor();
+        executor.execute(task, priority);
+    }
 
-        final int index = nextTaskExecutor.incrementAndGet();
+    /**
+     * Submit a new background task. Cancelling of the returned future removes the task if it isn't started yet.
+     *
+     * @param <T>      the type of a result.
+     * @param task     the background task.
+     * @param priority the priority of the task.
+     * @return the future of the result.
+     */
+    @NotNull
+    @FromAnyThread
+    public <T> CompletableFuture<T> submitBackgroundTask(@NotNull final Callable<T> task,
+                                                         @NotNull final TaskPriority priority) {
+        final PriorityBackgroundTaskExecutor executor = getBackgroundTaskExecutor();
+        return executor.submit(task, priority);
+    }
 
-        if (index < executors.length) {
-            executors[index].execute(task);
-        } else {
-            nextTaskExecutor.set(0);
-            executors[0].execute(task);
-        }
+    /**
+     * Submit a new background task. Cancelling of the returned future removes the task if it isn't started yet.
+     *
+     * @param task     the background task.
+     * @param priority the priority of the task.
+     * @return the future of the result.
+     */
+    @NotNull
+    @FromAnyThread
+    public CompletableFuture<Void> submitBackgroundTask(@NotNull final Runnable task,
+                                                       @NotNull final TaskPriority priority) {
+        final PriorityBackgroundTaskExecutor executor = getBackgroundTaskExecutor();
+        return executor.submit(() -> {
+            task.run();
+            return null;
+        }, priority);
     }
 
     /**
@@ -124,7 +148,7 @@ public class ExecutorManager {
     }
 
     /**
-     * Add a new editor task.
+     * Add a new editor task, the task can be carried over to next frames if the time budget of the frame is spent.
      *
      * @param task the editor task.
      */
@@ -135,27 +159,30 @@ public class ExecutorManager {
     }
 
     /**
-     * @return the list of background tasks executors.
+     * Add a new urgent editor task, the task is executed in the next frame without the time budget.
+     *
+     * @param task the editor task.
      */
-    @NotNull
-    private EditorTaskExecutor[] getBackgroundTaskExecutors() {
-        return backgroundTaskExecutors;
+    @FromAnyThread
+    public void addUrgentJMETask(@NotNull final Runnable task) {
+        final JMEThreadExecutor executor = getJmeTasksExecutor();
+        executor.addUrgentToExecute(task);
     }
 
     /**
-     * @return the executor of javaFX tasks.
+     * @return the executor of background tasks.
      */
     @NotNull
-    private EditorTaskExecutor getFxTaskExecutor() {
-        return fxEditorTaskExecutor;
+    private PriorityBackgroundTaskExecutor getBackgroundTaskExecutor() {
+        return backgroundTaskExecutor;
     }
 
     /**
-     * @return the index of a next background executor.
+     * @return the executor of javaFX tasks.
      */
     @NotNull
-    private AtomicInteger getNextBackgroundTaskExecutor() {
-        return nextBackgroundTaskExecutor;
+    private EditorTaskExecutor getFxTaskExecutor() {
+        return fxEditorTaskExecutor;
     }
 
     /**
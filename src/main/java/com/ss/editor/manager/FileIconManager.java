@@ -11,7 +11,6 @@ import com.ss.editor.util.EditorUtil;
 import com.ss.editor.util.svg.SvgImageLoader;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
-import com.ss.rlib.manager.InitializeManager;
 import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
@@ -149,7 +148,6 @@ public class FileIconManager {
     private final Array<BiFunction<Path, String, String>> iconFinders;
 
     private FileIconManager() {
-        InitializeManager.valid(getClass());
         this.iconFinders = ArrayFactory.newArray(BiFunction.class);
         this.imageCache = DictionaryFactory.newIntegerDictionary();
         this.extensionToUrl = DictionaryFactory.newObjectDictionary();
@@ -2,31 +2,32 @@ package com.ss.editor.manager;
 
 import static com.ss.rlib.util.array.ArrayFactory.asArray;
 import static java.awt.Image.SCALE_DEFAULT;
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.nio.file.StandardOpenOption.WRITE;
 import com.jme3.asset.AssetManager;
 import com.jme3.texture.Texture;
 import com.ss.editor.Editor;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.annotation.FXThread;
+import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.config.Config;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.file.cache.ImagePreviewCache;
 import com.ss.editor.file.reader.DDSReader;
 import com.ss.editor.file.reader.TGAReader;
 import com.ss.editor.ui.Icons;
 import com.ss.editor.ui.event.FXEventManager;
-import com.ss.editor.ui.event.impl.DeletedFileEvent;
+import com.ss.editor.ui.event.impl.ChangedFilesEvent;
 import com.ss.editor.util.EditorUtil;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
-import com.ss.rlib.manager.InitializeManager;
 import com.ss.rlib.util.FileUtils;
-import com.ss.rlib.util.StringUtils;
 import com.ss.rlib.util.Utils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import jme3tools.converters.ImageToAwt;
 import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
@@ -35,12 +36,24 @@ import org.jetbrains.annotations.Nullable;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.attribute.FileTime;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * The class to manage previews of images to JavaFX
@@ -58,6 +71,24 @@ public class JavaFXImageManager {
     @NotNull
     private static final String PREVIEW_CACHE_FOLDER = "preview-cache";
 
+    @NotNull
+    private static final String PREVIEW_STORE_FOLDER = "preview-store";
+
+    /**
+     * The max size of all stored previews in bytes.
+     */
+    private static final long PREVIEW_STORE_MAX_SIZE = 256 * 1024 * 1024;
+
+    /**
+     * The interval between flushes of the storage of previews in ms.
+     */
+    private static final long PREVIEW_STORE_FLUSH_INTERVAL = 10000;
+
+    /**
+     * The max count of background preview loaders.
+     */
+    private static final int PREVIEW_LOADERS = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+
     @NotNull
     private static final Array<String> FX_FORMATS = asArray(
             FileExtensions.IMAGE_PNG,
@@ -96,6 +127,61 @@ public class JavaFXImageManager {
         return IMAGE_FORMATS.contains(extension);
     }
 
+    /**
+     * The request to load a preview in the background.
+     */
+    private static class PreviewRequest {
+
+        /**
+         * The key of the preview.
+         */
+        @NotNull
+        private final String key;
+
+        /**
+         * The url of the image.
+         */
+        @NotNull
+        private final URL url;
+
+        /**
+         * The image file or null if the image is a resource.
+         */
+        @Nullable
+        private final Path file;
+
+        /**
+         * The handlers of the loaded preview by their owners.
+         */
+        @NotNull
+        private final ObjectDictionary<Object, Consumer<Image>> handlers;
+
+        /**
+         * The required width.
+         */
+        private final int width;
+
+        /**
+         * The required height.
+         */
+        private final int height;
+
+        /**
+         * True if nobody waits this preview anymore.
+         */
+        private volatile boolean cancelled;
+
+        private PreviewRequest(@NotNull final String key, @NotNull final URL url, @Nullable final Path file,
+                               final int width, final int height) {
+            this.key = key;
+            this.url = url;
+            this.file = file;
+            this.width = width;
+            this.height = height;
+            this.handlers = DictionaryFactory.newObjectDictionary();
+        }
+    }
+
     @Nullable
     private static JavaFXImageManager instance;
 
@@ -111,33 +197,70 @@ public class JavaFXImageManager {
     }
 
     /**
-     * The cache folder.
+     * The storage of previews.
      */
     @NotNull
-    private final Path cacheFolder;
+    private final ImagePreviewCache cache;
 
-    private JavaFXImageManager() {
-        InitializeManager.valid(getClass());
+    /**
+     * The queue of preview requests, the latest requests are in the head.
+     */
+    @NotNull
+    private final Deque<PreviewRequest> previewQueue;
 
-        final Path appFolder = Config.getAppFolderInUserHome();
+    /**
+     * The table of not finished preview requests by their keys.
+     */
+    @NotNull
+    private final ObjectDictionary<String, PreviewRequest> previewRequests;
 
-        this.cacheFolder = appFolder.resolve(PREVIEW_CACHE_FOLDER);
+    /**
+     * The table of not finished preview requests by their owners.
+     */
+    @NotNull
+    private final ObjectDictionary<Object, PreviewRequest> ownerRequests;
+
+    /**
+     * The count of active background preview loaders.
+     */
+    @NotNull
+    private final AtomicInteger activePreviewLoaders;
+
+    private JavaFXImageManager() {
+        final Path appFolder = Config.getAppFolderInUserHome();
+        final Path legacyCacheFolder = appFolder.resolve(PREVIEW_CACHE_FOLDER);
 
-        if (Files.exists(cacheFolder)) {
-            FileUtils.delete(cacheFolder);
+        // previews were stored as separated files before
+        if (Files.exists(legacyCacheFolder)) {
+            FileUtils.delete(legacyCacheFolder);
         }
 
+        this.cache = new ImagePreviewCache(appFolder.resolve(PREVIEW_STORE_FOLDER), PREVIEW_STORE_MAX_SIZE);
+        this.previewQueue = new ConcurrentLinkedDeque<>();
+        this.previewRequests = DictionaryFactory.newObjectDictionary();
+        this.ownerRequests = DictionaryFactory.newObjectDictionary();
+        this.activePreviewLoaders = new AtomicInteger();
+
         final ExecutorManager executorManager = ExecutorManager.getInstance();
-        executorManager.addFXTask(() -> FX_EVENT_MANAGER.addEventHandler(DeletedFileEvent.EVENT_TYPE,
-                event -> processEvent((DeletedFileEvent) event)));
+        executorManager.addFXTask(() -> FX_EVENT_MANAGER.addEventHandler(ChangedFilesEvent.EVENT_TYPE,
+                event -> processEvent((ChangedFilesEvent) event)));
+        executorManager.scheduleAtFixedRate(cache::flush, PREVIEW_STORE_FLUSH_INTERVAL);
     }
 
     /**
-     * @return the cache folder.
+     * @return the storage of previews.
      */
     @NotNull
-    private Path getCacheFolder() {
-        return cacheFolder;
+    private ImagePreviewCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Write all changes of the storage of previews to the disk.
+     */
+    @FromAnyThread
+    public void flushCache() {
+        getCache().flush();
     }
 
     /**
@@ -153,10 +276,14 @@ public class JavaFXImageManager {
     public Image getImagePreview(@Nullable final Path file, final int width, final int height) {
         if (file == null || !Files.exists(file)) return Icons.IMAGE_512;
 
-        final FileTime lastModFile = Utils.get(file, first -> Files.getLastModifiedTime(first));
+        final BasicFileAttributes attributes = Utils.get(file,
+                first -> Files.readAttributes(first, BasicFileAttributes.class));
+
         final URL url = Utils.get(file, first -> first.toUri().toURL());
+        final long size = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
 
-        return getImagePreview(url, lastModFile, width, height);
+        return getImagePreview(url, size, lastModified, width, height);
     }
 
     /**
@@ -171,113 +298,487 @@ public class JavaFXImageManager {
     @FXThread
     public Image getImagePreview(@Nullable final String resourcePath, final int width, final int height) {
 
-        URL url = getClass().getResource(resourcePath);
+        final URL url = resourcePath == null ? null : getResourceURL(resourcePath);
 
         if (url == null) {
-            url = getClass().getResource("/" + resourcePath);
+            return Icons.IMAGE_512;
         }
 
+        return getImagePreview(url, -1, -1, width, height);
+    }
+
+    /**
+     * Load an image preview in the background to the image view. The image view shows a placeholder until the
+     * preview is loaded, the previous request of the image view is cancelled.
+     *
+     * @param imageView the image view.
+     * @param file      the image file.
+     * @param width     the required width.
+     * @param height    the required height.
+     */
+    @FXThread
+    public void loadImagePreview(@NotNull final ImageView imageView, @Nullable final Path file, final int width,
+                                 final int height) {
+        imageView.setImage(Icons.IMAGE_512);
+        loadImagePreview(imageView, file, width, height, imageView::setImage);
+    }
+
+    /**
+     * Load an image preview in the background to the image view. The image view shows a placeholder until the
+     * preview is loaded, the previous request of the image view is cancelled.
+     *
+     * @param imageView    the image view.
+     * @param resourcePath the resource path to an image.
+     * @param width        the required width.
+     * @param height       the required height.
+     */
+    @FXThread
+    public void loadImagePreview(@NotNull final ImageView imageView, @Nullable final String resourcePath,
+                                 final int width, final int height) {
+        imageView.setImage(Icons.IMAGE_512);
+        loadImagePreview(imageView, resourcePath, width, height, imageView::setImage);
+    }
+
+    /**
+     * Load an image preview in the background. The previous request of the owner is cancelled.
+     *
+     * @param owner   the owner of the request.
+     * @param file    the image file.
+     * @param width   the required width.
+     * @param height  the required height.
+     * @param handler the handler of the loaded preview, is called in the FX thread.
+     */
+    @FXThread
+    public void loadImagePreview(@NotNull final Object owner, @Nullable final Path file, final int width,
+                                 final int height, @NotNull final Consumer<Image> handler) {
+
+        cancelImagePreview(owner);
+
+        if (file == null) {
+            handler.accept(Icons.IMAGE_512);
+            return;
+        }
+
+        final URL url = Utils.get(file, first -> first.toUri().toURL());
+
+        addPreviewRequest(owner, url, file, width, height, handler);
+    }
+
+    /**
+     * Load an image preview in the background. The previous request of the owner is cancelled.
+     *
+     * @param owner        the owner of the request.
+     * @param resourcePath the resource path to an image.
+     * @param width        the required width.
+     * @param height       the required height.
+     * @param handler      the handler of the loaded preview, is called in the FX thread.
+     */
+    @FXThread
+    public void loadImagePreview(@NotNull final Object owner, @Nullable final String resourcePath, final int width,
+                                 final int height, @NotNull final Consumer<Image> handler) {
+
+        cancelImagePreview(owner);
+
+        final URL url = resourcePath == null ? null : getResourceURL(resourcePath);
+
         if (url == null) {
+            handler.accept(Icons.IMAGE_512);
+            return;
+        }
+
+        addPreviewRequest(owner, url, null, width, height, handler);
+    }
+
+    /**
+     * Cancel the not finished preview request of the owner.
+     *
+     * @param owner the owner of the request.
+     */
+    @FXThread
+    public void cancelImagePreview(@NotNull final Object owner) {
+
+        final PreviewRequest request = ownerRequests.remove(owner);
+        if (request == null) return;
+
+        final ObjectDictionary<Object, Consumer<Image>> handlers = request.handlers;
+        handlers.remove(owner);
+
+        if (handlers.isEmpty()) {
+            request.cancelled = true;
+            previewRequests.remove(request.key);
+        }
+    }
+
+    @FXThread
+    private void addPreviewRequest(@NotNull final Object owner, @NotNull final URL url, @Nullable final Path file,
+                                   final int width, final int height, @NotNull final Consumer<Image> handler) {
+
+        final String key = ImagePreviewCache.toKey(url.toExternalForm(), width, height);
+
+        PreviewRequest request = previewRequests.get(key);
+
+        if (request == null) {
+            request = new PreviewRequest(key, url, file, width, height);
+            previewRequests.put(key, request);
+            previewQueue.addFirst(request);
+        }
+
+        request.handlers.put(owner, handler);
+        ownerRequests.put(owner, request);
+
+        startPreviewLoaders();
+    }
+
+    @FromAnyThread
+    private void startPreviewLoaders() {
+
+        final ExecutorManager executorManager = ExecutorManager.getInstance();
+
+        while (!previewQueue.isEmpty()) {
+
+            final int current = activePreviewLoaders.get();
+            if (current >= PREVIEW_LOADERS) return;
+
+            if (activePreviewLoaders.compareAndSet(current, current + 1)) {
+                executorManager.addBackgroundTask(this::loadPreviews, TaskPriority.PREVIEW);
+            }
+        }
+    }
+
+    @FromAnyThread
+    private void loadPreviews() {
+        try {
+
+            for (PreviewRequest request = previewQueue.pollFirst(); request != null;
+                 request = previewQueue.pollFirst()) {
+
+                if (request.cancelled) continue;
+
+                final PreviewRequest toFinish = request;
+                final Image preview = loadPreview(request);
+
+                final ExecutorManager executorManager = ExecutorManager.getInstance();
+                executorManager.addFXTask(() -> finishPreviewRequest(toFinish, preview));
+            }
+
+        } finally {
+            activePreviewLoaders.decrementAndGet();
+        }
+
+        startPreviewLoaders();
+    }
+
+    @NotNull
+    @FromAnyThread
+    private Image loadPreview(@NotNull final PreviewRequest request) {
+        try {
+
+            final Path file = request.file;
+
+            if (file == null) {
+                return getImagePreview(request.url, -1, -1, request.width, request.height);
+            } else if (!Files.exists(file)) {
+                return Icons.IMAGE_512;
+            }
+
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+
+            return getImagePreview(request.url, attributes.size(), lastModified, request.width, request.height);
+
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warning(this, e);
             return Icons.IMAGE_512;
         }
+    }
 
-        return getImagePreview(url, null, width, height);
+    @FXThread
+    private void finishPreviewRequest(@NotNull final PreviewRequest request, @NotNull final Image preview) {
+
+        if (previewRequests.get(request.key) == request) {
+            previewRequests.remove(request.key);
+        }
+
+        request.handlers.forEach((owner, handler) -> {
+
+            if (ownerRequests.get(owner) != request) return;
+
+            ownerRequests.remove(owner);
+            handler.accept(preview);
+        });
+
+        request.handlers.clear();
+    }
+
+    @Nullable
+    private URL getResourceURL(@NotNull final String resourcePath) {
+
+        final URL url = getClass().getResource(resourcePath);
+
+        if (url == null) {
+            return getClass().getResource("/" + resourcePath);
+        }
+
+        return url;
     }
 
     @NotNull
-    private Image getImagePreview(@NotNull URL url, @Nullable final FileTime lastModFile,
+    @FromAnyThread
+    private Image getImagePreview(@NotNull final URL url, final long size, final long lastModified,
                                   final int width, final int height) {
 
         final String externalForm = url.toExternalForm();
-        final String fileHash = StringUtils.toMD5(externalForm) + ".png";
+        final String key = ImagePreviewCache.toKey(externalForm, width, height);
 
-        final Path cacheFolder = getCacheFolder();
-        final Path imageFolder = cacheFolder.resolve(String.valueOf(width)).resolve(String.valueOf(height));
-        final Path cacheFile = imageFolder.resolve(fileHash);
+        final ImagePreviewCache cache = getCache();
+        final byte[] cached = cache.get(key, size, lastModified);
 
-        if (Files.exists(cacheFile)) {
+        if (cached != null) {
+            return new Image(new ByteArrayInputStream(cached));
+        }
 
-            final FileTime lastModCacheFile = Utils.get(cacheFile, file -> Files.getLastModifiedTime(file));
+        final BufferedImage preview = readPreview(url, width, height);
 
-            if (lastModFile == null || lastModCacheFile.compareTo(lastModFile) >= 0) {
-                final String pathToCache = Utils.get(cacheFile, first -> first.toUri().toURL().toExternalForm());
-                return new Image(pathToCache, width, height, false, false);
-            }
+        if (preview == null) {
+            writeToCache(key, externalForm, size, lastModified, SwingFXUtils.fromFXImage(Icons.IMAGE_512, null));
+            return Icons.IMAGE_512;
+        }
+
+        final byte[] content = writeToCache(key, externalForm, size, lastModified, preview);
+
+        if (content == null) {
+            return SwingFXUtils.toFXImage(preview, null);
         }
 
-        Utils.run(cacheFile, first -> Files.createDirectories(first.getParent()));
+        return new Image(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Read and scale an image to a preview.
+     *
+     * @param url    the url of the image.
+     * @param width  the required width.
+     * @param height the required height.
+     * @return the preview or null if the image can't be read.
+     */
+    @Nullable
+    private BufferedImage readPreview(@NotNull final URL url, final int width, final int height) {
 
+        final String externalForm = url.toExternalForm();
         final String extension = FileUtils.getExtension(externalForm);
 
         if (FX_FORMATS.contains(extension)) {
-            return readFXImage(width, height, externalForm, cacheFile);
+            return readFXImage(width, height, externalForm);
         } else if (JME_FORMATS.contains(extension)) {
-            return readJMETexture(width, height, externalForm, cacheFile);
+            return readJMETexture(width, height, externalForm);
         } else if (IMAGE_IO_FORMATS.contains(extension)) {
-            return readIOImage(url, width, height, cacheFile);
+            return readIOImage(url, width, height);
         } else if (FileExtensions.IMAGE_DDS.equals(extension)) {
 
-            final byte[] content = Utils.get(url, first -> IOUtils.toByteArray(first.openStream()));
-            final int[] pixels = DDSReader.read(content, DDSReader.ARGB, 0);
-            final int currentWidth = DDSReader.getWidth(content);
-            final int currentHeight = DDSReader.getHeight(content);
+            final Path file = toFile(url);
+
+            if (file != null) {
+                return readDDSPreview(file, width, height);
+            }
+
+            final ByteBuffer content = Utils.get(url, JavaFXImageManager::readContent);
+
+            // the smallest mipmap which is still not less than the preview
+            final int mipmapLevel = DDSReader.getMipmapLevel(content, width, height);
+            final int levelWidth = DDSReader.getWidth(content, mipmapLevel);
+            final int levelHeight = DDSReader.getHeight(content, mipmapLevel);
+            final int step = getSampleStep(width, height, levelWidth, levelHeight);
+
+            final int[] pixels = DDSReader.read(content, DDSReader.ARGB, mipmapLevel, step);
+
+            if (pixels == null) {
+                return null;
+            }
+
+            final int currentWidth = (levelWidth + step - 1) / step;
+            final int currentHeight = (levelHeight + step - 1) / step;
 
             final BufferedImage read = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
             read.setRGB(0, 0, currentWidth, currentHeight, pixels, 0, currentWidth);
 
-            return scaleAndWrite(width, height, cacheFile, read, currentWidth, currentHeight);
+            return scaleImage(width, height, read, currentWidth, currentHeight);
 
         } else if (FileExtensions.IMAGE_TGA.equals(extension)) {
 
-            final byte[] content = Utils.get(url, first -> IOUtils.toByteArray(first.openStream()));
+            final Path file = toFile(url);
             final BufferedImage awtImage;
             try {
-                awtImage = (BufferedImage) TGAReader.getImage(content);
+                awtImage = file == null ? readTGAImage(url, width, height) : readTGAImage(file, width, height);
             } catch (final Exception e) {
                 LOGGER.warning(e);
-                writeDefaultToCache(cacheFile);
-                return Icons.IMAGE_512;
+                return null;
             }
 
             if (awtImage == null) {
-                return Icons.IMAGE_512;
+                return null;
             }
 
             final int imageWidth = awtImage.getWidth();
             final int imageHeight = awtImage.getHeight();
 
-            return scaleAndWrite(width, height, cacheFile, awtImage, imageWidth, imageHeight);
+            return scaleImage(width, height, awtImage, imageWidth, imageHeight);
+        }
+
+        return null;
+    }
+
+    /**
+     * Read a preview of a DDS file. Only the header and the smallest mipmap level which is still not less than the
+     * preview are read from the file.
+     *
+     * @param file   the DDS file.
+     * @param width  the required width.
+     * @param height the required height.
+     * @return the preview or null if the format isn't supported.
+     */
+    @Nullable
+    private BufferedImage readDDSPreview(@NotNull final Path file, final int width, final int height) {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            final ByteBuffer header = DDSReader.readHeader(channel);
+
+            final int mipmapLevel = DDSReader.getMipmapLevel(header, width, height);
+            final int levelWidth = DDSReader.getWidth(header, mipmapLevel);
+            final int levelHeight = DDSReader.getHeight(header, mipmapLevel);
+            final int step = getSampleStep(width, height, levelWidth, levelHeight);
+
+            final int[] pixels = DDSReader.read(channel, header, DDSReader.ARGB, mipmapLevel, 0, 0, levelWidth,
+                    levelHeight, step);
+
+            if (pixels == null) {
+                return null;
+            }
+
+            final int currentWidth = (levelWidth + step - 1) / step;
+            final int currentHeight = (levelHeight + step - 1) / step;
+
+            final BufferedImage read = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+            read.setRGB(0, 0, currentWidth, currentHeight, pixels, 0, currentWidth);
+
+            return scaleImage(width, height, read, currentWidth, currentHeight);
+
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warning(e);
+            return null;
+        }
+    }
+
+    /**
+     * Read a TGA file reduced to the preview, only the sampled rows of uncompressed files are read.
+     */
+    @NotNull
+    private static BufferedImage readTGAImage(@NotNull final Path file, final int width, final int height)
+            throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = TGAReader.readHeader(channel);
+            final int step = getSampleStep(width, height, TGAReader.getWidth(header), TGAReader.getHeight(header));
+            return TGAReader.getImage(channel, header, step);
         }
+    }
 
-        return Icons.IMAGE_512;
+    /**
+     * Read a TGA resource reduced to the preview, resources can't be read positionally, so the whole content is read.
+     */
+    @Nullable
+    private static BufferedImage readTGAImage(@NotNull final URL url, final int width, final int height) {
+        final ByteBuffer content = Utils.get(url, JavaFXImageManager::readContent);
+        final int step = getSampleStep(width, height, TGAReader.getWidth(content), TGAReader.getHeight(content));
+        return TGAReader.getImage(content, step);
     }
 
-    private void writeDefaultToCache(@NotNull final Path cacheFile) {
-        final BufferedImage bufferedImage = SwingFXUtils.fromFXImage(Icons.IMAGE_512, null);
-        try (final OutputStream out = Files.newOutputStream(cacheFile, WRITE, TRUNCATE_EXISTING, CREATE)) {
-            ImageIO.write(bufferedImage, "png", out);
-        } catch (final IOException ex) {
-            LOGGER.warning(ex);
+    /**
+     * Get the file of an url.
+     *
+     * @param url the url.
+     * @return the file or null if the url isn't a file.
+     */
+    @Nullable
+    private static Path toFile(@NotNull final URL url) {
+
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return Paths.get(url.toURI());
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+            return null;
         }
     }
 
+    /**
+     * Get content of a resource image which can't be read positionally.
+     *
+     * @param url the url of the image.
+     * @return the content.
+     * @throws IOException if the content can't be read.
+     */
     @NotNull
-    private Image readIOImage(@NotNull final URL url, final int width, final int height, @NotNull final Path cacheFile) {
+    private static ByteBuffer readContent(@NotNull final URL url) throws IOException {
+        try (final InputStream in = url.openStream()) {
+            final byte[] content = IOUtils.toByteArray(in);
+            return ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Calculate a step between decoded pixels to get an image which is still not less than the preview.
+     *
+     * @return the step.
+     */
+    private static int getSampleStep(final int width, final int height, final int imageWidth, final int imageHeight) {
+        return Math.max(1, Math.min(imageWidth / Math.max(width, 1), imageHeight / Math.max(height, 1)));
+    }
+
+    /**
+     * Encode a preview to PNG and put it to the storage of previews.
+     *
+     * @return the encoded preview or null if it can't be encoded.
+     */
+    @Nullable
+    private byte[] writeToCache(@NotNull final String key, @NotNull final String source, final long size,
+                                final long lastModified, @NotNull final BufferedImage preview) {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(preview, "png", out);
+        } catch (final IOException e) {
+            LOGGER.warning(e);
+            return null;
+        }
+
+        final byte[] content = out.toByteArray();
+
+        getCache().put(key, source, size, lastModified, content);
+
+        return content;
+    }
+
+    @Nullable
+    private BufferedImage readIOImage(@NotNull final URL url, final int width, final int height) {
 
         final BufferedImage read;
         try {
             read = ImageIO.read(url);
         } catch (final IOException e) {
             EditorUtil.handleException(LOGGER, this, e);
-            return Icons.IMAGE_512;
+            return null;
         }
 
-        return scaleAndWrite(width, height, cacheFile, read, read.getWidth(), read.getHeight());
+        if (read == null) {
+            return null;
+        }
+
+        return scaleImage(width, height, read, read.getWidth(), read.getHeight());
     }
 
-    @NotNull
-    private Image readJMETexture(final int width, final int height, @NotNull final String externalForm,
-                                 @NotNull final Path cacheFile) {
+    @Nullable
+    private BufferedImage readJMETexture(final int width, final int height, @NotNull final String externalForm) {
 
         final Editor editor = Editor.getInstance();
         final AssetManager assetManager = editor.getAssetManager();
@@ -288,18 +789,17 @@ public class JavaFXImageManager {
             textureImage = ImageToAwt.convert(texture.getImage(), false, true, 0);
         } catch (final UnsupportedOperationException e) {
             EditorUtil.handleException(LOGGER, this, e);
-            return Icons.IMAGE_512;
+            return null;
         }
 
         final int imageWidth = textureImage.getWidth();
         final int imageHeight = textureImage.getHeight();
 
-        return scaleAndWrite(width, height, cacheFile, textureImage, imageWidth, imageHeight);
+        return scaleImage(width, height, textureImage, imageWidth, imageHeight);
     }
 
     @NotNull
-    private Image readFXImage(final int width, final int height, @NotNull final String externalForm,
-                              @NotNull final Path cacheFile) {
+    private BufferedImage readFXImage(final int width, final int height, @NotNull final String externalForm) {
 
         Image image = new Image(externalForm);
 
@@ -318,31 +818,7 @@ public class JavaFXImageManager {
             }
         }
 
-        final BufferedImage bufferedImage = SwingFXUtils.fromFXImage(image, null);
-
-        try (final OutputStream out = Files.newOutputStream(cacheFile, WRITE, TRUNCATE_EXISTING, CREATE)) {
-            ImageIO.write(bufferedImage, "png", out);
-        } catch (final IOException e) {
-            LOGGER.warning(e);
-        }
-
-        return image;
-    }
-
-    @NotNull
-    private Image scaleAndWrite(final int targetWidth, final int targetHeight, @NotNull final Path cacheFile,
-                                @NotNull final BufferedImage textureImage, final int currentWidth,
-                                final int currentHeight) {
-
-        final BufferedImage newImage = scaleImage(targetWidth, targetHeight, textureImage, currentWidth, currentHeight);
-
-        try (final OutputStream out = Files.newOutputStream(cacheFile, WRITE, TRUNCATE_EXISTING, CREATE)) {
-            ImageIO.write(newImage, "png", out);
-            return new Image(cacheFile.toUri().toString());
-        } catch (final IOException e) {
-            LOGGER.warning(e);
-            return Icons.IMAGE_512;
-        }
+        return SwingFXUtils.fromFXImage(image, null);
     }
 
     @NotNull
@@ -372,7 +848,20 @@ public class JavaFXImageManager {
         return bufferedImage;
     }
 
-    private void processEvent(@NotNull final DeletedFileEvent event) {
-        //TODO need to add remove from cache
+    private void processEvent(@NotNull final ChangedFilesEvent event) {
+
+        final Array<Path> deleted = event.getDeleted();
+        if (deleted.isEmpty()) return;
+
+        final ExecutorManager executorManager = ExecutorManager.getInstance();
+        executorManager.addBackgroundTask(() -> {
+
+            final ImagePreviewCache cache = getCache();
+
+            for (final Path file : deleted) {
+                final String source = Utils.get(file, first -> first.toUri().toURL().toExternalForm());
+                cache.removeSource(source, event.isDirectory(file));
+            }
+        });
     }
 }
@@ -0,0 +1,181 @@
+package com.ss.editor.manager;
+
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.util.StartupTrace;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The initializer of managers by the graph of their dependencies. A manager is initialized in a background thread
+ * when all its dependencies are initialized, so independent managers are initialized in parallel.
+ *
+ * @author JavaSaBr
+ */
+public class ManagerInitializer {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(ManagerInitializer.class);
+
+    @NotNull
+    private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
+
+    /**
+     * The registered managers by their classes.
+     */
+    @NotNull
+    private final ObjectDictionary<Class<?>, Node> nodes;
+
+    /**
+     * The registered managers in the order of registration.
+     */
+    @NotNull
+    private final Array<Node> order;
+
+    /**
+     * Instantiates a new Manager initializer.
+     */
+    public ManagerInitializer() {
+        this.nodes = DictionaryFactory.newObjectDictionary();
+        this.order = ArrayFactory.newArray(Node.class);
+    }
+
+    /**
+     * Register a manager, the dependencies should be registered before.
+     *
+     * @param type         the class of the manager.
+     * @param factory      the factory which initializes the manager.
+     * @param dependencies the classes of managers which should be initialized before.
+     */
+    @FromAnyThread
+    public void register(@NotNull final Class<?> type, @NotNull final Supplier<?> factory,
+                         @NotNull final Class<?>... dependencies) {
+
+        if (nodes.containsKey(type)) {
+            throw new IllegalArgumentException("The manager " + type + " is already registered.");
+        }
+
+        final Node node = new Node(type, factory, dependencies.length);
+
+        for (final Class<?> dependency : dependencies) {
+
+            final Node dependencyNode = nodes.get(dependency);
+
+            if (dependencyNode == null) {
+                throw new IllegalArgumentException("The dependency " + dependency + " of the manager " + type +
+                        " isn't registered.");
+            }
+
+            dependencyNode.dependents.add(node);
+        }
+
+        nodes.put(type, node);
+        order.add(node);
+    }
+
+    /**
+     * Initialize all registered managers and wait for finishing.
+     *
+     * @throws InterruptedException if the current thread was interrupted while waiting.
+     */
+    @FromAnyThread
+    public void initialize() throws InterruptedException {
+
+        final CountDownLatch latch = new CountDownLatch(order.size());
+
+        for (final Node node : order) {
+            if (node.waiting.get() == 0) {
+                submit(node, latch);
+            }
+        }
+
+        latch.await();
+    }
+
+    /**
+     * Submit the manager to initialize in background.
+     *
+     * @param node  the manager.
+     * @param latch the latch of initialized managers.
+     */
+    private void submit(@NotNull final Node node, @NotNull final CountDownLatch latch) {
+        EXECUTOR_MANAGER.addBackgroundTask(() -> initialize(node, latch), TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Initialize the manager and submit its dependents which don't wait for other managers.
+     *
+     * @param node  the manager.
+     * @param latch the latch of initialized managers.
+     */
+    private void initialize(@NotNull final Node node, @NotNull final CountDownLatch latch) {
+
+        final StartupTrace trace = StartupTrace.getInstance();
+        final long begin = trace.begin();
+
+        try {
+            if (node.factory.get() == null) {
+                LOGGER.warning("no initialize class " + node.type);
+            }
+        } catch (final Throwable e) {
+            // like before, a failed manager doesn't stop starting the editor
+            LOGGER.warning(this, e);
+        } finally {
+            trace.end(node.type.getSimpleName(), begin);
+        }
+
+        for (final Node dependent : node.dependents) {
+            if (dependent.waiting.decrementAndGet() == 0) {
+                submit(dependent, latch);
+            }
+        }
+
+        latch.countDown();
+    }
+
+    /**
+     * The registered manager.
+     */
+    private static class Node {
+
+        /**
+         * The class of the manager.
+         */
+        @NotNull
+        private final Class<?> type;
+
+        /**
+         * The factory of the manager.
+         */
+        @NotNull
+        private final Supplier<?> factory;
+
+        /**
+         * The managers which depend on this manager.
+         */
+        @NotNull
+        private final Array<Node> dependents;
+
+        /**
+         * The count of not initialized dependencies.
+         */
+        @NotNull
+        private final AtomicInteger waiting;
+
+        private Node(@NotNull final Class<?> type, @NotNull final Supplier<?> factory, final int dependencies) {
+            this.type = type;
+            this.factory = factory;
+            this.dependents = ArrayFactory.newArray(Node.class);
+            this.waiting = new AtomicInteger(dependencies);
+        }
+    }
+}
@@ -8,7 +8,6 @@ import com.ss.editor.config.Config;
 import com.ss.editor.plugin.EditorPlugin;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
-import com.ss.rlib.manager.InitializeManager;
 import com.ss.rlib.plugin.ConfigurablePluginSystem;
 import com.ss.rlib.plugin.Plugin;
 import com.ss.rlib.plugin.exception.PreloadPluginException;
@@ -46,8 +45,6 @@ public class PluginManager {
     private final ConfigurablePluginSystem pluginSystem;
 
     private PluginManager() {
-        InitializeManager.valid(getClass());
-
         this.pluginSystem = newBasePluginSystem(getClass().getClassLoader());
         this.pluginSystem.setAppVersion(Config.APP_VERSION);
 
@@ -20,17 +20,15 @@ import com.ss.editor.EditorThread;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.config.EditorConfig;
+import com.ss.editor.file.index.AssetIndex;
 import com.ss.editor.ui.event.FXEventManager;
 import com.ss.editor.ui.event.impl.*;
 import com.ss.editor.util.SimpleFileVisitor;
 import com.ss.editor.util.SimpleFolderVisitor;
-import com.ss.rlib.concurrent.util.ThreadUtils;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
-import com.ss.rlib.manager.InitializeManager;
 import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.StringUtils;
-import com.ss.rlib.util.Utils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayComparator;
 import com.ss.rlib.util.array.ArrayFactory;
@@ -46,7 +44,6 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.*;
 import java.nio.file.attribute.FileTime;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -71,6 +68,16 @@ public class ResourceManager extends EditorThread implements AssetEventListener
     @NotNull
     private static final WatchService WATCH_SERVICE;
 
+    /**
+     * The time to wait for next events of a batch of changes in ms.
+     */
+    private static final long WATCH_BATCH_WINDOW = 100;
+
+    /**
+     * The interval to write changes of an asset index to the disk in ms.
+     */
+    private static final long ASSET_INDEX_FLUSH_INTERVAL = 30000;
+
     static {
         try {
             WATCH_SERVICE = FileSystems.getDefault().newWatchService();
@@ -131,22 +138,38 @@ public class ResourceManager extends EditorThread implements AssetEventListener
     private final Array<String> materialDefinitions;
 
     /**
-     * The list of keys for watching to folders.
+     * The table of keys for watching to folders by the folders.
+     */
+    @NotNull
+    private final ObjectDictionary<Path, WatchKey> watchKeys;
+
+    /**
+     * The index of the current asset folder.
+     */
+    @Nullable
+    private volatile AssetIndex assetIndex;
+
+    /**
+     * The lock to open an index of an asset folder.
      */
     @NotNull
-    private final Array<WatchKey> watchKeys;
+    private final Object assetIndexLock;
+
+    /**
+     * The flag of lost events in the watcher.
+     */
+    private boolean overflowed;
 
     /**
      * Instantiates a new Resource manager.
      */
     private ResourceManager() {
-        InitializeManager.valid(getClass());
-
         final ClasspathManager classpathManager = ClasspathManager.getInstance();
 
         this.assetCacheTable = DictionaryFactory.newObjectDictionary();
         this.additionalEnvs = ArrayFactory.newArray(Path.class);
-        this.watchKeys = ArrayFactory.newArray(WatchKey.class);
+        this.watchKeys = DictionaryFactory.newObjectDictionary();
+        this.assetIndexLock = new Object();
         this.classLoaders = ArrayFactory.newArray(URLClassLoader.class);
         this.resourcesInClasspath = classpathManager.getAllResources();
         this.materialDefinitionsInClasspath = ArrayFactory.newArray(String.class);
@@ -159,8 +182,6 @@ public class ResourceManager extends EditorThread implements AssetEventListener
             final FXEventManager fxEventManager = FXEventManager.getInstance();
             fxEventManager.addEventHandler(ChangedCurrentAssetFolderEvent.EVENT_TYPE, event -> processChangeAsset());
             fxEventManager.addEventHandler(RequestedRefreshAssetEvent.EVENT_TYPE, event -> processRefreshAsset());
-            fxEventManager.addEventHandler(CreatedFileEvent.EVENT_TYPE, event -> processEvent((CreatedFileEvent) event));
-            fxEventManager.addEventHandler(DeletedFileEvent.EVENT_TYPE, event -> processEvent((DeletedFileEvent) event));
         });
 
         executorManager.addJMETask(() -> {
@@ -171,6 +192,8 @@ public class ResourceManager extends EditorThread implements AssetEventListener
 
         updateAdditionalEnvs();
         start();
+
+        executorManager.scheduleAtFixedRate(this::flushAssetIndex, ASSET_INDEX_FLUSH_INTERVAL);
     }
 
     @Override
@@ -256,13 +279,11 @@ public class ResourceManager extends EditorThread implements AssetEventListener
     }
 
     /**
-     * Handle a removed file.
+     * Handle a deleted file.
      */
     @FromAnyThread
-    private synchronized void processEvent(@NotNull final DeletedFileEvent event) {
-        if (event.isDirectory()) return;
+    private synchronized void handleDeletedFile(@NotNull final Path file) {
 
-        final Path file = event.getFile();
         final String extension = FileUtils.getExtension(file);
 
         final Path assetFile = notNull(getAssetFile(file), "Not found asset file for " + file);
@@ -288,15 +309,6 @@ public class ResourceManager extends EditorThread implements AssetEventListener
         }
     }
 
-    /**
-     * Handle a created file.
-     */
-    @FromAnyThread
-    private synchronized void processEvent(@NotNull final CreatedFileEvent event) {
-        if (event.isDirectory()) return;
-        handleFile(event.getFile());
-    }
-
     /**
      * @return the list of material definitions in the classpath.
      */
@@ -386,8 +398,8 @@ public class ResourceManager extends EditorThread implements AssetEventListener
         final ObjectDictionary<String, Reference> lastModifyTable = getAssetCacheTable();
         lastModifyTable.clear();
 
-        final Array<WatchKey> watchKeys = getWatchKeys();
-        watchKeys.forEach(WatchKey::cancel);
+        final ObjectDictionary<Path, WatchKey> watchKeys = getWatchKeys();
+        watchKeys.forEach((folder, watchKey) -> watchKey.cancel());
         watchKeys.clear();
 
         final Editor editor = Editor.getInstance();
@@ -406,22 +418,77 @@ public class ResourceManager extends EditorThread implements AssetEventListener
         final Path currentAsset = editorConfig.getCurrentAsset();
         if (currentAsset == null) return;
 
-        try {
-            Files.walkFileTree(currentAsset, (SimpleFileVisitor) (file, attrs) -> handleFile(file));
-        } catch (IOException e) {
-            LOGGER.warning(e);
-        }
+        final AssetIndex assetIndex = openAssetIndex(currentAsset, true);
+        final Array<Path> files = ArrayFactory.newArray(Path.class);
+        final Array<Path> folders = ArrayFactory.newArray(Path.class);
 
-        try {
-            watchKeys.add(currentAsset.register(WATCH_SERVICE, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
-            Files.walkFileTree(currentAsset, (SimpleFolderVisitor) (file, attrs) -> registerFiles(watchKeys, file));
-        } catch (final IOException e) {
-            LOGGER.warning(e);
+        assetIndex.collect(currentAsset, files, folders);
+
+        files.forEach(this::handleFile);
+        folders.forEach(this::registerWatchKey);
+    }
+
+    /**
+     * Get an index of the asset folder, the index is loaded and checked against the file system if it is needed.
+     *
+     * @param assetFolder the asset folder.
+     * @return the index.
+     */
+    @NotNull
+    @FromAnyThread
+    public AssetIndex getAssetIndex(@NotNull final Path assetFolder) {
+        return openAssetIndex(assetFolder, false);
+    }
+
+    /**
+     * Find the loaded index which contains the file.
+     *
+     * @param file the file.
+     * @return the index or null.
+     */
+    @Nullable
+    @FromAnyThread
+    public AssetIndex findAssetIndex(@NotNull final Path file) {
+        final AssetIndex assetIndex = this.assetIndex;
+        return assetIndex != null && file.startsWith(assetIndex.getAssetFolder()) ? assetIndex : null;
+    }
+
+    /**
+     * Open an index of the asset folder.
+     *
+     * @param assetFolder the asset folder.
+     * @param validate    true if need to check the already opened index against the file system.
+     * @return the index.
+     */
+    @NotNull
+    private AssetIndex openAssetIndex(@NotNull final Path assetFolder, final boolean validate) {
+        synchronized (assetIndexLock) {
+
+            final AssetIndex current = this.assetIndex;
+
+            if (current != null && current.getAssetFolder().equals(assetFolder)) {
+                if (validate) current.validate();
+                return current;
+            } else if (current != null) {
+                current.flush();
+            }
+
+            final AssetIndex newIndex = new AssetIndex(assetFolder);
+            newIndex.load();
+            newIndex.flush();
+
+            this.assetIndex = newIndex;
+            return newIndex;
         }
     }
 
-    private static void registerFiles(@NotNull final Array<WatchKey> watchKeys, @NotNull final Path file) {
-        watchKeys.add(get(file, toRegister -> toRegister.register(WATCH_SERVICE, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY)));
+    /**
+     * Write changes of the current asset index to the disk.
+     */
+    @FromAnyThread
+    public void flushAssetIndex() {
+        final AssetIndex assetIndex = this.assetIndex;
+        if (assetIndex != null) assetIndex.flush();
     }
 
     /**
@@ -429,10 +496,16 @@ public class ResourceManager extends EditorThread implements AssetEventListener
      */
     @FromAnyThread
     private synchronized void handleFile(@NotNull final Path file) {
-        if (Files.isDirectory(file)) return;
 
         final String extension = FileUtils.getExtension(file);
 
+        if (!extension.endsWith(FileExtensions.JME_MATERIAL_DEFINITION) &&
+                !extension.endsWith(FileExtensions.JAVA_LIBRARY)) {
+            return;
+        } else if (Files.isDirectory(file)) {
+            return;
+        }
+
         if (extension.endsWith(FileExtensions.JME_MATERIAL_DEFINITION)) {
             final Path assetFile = notNull(getAssetFile(file), "Not found asset file for " + file);
             final Array<String> materialDefinitions = getMaterialDefinitions();
@@ -458,105 +531,274 @@ public class ResourceManager extends EditorThread implements AssetEventListener
     public void run() {
         super.run();
 
+        final ObjectDictionary<Path, WatchEvent.Kind<?>> changes = DictionaryFactory.newObjectDictionary();
+
         while (true) {
-            ThreadUtils.sleep(200);
+            try {
 
-            final Array<WatchKey> watchKeys = getWatchKeys();
+                collectChanges(WATCH_SERVICE.take(), changes);
 
-            List<WatchEvent<?>> watchEvents = null;
-            WatchKey watchKey = null;
+                // bulk changes like a checkout produce many events in a short time, so they are collected to one batch
+                final long deadline = currentTimeMillis() + WATCH_BATCH_WINDOW;
 
-            synchronized (this) {
-                for (final WatchKey key : watchKeys) {
-                    watchKey = key;
-                    watchEvents = key.pollEvents();
-                    if (!watchEvents.isEmpty()) break;
+                for (long wait = WATCH_BATCH_WINDOW; wait > 0; wait = deadline - currentTimeMillis()) {
+                    final WatchKey watchKey = WATCH_SERVICE.poll(wait, TimeUnit.MILLISECONDS);
+                    if (watchKey == null) break;
+                    collectChanges(watchKey, changes);
                 }
+
+            } catch (final InterruptedException | ClosedWatchServiceException e) {
+                return;
             }
 
-            if (watchEvents == null || watchEvents.isEmpty()) continue;
+            try {
+                publishChanges(changes);
+            } catch (final RuntimeException e) {
+                LOGGER.warning(this, e);
+            }
 
-            for (final WatchEvent<?> watchEvent : watchEvents) {
+            changes.clear();
+        }
+    }
 
-                final Path file = (Path) watchEvent.context();
-                final Path folder = (Path) watchKey.watchable();
-                final Path realFile = folder.resolve(file);
+    /**
+     * Collect and coalesce events of the watch key.
+     *
+     * @param watchKey the watch key.
+     * @param changes  the table of coalesced changes by files.
+     */
+    private void collectChanges(@NotNull final WatchKey watchKey,
+                                @NotNull final ObjectDictionary<Path, WatchEvent.Kind<?>> changes) {
 
-                if (watchEvent.kind() == ENTRY_CREATE) {
+        final Path folder = (Path) watchKey.watchable();
 
-                    final boolean directory = Files.isDirectory(realFile);
+        for (final WatchEvent<?> watchEvent : watchKey.pollEvents()) {
 
-                    final CreatedFileEvent event = new CreatedFileEvent();
-                    event.setFile(realFile);
-                    event.setNeedSelect(false);
-                    event.setDirectory(directory);
+            final WatchEvent.Kind<?> kind = watchEvent.kind();
 
-                    if (directory) {
-                        registerWatchKey(realFile);
-                    }
+            if (kind == OVERFLOW) {
+                overflowed = true;
+                continue;
+            }
+
+            final Path file = folder.resolve((Path) watchEvent.context());
+            final WatchEvent.Kind<?> result = coalesce(changes.get(file), kind);
+
+            if (result == null) {
+                changes.remove(file);
+            } else {
+                changes.put(file, result);
+            }
+        }
 
-                    FX_EVENT_MANAGER.notify(event);
+        if (!watchKey.reset()) {
+            removeWatchKey(folder, watchKey);
+        }
+    }
+
+    /**
+     * Coalesce a new event of a file with previous events of the file.
+     *
+     * @param prev the result of previous events or null.
+     * @param kind the kind of the new event.
+     * @return the result of all events or null if the file was created and deleted.
+     */
+    @Nullable
+    private static WatchEvent.Kind<?> coalesce(@Nullable final WatchEvent.Kind<?> prev,
+                                               @NotNull final WatchEvent.Kind<?> kind) {
+
+        if (prev == null) {
+            return kind;
+        } else if (kind == ENTRY_CREATE) {
+            return prev == ENTRY_DELETE ? ENTRY_MODIFY : prev;
+        } else if (kind == ENTRY_DELETE) {
+            return prev == ENTRY_CREATE ? null : ENTRY_DELETE;
+        }
 
-                } else if (watchEvent.kind() == ENTRY_DELETE) {
+        return prev;
+    }
 
-                    final boolean directory = Files.isDirectory(realFile);
+    /**
+     * Apply coalesced changes to this manager and publish them as one event.
+     *
+     * @param changes the table of coalesced changes by files.
+     */
+    private void publishChanges(@NotNull final ObjectDictionary<Path, WatchEvent.Kind<?>> changes) {
 
-                    final DeletedFileEvent event = new DeletedFileEvent();
-                    event.setFile(realFile);
-                    event.setDirectory(directory);
+        if (overflowed) {
+            overflowed = false;
+            FX_EVENT_MANAGER.notify(new RequestedRefreshAssetEvent());
+        }
 
-                    removeWatchKeyFor(realFile);
+        final Array<Path> created = ArrayFactory.newArray(Path.class);
+        final Array<Path> deleted = ArrayFactory.newArray(Path.class);
+        final Array<Path> modified = ArrayFactory.newArray(Path.class);
+        final Array<Path> directories = ArrayFactory.newArray(Path.class);
 
-                    FX_EVENT_MANAGER.notify(event);
+        synchronized (this) {
+            changes.forEach((file, kind) -> {
 
-                } else if (watchEvent.kind() == ENTRY_MODIFY) {
+                // changes inside a created or deleted folder are covered by the change of the folder
+                final boolean covered = changes.get(file.getParent()) == kind;
 
-                    final FileChangedEvent event = new FileChangedEvent();
-                    event.setFile(realFile);
+                if (kind == ENTRY_CREATE) {
 
-                    FX_EVENT_MANAGER.notify(event);
+                    if (covered) {
+                        return;
+                    }
+
+                    final AssetIndex assetIndex = findAssetIndex(file);
+                    if (assetIndex != null) assetIndex.update(file);
+
+                    if (Files.isDirectory(file)) {
+                        directories.add(file);
+                        registerFolder(file, assetIndex);
+                    } else {
+                        handleFile(file);
+                    }
+
+                    created.add(file);
+
+                } else if (kind == ENTRY_DELETE) {
+
+                    if (getWatchKeys().containsKey(file)) {
+                        directories.add(file);
+                        removeWatchKeysFor(file);
+                    } else {
+                        handleDeletedFile(file);
+                    }
+
+                    if (!covered) deleted.add(file);
+
+                } else if (!Files.isDirectory(file)) {
+                    modified.add(file);
                 }
-            }
+            });
+        }
+
+        if (created.isEmpty() && deleted.isEmpty() && modified.isEmpty()) {
+            return;
+        }
+
+        final AssetIndex assetIndex = this.assetIndex;
+
+        if (assetIndex != null) {
+            deleted.forEach(assetIndex, (file, index) -> index.remove(file));
+            modified.forEach(assetIndex, (file, index) -> index.update(file));
+        }
+
+        final ChangedFilesEvent event = new ChangedFilesEvent(created, deleted, modified, directories);
+
+        FX_EVENT_MANAGER.notify(event);
+
+        notifyFileEvents(event);
+    }
+
+    /**
+     * Notify about each changed file by the old events for plugins which still handle them.
+     *
+     * @param event the event with all changed files.
+     */
+    @SuppressWarnings("deprecation")
+    private void notifyFileEvents(@NotNull final ChangedFilesEvent event) {
+
+        for (final Path file : event.getCreated()) {
+            final CreatedFileEvent createdEvent = new CreatedFileEvent();
+            createdEvent.setFile(file);
+            createdEvent.setNeedSelect(false);
+            createdEvent.setDirectory(event.isDirectory(file));
+            FX_EVENT_MANAGER.notify(createdEvent);
+        }
+
+        for (final Path file : event.getDeleted()) {
+            final DeletedFileEvent deletedEvent = new DeletedFileEvent();
+            deletedEvent.setFile(file);
+            deletedEvent.setDirectory(event.isDirectory(file));
+            FX_EVENT_MANAGER.notify(deletedEvent);
+        }
+
+        for (final Path file : event.getModified()) {
+            final FileChangedEvent changedEvent = new FileChangedEvent();
+            changedEvent.setFile(file);
+            FX_EVENT_MANAGER.notify(changedEvent);
         }
     }
 
     /**
-     * Find a watch key for the file.
+     * Register watch keys for the created folder and all folders inside and handle files inside, which could be
+     * created before registering the watch keys.
      *
-     * @param path the file.
-     * @return the watch key or null.
+     * @param folder     the created folder.
+     * @param assetIndex the index which already contains the folder or null.
      */
-    @Nullable
     @FromAnyThread
-    private synchronized WatchKey findWatchKey(@NotNull final Path path) {
-        final Array<WatchKey> watchKeys = getWatchKeys();
-        return watchKeys.search(path, (watchKey, toCheck) -> watchKey.watchable().equals(toCheck));
+    private synchronized void registerFolder(@NotNull final Path folder, @Nullable final AssetIndex assetIndex) {
+
+        if (assetIndex != null) {
+
+            final Array<Path> files = ArrayFactory.newArray(Path.class);
+            final Array<Path> folders = ArrayFactory.newArray(Path.class);
+
+            assetIndex.collect(folder, files, folders);
+
+            files.forEach(this::handleFile);
+            folders.forEach(this::registerWatchKey);
+            return;
+        }
+
+        try {
+            Files.walkFileTree(folder, (SimpleFileVisitor) (file, attrs) -> handleFile(file));
+            Files.walkFileTree(folder, (SimpleFolderVisitor) (file, attrs) -> registerWatchKey(file));
+        } catch (final IOException e) {
+            LOGGER.warning(e);
+        }
     }
 
     /**
-     * Remove a watch key for the file.
+     * Remove watch keys for the folder and all folders inside.
      *
-     * @param path the file.
+     * @param folder the folder.
      */
     @FromAnyThread
-    private synchronized void removeWatchKeyFor(@NotNull final Path path) {
+    private synchronized void removeWatchKeysFor(@NotNull final Path folder) {
 
-        final WatchKey watchKey = findWatchKey(path);
-        if (watchKey == null) return;
+        final ObjectDictionary<Path, WatchKey> watchKeys = getWatchKeys();
+        final Array<Path> toRemove = ArrayFactory.newArray(Path.class);
 
-        final Array<WatchKey> watchKeys = getWatchKeys();
-        watchKeys.fastRemove(watchKey);
-        watchKey.cancel();
+        watchKeys.forEach((path, watchKey) -> {
+            if (path.startsWith(folder)) toRemove.add(path);
+        });
+
+        for (final Path path : toRemove) {
+            notNull(watchKeys.remove(path)).cancel();
+        }
+    }
+
+    /**
+     * Remove the invalid watch key for the folder.
+     *
+     * @param folder   the folder.
+     * @param watchKey the watch key.
+     */
+    @FromAnyThread
+    private synchronized void removeWatchKey(@NotNull final Path folder, @NotNull final WatchKey watchKey) {
+
+        final ObjectDictionary<Path, WatchKey> watchKeys = getWatchKeys();
+
+        if (watchKeys.get(folder) == watchKey) {
+            watchKeys.remove(folder);
+        }
     }
 
     /**
-     * Register a watch key for the file.
+     * Register a watch key for the folder.
      *
-     * @param path the file.
+     * @param folder the folder.
      */
     @FromAnyThread
-    private synchronized void registerWatchKey(@NotNull final Path path) {
-        Utils.run(() -> getWatchKeys().add(path.register(WATCH_SERVICE, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY)));
+    private synchronized void registerWatchKey(@NotNull final Path folder) {
+        final WatchKey watchKey = get(folder, toRegister -> toRegister.register(WATCH_SERVICE, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+        getWatchKeys().put(folder, watchKey);
     }
 
     /**
@@ -574,10 +816,10 @@ public class ResourceManager extends EditorThread implements AssetEventListener
     }
 
     /**
-     * @return the list of keys for watching to folders.
+     * @return the table of keys for watching to folders by the folders.
      */
     @NotNull
-    private Array<WatchKey> getWatchKeys() {
+    private ObjectDictionary<Path, WatchKey> getWatchKeys() {
         return watchKeys;
     }
 }
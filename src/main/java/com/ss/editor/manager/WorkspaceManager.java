@@ -8,7 +8,6 @@ import com.ss.editor.model.workspace.Workspace;
 import com.ss.editor.util.EditorUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import com.ss.rlib.manager.InitializeManager;
 import com.ss.rlib.util.dictionary.DictionaryFactory;
 import com.ss.rlib.util.dictionary.ObjectDictionary;
 
@@ -55,7 +54,6 @@ public class WorkspaceManager {
     private final ObjectDictionary<Path, Workspace> workspaces;
 
     private WorkspaceManager() {
-        InitializeManager.valid(getClass());
         this.workspaces = DictionaryFactory.newObjectDictionary();
     }
 
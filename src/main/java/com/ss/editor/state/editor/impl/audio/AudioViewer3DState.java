@@ -1,10 +1,11 @@
 package com.ss.editor.state.editor.impl.audio;
 
-import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.jme3.audio.AudioBuffer;
 import com.jme3.audio.AudioData;
 import com.jme3.audio.AudioKey;
 import com.jme3.audio.AudioNode;
 import com.jme3.audio.AudioSource.Status;
+import com.jme3.audio.AudioStream;
 import com.jme3.scene.Node;
 import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.state.editor.impl.AbstractEditor3DState;
@@ -19,6 +20,11 @@ import org.jetbrains.annotations.Nullable;
  */
 public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor> {
 
+    /**
+     * The interval between notifications about the position of playing.
+     */
+    private static final float POSITION_UPDATE_INTERVAL = 0.1F;
+
     /**
      * The previous status.
      */
@@ -32,16 +38,14 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
     private AudioNode audioNode;
 
     /**
-     * The audio data.
+     * The position in seconds which the current audio node was started from.
      */
-    @Nullable
-    private AudioData audioData;
+    private float startTime;
 
     /**
-     * The audio key.
+     * The time after the last notification about the position of playing.
      */
-    @Nullable
-    private AudioKey audioKey;
+    private float positionUpdateTime;
 
     /**
      * Create a file editor app state.
@@ -53,34 +57,49 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
     }
 
     /**
-     * Load the audio data.
+     * Play the audio instead of the current audio. A stream should already start from the position, a buffer is
+     * played from the position.
      *
-     * @param audioData the audio data.
+     * @param audioData the audio stream or buffer, a stream is closed after stopping.
      * @param audioKey  the audio key.
+     * @param startTime the position in seconds which the audio starts from.
      */
     @FromAnyThread
-    public void load(@NotNull final AudioData audioData, @NotNull final AudioKey audioKey) {
-        EXECUTOR_MANAGER.addJMETask(() -> loadImpl(audioData, audioKey));
+    public void play(@NotNull final AudioData audioData, @NotNull final AudioKey audioKey, final float startTime) {
+        EXECUTOR_MANAGER.addJMETask(() -> playImpl(audioData, audioKey, startTime));
     }
 
     /**
-     * Load the audio data.
+     * Play the audio instead of the current audio.
      *
-     * @param audioData the audio data.
+     * @param audioData the audio stream or buffer.
      * @param audioKey  the audio key.
+     * @param startTime the position in seconds which the audio starts from.
      */
-    private void loadImpl(@NotNull final AudioData audioData, @NotNull final AudioKey audioKey) {
+    private void playImpl(@NotNull final AudioData audioData, @NotNull final AudioKey audioKey,
+                          final float startTime) {
         removeAudioNode();
-        setAudioData(audioData);
-        setAudioKey(audioKey);
 
         final Node stateNode = getStateNode();
 
         final AudioNode audioNode = new AudioNode(audioData, audioKey);
         audioNode.setPositional(false);
+
+        // the playback time of a buffer is counted from its start, so it already includes the offset
+        if (audioData instanceof AudioBuffer) {
+            audioNode.setTimeOffset(startTime);
+            this.startTime = 0;
+        } else {
+            this.startTime = startTime;
+        }
+
         stateNode.attachChild(audioNode);
 
         setAudioNode(audioNode);
+
+        this.positionUpdateTime = 0;
+
+        audioNode.play();
     }
 
     /**
@@ -98,6 +117,16 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
             currentAudioNode.stop();
         }
 
+        final AudioData audioData = currentAudioNode.getAudioData();
+
+        // streams aren't played again, the renderer closes only not seekable streams after stopping
+        if (audioData instanceof AudioStream) {
+            final AudioStream audioStream = (AudioStream) audioData;
+            if (status == Status.Stopped || audioStream.isSeekable()) {
+                audioStream.close();
+            }
+        }
+
         stateNode.detachChild(currentAudioNode);
 
         setAudioNode(null);
@@ -105,36 +134,20 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
     }
 
     /**
-     * Play the current audio.
+     * Resume the paused audio.
      */
     @FromAnyThread
-    public void play() {
-        EXECUTOR_MANAGER.addJMETask(this::playImpl);
+    public void resume() {
+        EXECUTOR_MANAGER.addJMETask(this::resumeImpl);
     }
 
     /**
-     * Play the current audio.
+     * Resume the paused audio.
      */
-    private void playImpl() {
-
+    private void resumeImpl() {
         final AudioNode currentAudioNode = getAudioNode();
-
-        if (currentAudioNode != null) {
-
-            final Status status = currentAudioNode.getStatus();
-
-            if (status == Status.Paused) {
-                currentAudioNode.play();
-                return;
-            } else if (status == Status.Playing) {
-                return;
-            }
-        }
-
-        loadImpl(getAudioData(), getAudioKey());
-
-        final AudioNode audioNode = getAudioNode();
-        audioNode.play();
+        if (currentAudioNode == null || currentAudioNode.getStatus() != Status.Paused) return;
+        currentAudioNode.play();
     }
 
     @Override
@@ -188,6 +201,14 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
             EXECUTOR_MANAGER.addFXTask(() -> getFileEditor().notifyChangedStatus(status));
             setPrevStatus(status);
         }
+
+        positionUpdateTime += tpf;
+
+        if (status == Status.Playing && positionUpdateTime >= POSITION_UPDATE_INTERVAL) {
+            positionUpdateTime = 0;
+            final float position = startTime + audioNode.getPlaybackTime();
+            EXECUTOR_MANAGER.addFXTask(() -> getFileEditor().notifyChangedPosition(position));
+        }
     }
 
     /**
@@ -205,36 +226,6 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
         this.audioNode = audioNode;
     }
 
-    /**
-     * @return the audio data.
-     */
-    @NotNull
-    private AudioData getAudioData() {
-        return notNull(audioData);
-    }
-
-    /**
-     * @param audioData the audio data.
-     */
-    private void setAudioData(@NotNull final AudioData audioData) {
-        this.audioData = audioData;
-    }
-
-    /**
-     * @return the audio key.
-     */
-    @NotNull
-    private AudioKey getAudioKey() {
-        return notNull(audioKey);
-    }
-
-    /**
-     * @param audioKey the audio key.
-     */
-    private void setAudioKey(@NotNull final AudioKey audioKey) {
-        this.audioKey = audioKey;
-    }
-
     /**
      * Gets prev status.
      *
@@ -258,8 +249,7 @@ public class AudioViewer3DState extends AbstractEditor3DState<AudioViewerEditor>
         return "AudioViewer3DState{" +
                 "prevStatus=" + prevStatus +
                 ", audioNode=" + audioNode +
-                ", audioData=" + audioData +
-                ", audioKey=" + audioKey +
+                ", startTime=" + startTime +
                 "} " + super.toString();
     }
 }
@@ -7,14 +7,11 @@ import com.ss.editor.manager.WorkspaceManager;
 import com.ss.editor.model.workspace.Workspace;
 import com.ss.editor.ui.component.ScreenComponent;
 import com.ss.editor.ui.component.asset.tree.ResourceTree;
-import com.ss.editor.ui.component.asset.tree.resource.FolderResourceElement;
 import com.ss.editor.ui.component.asset.tree.resource.ResourceElement;
-import com.ss.editor.ui.component.asset.tree.resource.ResourceElementFactory;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.editor.ui.css.CSSIds;
 import com.ss.editor.ui.event.FXEventManager;
 import com.ss.editor.ui.event.impl.*;
-import com.ss.editor.ui.util.UIUtils;
 import com.ss.rlib.ui.util.FXUtils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
@@ -73,9 +70,8 @@ public class AssetComponent extends VBox implements ScreenComponent {
         createComponents();
         FX_EVENT_MANAGER.addEventHandler(RequestedRefreshAssetEvent.EVENT_TYPE, event -> processRefresh());
         FX_EVENT_MANAGER.addEventHandler(ChangedCurrentAssetFolderEvent.EVENT_TYPE, event -> processChangeAsset());
-        FX_EVENT_MANAGER.addEventHandler(CreatedFileEvent.EVENT_TYPE, event -> processEvent((CreatedFileEvent) event));
+        FX_EVENT_MANAGER.addEventHandler(ChangedFilesEvent.EVENT_TYPE, event -> processEvent((ChangedFilesEvent) event));
         FX_EVENT_MANAGER.addEventHandler(RequestSelectFileEvent.EVENT_TYPE, event -> processEvent((RequestSelectFileEvent) event));
-        FX_EVENT_MANAGER.addEventHandler(DeletedFileEvent.EVENT_TYPE, event -> processEvent((DeletedFileEvent) event));
     }
 
     /**
@@ -96,8 +92,7 @@ public class AssetComponent extends VBox implements ScreenComponent {
         final Path file = event.getFile();
 
         final ResourceTree resourceTree = getResourceTree();
-        final ResourceElement element = ResourceElementFactory.createFor(file);
-        final TreeItem<ResourceElement> treeItem = UIUtils.findItemForValue(resourceTree.getRoot(), element);
+        final TreeItem<ResourceElement> treeItem = resourceTree.findItem(file);
 
         if (treeItem == null) {
             getWaitedFilesToSelect().add(file);
@@ -108,11 +103,17 @@ public class AssetComponent extends VBox implements ScreenComponent {
     }
 
     /**
-     * Handle a created file.
+     * Handle changed files.
      */
-    private void processEvent(@NotNull final CreatedFileEvent event) {
+    private void processEvent(@NotNull final ChangedFilesEvent event) {
+        event.getDeleted().forEach(this::processDeleted);
+        event.getCreated().forEach(this::processCreated);
+    }
 
-        final Path file = event.getFile();
+    /**
+     * Handle a created file.
+     */
+    private void processCreated(@NotNull final Path file) {
 
         final Array<Path> waitedFilesToSelect = getWaitedFilesToSelect();
         final boolean waitedSelect = waitedFilesToSelect.contains(file);
@@ -120,16 +121,16 @@ public class AssetComponent extends VBox implements ScreenComponent {
         final ResourceTree resourceTree = getResourceTree();
         resourceTree.notifyCreated(file);
 
-        if (waitedSelect) waitedFilesToSelect.fastRemove(file);
-        if (waitedSelect || event.isNeedSelect()) resourceTree.expandTo(file, true);
+        if (waitedSelect) {
+            waitedFilesToSelect.fastRemove(file);
+            resourceTree.expandTo(file, true);
+        }
     }
 
     /**
      * Handle a deleted file.
      */
-    private void processEvent(@NotNull final DeletedFileEvent event) {
-
-        final Path file = event.getFile();
+    private void processDeleted(@NotNull final Path file) {
 
         final ResourceTree resourceTree = getResourceTree();
         resourceTree.notifyDeleted(file);
@@ -230,13 +231,7 @@ public class AssetComponent extends VBox implements ScreenComponent {
         if (workspace == null) return;
 
         final Array<Path> expanded = ArrayFactory.newArray(Path.class);
-        final Array<TreeItem<ResourceElement>> allItems = UIUtils.getAllItems(tree);
-        allItems.stream().filter(TreeItem::isExpanded)
-                .filter(treeItem -> !treeItem.isLeaf())
-                .map(TreeItem::getValue)
-                .filter(FolderResourceElement.class::isInstance)
-                .map(ResourceElement::getFile)
-                .forEach(expanded::add);
+        tree.collectExpandedFolders(expanded);
 
         workspace.updateExpandedFolders(expanded);
     }
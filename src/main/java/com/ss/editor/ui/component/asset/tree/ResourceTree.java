@@ -1,24 +1,26 @@
 package com.ss.editor.ui.component.asset.tree;
 
 import static com.ss.editor.ui.component.asset.tree.resource.ResourceElementFactory.createFor;
-import static com.ss.editor.ui.util.UIUtils.findItemForValue;
 import static com.ss.editor.util.EditorUtil.hasFileInClipboard;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.ss.editor.config.EditorConfig;
+import com.ss.editor.file.index.AssetIndex;
 import com.ss.editor.manager.ExecutorManager;
+import com.ss.editor.manager.ResourceManager;
 import com.ss.editor.ui.component.asset.tree.context.menu.action.*;
 import com.ss.editor.ui.component.asset.tree.context.menu.filler.AssetTreeContextMenuFiller;
 import com.ss.editor.ui.component.asset.tree.resource.FileResourceElement;
 import com.ss.editor.ui.component.asset.tree.resource.FolderResourceElement;
 import com.ss.editor.ui.component.asset.tree.resource.ResourceElement;
 import com.ss.editor.ui.component.asset.tree.resource.LoadingResourceElement;
-import com.ss.editor.ui.util.UIUtils;
 import com.ss.rlib.function.IntObjectConsumer;
+import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.StringUtils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayComparator;
 import com.ss.rlib.util.array.ArrayFactory;
-import com.ss.rlib.util.array.ConcurrentArray;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -30,6 +32,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -43,9 +47,6 @@ public class ResourceTree extends TreeView<ResourceElement> {
     @NotNull
     private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
 
-    @NotNull
-    private static final ArrayComparator<ResourceElement> COMPARATOR = ResourceElement::compareTo;
-    
     @NotNull
     private static final ArrayComparator<ResourceElement> NAME_COMPARATOR = (first, second) -> {
 
@@ -91,16 +92,10 @@ public class ResourceTree extends TreeView<ResourceElement> {
     };
 
     /**
-     * The list of expanded elements.
-     */
-    @NotNull
-    private final ConcurrentArray<ResourceElement> expandedElements;
-
-    /**
-     * The list of selected elements.
+     * The table of created tree items by files.
      */
     @NotNull
-    private final ConcurrentArray<ResourceElement> selectedElements;
+    private final ObjectDictionary<Path, TreeItem<ResourceElement>> itemIndex;
 
     /**
      * The open resource function.
@@ -160,8 +155,7 @@ public class ResourceTree extends TreeView<ResourceElement> {
     public ResourceTree(@Nullable final Consumer<ResourceElement> openFunction, final boolean readOnly) {
         this.openFunction = openFunction;
         this.readOnly = readOnly;
-        this.expandedElements = ArrayFactory.newConcurrentAtomicARSWLockArray(ResourceElement.class);
-        this.selectedElements = ArrayFactory.newConcurrentAtomicARSWLockArray(ResourceElement.class);
+        this.itemIndex = DictionaryFactory.newObjectDictionary();
         this.extensionFilter = ArrayFactory.newArray(String.class, 0);
         this.actionTester = actionClass -> true;
 
@@ -173,6 +167,7 @@ public class ResourceTree extends TreeView<ResourceElement> {
         setShowRoot(true);
         setContextMenu(new ContextMenu());
         setFocusTraversable(true);
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
     }
 
     /**
@@ -272,10 +267,17 @@ public class ResourceTree extends TreeView<ResourceElement> {
         final ObservableList<MenuItem> items = contextMenu.getItems();
 
         final Predicate<Class<?>> actionTester = getActionTester();
-
+        final Array<ResourceElement> selected = getSelectedElements();
         final Array<AssetTreeContextMenuFiller> fillers = CONTEXT_MENU_FILLER_REGISTRY.getFillers();
-        for (final AssetTreeContextMenuFiller filler : fillers) {
-            filler.fill(element, items, actionTester);
+
+        if (selected.size() > 1 && selected.contains(element)) {
+            for (final AssetTreeContextMenuFiller filler : fillers) {
+                filler.fill(selected, items, actionTester);
+            }
+        } else {
+            for (final AssetTreeContextMenuFiller filler : fillers) {
+                filler.fill(element, items, actionTester);
+            }
         }
 
         if (items.isEmpty()) return null;
@@ -283,6 +285,27 @@ public class ResourceTree extends TreeView<ResourceElement> {
         return contextMenu;
     }
 
+    /**
+     * @return the selected resource elements.
+     */
+    @NotNull
+    private Array<ResourceElement> getSelectedElements() {
+
+        final ObservableList<TreeItem<ResourceElement>> selectedItems = getSelectionModel().getSelectedItems();
+        final Array<ResourceElement> result = ArrayFactory.newArray(ResourceElement.class, selectedItems.size());
+
+        for (final TreeItem<ResourceElement> selectedItem : selectedItems) {
+
+            final ResourceElement element = selectedItem == null ? null : selectedItem.getValue();
+
+            if (element != null && !(element instanceof LoadingResourceElement)) {
+                result.add(element);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Fill the tree using the asset folder.
      *
@@ -296,29 +319,22 @@ public class ResourceTree extends TreeView<ResourceElement> {
         final TreeItem<ResourceElement> currentRoot = getRoot();
         if (currentRoot != null) setRoot(null);
 
+        getItemIndex().clear();
         showLoading();
 
         EXECUTOR_MANAGER.addBackgroundTask(() -> startBackgroundFill(assetFolder));
     }
 
     /**
-     * @return the list of expanded elements.
+     * @return the table of created tree items by files.
      */
     @NotNull
-    private ConcurrentArray<ResourceElement> getExpandedElements() {
-        return expandedElements;
+    private ObjectDictionary<Path, TreeItem<ResourceElement>> getItemIndex() {
+        return itemIndex;
     }
 
     /**
-     * @return the list of selected elements.
-     */
-    @NotNull
-    private ConcurrentArray<ResourceElement> getSelectedElements() {
-        return selectedElements;
-    }
-
-    /**
-     * Refresh this tree.
+     * Refresh this tree. Only already loaded folders are checked, so expanded and selected items are kept.
      */
     public void refresh() {
 
@@ -326,83 +342,65 @@ public class ResourceTree extends TreeView<ResourceElement> {
         final Path currentAsset = config.getCurrentAsset();
 
         if (currentAsset == null) {
+            getItemIndex().clear();
             setRoot(null);
             return;
         }
 
-        final Consumer<Boolean> onLoadHandler = getOnLoadHandler();
-        if (onLoadHandler != null) onLoadHandler.accept(Boolean.FALSE);
+        final TreeItem<ResourceElement> currentRoot = getRoot();
+        final ResourceElement rootElement = currentRoot == null ? null : currentRoot.getValue();
 
-        updateSelectedElements();
-        updateExpandedElements();
+        if (rootElement == null || !currentAsset.equals(rootElement.getFile())) {
+            fill(currentAsset);
+            return;
+        }
 
-        setRoot(null);
-        showLoading();
+        final Consumer<Boolean> onLoadHandler = getOnLoadHandler();
+        if (onLoadHandler != null) onLoadHandler.accept(Boolean.FALSE);
 
         EXECUTOR_MANAGER.addBackgroundTask(() -> startBackgroundRefresh(currentAsset));
     }
 
     /**
-     * Update the list of expanded elements.
+     * Show the process of loading.
      */
-    private void updateExpandedElements() {
-
-        final ConcurrentArray<ResourceElement> expandedElements = getExpandedElements();
-        final long stamp = expandedElements.writeLock();
-        try {
-
-            expandedElements.clear();
-
-            final Array<TreeItem<ResourceElement>> allItems = UIUtils.getAllItems(this);
-            allItems.forEach(item -> {
-                if (!item.isExpanded()) return;
-                expandedElements.add(item.getValue());
-            });
-
-        } finally {
-            expandedElements.writeUnlock(stamp);
-        }
+    private void showLoading() {
+        setRoot(new TreeItem<>(LoadingResourceElement.getInstance()));
     }
 
     /**
-     * Update the list of selected elements.
+     * Wait for the index of the current asset folder to fill this tree from the index instead of the file system.
+     *
+     * @param assetFolder the asset folder.
+     * @param validate    true if need to check the index against the file system.
      */
-    private void updateSelectedElements() {
-
-        final ConcurrentArray<ResourceElement> selectedElements = getSelectedElements();
-        final long stamp = selectedElements.writeLock();
-        try {
+    private void prepareAssetIndex(@NotNull final Path assetFolder, final boolean validate) {
 
-            selectedElements.clear();
+        final EditorConfig editorConfig = EditorConfig.getInstance();
+        if (!assetFolder.equals(editorConfig.getCurrentAsset())) return;
 
-            final MultipleSelectionModel<TreeItem<ResourceElement>> selectionModel = getSelectionModel();
-            final ObservableList<TreeItem<ResourceElement>> selectedItems = selectionModel.getSelectedItems();
-            selectedItems.forEach(item -> selectedElements.add(item.getValue()));
+        final ResourceManager resourceManager = ResourceManager.getInstance();
+        final AssetIndex assetIndex = resourceManager.getAssetIndex(assetFolder);
 
-        } finally {
-            selectedElements.writeUnlock(stamp);
+        if (validate) {
+            assetIndex.validate();
         }
     }
 
-    /**
-     * Show the process of loading.
-     */
-    private void showLoading() {
-        setRoot(new TreeItem<>(LoadingResourceElement.getInstance()));
-    }
-
     /**
      * Start the background process of filling.
      */
     private void startBackgroundFill(@NotNull final Path assetFolder) {
 
-        final ResourceElement rootElement = createFor(assetFolder);
-        final TreeItem<ResourceElement> newRoot = new TreeItem<>(rootElement);
-        newRoot.setExpanded(true);
+        prepareAssetIndex(assetFolder, false);
 
-        fill(newRoot);
+        final ResourceElement rootElement = createFor(assetFolder);
 
         EXECUTOR_MANAGER.addFXTask(() -> {
+
+            final TreeItem<ResourceElement> newRoot = createItem(rootElement);
+            newRoot.setExpanded(true);
+
             setRoot(newRoot);
 
             final Consumer<Boolean> onLoadHandler = getOnLoadHandler();
@@ -411,38 +409,24 @@ public class ResourceTree extends TreeView<ResourceElement> {
     }
 
     /**
-     * Start the background process of loading.
+     * Start the background process of refreshing.
      */
     private void startBackgroundRefresh(@NotNull final Path assetFolder) {
 
-        final ResourceElement rootElement = createFor(assetFolder);
-        final TreeItem<ResourceElement> newRoot = new TreeItem<>(rootElement);
-        newRoot.setExpanded(true);
+        prepareAssetIndex(assetFolder, true);
 
-        fill(newRoot);
-
-        final ConcurrentArray<ResourceElement> expandedElements = getExpandedElements();
-        final long stamp = expandedElements.writeLock();
-        try {
-
-            expandedElements.sort(COMPARATOR);
-            expandedElements.forEach(element -> {
+        EXECUTOR_MANAGER.addFXTask(() -> {
 
-                final TreeItem<ResourceElement> item = findItemForValue(newRoot, element);
-                if (item == null) return;
+            final Array<TreeItem<ResourceElement>> loadedFolders = ArrayFactory.newArray(TreeItem.class);
+            final ObjectDictionary<Path, TreeItem<ResourceElement>> itemIndex = getItemIndex();
 
-                item.setExpanded(true);
+            itemIndex.forEach((file, item) -> {
+                if (item.getValue() instanceof FolderResourceElement && isLoaded(item)) {
+                    loadedFolders.add(item);
+                }
             });
 
-            expandedElements.clear();
-
-        } finally {
-            expandedElements.writeUnlock(stamp);
-        }
-
-        EXECUTOR_MANAGER.addFXTask(() -> {
-            setRoot(newRoot);
-            restoreSelection();
+            loadedFolders.forEach(this::syncChildren);
 
             final Consumer<Boolean> onLoadHandler = getOnLoadHandler();
             if (onLoadHandler != null) onLoadHandler.accept(Boolean.TRUE);
@@ -450,47 +434,142 @@ public class ResourceTree extends TreeView<ResourceElement> {
     }
 
     /**
-     * Restore selection.
+     * Create a new lazy tree item and register it in the index of items.
      */
-    private void restoreSelection() {
-        EXECUTOR_MANAGER.addFXTask(() -> {
+    @NotNull
+    private TreeItem<ResourceElement> createItem(@NotNull final ResourceElement element) {
+        final TreeItem<ResourceElement> item = new ResourceTreeItem(element);
+        getItemIndex().put(element.getFile(), item);
+        return item;
+    }
 
-            final ConcurrentArray<ResourceElement> selectedElements = getSelectedElements();
-            final long stamp = selectedElements.writeLock();
-            try {
+    /**
+     * Load children of the folder item.
+     */
+    private void loadChildren(@NotNull final TreeItem<ResourceElement> treeItem,
+                              @NotNull final ObservableList<TreeItem<ResourceElement>> items) {
 
-                final MultipleSelectionModel<TreeItem<ResourceElement>> selectionModel = getSelectionModel();
+        final ResourceElement element = treeItem.getValue();
+        final Array<String> extensionFilter = getExtensionFilter();
+        if (!element.hasChildren(extensionFilter, isOnlyFolders())) return;
 
-                selectedElements.forEach(element -> {
-                    final TreeItem<ResourceElement> item = findItemForValue(getRoot(), element);
-                    if (item == null) return;
-                    selectionModel.select(item);
-                });
+        final Array<ResourceElement> children = element.getChildren(extensionFilter, isOnlyFolders());
+        if (children == null || children.isEmpty()) return;
 
-                selectedElements.clear();
+        children.sort(NAME_COMPARATOR);
 
-            } finally {
-                selectedElements.writeUnlock(stamp);
-            }
-        });
+        final List<TreeItem<ResourceElement>> newItems = new ArrayList<>(children.size());
+        children.forEach(child -> newItems.add(createItem(child)));
+
+        items.addAll(newItems);
     }
 
     /**
-     * Fill the node.
+     * Apply the actual content of the loaded folder to its children items.
      */
-    private void fill(@NotNull final TreeItem<ResourceElement> treeItem) {
+    private void syncChildren(@NotNull final TreeItem<ResourceElement> treeItem) {
 
         final ResourceElement element = treeItem.getValue();
-        final Array<String> extensionFilter = getExtensionFilter();
-        if (!element.hasChildren(extensionFilter, isOnlyFolders())) return;
+        final Array<ResourceElement> children = element.getChildren(getExtensionFilter(), isOnlyFolders());
+        final ObjectDictionary<Path, ResourceElement> actual = DictionaryFactory.newObjectDictionary();
+
+        if (children != null) {
+            children.forEach(actual, (child, table) -> table.put(child.getFile(), child));
+        }
 
         final ObservableList<TreeItem<ResourceElement>> items = treeItem.getChildren();
+        final List<TreeItem<ResourceElement>> toRemove = new ArrayList<>();
 
-        final Array<ResourceElement> children = element.getChildren(extensionFilter, isOnlyFolders());
-        children.sort(NAME_COMPARATOR);
-        children.forEach(child -> items.add(new TreeItem<>(child)));
+        for (final TreeItem<ResourceElement> item : items) {
+            final ResourceElement itemElement = item.getValue();
+            if (actual.remove(itemElement.getFile()) == null) toRemove.add(item);
+        }
+
+        if (!toRemove.isEmpty()) {
+            toRemove.forEach(this::unregister);
+            items.removeAll(toRemove);
+        }
+
+        if (actual.isEmpty()) return;
+
+        actual.forEach((file, child) -> items.add(createItem(child)));
+
+        FXCollections.sort(items, ITEM_COMPARATOR);
+    }
+
+    /**
+     * Remove the item and all loaded items inside from the index of items.
+     */
+    private void unregister(@NotNull final TreeItem<ResourceElement> treeItem) {
+
+        final ResourceElement element = treeItem.getValue();
+        getItemIndex().remove(element.getFile());
+
+        if (!isLoaded(treeItem)) {
+            return;
+        }
+
+        treeItem.getChildren().forEach(this::unregister);
+    }
+
+    /**
+     * Check of loaded children of the item.
+     */
+    private boolean isLoaded(@NotNull final TreeItem<ResourceElement> treeItem) {
+        return !(treeItem instanceof ResourceTreeItem) || ((ResourceTreeItem) treeItem).isLoaded();
+    }
 
-        items.forEach(this::fill);
+    /**
+     * Check the element by the filters of this tree.
+     */
+    private boolean isVisible(@NotNull final ResourceElement element) {
+
+        if (element instanceof FolderResourceElement) {
+            return true;
+        } else if (isOnlyFolders()) {
+            return false;
+        }
+
+        final Array<String> extensionFilter = getExtensionFilter();
+        return extensionFilter.isEmpty() || extensionFilter.contains(FileUtils.getExtension(element.getFile()));
+    }
+
+    /**
+     * Find a tree item for the file, not loaded folders on the path to the file are loaded.
+     *
+     * @param file the file.
+     * @return the tree item or null.
+     */
+    @Nullable
+    public TreeItem<ResourceElement> findItem(@NotNull final Path file) {
+
+        final ObjectDictionary<Path, TreeItem<ResourceElement>> itemIndex = getItemIndex();
+        final TreeItem<ResourceElement> treeItem = itemIndex.get(file);
+        if (treeItem != null) return treeItem;
+
+        final Path parent = file.getParent();
+        if (parent == null) return null;
+
+        final TreeItem<ResourceElement> parentItem = findItem(parent);
+        if (parentItem == null) return null;
+
+        // loads children of the parent if they weren't loaded yet
+        parentItem.getChildren();
+
+        return itemIndex.get(file);
+    }
+
+    /**
+     * Collect files of expanded folders.
+     *
+     * @param container the container.
+     */
+    public void collectExpandedFolders(@NotNull final Array<Path> container) {
+        getItemIndex().forEach((file, treeItem) -> {
+            if (treeItem.isExpanded() && !treeItem.isLeaf() && treeItem.getValue() instanceof FolderResourceElement) {
+                container.add(file);
+            }
+        });
     }
 
     /**
@@ -500,28 +579,21 @@ public class ResourceTree extends TreeView<ResourceElement> {
      */
     public void notifyCreated(@NotNull final Path file) {
 
-        final EditorConfig editorConfig = EditorConfig.getInstance();
-        final Path currentAsset = editorConfig.getCurrentAsset();
-        final Path folder = file.getParent();
-        if (!folder.startsWith(currentAsset)) return;
-
-        final ResourceElement element = createFor(folder);
+        final ObjectDictionary<Path, TreeItem<ResourceElement>> itemIndex = getItemIndex();
+        if (itemIndex.containsKey(file)) return;
 
-        TreeItem<ResourceElement> folderItem = findItemForValue(getRoot(), element);
+        final TreeItem<ResourceElement> folderItem = itemIndex.get(file.getParent());
 
-        if (folderItem == null) {
-            notifyCreated(folder);
-            folderItem = findItemForValue(getRoot(), folder);
+        // children of not loaded folders will be loaded with this file later
+        if (folderItem == null || !isLoaded(folderItem)) {
+            return;
         }
 
-        if (folderItem == null) return;
-
-        final TreeItem<ResourceElement> newItem = new TreeItem<>(createFor(file));
-
-        fill(newItem);
+        final ResourceElement element = createFor(file);
+        if (!isVisible(element)) return;
 
         final ObservableList<TreeItem<ResourceElement>> children = folderItem.getChildren();
-        children.add(newItem);
+        children.add(createItem(element));
 
         FXCollections.sort(children, ITEM_COMPARATOR);
     }
@@ -533,10 +605,11 @@ public class ResourceTree extends TreeView<ResourceElement> {
      */
     public void notifyDeleted(@NotNull final Path file) {
 
-        final ResourceElement element = createFor(file);
-        final TreeItem<ResourceElement> treeItem = findItemForValue(getRoot(), element);
+        final TreeItem<ResourceElement> treeItem = getItemIndex().get(file);
         if (treeItem == null) return;
 
+        unregister(treeItem);
+
         final TreeItem<ResourceElement> parent = treeItem.getParent();
         if (parent == null) return;
 
@@ -552,24 +625,22 @@ public class ResourceTree extends TreeView<ResourceElement> {
      */
     public void notifyMoved(@NotNull final Path prevFile, @NotNull final Path newFile) {
 
-        final ResourceElement prevElement = createFor(prevFile);
-        final TreeItem<ResourceElement> prevItem = findItemForValue(getRoot(), prevElement);
+        final ObjectDictionary<Path, TreeItem<ResourceElement>> itemIndex = getItemIndex();
+        final TreeItem<ResourceElement> prevItem = itemIndex.get(prevFile);
         if (prevItem == null) return;
 
-        final ResourceElement newParentElement = createFor(newFile.getParent());
-        final TreeItem<ResourceElement> newParentItem = findItemForValue(getRoot(), newParentElement);
-        if (newParentItem == null) return;
-
         final TreeItem<ResourceElement> prevParentItem = prevItem.getParent();
         final ObservableList<TreeItem<ResourceElement>> prevParentChildren = prevParentItem.getChildren();
         prevParentChildren.remove(prevItem);
 
-        prevItem.setValue(createFor(newFile));
+        final TreeItem<ResourceElement> newParentItem = itemIndex.get(newFile.getParent());
 
-        final Array<TreeItem<ResourceElement>> children = UIUtils.getAllItems(prevItem);
-        children.fastRemove(prevItem);
+        if (newParentItem == null || !isLoaded(newParentItem)) {
+            unregister(prevItem);
+            return;
+        }
 
-        fillChildren(prevFile, newFile, children);
+        updateFiles(prevItem, prevFile, newFile);
 
         final ObservableList<TreeItem<ResourceElement>> newParentChildren = newParentItem.getChildren();
         newParentChildren.add(prevItem);
@@ -577,16 +648,29 @@ public class ResourceTree extends TreeView<ResourceElement> {
         FXCollections.sort(newParentChildren, ITEM_COMPARATOR);
     }
 
-    private void fillChildren(@NotNull final Path prevFile, @NotNull final Path newFile,
-                              @NotNull final Array<TreeItem<ResourceElement>> children) {
-        for (final TreeItem<ResourceElement> child : children) {
+    /**
+     * Update files of the item and all loaded items inside after moving or renaming.
+     */
+    private void updateFiles(@NotNull final TreeItem<ResourceElement> treeItem, @NotNull final Path prevFile,
+                             @NotNull final Path newFile) {
 
-            final ResourceElement resourceElement = child.getValue();
-            final Path file = resourceElement.getFile();
-            final Path relativeFile = file.subpath(prevFile.getNameCount(), file.getNameCount());
-            final Path resultFile = newFile.resolve(relativeFile);
+        final ObjectDictionary<Path, TreeItem<ResourceElement>> itemIndex = getItemIndex();
+
+        final ResourceElement resourceElement = treeItem.getValue();
+        final Path file = resourceElement.getFile();
+        final Path resultFile = file.equals(prevFile) ? newFile :
+                newFile.resolve(file.subpath(prevFile.getNameCount(), file.getNameCount()));
+
+        itemIndex.remove(file);
+        treeItem.setValue(createFor(resultFile));
+        itemIndex.put(resultFile, treeItem);
+
+        if (!isLoaded(treeItem)) {
+            return;
+        }
 
-            child.setValue(createFor(resultFile));
+        for (final TreeItem<ResourceElement> child : treeItem.getChildren()) {
+            updateFiles(child, prevFile, newFile);
         }
     }
 
@@ -598,16 +682,10 @@ public class ResourceTree extends TreeView<ResourceElement> {
      */
     public void notifyRenamed(@NotNull final Path prevFile, @NotNull final Path newFile) {
 
-        final ResourceElement prevElement = createFor(prevFile);
-        final TreeItem<ResourceElement> prevItem = findItemForValue(getRoot(), prevElement);
+        final TreeItem<ResourceElement> prevItem = getItemIndex().get(prevFile);
         if (prevItem == null) return;
 
-        prevItem.setValue(createFor(newFile));
-
-        final Array<TreeItem<ResourceElement>> children = UIUtils.getAllItems(prevItem);
-        children.fastRemove(prevItem);
-
-        fillChildren(prevFile, newFile, children);
+        updateFiles(prevItem, prevFile, newFile);
     }
 
     /**
@@ -717,8 +795,7 @@ public class ResourceTree extends TreeView<ResourceElement> {
      */
     public void markExpand(@NotNull final Path file) {
 
-        final ResourceElement element = createFor(file);
-        final TreeItem<ResourceElement> treeItem = findItemForValue(getRoot(), element);
+        final TreeItem<ResourceElement> treeItem = findItem(file);
         if (treeItem == null) return;
 
         treeItem.setExpanded(true);
@@ -748,8 +825,7 @@ public class ResourceTree extends TreeView<ResourceElement> {
      */
     public void expandTo(@NotNull final Path file, final boolean needSelect) {
 
-        final ResourceElement element = createFor(file);
-        final TreeItem<ResourceElement> treeItem = findItemForValue(getRoot(), element);
+        final TreeItem<ResourceElement> treeItem = findItem(file);
         if (treeItem == null) return;
 
         TreeItem<ResourceElement> parent = treeItem;
@@ -771,4 +847,45 @@ public class ResourceTree extends TreeView<ResourceElement> {
             scrollTo(getRow(treeItem));
         });
     }
+
+    /**
+     * The tree item which loads its children on the first access.
+     */
+    private final class ResourceTreeItem extends TreeItem<ResourceElement> {
+
+        /**
+         * The flag of loaded children.
+         */
+        private boolean loaded;
+
+        private ResourceTreeItem(@NotNull final ResourceElement element) {
+            super(element);
+            this.loaded = !(element instanceof FolderResourceElement);
+        }
+
+        @Override
+        public ObservableList<TreeItem<ResourceElement>> getChildren() {
+
+            final ObservableList<TreeItem<ResourceElement>> children = super.getChildren();
+
+            if (!loaded) {
+                loaded = true;
+                loadChildren(this, children);
+            }
+
+            return children;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return loaded && super.getChildren().isEmpty();
+        }
+
+        /**
+         * @return true if children of this item were loaded.
+         */
+        private boolean isLoaded() {
+            return loaded;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.ss.editor.ui.component.asset.tree.context.menu.action;
+
+import com.ss.editor.Messages;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.ui.Icons;
+import com.ss.editor.ui.component.asset.tree.resource.ResourceElement;
+import com.ss.editor.ui.dialog.converter.BatchModelConverterDialog;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import javafx.scene.control.MenuItem;
+import javafx.scene.image.ImageView;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * The action to convert all models of selected files and folders.
+ *
+ * @author JavaSaBr
+ */
+public class ConvertModelsAction extends MenuItem {
+
+    /**
+     * The action elements.
+     */
+    @NotNull
+    private final Array<ResourceElement> elements;
+
+    /**
+     * Instantiates a new Convert models action.
+     *
+     * @param elements the elements
+     */
+    public ConvertModelsAction(@NotNull final Array<ResourceElement> elements) {
+        this.elements = elements;
+        setText(Messages.ASSET_COMPONENT_RESOURCE_TREE_CONTEXT_MENU_CONVERT_MODELS);
+        setGraphic(new ImageView(Icons.TRANSFORMATION_16));
+        setOnAction(event -> processConvert());
+    }
+
+    /**
+     * Process of converting.
+     */
+    @FXThread
+    private void processConvert() {
+
+        final Array<Path> files = ArrayFactory.newArray(Path.class, elements.size());
+        elements.forEach(element -> files.add(element.getFile()));
+
+        final BatchModelConverterDialog dialog = new BatchModelConverterDialog(files);
+        dialog.show();
+    }
+}
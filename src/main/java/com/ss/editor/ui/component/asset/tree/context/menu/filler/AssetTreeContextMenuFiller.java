@@ -1,6 +1,7 @@
 package com.ss.editor.ui.component.asset.tree.context.menu.filler;
 
 import com.ss.editor.ui.component.asset.tree.resource.ResourceElement;
+import com.ss.rlib.util.array.Array;
 import javafx.scene.control.MenuItem;
 import org.jetbrains.annotations.NotNull;
 
@@ -24,4 +25,15 @@ public interface AssetTreeContextMenuFiller {
      */
     void fill(@NotNull final ResourceElement element, @NotNull final List<MenuItem> items,
               @NotNull final Predicate<Class<?>> actionTester);
+
+    /**
+     * Fill the context menu of several selected resource elements.
+     *
+     * @param elements     the selected resource elements.
+     * @param items        the container of items of a context menu.
+     * @param actionTester the action tester.
+     */
+    default void fill(@NotNull final Array<ResourceElement> elements, @NotNull final List<MenuItem> items,
+                      @NotNull final Predicate<Class<?>> actionTester) {
+    }
 }
\ No newline at end of file
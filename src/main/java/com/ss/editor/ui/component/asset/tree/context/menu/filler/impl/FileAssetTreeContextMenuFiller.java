@@ -3,13 +3,16 @@ package com.ss.editor.ui.component.asset.tree.context.menu.filler.impl;
 import com.ss.editor.file.converter.FileConverterDescription;
 import com.ss.editor.file.converter.FileConverterRegistry;
 import com.ss.editor.ui.component.asset.tree.context.menu.action.ConvertFileAction;
+import com.ss.editor.ui.component.asset.tree.context.menu.action.ConvertModelsAction;
 import com.ss.editor.ui.component.asset.tree.context.menu.action.OpenFileAction;
 import com.ss.editor.ui.component.asset.tree.context.menu.action.OpenFileByExternalEditorAction;
 import com.ss.editor.ui.component.asset.tree.context.menu.action.OpenWithFileAction;
 import com.ss.editor.ui.component.asset.tree.context.menu.filler.AssetTreeContextMenuFiller;
 import com.ss.editor.ui.component.asset.tree.resource.FileResourceElement;
+import com.ss.editor.ui.component.asset.tree.resource.FolderResourceElement;
 import com.ss.editor.ui.component.asset.tree.resource.ResourceElement;
 import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
 import javafx.scene.control.MenuItem;
 import org.jetbrains.annotations.NotNull;
 
@@ -54,6 +57,29 @@ public class FileAssetTreeContextMenuFiller implements AssetTreeContextMenuFille
                     items.add(new ConvertFileAction(element, descriptions));
                 }
             }
+
+        } else if (element instanceof FolderResourceElement) {
+
+            if (actionTester.test(ConvertModelsAction.class)) {
+                items.add(new ConvertModelsAction(ArrayFactory.asArray(element)));
+            }
         }
     }
+
+    @Override
+    public void fill(@NotNull final Array<ResourceElement> elements, @NotNull final List<MenuItem> items,
+                     @NotNull final Predicate<Class<?>> actionTester) {
+
+        if (!actionTester.test(ConvertModelsAction.class)) {
+            return;
+        }
+
+        for (final ResourceElement element : elements) {
+            if (!(element instanceof FileResourceElement) && !(element instanceof FolderResourceElement)) {
+                return;
+            }
+        }
+
+        items.add(new ConvertModelsAction(elements));
+    }
 }
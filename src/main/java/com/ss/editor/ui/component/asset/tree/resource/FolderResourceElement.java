@@ -1,6 +1,8 @@
 package com.ss.editor.ui.component.asset.tree.resource;
 
 import static com.ss.editor.ui.component.asset.tree.resource.ResourceElementFactory.createFor;
+import com.ss.editor.file.index.AssetIndex;
+import com.ss.editor.manager.ResourceManager;
 import org.jetbrains.annotations.NotNull;
 import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.array.Array;
@@ -29,7 +31,16 @@ public class FolderResourceElement extends ResourceElement {
 
     @Override
     public Array<ResourceElement> getChildren(@NotNull final Array<String> extensionFilter, final boolean onlyFolders) {
-        if (!Files.isDirectory(file)) return null;
+
+        final ResourceManager resourceManager = ResourceManager.getInstance();
+        final AssetIndex assetIndex = resourceManager.findAssetIndex(file);
+        final Array<AssetIndex.Entry> entries = assetIndex == null ? null : assetIndex.getChildren(file);
+
+        if (entries != null) {
+            return getChildren(entries, extensionFilter, onlyFolders);
+        } else if (!Files.isDirectory(file)) {
+            return null;
+        }
 
         final Array<ResourceElement> elements = ArrayFactory.newArray(ResourceElement.class);
 
@@ -61,6 +72,35 @@ public class FolderResourceElement extends ResourceElement {
         return elements;
     }
 
+    /**
+     * Get children from entries of an asset index.
+     */
+    @NotNull
+    private Array<ResourceElement> getChildren(@NotNull final Array<AssetIndex.Entry> entries,
+                                               @NotNull final Array<String> extensionFilter,
+                                               final boolean onlyFolders) {
+
+        final Array<ResourceElement> elements = ArrayFactory.newArray(ResourceElement.class, entries.size());
+
+        for (final AssetIndex.Entry entry : entries) {
+
+            if (entry.isDirectory()) {
+                elements.add(createFor(entry));
+                continue;
+            } else if (onlyFolders) {
+                continue;
+            }
+
+            final String extension = FileUtils.getExtension(entry.getFile());
+
+            if (extensionFilter.isEmpty() || extensionFilter.contains(extension)) {
+                elements.add(createFor(entry));
+            }
+        }
+
+        return elements;
+    }
+
     @Override
     public boolean hasChildren(@NotNull final Array<String> extensionFilter, final boolean onlyFolders) {
         return true;
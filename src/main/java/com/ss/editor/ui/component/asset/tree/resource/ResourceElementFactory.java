@@ -1,6 +1,8 @@
 package com.ss.editor.ui.component.asset.tree.resource;
 
+import com.ss.editor.file.index.AssetIndex;
 import com.ss.editor.manager.JavaFXImageManager;
+import com.ss.editor.manager.ResourceManager;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Files;
@@ -21,7 +23,28 @@ public class ResourceElementFactory {
      */
     @NotNull
     public static ResourceElement createFor(@NotNull final Path file) {
-        if (Files.isDirectory(file)) {
+
+        final ResourceManager resourceManager = ResourceManager.getInstance();
+        final AssetIndex assetIndex = resourceManager.findAssetIndex(file);
+        final AssetIndex.Entry entry = assetIndex == null ? null : assetIndex.get(file);
+
+        return createFor(file, entry == null ? Files.isDirectory(file) : entry.isDirectory());
+    }
+
+    /**
+     * Create for resource element.
+     *
+     * @param entry the entry of an asset index
+     * @return the resource element
+     */
+    @NotNull
+    public static ResourceElement createFor(@NotNull final AssetIndex.Entry entry) {
+        return createFor(entry.getFile(), entry.isDirectory());
+    }
+
+    @NotNull
+    private static ResourceElement createFor(@NotNull final Path file, final boolean directory) {
+        if (directory) {
             return new FolderResourceElement(file);
         } else if (JavaFXImageManager.isImage(file)) {
             return new ImageResourceElement(file);
@@ -4,18 +4,24 @@ import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
-import com.jme3.scene.Spatial;
 import com.jme3.terrain.Terrain;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.manager.ExecutorManager;
 import com.ss.editor.model.undo.editor.ModelChangeConsumer;
 import com.ss.editor.ui.component.editing.terrain.TerrainEditingComponent;
 import com.ss.editor.ui.control.model.property.operation.ModelPropertyOperation;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
 import com.ss.rlib.util.dictionary.DictionaryFactory;
-import com.ss.rlib.util.dictionary.ObjectDictionary;
+import com.ss.rlib.util.dictionary.IntegerDictionary;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The base implementation of tool control to change height of terrain.
@@ -24,58 +30,317 @@ import java.util.List;
  */
 public class ChangeHeightTerrainToolControl extends TerrainToolControl {
 
-    private static class HeightPoint {
+    @NotNull
+    private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
+
+    /**
+     * The min count of rows of a brush area to process them in a separated band.
+     */
+    private static final int BAND_ROWS = 16;
+
+    /**
+     * The max count of bands to process a brush area in parallel.
+     */
+    private static final int MAX_BANDS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The size of a side of a tile with original heights.
+     */
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * The kernel of a brush to process rows of a brush area.
+     */
+    @FunctionalInterface
+    protected interface HeightKernel {
+
+        /**
+         * Process rows of a brush area.
+         *
+         * @param area    the brush area.
+         * @param fromRow the first row.
+         * @param toRow   the last row (exclusive).
+         */
+        void process(@NotNull BrushArea area, int fromRow, int toRow);
+    }
+
+    /**
+     * The area of a terrain under a brush. The heights of the area are read to a primitive array with a border of
+     * one point, so kernels can read neighbours of each point of the area.
+     */
+    protected static class BrushArea {
+
+        /**
+         * The original heights of the area with the border, NaN for points outside of a terrain.
+         */
+        @NotNull
+        private float[] heights;
+
+        /**
+         * The new heights of the area with the border, NaN for points which shouldn't be changed.
+         */
+        @NotNull
+        private float[] result;
+
+        /**
+         * The terrain coords of the first point of the area without the border.
+         */
+        private int minX;
+        private int minZ;
 
-        private final float x;
-        private final float y;
+        /**
+         * The count of points in a row and the count of rows of the area with the border.
+         */
+        private int width;
+        private int height;
+
+        /**
+         * The radius of the brush in points.
+         */
+        private int radiusX;
+        private int radiusZ;
+
+        /**
+         * The distance between points of a terrain.
+         */
+        private float stepX;
+        private float stepZ;
+
+        /**
+         * The height scale of a terrain.
+         */
+        private float scaleY;
+
+        /**
+         * The squared radius of the brush.
+         */
+        private float brushRadiusSquared;
+
+        BrushArea() {
+            this.heights = new float[0];
+            this.result = new float[0];
+        }
+
+        void prepare(final int centerX, final int centerZ, final int radiusX, final int radiusZ,
+                             @NotNull final Vector3f localScale, final float brushRadius) {
+
+            this.radiusX = radiusX;
+            this.radiusZ = radiusZ;
+            this.minX = centerX - radiusX;
+            this.minZ = centerZ - radiusZ;
+            this.width = radiusX * 2 + 2;
+            this.height = radiusZ * 2 + 2;
+            this.stepX = localScale.getX();
+            this.stepZ = localScale.getZ();
+            this.scaleY = localScale.getY();
+            this.brushRadiusSquared = brushRadius * brushRadius;
+
+            final int length = width * height;
 
-        private final int xIndex;
-        private final int yIndex;
+            if (heights.length < length) {
+                heights = new float[length];
+                result = new float[length];
+            }
 
-        private final int hash;
+            Arrays.fill(result, 0, length, Float.NaN);
+        }
 
         /**
-         * Instantiates a new Height point.
+         * Get the original heights of the area.
          *
-         * @param x      the x
-         * @param y      the y
-         * @param xIndex the x index
-         * @param yIndex the y index
+         * @return the original heights.
          */
-        public HeightPoint(final float x, final float y, final int xIndex, final int yIndex) {
-            this.x = x;
-            this.y = y;
-            this.xIndex = xIndex;
-            this.yIndex = yIndex;
-            this.hash = xIndex | (yIndex << 15);
+        @NotNull
+        public float[] getHeights() {
+            return heights;
         }
 
-        @Override
-        public boolean equals(final Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            final HeightPoint that = (HeightPoint) o;
-            if (xIndex != that.xIndex) return false;
-            return yIndex == that.yIndex;
+        /**
+         * Get the new heights of the area.
+         *
+         * @return the new heights.
+         */
+        @NotNull
+        public float[] getResult() {
+            return result;
         }
 
-        @Override
-        public int hashCode() {
-            return hash;
+        /**
+         * Get the count of points in a row of the area with the border.
+         *
+         * @return the count of points.
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Get the count of points in a row of the area without the border.
+         *
+         * @return the count of points.
+         */
+        public int getSizeX() {
+            return radiusX * 2;
+        }
+
+        /**
+         * Get the count of rows of the area without the border.
+         *
+         * @return the count of rows.
+         */
+        public int getSizeZ() {
+            return radiusZ * 2;
+        }
+
+        /**
+         * Get the index of a point in arrays of the area.
+         *
+         * @param x the column of the point in the area without the border.
+         * @param z the row of the point in the area without the border.
+         * @return the index.
+         */
+        public int getIndex(final int x, final int z) {
+            return (z + 1) * width + x + 1;
+        }
+
+        /**
+         * Get the X offset of a column from the center of the brush.
+         *
+         * @param x the column of the area without the border.
+         * @return the offset.
+         */
+        public float getEffectX(final int x) {
+            return (x - radiusX) * stepX;
+        }
+
+        /**
+         * Get the Z offset of a row from the center of the brush.
+         *
+         * @param z the row of the area without the border.
+         * @return the offset.
+         */
+        public float getEffectZ(final int z) {
+            return (z - radiusZ) * stepZ;
+        }
+
+        /**
+         * Get the height scale of a terrain.
+         *
+         * @return the height scale.
+         */
+        public float getScaleY() {
+            return scaleY;
+        }
+
+        /**
+         * Check that a point is inside of the brush.
+         *
+         * @param effectX the X offset of the point from the center of the brush.
+         * @param effectZ the Z offset of the point from the center of the brush.
+         * @return true if the point is inside.
+         */
+        public boolean isInBrush(final float effectX, final float effectZ) {
+            return effectX * effectX + effectZ * effectZ <= brushRadiusSquared;
         }
     }
 
     /**
-     * The table of original heights.
+     * The tile with original heights of a square area of a terrain.
+     */
+    private static class HeightTile {
+
+        /**
+         * The original heights.
+         */
+        @NotNull
+        private final float[] heights;
+
+        /**
+         * The bit mask of stored heights.
+         */
+        @NotNull
+        private final long[] stored;
+
+        /**
+         * The coords of this tile.
+         */
+        private int tileX;
+        private int tileZ;
+
+        private HeightTile() {
+            this.heights = new float[TILE_SIZE * TILE_SIZE];
+            this.stored = new long[TILE_SIZE * TILE_SIZE / Long.SIZE];
+        }
+
+        private void prepare(final int tileX, final int tileZ) {
+            this.tileX = tileX;
+            this.tileZ = tileZ;
+            Arrays.fill(stored, 0L);
+        }
+
+        private boolean isStored(final int index) {
+            return (stored[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private void store(final int index, final float height) {
+            stored[index >>> 6] |= 1L << index;
+            heights[index] = height;
+        }
+    }
+
+    /**
+     * The changed heights of a terrain. Points are packed as (x << 16) | z and grouped by tiles.
+     */
+    private static class HeightChanges {
+
+        /**
+         * The packed points.
+         */
+        @NotNull
+        private final int[] points;
+
+        /**
+         * The heights of the points.
+         */
+        @NotNull
+        private final float[] heights;
+
+        private HeightChanges(@NotNull final int[] points, @NotNull final float[] heights) {
+            this.points = points;
+            this.heights = heights;
+        }
+    }
+
+    /**
+     * The table of tiles with original heights.
+     */
+    @NotNull
+    private final IntegerDictionary<HeightTile> tileTable;
+
+    /**
+     * The list of tiles with original heights.
+     */
+    @NotNull
+    private final Array<HeightTile> tiles;
+
+    /**
+     * The pool of free tiles.
+     */
+    @NotNull
+    private final Array<HeightTile> freeTiles;
+
+    /**
+     * The area under the brush.
      */
     @NotNull
-    private final ObjectDictionary<HeightPoint, Float> originalHeight;
+    private final BrushArea brushArea;
 
     /**
-     * The copy of an original terrain.
+     * The count of stored original heights.
      */
-    @Nullable
-    private Spatial copiedTerrain;
+    private int storedCount;
 
     /**
      * Instantiates a new Change height terrain tool control.
@@ -84,51 +349,236 @@ public class ChangeHeightTerrainToolControl extends TerrainToolControl {
      */
     public ChangeHeightTerrainToolControl(@NotNull final TerrainEditingComponent component) {
         super(component);
-        this.originalHeight = DictionaryFactory.newObjectDictionary(0.2F, 1000);
-    }
-
-    /**
-     * @return the table of original heights.
-     */
-    @NotNull
-    private ObjectDictionary<HeightPoint, Float> getOriginalHeight() {
-        return originalHeight;
+        this.tileTable = DictionaryFactory.newIntegerDictionary();
+        this.tiles = ArrayFactory.newArray(HeightTile.class);
+        this.freeTiles = ArrayFactory.newArray(HeightTile.class);
+        this.brushArea = new BrushArea();
     }
 
     /**
      * Start making changes.
      */
     protected void startChange() {
-
-        final ObjectDictionary<HeightPoint, Float> originalHeight = getOriginalHeight();
-        originalHeight.clear();
-
-        copiedTerrain = notNull(getEditedModel()).clone();
+        releaseTiles();
     }
 
     /**
-     * Notify about wanting to change height of a point.
+     * Notify about wanting to change height of a point, should be called before changing the point.
      *
      * @param point the point.
      */
     protected void change(@NotNull final Vector2f point) {
 
-        final Terrain terrain = (Terrain) notNull(copiedTerrain);
-        final Node terrainNode = (Node) notNull(getEditedModel());
+        final Terrain terrain = (Terrain) notNull(getEditedModel());
+        final Node terrainNode = (Node) terrain;
         final Vector3f scale = terrainNode.getWorldScale();
 
-        final int halfSize = terrain.getTerrainSize() / 2;
+        final int terrainSize = terrain.getTerrainSize();
+        final int halfSize = terrainSize / 2;
         final int x = Math.round((point.x / scale.x) + halfSize);
         final int z = Math.round((point.y / scale.z) + halfSize);
 
-        final HeightPoint heightPoint = new HeightPoint(point.getX(), point.getY(), x, z);
+        if (x < 0 || z < 0 || x >= terrainSize || z >= terrainSize) {
+            return;
+        }
+
+        final int tileX = x >> TILE_SHIFT;
+        final int tileZ = z >> TILE_SHIFT;
+        final int tileKey = (tileX << 16) | tileZ;
+
+        HeightTile tile = tileTable.get(tileKey);
+
+        if (tile == null) {
+            tile = freeTiles.isEmpty() ? new HeightTile() : notNull(freeTiles.pop());
+            tile.prepare(tileX, tileZ);
+            tileTable.put(tileKey, tile);
+            tiles.add(tile);
+        }
+
+        final int index = ((z & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+        if (tile.isStored(index)) return;
+
+        tile.store(index, terrain.getHeightmapHeight(point));
+        storedCount++;
+    }
+
+    /**
+     * Change heights of the area under the brush. The heights of the area are read to a primitive array, the kernel
+     * calculates new heights in parallel by bands of rows for large brushes and then all new heights are written to
+     * the terrain in one batch.
+     *
+     * @param localPoint the center of the brush in the local coords of the terrain.
+     * @param kernel     the kernel of the brush.
+     */
+    protected void modifyHeight(@NotNull final Vector3f localPoint, @NotNull final HeightKernel kernel) {
+
+        final Terrain terrain = (Terrain) notNull(getEditedModel());
+        final Node terrainNode = (Node) terrain;
+        final Vector3f worldScale = terrainNode.getWorldScale();
+        final Vector3f localScale = terrainNode.getLocalScale();
+
+        final float brushSize = getBrushSize();
+        final int halfSize = terrain.getTerrainSize() / 2;
+        final int radiusX = (int) (brushSize / localScale.getX());
+        final int radiusZ = (int) (brushSize / localScale.getZ());
+        final int centerX = Math.round((localPoint.getX() / worldScale.getX()) + halfSize);
+        final int centerZ = Math.round((localPoint.getZ() / worldScale.getZ()) + halfSize);
+
+        if (radiusX < 1 || radiusZ < 1) {
+            return;
+        }
+
+        final BrushArea area = getBrushArea();
+        area.prepare(centerX, centerZ, radiusX, radiusZ, localScale, brushSize);
+
+        calculate(terrain, area, kernel);
+
+        final float[] result = area.getResult();
+        final List<Vector2f> locs = new ArrayList<>();
+        final List<Float> heights = new ArrayList<>();
+
+        for (int z = 0, sizeZ = area.getSizeZ(), sizeX = area.getSizeX(); z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++) {
+
+                final float newHeight = result[area.getIndex(x, z)];
+                if (Float.isNaN(newHeight)) continue;
+
+                final Vector2f point = new Vector2f((area.minX + x - halfSize) * worldScale.getX(),
+                        (area.minZ + z - halfSize) * worldScale.getZ());
+
+                change(point);
+
+                locs.add(point);
+                heights.add(newHeight);
+            }
+        }
+
+        if (locs.isEmpty()) {
+            return;
+        }
+
+        // do the actual height adjustment
+        terrain.setHeight(locs, heights);
+        terrainNode.updateModelBound(); // or else we won't collide with it where we just edited
+    }
+
+    /**
+     * Read heights of the brush area from the terrain and calculate new heights of the area by the kernel.
+     *
+     * @param terrain the terrain.
+     * @param area    the prepared brush area.
+     * @param kernel  the kernel of the brush.
+     */
+    static void calculate(@NotNull final Terrain terrain, @NotNull final BrushArea area,
+                          @NotNull final HeightKernel kernel) {
+
+        // the rows of the border are read too
+        processInBands(area, area.height, (target, fromRow, toRow) -> readHeights(terrain, target, fromRow, toRow));
+        processInBands(area, area.getSizeZ(), kernel);
+    }
+
+    /**
+     * Read heights of rows of the brush area from the terrain.
+     */
+    private static void readHeights(@NotNull final Terrain terrain, @NotNull final BrushArea area,
+                                    final int fromRow, final int toRow) {
+
+        final Vector3f worldScale = ((Node) terrain).getWorldScale();
+        final Vector2f point = new Vector2f();
 
-        final ObjectDictionary<HeightPoint, Float> originalHeight = getOriginalHeight();
-        if(originalHeight.containsKey(heightPoint)) return;
+        final int terrainSize = terrain.getTerrainSize();
+        final int halfSize = terrainSize / 2;
+        final float[] heights = area.getHeights();
 
-        final float height = terrain.getHeightmapHeight(point);
+        for (int row = fromRow; row < toRow; row++) {
 
-        originalHeight.put(heightPoint, height);
+            // the border is before the first point of the area
+            final int z = area.minZ + row - 1;
+
+            for (int column = 0, width = area.width; column < width; column++) {
+
+                final int x = area.minX + column - 1;
+                final int index = row * width + column;
+
+                if (x < 0 || z < 0 || x >= terrainSize || z >= terrainSize) {
+                    heights[index] = Float.NaN;
+                    continue;
+                }
+
+                point.set((x - halfSize) * worldScale.getX(), (z - halfSize) * worldScale.getZ());
+                heights[index] = terrain.getHeightmapHeight(point);
+            }
+        }
+    }
+
+    /**
+     * Process rows of the brush area by bands. The current thread takes bands as well as background workers, so it
+     * doesn't wait for busy workers.
+     *
+     * @param area   the brush area.
+     * @param rows   the count of rows to process.
+     * @param kernel the kernel to process bands.
+     */
+    private static void processInBands(@NotNull final BrushArea area, final int rows,
+                                       @NotNull final HeightKernel kernel) {
+
+        final int bandCount = Math.min((rows + BAND_ROWS - 1) / BAND_ROWS, MAX_BANDS);
+
+        if (bandCount < 2) {
+            kernel.process(area, 0, rows);
+            return;
+        }
+
+        final int bandRows = (rows + bandCount - 1) / bandCount;
+        final AtomicInteger nextBand = new AtomicInteger();
+        final AtomicReference<RuntimeException> error = new AtomicReference<>();
+        final CountDownLatch finished = new CountDownLatch(bandCount);
+
+        final Runnable worker = () -> {
+            for (int band = nextBand.getAndIncrement(); band < bandCount; band = nextBand.getAndIncrement()) {
+                try {
+                    kernel.process(area, band * bandRows, Math.min((band + 1) * bandRows, rows));
+                } catch (final RuntimeException e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        };
+
+        for (int i = 1; i < bandCount; i++) {
+            EXECUTOR_MANAGER.addBackgroundTask(worker, TaskPriority.INTERACTIVE);
+        }
+
+        worker.run();
+
+        boolean interrupted = false;
+
+        while (finished.getCount() > 0) {
+            try {
+                finished.await();
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        final RuntimeException exception = error.get();
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * @return the area under the brush.
+     */
+    @NotNull
+    private BrushArea getBrushArea() {
+        return brushArea;
     }
 
     /**
@@ -137,38 +587,86 @@ public class ChangeHeightTerrainToolControl extends TerrainToolControl {
     protected void commitChanges() {
 
         final Terrain terrain = (Terrain) notNull(getEditedModel());
-        final ObjectDictionary<Vector2f, Float> oldValues = DictionaryFactory.newObjectDictionary();
-        final ObjectDictionary<Vector2f, Float> newValues = DictionaryFactory.newObjectDictionary();
+        final Node terrainNode = (Node) terrain;
+        final Vector3f scale = terrainNode.getWorldScale();
+        final Vector2f point = new Vector2f();
 
-        final ObjectDictionary<HeightPoint, Float> originalHeight = getOriginalHeight();
-        originalHeight.forEach((heightPoint, height) -> oldValues.put(new Vector2f(heightPoint.x, heightPoint.y), height));
-        originalHeight.forEach((heightPoint, value) -> {
-            final Vector2f point = new Vector2f(heightPoint.x, heightPoint.y);
-            newValues.put(point, terrain.getHeightmapHeight(point));
-        });
+        final int halfSize = terrain.getTerrainSize() / 2;
+        final int[] points = new int[storedCount];
+        final float[] oldHeights = new float[storedCount];
+        final float[] newHeights = new float[storedCount];
+
+        int count = 0;
+
+        for (final HeightTile tile : tiles) {
+
+            final int baseX = tile.tileX << TILE_SHIFT;
+            final int baseZ = tile.tileZ << TILE_SHIFT;
 
-        final ModelPropertyOperation<Terrain, ObjectDictionary<Vector2f, Float>> operation =
-                new ModelPropertyOperation<>(terrain, "Heightmap", newValues, oldValues);
+            for (int index = 0; index < TILE_SIZE * TILE_SIZE; index++) {
 
-        operation.setApplyHandler((toChange, heightMap) -> {
+                if (!tile.isStored(index)) {
+                    continue;
+                }
 
-            final List<Vector2f> points = new ArrayList<>(heightMap.size());
-            final List<Float> heights = new ArrayList<>(heightMap.size());
+                final int x = baseX + (index & TILE_MASK);
+                final int z = baseZ + (index >> TILE_SHIFT);
+
+                point.set((x - halfSize) * scale.x, (z - halfSize) * scale.z);
+
+                points[count] = (x << 16) | z;
+                oldHeights[count] = tile.heights[index];
+                newHeights[count] = terrain.getHeightmapHeight(point);
+                count++;
+            }
+        }
 
-            heightMap.forEach((point, height) -> {
-                points.add(point);
-                heights.add(height);
-            });
+        releaseTiles();
 
-            toChange.setHeight(points, heights);
-            ((Node) toChange).updateModelBound();
-        });
+        final ModelPropertyOperation<Terrain, HeightChanges> operation =
+                new ModelPropertyOperation<>(terrain, "Heightmap", new HeightChanges(points, newHeights),
+                        new HeightChanges(points, oldHeights));
 
-        originalHeight.clear();
+        operation.setApplyHandler(ChangeHeightTerrainToolControl::applyHeights);
 
         final ModelChangeConsumer changeConsumer = getChangeConsumer();
         changeConsumer.execute(operation);
+    }
+
+    /**
+     * Return all used tiles to the pool.
+     */
+    private void releaseTiles() {
+        freeTiles.addAll(tiles);
+        tiles.clear();
+        tileTable.clear();
+        storedCount = 0;
+    }
+
+    /**
+     * Apply the heights to the terrain.
+     *
+     * @param terrain the terrain.
+     * @param changes the heights.
+     */
+    private static void applyHeights(@NotNull final Terrain terrain, @NotNull final HeightChanges changes) {
+
+        final Vector3f scale = ((Node) terrain).getWorldScale();
+        final int halfSize = terrain.getTerrainSize() / 2;
+        final int[] packed = changes.points;
+        final float[] values = changes.heights;
+
+        final List<Vector2f> points = new ArrayList<>(packed.length);
+        final List<Float> heights = new ArrayList<>(packed.length);
+
+        for (int i = 0; i < packed.length; i++) {
+            final int x = packed[i] >>> 16;
+            final int z = packed[i] & 0xFFFF;
+            points.add(new Vector2f((x - halfSize) * scale.x, (z - halfSize) * scale.z));
+            heights.add(values[i]);
+        }
 
-        copiedTerrain = null;
+        terrain.setHeight(points, heights);
+        ((Node) terrain).updateModelBound();
     }
 }
@@ -2,22 +2,18 @@ package com.ss.editor.ui.component.editing.terrain.control;
 
 import static com.ss.editor.util.EditingUtils.*;
 import static com.ss.rlib.util.ObjectUtils.notNull;
+import static java.lang.Float.isNaN;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.shape.Sphere;
-import com.jme3.terrain.Terrain;
 import com.ss.editor.control.editing.EditingInput;
 import com.ss.editor.ui.component.editing.terrain.TerrainEditingComponent;
 import com.ss.editor.util.LocalObjects;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The implementation of terrain tool to change height by level.
  *
@@ -159,81 +155,82 @@ public class LevelTerrainToolControl extends ChangeHeightTerrainToolControl {
 
         final Vector3f markerTranslation = levelMarker.getLocalTranslation();
         final Vector3f worldTranslation = terrainNode.getWorldTranslation();
-        final Vector3f localScale = terrainNode.getLocalScale();
         final Vector3f localPoint = contactPoint.subtract(worldTranslation, local.nextVector());
-        final Vector2f terrainLoc = local.nextVector2f();
-        final Vector2f effectPoint = local.nextVector2f();
-
-        final Terrain terrain = (Terrain) terrainNode;
-        final Geometry brush = getBrush();
 
         final float brushSize = getBrushSize();
         final float brushPower = getBrushPower();
+        final boolean precision = isPrecision();
 
         final float markerHeight = markerTranslation.getY() - worldTranslation.getY();
         final float desiredHeight = isUseMarker() ? markerHeight : getLevel();
 
-        final int radiusStepsX = (int) (brushSize / localScale.getX());
-        final int radiusStepsZ = (int) (brushSize / localScale.getZ());
+        modifyHeight(localPoint, (area, fromRow, toRow) ->
+                level(area, fromRow, toRow, brushSize, brushPower, desiredHeight, precision));
+    }
+
+    /**
+     * Calculate leveled heights of rows of the brush area.
+     *
+     * @param area          the brush area.
+     * @param fromRow       the first row.
+     * @param toRow         the last row (exclusive).
+     * @param brushSize     the brush size.
+     * @param brushPower    the brush power.
+     * @param desiredHeight the target level.
+     * @param precision     true if need to set the target level at once.
+     */
+    private static void level(@NotNull final BrushArea area, final int fromRow, final int toRow,
+                              final float brushSize, final float brushPower, final float desiredHeight,
+                              final boolean precision) {
 
-        final float xStepAmount = localScale.getX();
-        final float zStepAmount = localScale.getZ();
+        final float[] heights = area.getHeights();
+        final float[] result = area.getResult();
+        final float scaleY = area.getScaleY();
+        final int sizeX = area.getSizeX();
 
-        final List<Vector2f> locs = new ArrayList<>();
-        final List<Float> heights = new ArrayList<>();
+        for (int z = fromRow; z < toRow; z++) {
 
-        for (int z = -radiusStepsZ; z < radiusStepsZ; z++) {
-            for (int x = -radiusStepsX; x < radiusStepsX; x++) {
+            final float effectZ = area.getEffectZ(z);
 
-                float locX = localPoint.getX() + (x * xStepAmount);
-                float locZ = localPoint.getZ() + (z * zStepAmount);
+            for (int x = 0; x < sizeX; x++) {
 
-                effectPoint.set(locX - localPoint.getX(), locZ - localPoint.getZ());
+                final float effectX = area.getEffectX(x);
 
-                if (!isContains(brush, effectPoint.getX(), effectPoint.getY())) {
+                if (!area.isInBrush(effectX, effectZ)) {
                     continue;
                 }
 
-                terrainLoc.set(locX, locZ);
-
-                // adjust height based on radius of the tool
-                final float currentHeight = terrain.getHeightmapHeight(terrainLoc) * localScale.getY();
+                final int index = area.getIndex(x, z);
+                final float currentHeight = heights[index] * scaleY;
 
-                if (isPrecision()) {
-                    locs.add(terrainLoc.clone());
-                    heights.add(desiredHeight / localScale.getY());
-                } else {
+                if (isNaN(currentHeight)) {
+                    continue;
+                } else if (precision) {
+                    result[index] = desiredHeight / scaleY;
+                    continue;
+                }
 
-                    float epsilon = 0.0001f * brushPower; // rounding error for snapping
-                    float adj = 0;
+                float epsilon = 0.0001f * brushPower; // rounding error for snapping
+                float adj = 0;
 
-                    if (currentHeight < desiredHeight) adj = 1;
-                    else if (currentHeight > desiredHeight) adj = -1;
+                if (currentHeight < desiredHeight) adj = 1;
+                else if (currentHeight > desiredHeight) adj = -1;
 
-                    adj *= brushPower;
-                    adj *= calculateRadiusPercent(brushSize, effectPoint.getX(), effectPoint.getY());
+                adj *= brushPower;
+                adj *= calculateRadiusPercent(brushSize, effectX, effectZ);
 
-                    // test if adjusting too far and then cap it
-                    if (adj > 0 && floatGreaterThan((currentHeight + adj), desiredHeight, epsilon)) {
-                        adj = desiredHeight - currentHeight;
-                    } else if (adj < 0 && floatLessThan((currentHeight + adj), desiredHeight, epsilon)) {
-                        adj = desiredHeight - currentHeight;
-                    }
+                // test if adjusting too far and then cap it
+                if (adj > 0 && floatGreaterThan((currentHeight + adj), desiredHeight, epsilon)) {
+                    adj = desiredHeight - currentHeight;
+                } else if (adj < 0 && floatLessThan((currentHeight + adj), desiredHeight, epsilon)) {
+                    adj = desiredHeight - currentHeight;
+                }
 
-                    if (!floatEquals(adj, 0, 0.001f)) {
-                        locs.add(terrainLoc.clone());
-                        heights.add(currentHeight + adj);
-                    }
+                if (!floatEquals(adj, 0, 0.001f)) {
+                    result[index] = currentHeight + adj;
                 }
             }
         }
-
-        locs.forEach(this::change);
-
-        // do the actual height adjustment
-        terrain.setHeight(locs, heights);
-
-        terrainNode.updateModelBound(); // or else we won't collide with it where we just edited
     }
 
     /**
@@ -8,7 +8,6 @@ import com.jme3.scene.Spatial;
 import com.jme3.terrain.Terrain;
 import com.jme3.texture.Image;
 import com.jme3.texture.Texture;
-import com.jme3.util.BufferUtils;
 import com.ss.editor.control.editing.EditingInput;
 import com.ss.editor.model.undo.editor.ModelChangeConsumer;
 import com.ss.editor.ui.component.editing.terrain.TerrainEditingComponent;
@@ -19,8 +18,14 @@ import org.jetbrains.annotations.Nullable;
 import com.ss.rlib.function.ObjectFloatObjectConsumer;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.IntegerDictionary;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * The implementation of terrain tool to paint textures.
@@ -29,43 +34,65 @@ import java.nio.ByteBuffer;
  */
 public class PaintTerrainToolControl extends TerrainToolControl {
 
-    private static class ColorPoint {
+    /**
+     * The size of a side of a tile with original pixels.
+     */
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
 
-        private final int index;
+    /**
+     * The count of bytes per pixel of supported alpha textures.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
 
-        private float red;
-        private float green;
-        private float blue;
-        private float alpha;
+    /**
+     * The tile with original pixels of a square area of an alpha texture.
+     */
+    private static class AlphaTile {
 
         /**
-         * Instantiates a new Color point.
-         *
-         * @param index the index
-         * @param red   the red
-         * @param green the green
-         * @param blue  the blue
-         * @param alpha the alpha
+         * The original pixels.
          */
-        public ColorPoint(final int index, final float red, final float green, final float blue, final float alpha) {
-            this.index = index;
-            this.red = red;
-            this.green = green;
-            this.blue = blue;
-            this.alpha = alpha;
+        @NotNull
+        private final byte[] data;
+
+        /**
+         * The area of this tile in pixels.
+         */
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+
+        private AlphaTile() {
+            this.data = new byte[TILE_SIZE * TILE_SIZE * BYTES_PER_PIXEL];
         }
 
-        @Override
-        public boolean equals(final Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            final ColorPoint that = (ColorPoint) o;
-            return index == that.index;
+        private int getLength() {
+            return width * height * BYTES_PER_PIXEL;
         }
+    }
 
-        @Override
-        public int hashCode() {
-            return index;
+    /**
+     * The changed areas of an alpha texture, the content of each area is deflated.
+     */
+    private static class AlphaChanges {
+
+        /**
+         * The areas as x, y, width and height.
+         */
+        @NotNull
+        private final int[] areas;
+
+        /**
+         * The deflated pixels of the areas.
+         */
+        @NotNull
+        private final byte[][] data;
+
+        private AlphaChanges(@NotNull final int[] areas, @NotNull final byte[][] data) {
+            this.areas = areas;
+            this.data = data;
         }
     }
 
@@ -110,22 +137,34 @@ public class PaintTerrainToolControl extends TerrainToolControl {
             ArrayFactory.toArray(RED_FUNCTION, GREEN_FUNCTION, BLUE_FUNCTION, ALPHA_FUNCTION);
 
     /**
-     * The list of color points.
+     * The table of tiles with original pixels.
      */
     @NotNull
-    private final Array<ColorPoint> colorPoints;
+    private final IntegerDictionary<AlphaTile> tileTable;
 
     /**
-     * The alpha texture to paint.
+     * The list of tiles with original pixels.
      */
-    @Nullable
-    private Texture alphaTexture;
+    @NotNull
+    private final Array<AlphaTile> tiles;
 
     /**
-     * Previous image buffer.
+     * The pool of free tiles.
+     */
+    @NotNull
+    private final Array<AlphaTile> freeTiles;
+
+    /**
+     * The deflater of changed areas.
+     */
+    @NotNull
+    private final Deflater deflater;
+
+    /**
+     * The alpha texture to paint.
      */
     @Nullable
-    private ByteBuffer prevBuffer;
+    private Texture alphaTexture;
 
     /**
      * The edited layer.
@@ -139,7 +178,10 @@ public class PaintTerrainToolControl extends TerrainToolControl {
      */
     public PaintTerrainToolControl(@NotNull final TerrainEditingComponent component) {
         super(component);
-        this.colorPoints = ArrayFactory.newArray(ColorPoint.class);
+        this.tileTable = DictionaryFactory.newIntegerDictionary();
+        this.tiles = ArrayFactory.newArray(AlphaTile.class);
+        this.freeTiles = ArrayFactory.newArray(AlphaTile.class);
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
     }
 
     @NotNull
@@ -198,125 +240,170 @@ public class PaintTerrainToolControl extends TerrainToolControl {
     }
 
     /**
-     * @return the list of color points.
+     * Start making changes.
      */
-    @NotNull
-    private Array<ColorPoint> getColorPoints() {
-        return colorPoints;
+    private void startChange() {
+        releaseTiles();
     }
 
     /**
-     * Start making changes.
+     * Notify about wanting to change pixels of an area, the original pixels of not yet changed tiles of the area are
+     * copied.
+     *
+     * @param image the image.
+     * @param minX  the min x of the area.
+     * @param minY  the min y of the area.
+     * @param maxX  the max x of the area (exclusive).
+     * @param maxY  the max y of the area (exclusive).
      */
-    private void startChange() {
+    protected void change(@NotNull final Image image, final int minX, final int minY, final int maxX, final int maxY) {
+        if (minX >= maxX || minY >= maxY) return;
 
-        final Array<ColorPoint> colorPoints = getColorPoints();
-        colorPoints.clear();
+        final ByteBuffer buffer = image.getData(0);
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int tilesPerRow = (width + TILE_SIZE - 1) >> TILE_SHIFT;
 
-        final Texture alphaTexture = notNull(getAlphaTexture());
-        final Image image = alphaTexture.getImage();
-        final ByteBuffer data = image.getData(0);
+        for (int tileY = minY >> TILE_SHIFT, lastY = (maxY - 1) >> TILE_SHIFT; tileY <= lastY; tileY++) {
+            for (int tileX = minX >> TILE_SHIFT, lastX = (maxX - 1) >> TILE_SHIFT; tileX <= lastX; tileX++) {
+
+                final int key = tileY * tilesPerRow + tileX;
+                if (tileTable.containsKey(key)) continue;
+
+                final AlphaTile tile = freeTiles.isEmpty() ? new AlphaTile() : notNull(freeTiles.pop());
+                tile.x = tileX << TILE_SHIFT;
+                tile.y = tileY << TILE_SHIFT;
+                tile.width = Math.min(TILE_SIZE, width - tile.x);
+                tile.height = Math.min(TILE_SIZE, height - tile.y);
+
+                readArea(buffer, width, tile.x, tile.y, tile.width, tile.height, tile.data);
 
-        if (prevBuffer == null) {
-            prevBuffer = BufferUtils.createByteBuffer(data.capacity());
-        } else if (prevBuffer.capacity() < data.capacity()) {
-            BufferUtils.destroyDirectBuffer(prevBuffer);
-            prevBuffer = BufferUtils.createByteBuffer(data.capacity());
+                tileTable.put(key, tile);
+                tiles.add(tile);
+            }
         }
 
-        final int position = data.position();
-        data.position(0);
-        prevBuffer.clear();
-        prevBuffer.put(data);
-        prevBuffer.flip();
-        data.position(position);
+        buffer.rewind();
     }
 
     /**
-     * Notify about wanting to change color of a point.
-     *
-     * @param index the index
-     * @param color the color
+     * Commit all changes.
      */
-    protected void change(final int index, @NotNull final ColorRGBA color) {
+    private void commitChanges() {
+
+        final Texture alphaTexture = notNull(getAlphaTexture());
+        final Image image = alphaTexture.getImage();
+        final ByteBuffer buffer = image.getData(0);
+        final int width = image.getWidth();
 
-        final Array<ColorPoint> colorPoints = getColorPoints();
-        final ColorPoint search = colorPoints.search(index, (point, toCheck) -> point.index == toCheck);
+        final int[] areas = new int[tiles.size() * 4];
+        final byte[][] prevData = new byte[tiles.size()][];
+        final byte[][] newData = new byte[tiles.size()][];
+        final byte[] current = new byte[TILE_SIZE * TILE_SIZE * BYTES_PER_PIXEL];
 
-        if (search != null) {
-            search.red = color.r;
-            search.green = color.g;
-            search.blue = color.b;
-            search.alpha = color.a;
-            return;
+        int count = 0;
+
+        for (final AlphaTile tile : tiles) {
+
+            final int length = tile.getLength();
+
+            readArea(buffer, width, tile.x, tile.y, tile.width, tile.height, current);
+
+            if (equals(tile.data, current, length)) {
+                continue;
+            }
+
+            areas[count * 4] = tile.x;
+            areas[count * 4 + 1] = tile.y;
+            areas[count * 4 + 2] = tile.width;
+            areas[count * 4 + 3] = tile.height;
+            prevData[count] = deflate(tile.data, length);
+            newData[count] = deflate(current, length);
+            count++;
         }
 
-        colorPoints.add(new ColorPoint(index, color.r, color.g, color.b, color.a));
+        buffer.rewind();
+        releaseTiles();
+
+        final AlphaChanges prevChanges = new AlphaChanges(Arrays.copyOf(areas, count * 4), Arrays.copyOf(prevData, count));
+        final AlphaChanges newChanges = new AlphaChanges(prevChanges.areas, Arrays.copyOf(newData, count));
+
+        final ModelPropertyOperation<Image, AlphaChanges> operation =
+                new ModelPropertyOperation<>(image, "AlphaMap", newChanges, prevChanges);
+        operation.setApplyHandler((img, toApply) -> applyChanges(img, toApply, toApply == newChanges));
+
+        final ModelChangeConsumer changeConsumer = getChangeConsumer();
+        changeConsumer.execute(operation);
     }
 
     /**
-     * @return the previous image buffer.
+     * Return all used tiles to the pool.
      */
-    @NotNull
-    private ByteBuffer getPrevBuffer() {
-        return notNull(prevBuffer);
+    private void releaseTiles() {
+        freeTiles.addAll(tiles);
+        tiles.clear();
+        tileTable.clear();
     }
 
     /**
-     * Commit all changes.
+     * Deflate the content.
+     *
+     * @param content the content.
+     * @param length  the length of the content.
+     * @return the deflated content.
      */
-    private void commitChanges() {
+    @NotNull
+    private byte[] deflate(@NotNull final byte[] content, final int length) {
 
-        final ByteBuffer prevBuffer = getPrevBuffer();
-        final Texture alphaTexture = notNull(getAlphaTexture());
-        final Image image = alphaTexture.getImage();
+        deflater.reset();
+        deflater.setInput(content, 0, length);
+        deflater.finish();
 
-        final Array<ColorPoint> colorPoints = getColorPoints();
-        final Array<ColorPoint> prevColorPoints = ArrayFactory.newArray(ColorPoint.class, colorPoints.size());
-        final Array<ColorPoint> newColorPoints = ArrayFactory.newArray(ColorPoint.class, colorPoints.size());
-        newColorPoints.addAll(colorPoints);
+        byte[] result = new byte[Math.max(length / 8, 64)];
+        int size = 0;
 
-        fillPrevColorPoints(prevBuffer, image, colorPoints, prevColorPoints);
+        while (!deflater.finished()) {
 
-        final ModelPropertyOperation<Image, Array<ColorPoint>> operation =
-                new ModelPropertyOperation<>(image, "AlphaMap", newColorPoints, prevColorPoints);
-        operation.setApplyHandler((img, toApply) -> applyColorPoints(img, toApply, toApply == newColorPoints));
+            if (size == result.length) {
+                result = Arrays.copyOf(result, result.length * 2);
+            }
 
-        colorPoints.clear();
+            size += deflater.deflate(result, size, result.length - size);
+        }
 
-        final ModelChangeConsumer changeConsumer = getChangeConsumer();
-        changeConsumer.execute(operation);
+        return Arrays.copyOf(result, size);
     }
 
     /**
-     * Apply color points to an image.
+     * Apply changes to an image.
      */
-    private static void applyColorPoints(@NotNull final Image image, @NotNull final Array<ColorPoint> colorPoints,
-                                         final boolean isRedo) {
+    private static void applyChanges(@NotNull final Image image, @NotNull final AlphaChanges changes,
+                                     final boolean isRedo) {
 
         final ByteBuffer buffer = image.getData(0);
+        final int width = image.getWidth();
+        final int[] areas = changes.areas;
+        final byte[] content = new byte[TILE_SIZE * TILE_SIZE * BYTES_PER_PIXEL];
+        final Inflater inflater = new Inflater();
 
-        switch (image.getFormat()) {
-            case RGBA8: {
-                for (final ColorPoint targetPoint : colorPoints) {
-                    buffer.position(targetPoint.index);
-                    buffer.put(float2byte(targetPoint.red));
-                    buffer.put(float2byte(targetPoint.green));
-                    buffer.put(float2byte(targetPoint.blue));
-                    buffer.put(float2byte(targetPoint.alpha));
-                }
-                break;
-            }
-            case ABGR8: {
-                for (final ColorPoint targetPoint : colorPoints) {
-                    buffer.position(targetPoint.index);
-                    buffer.put(float2byte(targetPoint.alpha));
-                    buffer.put(float2byte(targetPoint.blue));
-                    buffer.put(float2byte(targetPoint.green));
-                    buffer.put(float2byte(targetPoint.red));
-                }
-                break;
+        try {
+
+            for (int i = 0; i < changes.data.length; i++) {
+
+                final int areaWidth = areas[i * 4 + 2];
+                final int areaHeight = areas[i * 4 + 3];
+
+                inflater.reset();
+                inflater.setInput(changes.data[i]);
+                inflater.inflate(content, 0, areaWidth * areaHeight * BYTES_PER_PIXEL);
+
+                writeArea(buffer, width, areas[i * 4], areas[i * 4 + 1], areaWidth, areaHeight, content);
             }
+
+        } catch (final DataFormatException e) {
+            throw new RuntimeException(e);
+        } finally {
+            inflater.end();
         }
 
         buffer.rewind();
@@ -331,43 +418,42 @@ public class PaintTerrainToolControl extends TerrainToolControl {
     }
 
     /**
-     * Fill previous color points.
-     *
-     * @param prevBuffer      the buffer of previous image.
-     * @param image           the current image.
-     * @param colorPoints     the list of changes color points.
-     * @param prevColorPoints the list to fill original color points.
+     * Copy pixels of an area of an image to the array.
      */
-    private void fillPrevColorPoints(@NotNull final ByteBuffer prevBuffer, @NotNull final Image image,
-                                     @NotNull final Array<ColorPoint> colorPoints,
-                                     @NotNull final Array<ColorPoint> prevColorPoints) {
-
-        switch (image.getFormat()) {
-            case RGBA8: {
-                for (final ColorPoint colorPoint : colorPoints) {
-                    prevBuffer.position(colorPoint.index);
-                    final float r = byte2float(prevBuffer.get());
-                    final float g = byte2float(prevBuffer.get());
-                    final float b = byte2float(prevBuffer.get());
-                    final float a = byte2float(prevBuffer.get());
-                    prevColorPoints.add(new ColorPoint(colorPoint.index, r, g, b, a));
-                }
-                break;
-            }
-            case ABGR8: {
-                for (final ColorPoint colorPoint : colorPoints) {
-                    prevBuffer.position(colorPoint.index);
-                    float a = byte2float(prevBuffer.get());
-                    float b = byte2float(prevBuffer.get());
-                    float g = byte2float(prevBuffer.get());
-                    float r = byte2float(prevBuffer.get());
-                    prevColorPoints.add(new ColorPoint(colorPoint.index, r, g, b, a));
-                }
-                break;
-            }
+    private static void readArea(@NotNull final ByteBuffer buffer, final int imageWidth, final int x, final int y,
+                                 final int width, final int height, @NotNull final byte[] store) {
+
+        final int rowLength = width * BYTES_PER_PIXEL;
+
+        for (int row = 0; row < height; row++) {
+            buffer.position(((y + row) * imageWidth + x) * BYTES_PER_PIXEL);
+            buffer.get(store, row * rowLength, rowLength);
         }
     }
 
+    /**
+     * Copy pixels from the array to an area of an image.
+     */
+    private static void writeArea(@NotNull final ByteBuffer buffer, final int imageWidth, final int x, final int y,
+                                  final int width, final int height, @NotNull final byte[] content) {
+
+        final int rowLength = width * BYTES_PER_PIXEL;
+
+        for (int row = 0; row < height; row++) {
+            buffer.position(((y + row) * imageWidth + x) * BYTES_PER_PIXEL);
+            buffer.put(content, row * rowLength, rowLength);
+        }
+    }
+
+    private static boolean equals(@NotNull final byte[] first, @NotNull final byte[] second, final int length) {
+
+        for (int i = 0; i < length; i++) {
+            if (first[i] != second[i]) return false;
+        }
+
+        return true;
+    }
+
     /**
      * Sets alpha texture.
      *
@@ -494,6 +580,8 @@ public class PaintTerrainToolControl extends TerrainToolControl {
 
         final float radiusSquared = radius * radius;
 
+        change(image, minX, minY, maxX, maxY);
+
         // go through each pixel, in the radius of the tool, in the image
         for (int y = minY; y < maxY; y++) {
             for (int x = minX; x < maxX; x++) {
@@ -520,8 +608,6 @@ public class PaintTerrainToolControl extends TerrainToolControl {
                     colorFunction.accept(color, intensity, erase);
                     color.clamp();
 
-                    change(position, color);
-
                     // set the new color
                     manipulatePixel(image, buffer, color, position, true);
                 }
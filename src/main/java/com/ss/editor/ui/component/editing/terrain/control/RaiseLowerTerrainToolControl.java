@@ -1,22 +1,16 @@
 package com.ss.editor.ui.component.editing.terrain.control;
 
 import static com.ss.editor.util.EditingUtils.calculateHeight;
-import static com.ss.editor.util.EditingUtils.isContains;
 import static com.ss.rlib.util.ObjectUtils.notNull;
+import static java.lang.Float.isNaN;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
-import com.jme3.terrain.Terrain;
 import com.ss.editor.control.editing.EditingInput;
 import com.ss.editor.ui.component.editing.terrain.TerrainEditingComponent;
 import com.ss.editor.util.LocalObjects;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The implementation of terrain tool to raise/lowe heights.
  *
@@ -92,54 +86,53 @@ public class RaiseLowerTerrainToolControl extends ChangeHeightTerrainToolControl
         final Node terrainNode = (Node) notNull(getEditedModel());
 
         final Vector3f worldTranslation = terrainNode.getWorldTranslation();
-        final Vector3f localScale = terrainNode.getLocalScale();
         final Vector3f localPoint = contactPoint.subtract(worldTranslation, local.nextVector());
-        final Vector2f terrainLoc = local.nextVector2f();
-        final Vector2f effectPoint = local.nextVector2f();
-
-        final Terrain terrain = (Terrain) terrainNode;
-        final Geometry brush = getBrush();
 
         final float brushSize = getBrushSize();
         final float brushPower = editingInput == EditingInput.MOUSE_PRIMARY ? getBrushPower() : getBrushPower() * -1F;
 
-        final int radiusStepsX = (int) (brushSize / localScale.getX());
-        final int radiusStepsZ = (int) (brushSize / localScale.getY());
+        modifyHeight(localPoint, (area, fromRow, toRow) -> raise(area, fromRow, toRow, brushSize, brushPower));
+    }
+
+    /**
+     * Calculate raised heights of rows of the brush area.
+     *
+     * @param area       the brush area.
+     * @param fromRow    the first row.
+     * @param toRow      the last row (exclusive).
+     * @param brushSize  the brush size.
+     * @param brushPower the brush power.
+     */
+    private static void raise(@NotNull final BrushArea area, final int fromRow, final int toRow,
+                              final float brushSize, final float brushPower) {
 
-        final float xStepAmount = localScale.getX();
-        final float zStepAmount = localScale.getZ();
+        final float[] heights = area.getHeights();
+        final float[] result = area.getResult();
+        final float scaleY = area.getScaleY();
+        final int sizeX = area.getSizeX();
 
-        final List<Vector2f> locs = new ArrayList<>();
-        final List<Float> heights = new ArrayList<>();
+        for (int z = fromRow; z < toRow; z++) {
 
-        for (int z = -radiusStepsZ; z < radiusStepsZ; z++) {
-            for (int x = -radiusStepsX; x < radiusStepsX; x++) {
+            final float effectZ = area.getEffectZ(z);
 
-                float locX = localPoint.getX() + (x * xStepAmount);
-                float locZ = localPoint.getZ() + (z * zStepAmount);
+            for (int x = 0; x < sizeX; x++) {
 
-                effectPoint.set(locX - localPoint.getX(), locZ - localPoint.getZ());
+                final float effectX = area.getEffectX(x);
 
-                if (!isContains(brush, effectPoint.getX(), effectPoint.getY())) {
+                if (!area.isInBrush(effectX, effectZ)) {
                     continue;
                 }
 
-                terrainLoc.set(locX, locZ);
+                final int index = area.getIndex(x, z);
+                final float currentHeight = heights[index] * scaleY;
 
-                final float currentHeight = terrain.getHeightmapHeight(terrainLoc) * localScale.getY();
-                // adjust height based on radius of the tool
-                final float newHeight = calculateHeight(brushSize, brushPower, effectPoint.getX(), effectPoint.getY());
+                if (isNaN(currentHeight)) {
+                    continue;
+                }
 
-                // increase the height
-                locs.add(terrainLoc.clone());
-                heights.add(currentHeight + newHeight);
+                // adjust height based on radius of the tool
+                result[index] = currentHeight + calculateHeight(brushSize, brushPower, effectX, effectZ);
             }
         }
-
-        locs.forEach(this::change);
-
-        // do the actual height adjustment
-        terrain.setHeight(locs, heights);
-        terrainNode.updateModelBound(); // or else we won't collide with it where we just edited
     }
 }
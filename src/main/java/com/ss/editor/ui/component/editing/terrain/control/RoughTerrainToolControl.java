@@ -1,15 +1,12 @@
 package com.ss.editor.ui.component.editing.terrain.control;
 
-import static com.ss.editor.util.EditingUtils.isContains;
 import static com.ss.rlib.util.ObjectUtils.notNull;
+import static java.lang.Float.isNaN;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
-import com.jme3.terrain.Terrain;
 import com.jme3.terrain.noise.Basis;
 import com.jme3.terrain.noise.ShaderUtils;
 import com.jme3.terrain.noise.basis.FilteredBasis;
@@ -25,8 +22,6 @@ import com.ss.editor.util.LocalObjects;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * The implementation of terrain tool to make rough heights.
@@ -105,66 +100,70 @@ public class RoughTerrainToolControl extends ChangeHeightTerrainToolControl {
         final Node terrainNode = (Node) notNull(getEditedModel());
 
         final Vector3f worldTranslation = terrainNode.getWorldTranslation();
-        final Vector3f localScale = terrainNode.getLocalScale();
         final Vector3f localPoint = contactPoint.subtract(worldTranslation, local.nextVector());
-        final Vector2f terrainLoc = local.nextVector2f();
-        final Vector2f effectPoint = local.nextVector2f();
-
-        final Terrain terrain = (Terrain) terrainNode;
-        final Geometry brush = getBrush();
 
         final float brushSize = getBrushSize();
         final int twoBrushSize = (int) (brushSize * 2);
 
         final Basis fractalFilter = createFractalGenerator();
-        final FloatBuffer buffer = fractalFilter.getBuffer(terrainLoc.getX(), terrainLoc.getY(), 0, twoBrushSize);
+        final FloatBuffer buffer = fractalFilter.getBuffer(localPoint.getX(), localPoint.getZ(), 0, twoBrushSize);
+
+        modifyHeight(localPoint, (area, fromRow, toRow) ->
+                roughen(area, fromRow, toRow, brushSize, buffer, twoBrushSize));
+    }
 
-        final int radiusStepsX = (int) (brushSize / localScale.getX());
-        final int radiusStepsZ = (int) (brushSize / localScale.getY());
+    /**
+     * Calculate roughened heights of rows of the brush area.
+     *
+     * @param area         the brush area.
+     * @param fromRow      the first row.
+     * @param toRow        the last row (exclusive).
+     * @param brushSize    the brush size.
+     * @param buffer       the fractal heights.
+     * @param twoBrushSize the size of a row of the fractal heights.
+     */
+    private static void roughen(@NotNull final BrushArea area, final int fromRow, final int toRow,
+                                final float brushSize, @NotNull final FloatBuffer buffer, final int twoBrushSize) {
 
-        final float xStepAmount = localScale.getX();
-        final float zStepAmount = localScale.getZ();
+        final float[] heights = area.getHeights();
+        final float[] result = area.getResult();
+        final float scaleY = area.getScaleY();
+        final int sizeX = Math.min(area.getSizeX(), twoBrushSize);
+        final int limit = buffer.limit();
 
-        final List<Vector2f> locs = new ArrayList<>();
-        final List<Float> heights = new ArrayList<>();
+        for (int z = fromRow; z < toRow; z++) {
 
-        for (int z = -radiusStepsZ, yfb = 0; z < radiusStepsZ; z++, yfb++) {
-            for (int x = -radiusStepsX, xfb = 0; x < radiusStepsX; x++, xfb++) {
+            final float effectZ = area.getEffectZ(z);
 
-                final float locX = localPoint.getX() + (x * xStepAmount);
-                final float locZ = localPoint.getZ() + (z * zStepAmount);
+            for (int x = 0; x < sizeX; x++) {
 
-                effectPoint.set(locX - localPoint.getX(), locZ - localPoint.getZ());
+                final float effectX = area.getEffectX(x);
+                final int fractalIndex = z * twoBrushSize + x;
 
-                if (!isContains(brush, effectPoint.getX(), effectPoint.getX())) {
+                if (fractalIndex >= limit || !area.isInBrush(effectX, effectZ)) {
                     continue;
                 }
 
-                final float height = buffer.get(yfb * twoBrushSize + xfb);
+                final int index = area.getIndex(x, z);
+                final float currentHeight = heights[index] * scaleY;
 
-                terrainLoc.set(locX, locZ);
+                if (isNaN(currentHeight)) {
+                    continue;
+                }
 
-                final float currentHeight = terrain.getHeightmapHeight(terrainLoc) * localScale.getY();
                 // see if it is in the radius of the tool
-                final float newHeight = calculateHeight(brushSize, height, effectPoint);
+                final float newHeight = calculateHeight(brushSize, buffer.get(fractalIndex), effectX, effectZ);
 
-                locs.add(terrainLoc.clone());
-                heights.add(currentHeight + newHeight);
+                result[index] = currentHeight + newHeight;
             }
         }
-
-        locs.forEach(this::change);
-
-        // do the actual height adjustment
-        terrain.setHeight(locs, heights);
-        terrainNode.updateModelBound(); // or else we won't collide with it where we just edited
     }
 
-    private float calculateHeight(final float radius, final float heightFactor, @NotNull final Vector2f point) {
+    private static float calculateHeight(final float radius, final float heightFactor, final float x, final float z) {
 
         // find percentage for each 'unit' in radius
 
-        float val = point.length() / radius;
+        float val = (float) Math.sqrt(x * x + z * z) / radius;
         val = 1 - val;
 
         if (val <= 0) val = 0;
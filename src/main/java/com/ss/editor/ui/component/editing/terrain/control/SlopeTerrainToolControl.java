@@ -2,25 +2,21 @@ package com.ss.editor.ui.component.editing.terrain.control;
 
 import static com.ss.editor.util.EditingUtils.*;
 import static com.ss.rlib.util.ObjectUtils.notNull;
+import static java.lang.Float.isNaN;
 import static java.lang.Math.max;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.Plane;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.shape.Line;
 import com.jme3.scene.shape.Sphere;
-import com.jme3.terrain.Terrain;
 import com.ss.editor.control.editing.EditingInput;
 import com.ss.editor.ui.component.editing.terrain.TerrainEditingComponent;
 import com.ss.editor.util.LocalObjects;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The implementation of terrain tool to make slopes.
  *
@@ -203,68 +199,99 @@ public class SlopeTerrainToolControl extends ChangeHeightTerrainToolControl {
         final Geometry targetMarker = getTargetMarker();
 
         final Vector3f worldTranslation = terrainNode.getWorldTranslation();
-        final Vector3f localScale = terrainNode.getLocalScale();
         final Vector3f firstPoint = baseMarker.getLocalTranslation();
         final Vector3f secondPoint = targetMarker.getLocalTranslation();
         final Vector3f localPoint = contactPoint.subtract(worldTranslation, local.nextVector());
 
-        Vector3f higher, lower;
+        // the objects which are read by bands in background threads aren't taken from the local objects of this
+        // thread, because this thread can reuse them while the bands are processed
+        final Vector3f higher = new Vector3f();
+        final Vector3f lower = new Vector3f();
 
         // Make sure we go for the right direction, or we could be creating a slope to the oposite side
         if (firstPoint.getY() > secondPoint.getY()) {
-            higher = firstPoint.subtract(worldTranslation, local.nextVector());
-            lower = secondPoint.subtract(worldTranslation, local.nextVector());
+            firstPoint.subtract(worldTranslation, higher);
+            secondPoint.subtract(worldTranslation, lower);
         } else {
-            higher = secondPoint.subtract(worldTranslation, local.nextVector());
-            lower = firstPoint.subtract(worldTranslation, local.nextVector());
+            secondPoint.subtract(worldTranslation, higher);
+            firstPoint.subtract(worldTranslation, lower);
         }
 
-        final Vector3f subtract = higher.subtract(lower, local.nextVector());
+        final Vector3f subtract = higher.subtract(lower);
         final Vector3f normal = lower.subtract(higher, local.nextVector()).normalize();
-        final Vector3f firstSide = local.nextVector();
-        final Vector3f secondSide = local.nextVector();
-        final Vector3f targetPoint = local.nextVector();
-        final Vector2f terrainLoc = local.nextVector2f();
-        final Vector2f effectPoint = local.nextVector2f();
-
-        final Terrain terrain = (Terrain) terrainNode;
-
-        final Geometry brush = getBrush();
+        final Vector3f center = localPoint.clone();
 
         final float brushSize = getBrushSize();
         final float brushPower = getBrushPower();
+        final boolean lock = isLock();
+        final boolean precision = isPrecision();
 
-        final int radiusStepsX = (int) (brushSize / localScale.getX());
-        final int radiusStepsZ = (int) (brushSize / localScale.getY());
-
-        final float xStepAmount = localScale.getX();
-        final float zStepAmount = localScale.getZ();
-
-        final Plane firstPlane = local.nextPlane();
+        final Plane firstPlane = new Plane();
         firstPlane.setOriginNormal(lower, normal);
 
-        final Plane secondPlane = local.nextPlane();
+        final Plane secondPlane = new Plane();
         secondPlane.setOriginNormal(higher, normal);
 
-        final List<Vector2f> locs = new ArrayList<>();
-        final List<Float> heights = new ArrayList<>();
+        modifyHeight(localPoint, (area, fromRow, toRow) ->
+                slope(area, fromRow, toRow, center, higher, lower, subtract, firstPlane, secondPlane, brushSize,
+                        brushPower, lock, precision));
+    }
+
+    /**
+     * Calculate sloped heights of rows of the brush area. The shared vectors and planes are only read, each band uses
+     * its own temporary vectors.
+     *
+     * @param area        the brush area.
+     * @param fromRow     the first row.
+     * @param toRow       the last row (exclusive).
+     * @param localPoint  the center of the brush.
+     * @param higher      the higher point of the slope.
+     * @param lower       the lower point of the slope.
+     * @param subtract    the direction from the lower point to the higher point.
+     * @param firstPlane  the plane of the lower point.
+     * @param secondPlane the plane of the higher point.
+     * @param brushSize   the brush size.
+     * @param brushPower  the brush power.
+     * @param lock        true if need to change only points between the planes.
+     * @param precision   true if need to set the sloped height at once.
+     */
+    private static void slope(@NotNull final BrushArea area, final int fromRow, final int toRow,
+                              @NotNull final Vector3f localPoint, @NotNull final Vector3f higher,
+                              @NotNull final Vector3f lower, @NotNull final Vector3f subtract,
+                              @NotNull final Plane firstPlane, @NotNull final Plane secondPlane,
+                              final float brushSize, final float brushPower, final boolean lock,
+                              final boolean precision) {
+
+        final Vector3f targetPoint = new Vector3f();
+        final Vector3f side = new Vector3f();
+
+        final float[] heights = area.getHeights();
+        final float[] result = area.getResult();
+        final float scaleY = area.getScaleY();
+        final int sizeX = area.getSizeX();
 
-        for (int z = -radiusStepsZ; z < radiusStepsZ; z++) {
-            for (int x = -radiusStepsX; x < radiusStepsX; x++) {
+        final float maxDistance = lower.distance(higher);
 
-                float locX = localPoint.getX() + (x * xStepAmount);
-                float locZ = localPoint.getZ() + (z * zStepAmount);
+        for (int z = fromRow; z < toRow; z++) {
 
-                effectPoint.set(locX - localPoint.getX(), locZ - localPoint.getZ());
+            final float effectZ = area.getEffectZ(z);
+            final float locZ = localPoint.getZ() + effectZ;
 
-                if (!isContains(brush, effectPoint.getX(), effectPoint.getY())) {
+            for (int x = 0; x < sizeX; x++) {
+
+                final float effectX = area.getEffectX(x);
+                final float locX = localPoint.getX() + effectX;
+
+                if (!area.isInBrush(effectX, effectZ)) {
                     continue;
                 }
 
-                terrainLoc.set(locX, locZ);
+                final int index = area.getIndex(x, z);
+                final float currentHeight = heights[index] * scaleY;
 
-                // adjust height based on radius of the tool
-                float currentHeight = terrain.getHeightmapHeight(terrainLoc) * localScale.getY();
+                if (isNaN(currentHeight)) {
+                    continue;
+                }
 
                 targetPoint.set(locX, currentHeight, locZ)
                         .subtractLocal(lower)
@@ -273,61 +300,50 @@ public class SlopeTerrainToolControl extends ChangeHeightTerrainToolControl {
 
                 final float lowerDist = lower.distance(targetPoint);
                 final float higherDist = higher.distance(targetPoint);
-                final float maxDistance = lower.distance(higher);
 
                 float distance;
 
-                if(lowerDist < higherDist && higherDist > maxDistance) {
+                if (lowerDist < higherDist && higherDist > maxDistance) {
                     distance = 0F;
                 } else {
-                    distance = lower.distance(targetPoint) / max(lower.distance(higher), 0.00001F);
+                    distance = lowerDist / max(maxDistance, 0.00001F);
                 }
 
                 final float desiredHeight = lower.getY() + (higher.getY() - lower.getY()) * distance;
 
-                firstSide.set(locX, 0f, locZ);
-                secondSide.set(locX, 0f, locZ);
+                side.set(locX, 0f, locZ);
 
-                if (isLock() && firstPlane.whichSide(firstSide) == secondPlane.whichSide(secondSide)) {
+                if (lock && firstPlane.whichSide(side) == secondPlane.whichSide(side)) {
                     continue;
                 }
 
-                if (!isPrecision()) {
-
-                    // rounding error for snapping
-                    float epsilon = 0.0001f * brushPower;
-                    float adj = 0;
+                if (precision) {
+                    result[index] = desiredHeight / scaleY;
+                    continue;
+                }
 
-                    if (currentHeight < desiredHeight) adj = 1;
-                    else if (currentHeight > desiredHeight) adj = -1;
+                // rounding error for snapping
+                float epsilon = 0.0001f * brushPower;
+                float adj = 0;
 
-                    adj *= brushPower;
-                    adj *= calculateRadiusPercent(brushSize, effectPoint.getX(), effectPoint.getY());
+                if (currentHeight < desiredHeight) adj = 1;
+                else if (currentHeight > desiredHeight) adj = -1;
 
-                    // test if adjusting too far and then cap it
-                    if ((adj > 0) && floatGreaterThan((currentHeight + adj), desiredHeight, epsilon)) {
-                        adj = desiredHeight - currentHeight;
-                    } else if (adj < 0 && floatLessThan((currentHeight + adj), desiredHeight, epsilon)) {
-                        adj = desiredHeight - currentHeight;
-                    }
+                adj *= brushPower;
+                adj *= calculateRadiusPercent(brushSize, effectX, effectZ);
 
-                    if (!floatEquals(adj, 0, 0.001f)) {
-                        locs.add(terrainLoc.clone());
-                        heights.add(currentHeight + adj);
-                    }
+                // test if adjusting too far and then cap it
+                if ((adj > 0) && floatGreaterThan((currentHeight + adj), desiredHeight, epsilon)) {
+                    adj = desiredHeight - currentHeight;
+                } else if (adj < 0 && floatLessThan((currentHeight + adj), desiredHeight, epsilon)) {
+                    adj = desiredHeight - currentHeight;
+                }
 
-                } else {
-                    locs.add(terrainLoc.clone());
-                    heights.add(desiredHeight / localScale.getY());
+                if (!floatEquals(adj, 0, 0.001f)) {
+                    result[index] = currentHeight + adj;
                 }
             }
         }
-
-        locs.forEach(this::change);
-
-        // do the actual height adjustment
-        terrain.setHeight(locs, heights);
-        terrainNode.updateModelBound(); // or else we won't collide with it where we just edited
     }
 
     /**
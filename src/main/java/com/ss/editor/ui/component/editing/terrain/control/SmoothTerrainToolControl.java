@@ -1,23 +1,16 @@
 package com.ss.editor.ui.component.editing.terrain.control;
 
-import static com.ss.editor.util.EditingUtils.isContains;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import static java.lang.Float.isNaN;
 import static java.lang.Math.min;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
-import com.jme3.terrain.Terrain;
 import com.ss.editor.control.editing.EditingInput;
 import com.ss.editor.ui.component.editing.terrain.TerrainEditingComponent;
 import com.ss.editor.util.LocalObjects;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The implementation of terrain tool to smooth heights.
  *
@@ -88,55 +81,50 @@ public class SmoothTerrainToolControl extends ChangeHeightTerrainToolControl {
         final LocalObjects local = LocalObjects.get();
         final Node terrainNode = (Node) notNull(getEditedModel());
 
-        final Vector3f localScale = terrainNode.getLocalScale();
         final Vector3f worldTranslation = terrainNode.getWorldTranslation();
         final Vector3f localPoint = contactPoint.subtract(worldTranslation, local.nextVector());
-        final Vector2f terrainLoc = local.nextVector2f();
-        final Vector2f terrainLocLeft = local.nextVector2f();
-        final Vector2f terrainLocRight = local.nextVector2f();
-        final Vector2f terrainLocUp = local.nextVector2f();
-        final Vector2f terrainLocDown = local.nextVector2f();
-        final Vector2f effectPoint = local.nextVector2f();
-
-        final Terrain terrain = (Terrain) terrainNode;
-        final Geometry brush = getBrush();
 
-        final float brushSize = getBrushSize();
-        final float brushPower = getBrushPower();
+        final float power = min(getBrushPower(), 2F);
 
-        final int radiusStepsX = (int) (brushSize / localScale.getX());
-        final int radiusStepsZ = (int) (brushSize / localScale.getZ());
+        modifyHeight(localPoint, (area, fromRow, toRow) -> smooth(area, fromRow, toRow, power));
+    }
 
-        final float xStepAmount = localScale.getX();
-        final float zStepAmount = localScale.getZ();
+    /**
+     * Calculate smoothed heights of rows of the brush area.
+     *
+     * @param area    the brush area.
+     * @param fromRow the first row.
+     * @param toRow   the last row (exclusive).
+     * @param power   the power of smoothing.
+     */
+    static void smooth(@NotNull final BrushArea area, final int fromRow, final int toRow, final float power) {
 
-        final List<Vector2f> locs = new ArrayList<>();
-        final List<Float> heights = new ArrayList<>();
+        final float[] heights = area.getHeights();
+        final float[] result = area.getResult();
+        final int width = area.getWidth();
+        final int sizeX = area.getSizeX();
 
-        for (int z = -radiusStepsZ; z < radiusStepsZ; z++) {
-            for (int x = -radiusStepsX; x < radiusStepsX; x++) {
+        for (int z = fromRow; z < toRow; z++) {
 
-                float locX = localPoint.getX() + (x * xStepAmount);
-                float locZ = localPoint.getZ() + (z * zStepAmount);
+            final float effectZ = area.getEffectZ(z);
 
-                effectPoint.set(locX - localPoint.getX(), locZ - localPoint.getZ());
+            for (int x = 0; x < sizeX; x++) {
 
-                if (!isContains(brush, effectPoint.getX(), effectPoint.getY())) {
+                if (!area.isInBrush(area.getEffectX(x), effectZ)) {
                     continue;
                 }
 
-                terrainLoc.set(locX, locZ);
-                terrainLocLeft.set(terrainLoc.getX() - 1, terrainLoc.getY());
-                terrainLocRight.set(terrainLoc.getX() + 1, terrainLoc.getY());
-                terrainLocUp.set(terrainLoc.getX(), terrainLoc.getY() + 1);
-                terrainLocDown.set(terrainLoc.getX(), terrainLoc.getY() - 1);
+                final int index = area.getIndex(x, z);
+                final float center = heights[index];
 
-                // adjust height based on radius of the tool
-                final float center = terrain.getHeightmapHeight(terrainLoc);
-                final float left = terrain.getHeightmapHeight(terrainLocLeft);
-                final float right = terrain.getHeightmapHeight(terrainLocRight);
-                final float up = terrain.getHeightmapHeight(terrainLocUp);
-                final float down = terrain.getHeightmapHeight(terrainLocDown);
+                if (isNaN(center)) {
+                    continue;
+                }
+
+                final float left = heights[index - 1];
+                final float right = heights[index + 1];
+                final float up = heights[index + width];
+                final float down = heights[index - width];
 
                 int count = 1;
 
@@ -162,16 +150,10 @@ public class SmoothTerrainToolControl extends ChangeHeightTerrainToolControl {
                 amount /= count; // take average
 
                 // weigh it
-                float diff = amount - center;
-                diff *= min(brushPower, 2F);
+                final float diff = (amount - center) * power;
 
-                terrain.setHeight(terrainLoc, center + diff);
-                locs.add(terrainLoc.clone());
+                result[index] = center + diff;
             }
         }
-
-        locs.forEach(this::change);
-
-        terrainNode.updateModelBound(); // or else we won't collide with it where we just edited
     }
 }
@@ -19,9 +19,10 @@ import com.ss.editor.ui.component.editor.EditorDescription;
 import com.ss.editor.ui.component.editor.FileEditor;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.editor.ui.event.FXEventManager;
-import com.ss.editor.ui.event.impl.FileChangedEvent;
+import com.ss.editor.ui.event.impl.ChangedFilesEvent;
 import com.ss.editor.ui.util.DynamicIconSupport;
 import com.ss.editor.util.EditorUtil;
+import com.ss.rlib.function.SafeRunnable;
 import com.ss.rlib.logging.Logger;
 import com.ss.rlib.logging.LoggerManager;
 import com.ss.rlib.ui.util.FXUtils;
@@ -46,7 +47,6 @@ import javafx.scene.layout.VBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -154,7 +154,7 @@ public abstract class AbstractFileEditor<R extends Pane> implements FileEditor {
         this.showedTime = LocalTime.now();
         this.editorStates = ArrayFactory.newArray(Editor3DState.class);
         this.dirtyProperty = new SimpleBooleanProperty(this, "dirty", false);
-        this.fileChangedHandler = event -> processChangedFile((FileChangedEvent) event);
+        this.fileChangedHandler = event -> processChangedFiles((ChangedFilesEvent) event);
         createContent();
     }
 
@@ -354,28 +354,53 @@ public abstract class AbstractFileEditor<R extends Pane> implements FileEditor {
             final String editorId = description.getEditorId();
 
             final Path tempFile = Utils.get(editorId, prefix -> Files.createTempFile(prefix, "toSave.tmp"));
-            final long stamp = EDITOR.asyncLock();
             try {
 
-                doSave(tempFile);
+                final SafeRunnable writeTask;
+                final long stamp = EDITOR.asyncLock();
+                try {
+                    writeTask = prepareToSave(tempFile);
+                } finally {
+                    EDITOR.asyncUnlock(stamp);
+                }
+
+                // the snapshot is written without the lock, so the render thread isn't blocked by IO
+                if (writeTask != null) {
+                    writeTask.run();
+                }
+
                 try {
                     Files.move(tempFile, getEditFile(), REPLACE_EXISTING, ATOMIC_MOVE);
                 } catch (final AtomicMoveNotSupportedException e) {
                     Files.move(tempFile, getEditFile(), REPLACE_EXISTING);
                 }
 
-            } catch (final IOException e) {
+            } catch (final Exception e) {
                 FileUtils.delete(tempFile);
                 LOGGER.warning(this, e);
                 EXECUTOR_MANAGER.addFXTask(this::notifyFinishSaving);
-            } finally {
-                EDITOR.asyncUnlock(stamp);
+                return;
             }
 
             EXECUTOR_MANAGER.addFXTask(this::postSave);
         });
     }
 
+    /**
+     * Prepare to save new changes. This method is called under the render lock, so an editor which can take a cheap
+     * snapshot of its state should only take it here and return a task to write the snapshot without the lock.
+     * By default, new changes are saved under the lock.
+     *
+     * @param toStore the file to store.
+     * @return the task to write the snapshot or null if new changes were already saved.
+     */
+    @Nullable
+    @BackgroundThread
+    protected SafeRunnable prepareToSave(@NotNull final Path toStore) {
+        doSave(toStore);
+        return null;
+    }
+
     /**
      * Save new changes.
      *
@@ -446,7 +471,7 @@ public abstract class AbstractFileEditor<R extends Pane> implements FileEditor {
     @Override
     @FXThread
     public void openFile(@NotNull final Path file) {
-        FX_EVENT_MANAGER.addEventHandler(FileChangedEvent.EVENT_TYPE, getFileChangedHandler());
+        FX_EVENT_MANAGER.addEventHandler(ChangedFilesEvent.EVENT_TYPE, getFileChangedHandler());
 
         this.file = file;
         this.showedTime = LocalTime.now();
@@ -565,7 +590,7 @@ public abstract class AbstractFileEditor<R extends Pane> implements FileEditor {
     @Override
     @FXThread
     public void notifyClosed() {
-        FX_EVENT_MANAGER.removeEventHandler(FileChangedEvent.EVENT_TYPE, getFileChangedHandler());
+        FX_EVENT_MANAGER.removeEventHandler(ChangedFilesEvent.EVENT_TYPE, getFileChangedHandler());
 
         final Duration duration = Duration.between(showedTime, LocalTime.now());
         final int seconds = (int) duration.getSeconds();
@@ -580,14 +605,29 @@ public abstract class AbstractFileEditor<R extends Pane> implements FileEditor {
     }
 
     /**
-     * Handle a changed file.
+     * Handle changed files.
      *
      * @param event the event
      */
     @FXThread
-    protected void processChangedFile(@NotNull final FileChangedEvent event) {
+    protected void processChangedFiles(@NotNull final ChangedFilesEvent event) {
+
+        event.getModified().forEach(this::processChangedFile);
+
+        // a file which was replaced by moving another file to it is reported as created
+        event.getCreated().forEach(event, (file, changes) -> {
+            if (!changes.isDirectory(file)) processChangedFile(file);
+        });
+    }
+
+    /**
+     * Handle a changed file.
+     *
+     * @param file the changed file.
+     */
+    @FXThread
+    protected void processChangedFile(@NotNull final Path file) {
 
-        final Path file = event.getFile();
         final Path editFile = getEditFile();
 
         if (!file.equals(editFile)) {
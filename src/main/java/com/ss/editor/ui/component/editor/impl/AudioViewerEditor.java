@@ -3,17 +3,24 @@ package com.ss.editor.ui.component.editor.impl;
 import static com.jme3.audio.AudioSource.Status.Playing;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.jme3.asset.AssetManager;
+import com.jme3.audio.AudioBuffer;
 import com.jme3.audio.AudioData;
 import com.jme3.audio.AudioKey;
 import com.jme3.audio.AudioSource;
+import com.jme3.audio.AudioStream;
 import com.ss.editor.Editor;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.Messages;
+import com.ss.editor.annotation.BackgroundThread;
 import com.ss.editor.annotation.FXThread;
 import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.file.cache.WaveformCache;
+import com.ss.editor.file.reader.Waveform;
 import com.ss.editor.state.editor.impl.audio.AudioViewer3DState;
 import com.ss.editor.ui.Icons;
 import com.ss.editor.ui.component.editor.EditorDescription;
+import com.ss.editor.ui.control.audio.WaveformView;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.editor.ui.util.DynamicIconSupport;
 import com.ss.editor.util.EditorUtil;
@@ -28,6 +35,7 @@ import javafx.scene.layout.VBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
 /**
@@ -98,6 +106,33 @@ public class AudioViewerEditor extends AbstractFileEditor<VBox> {
     @Nullable
     private TextField sampleRateField;
 
+    /**
+     * The waveform view.
+     */
+    @Nullable
+    private WaveformView waveformView;
+
+    /**
+     * The asset path of the opened audio.
+     */
+    @Nullable
+    private String assetPath;
+
+    /**
+     * The position in seconds to play from.
+     */
+    private float position;
+
+    /**
+     * The number of the last request to play, streams of outdated requests are closed without playing.
+     */
+    private int playRequest;
+
+    /**
+     * The number of the request which stream is played now.
+     */
+    private int playedRequest;
+
     private AudioViewerEditor() {
         this.editorAppState = new AudioViewer3DState(this);
         addEditorState(editorAppState);
@@ -155,17 +190,23 @@ public class AudioViewerEditor extends AbstractFileEditor<VBox> {
         stopButton.setOnAction(event -> processStop());
         stopButton.setDisable(true);
 
+        waveformView = new WaveformView();
+        waveformView.setSeekHandler(this::processSeek);
+        waveformView.prefWidthProperty().bind(root.widthProperty());
+
         final HBox container = new HBox();
 
         FXUtils.addToPane(gridPane, container);
         FXUtils.addToPane(playButton, container);
         FXUtils.addToPane(stopButton, container);
         FXUtils.addToPane(container, root);
+        FXUtils.addToPane(waveformView, root);
 
         FXUtils.addClassTo(playButton, CSSClasses.BUTTON_WITHOUT_RIGHT_BORDER);
         FXUtils.addClassTo(stopButton, CSSClasses.BUTTON_WITHOUT_LEFT_BORDER);
         FXUtils.addClassTo(container, CSSClasses.DEF_HBOX);
         FXUtils.addClassTo(gridPane, CSSClasses.DEF_GRID_PANE);
+        FXUtils.addClassTo(waveformView, CSSClasses.AUDIO_VIEW_EDITOR_WAVEFORM);
         FXUtils.addClassesTo(root, CSSClasses.DEF_VBOX, CSSClasses.AUDIO_VIEW_EDITOR_CONTAINER);
 
         DynamicIconSupport.addSupport(playButton, stopButton);
@@ -174,22 +215,139 @@ public class AudioViewerEditor extends AbstractFileEditor<VBox> {
     /**
      * Stop of plying.
      */
+    @FXThread
     private void processStop() {
+        playRequest++;
         getEditorAppState().stop();
     }
 
     /**
      * Play the audio.
      */
+    @FXThread
     private void processPlay() {
         final AudioViewer3DState appState = getEditorAppState();
-        if (appState.getPrevStatus() == Playing) {
+        final AudioSource.Status status = appState.getPrevStatus();
+        if (status == Playing) {
             appState.pause();
+        } else if (status == AudioSource.Status.Paused) {
+            appState.resume();
         } else {
-            appState.play();
+            startPlaying(position);
+        }
+    }
+
+    /**
+     * Move the position of playing to the selected position on the waveform.
+     *
+     * @param time the selected position in seconds.
+     */
+    @FXThread
+    private void processSeek(@NotNull final Float time) {
+
+        position = time;
+        getWaveformView().setPosition(time);
+
+        final AudioSource.Status status = getEditorAppState().getPrevStatus();
+
+        if (status == Playing || status == AudioSource.Status.Paused) {
+            startPlaying(time);
+        }
+    }
+
+    /**
+     * Start playing the audio from the position, a new stream is opened for each playing because streams can't be
+     * rewound to any position except the start.
+     *
+     * @param time the position in seconds.
+     */
+    @FXThread
+    private void startPlaying(final float time) {
+
+        final String assetPath = this.assetPath;
+        if (assetPath == null) return;
+
+        final int request = ++playRequest;
+
+        EXECUTOR_MANAGER.addBackgroundTask(() -> openStream(assetPath, time, request), TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Open a new stream of the audio and skip samples before the position. If the loader of the format doesn't
+     * support streaming, the loaded buffer is played from the position.
+     *
+     * @param assetPath the asset path of the audio.
+     * @param time      the position in seconds.
+     * @param request   the number of the request to play.
+     */
+    @BackgroundThread
+    private void openStream(@NotNull final String assetPath, final float time, final int request) {
+
+        final AudioKey audioKey = new AudioKey(assetPath, true, false);
+        final AudioData audioData;
+        try {
+            audioData = EDITOR.getAssetManager().loadAudio(audioKey);
+        } catch (final RuntimeException e) {
+            EditorUtil.handleException(LOGGER, this, e);
+            return;
+        }
+
+        if (audioData instanceof AudioStream && !skip((AudioStream) audioData, time)) {
+            close(audioData);
+            return;
+        } else if (audioData instanceof AudioBuffer && time >= audioData.getDuration()) {
+            return;
+        }
+
+        EXECUTOR_MANAGER.addFXTask(() -> {
+
+            if (request != playRequest) {
+                EXECUTOR_MANAGER.addBackgroundTask(() -> close(audioData));
+                return;
+            }
+
+            playedRequest = request;
+            getEditorAppState().play(audioData, audioKey, time);
+        });
+    }
+
+    /**
+     * Close the audio data if it's a stream, buffers don't need closing.
+     *
+     * @param audioData the audio data.
+     */
+    @FromAnyThread
+    private static void close(@NotNull final AudioData audioData) {
+        if (audioData instanceof AudioStream) {
+            ((AudioStream) audioData).close();
         }
     }
 
+    /**
+     * Skip decoded samples of the stream before the position.
+     *
+     * @param stream the stream.
+     * @param time   the position in seconds.
+     * @return false if the stream was ended before the position.
+     */
+    @BackgroundThread
+    private static boolean skip(@NotNull final AudioStream stream, final float time) {
+
+        final int frameSize = Math.max(1, stream.getChannels() * stream.getBitsPerSample() / 8);
+
+        long bytes = (long) (time * stream.getSampleRate()) * frameSize;
+
+        final byte[] buffer = new byte[frameSize * 4096];
+
+        while (bytes > 0) {
+            final int read = stream.readSamples(buffer, 0, (int) Math.min(buffer.length, bytes));
+            if (read <= 0) return false;
+            bytes -= read;
+        }
+
+        return true;
+    }
+
     @FXThread
     @Override
     public void openFile(@NotNull final Path file) {
@@ -198,24 +356,106 @@ public class AudioViewerEditor extends AbstractFileEditor<VBox> {
         final Path assetFile = notNull(EditorUtil.getAssetFile(file));
         final String assetPath = EditorUtil.toAssetPath(assetFile);
 
-        final AudioKey audioKey = new AudioKey(assetPath);
+        this.assetPath = assetPath;
+
+        EXECUTOR_MANAGER.addBackgroundTask(() -> openAudio(file, assetPath), TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Read the info of the audio and load or compute its waveform.
+     *
+     * @param file      the audio file.
+     * @param assetPath the asset path of the audio.
+     */
+    @BackgroundThread
+    private void openAudio(@NotNull final Path file, @NotNull final String assetPath) {
+
+        final AudioKey audioKey = new AudioKey(assetPath, true, false);
         final AssetManager assetManager = EDITOR.getAssetManager();
-        final AudioData audioData = assetManager.loadAudio(audioKey);
 
-        final float duration = audioData.getDuration();
+        final AudioData audioData;
+        try {
+            audioData = assetManager.loadAudio(audioKey);
+        } catch (final RuntimeException e) {
+            EditorUtil.handleException(LOGGER, this, e);
+            return;
+        }
+
         final int bitsPerSample = audioData.getBitsPerSample();
         final int channels = audioData.getChannels();
         final AudioData.DataType dataType = audioData.getDataType();
         final int sampleRate = audioData.getSampleRate();
 
-        final AudioViewer3DState editorAppState = getEditorAppState();
-        editorAppState.load(audioData, audioKey);
+        // the waveform of a buffer is computed from the loaded samples, a stream can't be read again
+        final AudioBuffer buffer = audioData instanceof AudioBuffer ? (AudioBuffer) audioData : null;
+
+        close(audioData);
+
+        EXECUTOR_MANAGER.addFXTask(() -> {
+            getChannelsField().setText(String.valueOf(channels));
+            getDataTypeField().setText(String.valueOf(dataType));
+            getSampleRateField().setText(String.valueOf(sampleRate));
+            getBitsPerSampleField().setText(String.valueOf(bitsPerSample));
+        });
+
+        final WaveformCache waveformCache = WaveformCache.getInstance();
+
+        String hash = null;
+        try {
+            hash = waveformCache.getHash(file);
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+
+        Waveform waveform = hash == null ? null : waveformCache.get(hash);
+
+        if (waveform == null) {
+            try {
+                waveform = buffer == null ? readWaveform(assetManager, audioKey) : Waveform.read(buffer);
+            } catch (final RuntimeException e) {
+                LOGGER.warning(this, e);
+                return;
+            }
+
+            if (hash != null) {
+                waveformCache.put(hash, waveform);
+            }
+        }
+
+        final Waveform result = waveform;
 
-        getChannelsField().setText(String.valueOf(channels));
-        getDurationField().setText(String.valueOf(duration));
-        getDataTypeField().setText(String.valueOf(dataType));
-        getSampleRateField().setText(String.valueOf(sampleRate));
-        getBitsPerSampleField().setText(String.valueOf(bitsPerSample));
+        EXECUTOR_MANAGER.addFXTask(() -> {
+            getDurationField().setText(String.valueOf(result.getDuration()));
+            getWaveformView().setWaveform(result);
+        });
+    }
+
+    /**
+     * Open a new stream of the audio and compute the waveform of its samples.
+     *
+     * @param assetManager the asset manager.
+     * @param audioKey     the audio key.
+     * @return the waveform.
+     */
+    @NotNull
+    @BackgroundThread
+    private static Waveform readWaveform(@NotNull final AssetManager assetManager, @NotNull final AudioKey audioKey) {
+
+        final AudioData audioData = assetManager.loadAudio(audioKey);
+        try {
+            return audioData instanceof AudioStream ? Waveform.read((AudioStream) audioData) :
+                    Waveform.read((AudioBuffer) audioData);
+        } finally {
+            close(audioData);
+        }
+    }
+
+    @FXThread
+    @Override
+    public void notifyClosed() {
+        super.notifyClosed();
+        playRequest++;
+        getEditorAppState().stop();
     }
 
     @NotNull
@@ -261,10 +501,25 @@ public class AudioViewerEditor extends AbstractFileEditor<VBox> {
                 final ImageView graphic = (ImageView) playButton.getGraphic();
                 graphic.setImage(Icons.PLAY_128);
                 stopButton.setDisable(true);
+                position = 0;
+                getWaveformView().setPosition(0);
             }
         }
     }
 
+    /**
+     * Notify about changing the position of playing audio.
+     *
+     * @param position the position in seconds.
+     */
+    @FXThread
+    public void notifyChangedPosition(final float position) {
+        // the position of the previous stream until the requested stream is started
+        if (playedRequest != playRequest) return;
+        this.position = position;
+        getWaveformView().setPosition(position);
+    }
+
     /**
      * @return the play button.
      */
@@ -321,6 +576,14 @@ public class AudioViewerEditor extends AbstractFileEditor<VBox> {
         return notNull(bitsPerSampleField);
     }
 
+    /**
+     * @return the waveform view.
+     */
+    @NotNull
+    private WaveformView getWaveformView() {
+        return notNull(waveformView);
+    }
+
     @Override
     public String toString() {
         return "AudioViewerEditor{" +
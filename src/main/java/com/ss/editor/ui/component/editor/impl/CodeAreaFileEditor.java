@@ -3,12 +3,15 @@ package com.ss.editor.ui.component.editor.impl;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.ss.editor.annotation.BackgroundThread;
 import com.ss.editor.annotation.FXThread;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.TaskPriority;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.rlib.ui.util.FXUtils;
 import com.ss.rlib.util.FileUtils;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.PlainTextChange;
 import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.undo.UndoManager;
 import org.jetbrains.annotations.NotNull;
@@ -18,6 +21,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 
 /**
@@ -27,6 +31,24 @@ import java.util.Collection;
  */
 public abstract class CodeAreaFileEditor extends AbstractFileEditor<VBox> {
 
+    /**
+     * The delay after the last change before highlighting.
+     */
+    @NotNull
+    private static final Duration HIGHLIGHTING_DELAY = Duration.ofMillis(150);
+
+    /**
+     * The delimiters of tokens which can contain line breaks, changing them can change highlighting of the whole text.
+     */
+    @NotNull
+    private static final String[] MULTI_LINE_DELIMITERS = {"/*", "*/", "\""};
+
+    @NotNull
+    private static final String COMMENT_START = "/*";
+
+    @NotNull
+    private static final String COMMENT_END = "*/";
+
     /**
      * The original content of the opened file.
      */
@@ -39,6 +61,33 @@ public abstract class CodeAreaFileEditor extends AbstractFileEditor<VBox> {
     @Nullable
     private CodeArea codeArea;
 
+    /**
+     * The version of the text, it's increased by each change.
+     */
+    private long textVersion;
+
+    /**
+     * The start of the changed text which isn't highlighted yet or -1.
+     */
+    private int damagedFrom;
+
+    /**
+     * The end of the changed text which isn't highlighted yet.
+     */
+    private int damagedTo;
+
+    /**
+     * True if need to highlight the whole text.
+     */
+    private boolean damagedAll;
+
+    /**
+     * Instantiates a new Code area file editor.
+     */
+    protected CodeAreaFileEditor() {
+        this.damagedFrom = -1;
+    }
+
     @NotNull
     @Override
     protected VBox createRoot() {
@@ -49,8 +98,10 @@ public abstract class CodeAreaFileEditor extends AbstractFileEditor<VBox> {
     protected void createContent(@NotNull final VBox root) {
 
         codeArea = new CodeArea();
-        codeArea.richChanges().filter(ch -> !ch.getInserted().equals(ch.getRemoved()))
-                .subscribe(change -> codeArea.setStyleSpans(0, getStyleSpans(codeArea.getText())));
+        codeArea.plainTextChanges().filter(ch -> !ch.getInserted().equals(ch.getRemoved()))
+                .subscribe(this::addDamage);
+        codeArea.plainTextChanges().successionEnds(HIGHLIGHTING_DELAY)
+                .subscribe(change -> startHighlighting());
         codeArea.textProperty().addListener((observable, oldValue, newValue) -> updateDirty(newValue));
         codeArea.prefHeightProperty().bind(root.heightProperty());
         codeArea.prefWidthProperty().bind(root.widthProperty());
@@ -62,14 +113,196 @@ public abstract class CodeAreaFileEditor extends AbstractFileEditor<VBox> {
     /**
      * Gets style spans.
      *
-     * @param text the text
+     * @param text the text, it can be a part of the whole text which starts and ends on line breaks
      * @return the style spans
      */
     @NotNull
+    @FromAnyThread
     protected StyleSpans<? extends Collection<String>> getStyleSpans(@NotNull final String text) {
         throw new RuntimeException("unsupported");
     }
 
+    /**
+     * Add the changed range of the text to the range which isn't highlighted yet.
+     *
+     * @param change the change of the text.
+     */
+    @FXThread
+    private void addDamage(@NotNull final PlainTextChange change) {
+
+        textVersion++;
+
+        final int position = change.getPosition();
+        final int removalEnd = change.getRemovalEnd();
+        final int insertionEnd = change.getInsertionEnd();
+        final int netLength = insertionEnd - removalEnd;
+
+        if (damagedFrom < 0) {
+            damagedFrom = position;
+            damagedTo = insertionEnd;
+        } else {
+            damagedFrom = Math.min(damagedFrom >= removalEnd ? damagedFrom + netLength : damagedFrom, position);
+            damagedTo = Math.max(damagedTo >= removalEnd ? damagedTo + netLength : Math.min(damagedTo, position),
+                    insertionEnd);
+        }
+
+        if (damagedAll) {
+            return;
+        }
+
+        // a delimiter can be also made by joining a changed symbol with a neighbour symbol
+        final CodeArea codeArea = getCodeArea();
+        final int length = codeArea.getLength();
+        final String before = codeArea.getText(Math.max(position - 1, 0), position);
+        final String after = codeArea.getText(insertionEnd, Math.min(insertionEnd + 1, length));
+
+        damagedAll = hasMultiLineDelimiter(before + change.getInserted() + after) ||
+                hasMultiLineDelimiter(before + change.getRemoved() + after);
+    }
+
+    /**
+     * Start highlighting the changed range of the text in background.
+     */
+    @FXThread
+    private void startHighlighting() {
+        if (damagedFrom < 0) return;
+
+        final String text = getCodeArea().getText();
+        final long version = textVersion;
+        final int from = damagedAll ? 0 : damagedFrom;
+        final int to = damagedAll ? text.length() : damagedTo;
+
+        EXECUTOR_MANAGER.addBackgroundTask(() -> highlight(text, version, from, to), TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Compute style spans of the changed range of the text.
+     *
+     * @param text    the snapshot of the text.
+     * @param version the version of the snapshot.
+     * @param from    the start of the changed range.
+     * @param to      the end of the changed range.
+     */
+    @BackgroundThread
+    private void highlight(@NotNull final String text, final long version, final int from, final int to) {
+
+        final int start = getHighlightingStart(text, from);
+        final int end = getHighlightingEnd(text, to);
+
+        final StyleSpans<? extends Collection<String>> styleSpans = start < end ?
+                getStyleSpans(text.substring(start, end)) : null;
+
+        EXECUTOR_MANAGER.addFXTask(() -> applyHighlighting(version, start, styleSpans));
+    }
+
+    /**
+     * Get the start of the range to highlight the changed range. The range is extended to whole lines and to whole
+     * block comments, because tokens of other types don't contain line breaks or their delimiters were changed and
+     * the whole text is highlighted.
+     *
+     * @param text the text.
+     * @param from the start of the changed range.
+     * @return the start of the range to highlight.
+     */
+    @FromAnyThread
+    static int getHighlightingStart(@NotNull final String text, final int from) {
+
+        int start = lineStart(text, Math.min(from, text.length()));
+
+        while (isInComment(text, start)) {
+            start = lineStart(text, text.lastIndexOf(COMMENT_START, start - COMMENT_START.length()));
+        }
+
+        return start;
+    }
+
+    /**
+     * Get the end of the range to highlight the changed range.
+     *
+     * @param text the text.
+     * @param to   the end of the changed range.
+     * @return the end of the range to highlight.
+     * @see #getHighlightingStart(String, int)
+     */
+    @FromAnyThread
+    static int getHighlightingEnd(@NotNull final String text, final int to) {
+
+        int end = lineEnd(text, Math.min(to, text.length()));
+
+        while (end < text.length() && isInComment(text, end)) {
+            final int commentEnd = text.indexOf(COMMENT_END, end);
+            end = commentEnd < 0 ? text.length() : lineEnd(text, commentEnd + COMMENT_END.length());
+        }
+
+        return end;
+    }
+
+    /**
+     * Apply style spans of the changed range if the text wasn't changed after taking the snapshot.
+     *
+     * @param version    the version of the highlighted snapshot.
+     * @param start      the start of the highlighted range.
+     * @param styleSpans the style spans or null if the range is empty.
+     */
+    @FXThread
+    private void applyHighlighting(final long version, final int start,
+                                   @Nullable final StyleSpans<? extends Collection<String>> styleSpans) {
+
+        // the newer changes will be highlighted with this range by the next highlighting
+        if (version != textVersion) {
+            return;
+        }
+
+        if (styleSpans != null) {
+            getCodeArea().setStyleSpans(start, styleSpans);
+        }
+
+        damagedFrom = -1;
+        damagedAll = false;
+    }
+
+    /**
+     * @return true if the text contains a delimiter of tokens which can contain line breaks.
+     */
+    @FromAnyThread
+    private static boolean hasMultiLineDelimiter(@NotNull final String text) {
+
+        for (final String delimiter : MULTI_LINE_DELIMITERS) {
+            if (text.contains(delimiter)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return true if the position is inside of a block comment.
+     */
+    @FromAnyThread
+    private static boolean isInComment(@NotNull final String text, final int position) {
+
+        final int lastStart = text.lastIndexOf(COMMENT_START, position - COMMENT_START.length());
+        final int lastEnd = text.lastIndexOf(COMMENT_END, position - COMMENT_END.length());
+
+        return lastStart >= 0 && lastStart > lastEnd;
+    }
+
+    /**
+     * @return the start of the line which contains the position.
+     */
+    @FromAnyThread
+    private static int lineStart(@NotNull final String text, final int position) {
+        return position < 1 ? 0 : text.lastIndexOf('\n', position - 1) + 1;
+    }
+
+    /**
+     * @return the end of the line which contains the position including the line break.
+     */
+    @FromAnyThread
+    private static int lineEnd(@NotNull final String text, final int position) {
+        final int index = text.indexOf('\n', position);
+        return index < 0 ? text.length() : index + 1;
+    }
+
     /**
      * Update dirty state.
      */
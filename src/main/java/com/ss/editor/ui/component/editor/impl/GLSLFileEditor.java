@@ -71,7 +71,7 @@ public class GLSLFileEditor extends CodeAreaFileEditor {
     );
 
     @NotNull
-    private static StyleSpans<Collection<String>> computeHighlighting(@NotNull final String text) {
+    static StyleSpans<Collection<String>> computeHighlighting(@NotNull final String text) {
 
         final Matcher matcher = PATTERN.matcher(text);
         final StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
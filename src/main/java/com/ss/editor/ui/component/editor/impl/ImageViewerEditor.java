@@ -4,19 +4,22 @@ import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.ss.editor.Editor;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.Messages;
+import com.ss.editor.annotation.BackgroundThread;
 import com.ss.editor.annotation.FXThread;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.file.reader.TiledImageReader;
 import com.ss.editor.manager.JavaFXImageManager;
 import com.ss.editor.ui.component.editor.EditorDescription;
+import com.ss.editor.ui.control.image.TiledImageView;
 import com.ss.editor.ui.css.CSSClasses;
-import com.ss.editor.ui.event.impl.FileChangedEvent;
 import com.ss.rlib.plugin.annotation.PluginDescription;
 import com.ss.rlib.ui.util.FXUtils;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
 /**
@@ -48,7 +51,7 @@ public class ImageViewerEditor extends AbstractFileEditor<VBox> {
      * The image view.
      */
     @Nullable
-    private ImageView imageView;
+    private TiledImageView imageView;
 
     @NotNull
     @Override
@@ -59,7 +62,9 @@ public class ImageViewerEditor extends AbstractFileEditor<VBox> {
     @Override
     protected void createContent(@NotNull final VBox root) {
 
-        imageView = new ImageView();
+        imageView = new TiledImageView();
+        imageView.prefWidthProperty().bind(root.widthProperty());
+        imageView.prefHeightProperty().bind(root.heightProperty());
 
         FXUtils.addToPane(imageView, root);
         FXUtils.addClassTo(root, CSSClasses.IMAGE_VIEW_EDITOR_CONTAINER);
@@ -69,21 +74,64 @@ public class ImageViewerEditor extends AbstractFileEditor<VBox> {
      * @return the image view.
      */
     @NotNull
-    private ImageView getImageView() {
+    private TiledImageView getImageView() {
         return notNull(imageView);
     }
 
     @Override
-    protected void processChangedFile(@NotNull final FileChangedEvent event) {
-        final Path file = event.getFile();
+    protected void processChangedFile(@NotNull final Path file) {
         if (!getEditFile().equals(file)) return;
         EXECUTOR_MANAGER.schedule(() -> EXECUTOR_MANAGER.addFXTask(() -> showImage(file)), 1000);
     }
 
+    @FXThread
     private void showImage(@NotNull final Path file) {
-        final Image preview = JAVA_FX_IMAGE_MANAGER.getImagePreview(file, IMAGE_SIZE, IMAGE_SIZE);
-        final ImageView imageView = getImageView();
-        imageView.setImage(preview);
+        EXECUTOR_MANAGER.addBackgroundTask(() -> openImage(file), TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Open the tiled reader of the image, if the format of the image can't be read by tiles, the preview of the
+     * image is showed.
+     *
+     * @param file the image file.
+     */
+    @BackgroundThread
+    private void openImage(@NotNull final Path file) {
+
+        TiledImageReader reader = null;
+        Image overview = null;
+        try {
+            reader = TiledImageReader.open(file);
+            overview = reader == null ? null : TiledImageView.readOverview(reader);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warning(this, e);
+        }
+
+        if (reader != null && overview != null) {
+            final TiledImageReader tiledReader = reader;
+            final Image tiledOverview = overview;
+            EXECUTOR_MANAGER.addFXTask(() -> {
+                JAVA_FX_IMAGE_MANAGER.cancelImagePreview(this);
+                getImageView().setImage(tiledReader, tiledOverview);
+            });
+            return;
+        }
+
+        closeReader(reader);
+
+        // the preview is decoded in the background, only the loaded preview is set in the FX thread
+        EXECUTOR_MANAGER.addFXTask(() -> JAVA_FX_IMAGE_MANAGER.loadImagePreview(this, file, IMAGE_SIZE, IMAGE_SIZE,
+                preview -> getImageView().setImage(preview)));
+    }
+
+    @BackgroundThread
+    private void closeReader(@Nullable final TiledImageReader reader) {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
     }
 
     @FXThread
@@ -93,6 +141,14 @@ public class ImageViewerEditor extends AbstractFileEditor<VBox> {
         showImage(file);
     }
 
+    @FXThread
+    @Override
+    public void notifyClosed() {
+        super.notifyClosed();
+        JAVA_FX_IMAGE_MANAGER.cancelImagePreview(this);
+        getImageView().clear();
+    }
+
     @NotNull
     @Override
     public EditorDescription getDescription() {
@@ -37,7 +37,6 @@ import com.ss.editor.ui.component.split.pane.EditorToolSplitPane;
 import com.ss.editor.ui.component.tab.ScrollableEditorToolComponent;
 import com.ss.editor.ui.control.material.Texture2DMaterialParamControl;
 import com.ss.editor.ui.css.CSSClasses;
-import com.ss.editor.ui.event.impl.FileChangedEvent;
 import com.ss.editor.ui.util.DynamicIconSupport;
 import com.ss.editor.ui.util.UIUtils;
 import com.ss.editor.util.MaterialUtils;
@@ -241,11 +240,10 @@ public class MaterialFileEditor extends AbstractFileEditor<StackPane> implements
 
     @FXThread
     @Override
-    protected void processChangedFile(@NotNull final FileChangedEvent event) {
-        super.processChangedFile(event);
+    protected void processChangedFile(@NotNull final Path file) {
+        super.processChangedFile(file);
 
         final Material currentMaterial = getCurrentMaterial();
-        final Path file = event.getFile();
 
         EXECUTOR_MANAGER.addJMETask(() -> {
             final Material newMaterial = updateMaterialIdNeed(file, currentMaterial);
@@ -2,7 +2,8 @@ package com.ss.editor.ui.component.editor.impl.scene;
 
 import static com.ss.editor.state.editor.impl.scene.AbstractSceneEditor3DState.LOADED_MODEL_KEY;
 import static com.ss.editor.util.EditorUtil.*;
-import static com.ss.editor.util.MaterialUtils.saveIfNeedTextures;
+import static com.ss.editor.util.MaterialUtils.collectChangedTextures;
+import static com.ss.editor.util.MaterialUtils.saveTextures;
 import static com.ss.editor.util.MaterialUtils.updateMaterialIdNeed;
 import static com.ss.editor.util.NodeUtils.findParent;
 import static com.ss.rlib.util.ClassUtils.unsafeCast;
@@ -12,6 +13,7 @@ import com.jme3.asset.AssetManager;
 import com.jme3.asset.MaterialKey;
 import com.jme3.asset.ModelKey;
 import com.jme3.audio.AudioNode;
+import com.jme3.effect.ParticleMesh;
 import com.jme3.export.binary.BinaryExporter;
 import com.jme3.light.DirectionalLight;
 import com.jme3.light.Light;
@@ -22,10 +24,14 @@ import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.AssetLinkNode;
 import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.control.Control;
+import com.jme3.texture.Image;
 import com.jme3.texture.Texture;
+import com.jme3.util.clone.CloneFunction;
+import com.jme3.util.clone.Cloner;
 import com.ss.editor.FileExtensions;
 import com.ss.editor.Messages;
 import com.ss.editor.annotation.BackgroundThread;
@@ -37,6 +43,7 @@ import com.ss.editor.control.transform.EditorTransformSupport.TransformType;
 import com.ss.editor.control.transform.EditorTransformSupport.TransformationMode;
 import com.ss.editor.extension.scene.SceneLayer;
 import com.ss.editor.extension.scene.ScenePresentable;
+import com.ss.editor.file.index.DependencyIndex;
 import com.ss.editor.manager.WorkspaceManager;
 import com.ss.editor.model.editor.ModelEditingProvider;
 import com.ss.editor.model.undo.EditorOperation;
@@ -70,16 +77,19 @@ import com.ss.editor.ui.control.model.tree.action.operation.RemoveControlOperati
 import com.ss.editor.ui.control.model.tree.action.operation.RemoveLightOperation;
 import com.ss.editor.ui.control.tree.node.TreeNode;
 import com.ss.editor.ui.css.CSSClasses;
-import com.ss.editor.ui.event.impl.FileChangedEvent;
+import com.ss.editor.ui.event.impl.ChangedFilesEvent;
 import com.ss.editor.ui.util.DynamicIconSupport;
 import com.ss.editor.ui.util.UIUtils;
 import com.ss.editor.util.LocalObjects;
 import com.ss.editor.util.MaterialUtils;
 import com.ss.editor.util.NodeUtils;
+import com.ss.rlib.function.SafeRunnable;
 import com.ss.rlib.ui.util.FXUtils;
 import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.array.Array;
 import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
 import javafx.collections.ObservableList;
 import javafx.event.Event;
 import javafx.geometry.Point2D;
@@ -147,6 +157,12 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
     @NotNull
     private final AtomicInteger changeCounter;
 
+    /**
+     * The reverse index of assets which are used by the current model.
+     */
+    @NotNull
+    private final DependencyIndex dependencyIndex;
+
     /**
      * The opened model.
      */
@@ -296,6 +312,7 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
         this.editor3DState = createEditor3DState();
         this.operationControl = new EditorOperationControl(this);
         this.changeCounter = new AtomicInteger();
+        this.dependencyIndex = new DependencyIndex();
         this.statsAppState = new Stats3DState(statsContainer);
         addEditorState(editor3DState);
         addEditorState(statsAppState);
@@ -406,68 +423,121 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
 
     @Override
     @FXThread
-    protected void processChangedFile(@NotNull final FileChangedEvent event) {
-        super.processChangedFile(event);
+    protected void processChangedFiles(@NotNull final ChangedFilesEvent event) {
+        super.processChangedFiles(event);
 
-        final Path file = event.getFile();
-        final String extension = FileUtils.getExtension(file);
+        final Array<Path> changed = ArrayFactory.newArray(Path.class);
 
-        if (extension.endsWith(FileExtensions.JME_MATERIAL)) {
-            EXECUTOR_MANAGER.addJMETask(() -> updateMaterial(file));
-        } else if (MaterialUtils.isShaderFile(file) || MaterialUtils.isTextureFile(file)) {
-            EXECUTOR_MANAGER.addJMETask(() -> updateMaterials(file));
-        }
+        event.getModified().forEach(changed, (file, container) -> {
+            if (isDependencyFile(file)) container.add(file);
+        });
+
+        event.getCreated().forEach(changed, (file, container) -> {
+            if (isDependencyFile(file) && !event.isDirectory(file)) container.add(file);
+        });
+
+        if (changed.isEmpty()) return;
+
+        EXECUTOR_MANAGER.addJMETask(() -> reloadDependents(changed));
     }
 
     /**
-     * Updating a material from the file.
+     * Check a file on a possible dependency of a model.
      */
-    @FXThread
-    private void updateMaterial(@NotNull final Path file) {
-
-        final Path assetFile = notNull(getAssetFile(file), "Not found asset file for " + file);
-        final String assetPath = toAssetPath(assetFile);
+    @FromAnyThread
+    private boolean isDependencyFile(@NotNull final Path file) {
+        final String extension = FileUtils.getExtension(file);
+        return extension.endsWith(FileExtensions.JME_MATERIAL) || MaterialUtils.isShaderFile(file) ||
+                MaterialUtils.isTextureFile(file);
+    }
 
-        final M currentModel = getCurrentModel();
+    /**
+     * Reload materials of geometries which depend on the changed files.
+     */
+    @JMEThread
+    private void reloadDependents(@NotNull final Array<Path> files) {
 
+        final DependencyIndex dependencyIndex = getDependencyIndex();
         final Array<Geometry> geometries = ArrayFactory.newArray(Geometry.class);
-        NodeUtils.addGeometryWithMaterial(currentModel, geometries, assetPath);
-        if (geometries.isEmpty()) return;
 
-        final AssetManager assetManager = EDITOR.getAssetManager();
-        final Material material = assetManager.loadMaterial(assetPath);
-        geometries.forEach(geometry -> geometry.setMaterial(material));
+        boolean needRefresh = false;
+
+        for (final Path file : files) {
+
+            final Path assetFile = getAssetFile(file);
+            if (assetFile == null) continue;
+
+            geometries.clear();
+            dependencyIndex.collectDependents(toAssetPath(assetFile), geometries);
+            if (geometries.isEmpty()) continue;
+
+            if (FileUtils.getExtension(file).endsWith(FileExtensions.JME_MATERIAL)) {
+                updateMaterial(toAssetPath(assetFile), geometries);
+            } else {
+                updateMaterials(file, geometries);
+            }
+
+            needRefresh = true;
+        }
+
+        if (!needRefresh) return;
 
         final TonegodTranslucentBucketFilter translucentBucketFilter = EDITOR.getTranslucentBucketFilter();
         translucentBucketFilter.refresh();
     }
 
     /**
-     * Updating materials.
+     * Update the material of the geometries from the file.
      */
-    @FXThread
-    private void updateMaterials(@NotNull final Path file) {
+    @JMEThread
+    private void updateMaterial(@NotNull final String assetPath, @NotNull final Array<Geometry> geometries) {
 
-        final M currentModel = getCurrentModel();
-        final AtomicInteger needRefresh = new AtomicInteger();
+        final DependencyIndex dependencyIndex = getDependencyIndex();
+        final AssetManager assetManager = EDITOR.getAssetManager();
+        final Material material = assetManager.loadMaterial(assetPath);
 
-        NodeUtils.visitGeometry(currentModel, geometry -> {
+        geometries.forEach(geometry -> {
+            geometry.setMaterial(material);
+            dependencyIndex.update(geometry);
+        });
+    }
+
+    /**
+     * Update materials of the geometries which depend on the changed shader or texture, each shared material is
+     * updated only once.
+     */
+    @JMEThread
+    private void updateMaterials(@NotNull final Path file, @NotNull final Array<Geometry> geometries) {
+
+        final DependencyIndex dependencyIndex = getDependencyIndex();
+        final ObjectDictionary<Material, Material> updated = DictionaryFactory.newObjectDictionary();
+
+        geometries.forEach(geometry -> {
 
             final Material material = geometry.getMaterial();
-            final Material newMaterial = updateMaterialIdNeed(file, material);
+            if (material == null) return;
+
+            Material newMaterial = updated.get(material);
+
+            if (newMaterial == null && !updated.containsKey(material)) {
+                newMaterial = updateMaterialIdNeed(file, material);
+                updated.put(material, newMaterial);
+            }
 
             if (newMaterial != null) {
                 geometry.setMaterial(newMaterial);
-                needRefresh.incrementAndGet();
+                dependencyIndex.update(geometry);
             }
         });
+    }
 
-        if (needRefresh.get() < 1) {
-            return;
-        }
-
-        final TonegodTranslucentBucketFilter translucentBucketFilter = EDITOR.getTranslucentBucketFilter();
-        translucentBucketFilter.refresh();
+    /**
+     * @return the reverse index of assets which are used by the current model.
+     */
+    @NotNull
+    @JMEThread
+    private DependencyIndex getDependencyIndex() {
+        return dependencyIndex;
     }
 
     /**
@@ -487,6 +557,8 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
 
         lights.forEach(editor3DState, (light, state) -> state.addLight(light));
         audioNodes.forEach(editor3DState, (audioNode, state) -> state.addAudioNode(audioNode));
+
+        EXECUTOR_MANAGER.addJMETask(() -> getDependencyIndex().add(model));
     }
 
     /**
@@ -506,6 +578,8 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
 
         lights.forEach(editor3DState, (light, state) -> state.removeLight(light));
         audioNodes.forEach(editor3DState, (audioNode, state) -> state.removeAudioNode(audioNode));
+
+        EXECUTOR_MANAGER.addJMETask(() -> getDependencyIndex().remove(model));
     }
 
     /**
@@ -710,6 +784,7 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
     @FXThread
     protected void setCurrentModel(@NotNull final M currentModel) {
         this.currentModel = currentModel;
+        EXECUTOR_MANAGER.addJMETask(() -> getDependencyIndex().rebuild(currentModel));
     }
 
     @NotNull
@@ -732,6 +807,10 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
 
         final EditingComponentContainer editingComponentContainer = getEditingComponentContainer();
         editingComponentContainer.notifyChangeProperty(object, propertyName);
+
+        if (object instanceof Spatial || object instanceof Material) {
+            EXECUTOR_MANAGER.addJMETask(() -> getDependencyIndex().update(object));
+        }
     }
 
     @Override
@@ -798,6 +877,12 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
         if (currentModel == oldChild && newChild != null) {
             setCurrentModel(unsafeCast(newChild));
             editor3DState.openModel(unsafeCast(newChild));
+        } else {
+            EXECUTOR_MANAGER.addJMETask(() -> {
+                final DependencyIndex dependencyIndex = getDependencyIndex();
+                if (oldChild instanceof Spatial) dependencyIndex.remove((Spatial) oldChild);
+                if (newChild instanceof Spatial) dependencyIndex.add((Spatial) newChild);
+            });
         }
 
         final ModelNodeTree modelNodeTree = getModelNodeTree();
@@ -988,21 +1073,80 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
         return result;
     }
 
+    @Nullable
     @Override
     @BackgroundThread
-    public void doSave(@NotNull final Path toStore) {
-        super.doSave(toStore);
+    protected SafeRunnable prepareToSave(@NotNull final Path toStore) {
 
         final M currentModel = getCurrentModel();
+        final ObjectDictionary<Path, Image> copies = DictionaryFactory.newObjectDictionary();
+        final ObjectDictionary<Path, Image> originals = DictionaryFactory.newObjectDictionary();
+
+        NodeUtils.visitGeometry(currentModel, geometry ->
+                collectChangedTextures(geometry.getMaterial(), copies, originals));
+
+        // only the snapshot is taken under the lock, it is exported after releasing the lock
+        final Spatial snapshot = createSnapshot(currentModel);
+
+        return () -> {
+
+            if (!copies.isEmpty()) {
+                saveTextures(copies, originals);
+            }
+
+            exportModel(snapshot, toStore);
+        };
+    }
+
+    /**
+     * Create a snapshot of the model to export it without the render lock. The graph and materials are cloned, but
+     * meshes are shared, because editing operations replace meshes of geometries instead of changing them. Only
+     * meshes which are changed in place, animated and particle meshes, are copied.
+     *
+     * @param model the model.
+     * @return the snapshot.
+     */
+    @NotNull
+    @BackgroundThread
+    protected Spatial createSnapshot(@NotNull final M model) {
+
+        final Cloner cloner = new Cloner();
+        cloner.setCloneFunction(Mesh.class, new SnapshotMeshCloneFunction());
+
+        final Node parent = model.getParent();
 
-        NodeUtils.visitGeometry(currentModel, geometry -> saveIfNeedTextures(geometry.getMaterial()));
+        if (parent != null) {
+            cloner.setClonedValue(parent, null);
+        }
+
+        return cloner.clone(model);
+    }
+
+    @Override
+    @BackgroundThread
+    public void doSave(@NotNull final Path toStore) {
+        super.doSave(toStore);
+        try {
+            exportModel(getCurrentModel(), toStore);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Export the model to the file.
+     *
+     * @param model   the model or its snapshot.
+     * @param toStore the file to store.
+     * @throws IOException if the file can't be written.
+     */
+    @BackgroundThread
+    protected void exportModel(@NotNull final Spatial model, @NotNull final Path toStore) throws IOException {
 
         final BinaryExporter exporter = BinaryExporter.getInstance();
 
         try (final OutputStream out = Files.newOutputStream(toStore)) {
-            exporter.save(currentModel, out);
-        } catch (final IOException e) {
-            LOGGER.warning(this, e);
+            exporter.save(model, out);
         }
     }
 
@@ -1545,5 +1689,19 @@ public abstract class AbstractSceneFileEditor<IM extends AbstractSceneFileEditor
     public Node getMarkersNode() {
         return getEditor3DState().getMarkersNode();
     }
-}
 
+    /**
+     * The function to share meshes with a snapshot of a model, only meshes which are changed in place are copied.
+     */
+    private static final class SnapshotMeshCloneFunction implements CloneFunction<Mesh> {
+
+        @Override
+        public Mesh cloneObject(@NotNull final Cloner cloner, @NotNull final Mesh original) {
+            return original instanceof ParticleMesh || original.isAnimated() ? original.deepClone() : original;
+        }
+
+        @Override
+        public void cloneFields(@NotNull final Cloner cloner, @NotNull final Mesh clone, @NotNull final Mesh original) {
+        }
+    }
+}
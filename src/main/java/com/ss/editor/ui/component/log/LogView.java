@@ -15,12 +15,15 @@ import org.jetbrains.annotations.NotNull;
 
 import java.nio.BufferOverflowException;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Implement the view for showing log messages from the editor.
+ * Implement the view for showing log messages from the editor. Captured messages are collected without locks and
+ * are appended to the view periodically, the view keeps only the last lines.
  *
  * @author JavaSaBr
  */
@@ -29,7 +32,20 @@ public class LogView extends CodeArea {
     @NotNull
     private static final LogView INSTANCE = new LogView();
 
-    private static final int MAX_LENGTH = 8000;
+    /**
+     * The max count of lines in this view.
+     */
+    private static final int MAX_LINES = 500;
+
+    /**
+     * The max length of captured text which can wait to append to this view.
+     */
+    private static final int MAX_PENDING_LENGTH = 256 * 1024;
+
+    /**
+     * The interval to move captured text to this view in ms.
+     */
+    private static final int UPDATE_INTERVAL = 500;
 
     /**
      * Gets instance.
@@ -124,71 +140,107 @@ public class LogView extends CodeArea {
         return spansBuilder.create();
     }
 
+    /**
+     * The queue of captured text which is waiting to append to this view.
+     */
     @NotNull
-    private final StringBuilder currentLog;
+    private final ConcurrentLinkedQueue<String> pendingText;
 
+    /**
+     * The length of captured text which is waiting to append to this view.
+     */
     @NotNull
-    private String lastLog;
+    private final AtomicInteger pendingLength;
 
     /**
      * Instantiates a new Log view.
      */
     public LogView() {
-        this.currentLog = new StringBuilder();
-        this.lastLog = "";
+        this.pendingText = new ConcurrentLinkedQueue<>();
+        this.pendingLength = new AtomicInteger();
 
         setId(CSSIds.LOG_VIEW);
         setWrapText(true);
         setEditable(false);
-        richChanges().filter(ch -> !ch.getInserted().equals(ch.getRemoved()))
-                .subscribe(change -> setStyleSpans(0, computeHighlighting(getText())));
 
         System.setErr(new OutputStreamWrapper(System.err, externalAppendText()));
 
         final ExecutorManager executorManager = ExecutorManager.getInstance();
-        executorManager.scheduleAtFixedRate(this::update, 1000);
+        executorManager.scheduleAtFixedRate(this::update, UPDATE_INTERVAL);
     }
 
     /**
-     * Update log content.
+     * Move captured text to the view.
      */
-    private synchronized void update() {
+    private void update() {
+        if (pendingText.isEmpty()) return;
 
-        if (lastLog.contentEquals(currentLog)) {
-            return;
+        final StringBuilder builder = new StringBuilder();
+
+        for (String text = pendingText.poll(); text != null; text = pendingText.poll()) {
+            pendingLength.addAndGet(-text.length());
+            builder.append(text);
         }
 
-        final String newLog = currentLog.toString();
-        lastLog = newLog;
+        // only the last lines of a big burst can be shown
+        int lines = 0;
 
-        final ExecutorManager executorManager = ExecutorManager.getInstance();
-        executorManager.addFXTask(() -> {
-            final String text = getText();
-            replaceText(0, text.length(), newLog);
-            try {
-                setEstimatedScrollY(getTotalHeightEstimate());
-            } catch (final NullPointerException e) {
+        for (int i = builder.length() - 1; i >= 0; i--) {
+            if (builder.charAt(i) == '\n' && ++lines > MAX_LINES) {
+                builder.delete(0, i + 1);
+                break;
             }
-        });
+        }
+
+        final String newText = builder.toString();
+
+        final ExecutorManager executorManager = ExecutorManager.getInstance();
+        executorManager.addFXTask(() -> appendToView(newText));
     }
 
     /**
-     * Update log content.
+     * Append the text to the end of this view, highlight only the changed paragraphs and remove the oldest lines.
+     */
+    private void appendToView(@NotNull final String newText) {
+
+        // the last paragraph can be continued by the new text
+        final int lastParagraph = getParagraphs().size() - 1;
+        final int changedFrom = getAbsolutePosition(lastParagraph, 0);
+
+        appendText(newText);
+
+        final int length = getLength();
+        setStyleSpans(changedFrom, computeHighlighting(getText(changedFrom, length)));
+
+        final int toRemove = getParagraphs().size() - MAX_LINES;
+
+        if (toRemove > 0) {
+            deleteText(0, getAbsolutePosition(toRemove, 0));
+        }
+
+        try {
+            setEstimatedScrollY(getTotalHeightEstimate());
+        } catch (final NullPointerException e) {
+        }
+    }
+
+    /**
+     * Add the captured text to the queue, if the queue is too big, the oldest text is dropped.
      *
      * @param text the new information.
      */
-    private synchronized void appendLog(@NotNull final String text) {
+    private void appendLog(@NotNull final String text) {
+
+        pendingText.offer(text);
 
-        final int resultLength = currentLog.length() + text.length();
+        int length = pendingLength.addAndGet(text.length());
 
-        if (resultLength <= MAX_LENGTH) {
-            currentLog.append(text);
-        } else {
+        while (length > MAX_PENDING_LENGTH) {
 
-            final int toRemove = resultLength - MAX_LENGTH;
+            final String dropped = pendingText.poll();
+            if (dropped == null) break;
 
-            currentLog.delete(0, toRemove);
-            currentLog.append(text);
+            length = pendingLength.addAndGet(-dropped.length());
         }
     }
 
@@ -7,7 +7,8 @@ import java.io.PrintStream;
 import java.util.function.Consumer;
 
 /**
- * The type Output stream wrapper.
+ * The print stream which passes all written text to the consumer before writing it to the wrapped stream. The
+ * consumer is called from writing threads, so it should only enqueue the text without any locks.
  *
  * @author JavaSaBr
  */
@@ -20,7 +21,7 @@ public class OutputStreamWrapper extends PrintStream {
      * Instantiates a new Output stream wrapper.
      *
      * @param out      the out
-     * @param consumer the consumer
+     * @param consumer the non-blocking consumer of written text
      */
     public OutputStreamWrapper(@NotNull final OutputStream out, @NotNull final Consumer<String> consumer) {
         super(out);
@@ -0,0 +1,190 @@
+package com.ss.editor.ui.control.audio;
+
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.file.reader.Waveform;
+import javafx.collections.ObservableList;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The control to show the waveform of an audio and the current position of playing, clicking on the waveform
+ * selects the position to play from.
+ *
+ * @author JavaSaBr
+ */
+public class WaveformView extends Pane {
+
+    /**
+     * The path of peaks.
+     */
+    @NotNull
+    private final Path peaksPath;
+
+    /**
+     * The line of the current position.
+     */
+    @NotNull
+    private final Line cursor;
+
+    /**
+     * The showed waveform.
+     */
+    @Nullable
+    private Waveform waveform;
+
+    /**
+     * The handler of selecting a position in seconds.
+     */
+    @Nullable
+    private Consumer<Float> seekHandler;
+
+    /**
+     * The current position in seconds.
+     */
+    private float position;
+
+    /**
+     * Instantiates a new Waveform view.
+     */
+    public WaveformView() {
+        this.peaksPath = new Path();
+        this.peaksPath.setManaged(false);
+        this.cursor = new Line();
+        this.cursor.setManaged(false);
+        this.cursor.setVisible(false);
+
+        getChildren().addAll(peaksPath, cursor);
+
+        widthProperty().addListener((observable, oldValue, newValue) -> updatePeaks());
+        heightProperty().addListener((observable, oldValue, newValue) -> updatePeaks());
+
+        setOnMousePressed(this::processSeek);
+        setOnMouseDragged(this::processSeek);
+    }
+
+    /**
+     * Sets the handler of selecting a position.
+     *
+     * @param seekHandler the handler of selecting a position in seconds.
+     */
+    @FXThread
+    public void setSeekHandler(@Nullable final Consumer<Float> seekHandler) {
+        this.seekHandler = seekHandler;
+    }
+
+    /**
+     * Sets the waveform.
+     *
+     * @param waveform the waveform.
+     */
+    @FXThread
+    public void setWaveform(@Nullable final Waveform waveform) {
+        this.waveform = waveform;
+        updatePeaks();
+    }
+
+    /**
+     * Sets the current position.
+     *
+     * @param position the current position in seconds.
+     */
+    @FXThread
+    public void setPosition(final float position) {
+        this.position = position;
+        updateCursor();
+    }
+
+    @FXThread
+    private void processSeek(@NotNull final MouseEvent event) {
+
+        final Waveform waveform = this.waveform;
+        final Consumer<Float> seekHandler = this.seekHandler;
+
+        if (waveform == null || seekHandler == null || getWidth() < 1) {
+            return;
+        }
+
+        final double ratio = Math.max(0, Math.min(1, event.getX() / getWidth()));
+
+        seekHandler.accept((float) (ratio * waveform.getDuration()));
+    }
+
+    /**
+     * Rebuild the path of peaks for the current size, each column of pixels presents the min and max values of the
+     * parts of the waveform in this column.
+     */
+    @FXThread
+    private void updatePeaks() {
+
+        final Waveform waveform = this.waveform;
+        final ObservableList<PathElement> elements = peaksPath.getElements();
+        final double width = getWidth();
+        final double height = getHeight();
+
+        if (waveform == null || waveform.getCount() < 1 || width < 1 || height < 1) {
+            elements.clear();
+            updateCursor();
+            return;
+        }
+
+        final int count = waveform.getCount();
+        final int columns = (int) width;
+        final double middle = height / 2;
+        final double scale = middle / 128D;
+
+        final List<PathElement> newElements = new ArrayList<>(columns * 2);
+
+        for (int column = 0; column < columns; column++) {
+
+            final int first = (int) ((long) column * count / columns);
+            final int last = Math.max(first + 1, (int) ((long) (column + 1) * count / columns));
+
+            int min = Byte.MAX_VALUE;
+            int max = Byte.MIN_VALUE;
+
+            for (int i = first; i < last && i < count; i++) {
+                min = Math.min(min, waveform.getMin(i));
+                max = Math.max(max, waveform.getMax(i));
+            }
+
+            final double x = column + 0.5;
+
+            newElements.add(new MoveTo(x, middle - max * scale));
+            newElements.add(new LineTo(x, middle - min * scale + 1));
+        }
+
+        elements.setAll(newElements);
+
+        updateCursor();
+    }
+
+    @FXThread
+    private void updateCursor() {
+
+        final Waveform waveform = this.waveform;
+
+        if (waveform == null || waveform.getDuration() <= 0) {
+            cursor.setVisible(false);
+            return;
+        }
+
+        final double x = Math.floor(getWidth() * Math.min(1F, position / waveform.getDuration())) + 0.5;
+
+        cursor.setStartX(x);
+        cursor.setEndX(x);
+        cursor.setStartY(0);
+        cursor.setEndY(getHeight());
+        cursor.setVisible(true);
+    }
+}
@@ -250,6 +250,7 @@ public class ChooseTextureControl extends HBox {
 
         if (textureFile == null) {
             textureLabel.setText(Messages.MATERIAL_MODEL_PROPERTY_CONTROL_NO_TEXTURE);
+            IMAGE_MANAGER.cancelImagePreview(preview);
             preview.setImage(null);
             textureTooltip.clean();
             return;
@@ -258,7 +259,7 @@ public class ChooseTextureControl extends HBox {
         final Path assetFile = notNull(getAssetFile(textureFile));
 
         textureLabel.setText(assetFile.toString());
-        preview.setImage(IMAGE_MANAGER.getImagePreview(textureFile, 28, 28));
+        IMAGE_MANAGER.loadImagePreview(preview, textureFile, 28, 28);
         textureTooltip.showImage(textureFile);
     }
 }
@@ -0,0 +1,541 @@
+package com.ss.editor.ui.control.image;
+
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.file.reader.TiledImageReader;
+import com.ss.editor.manager.ExecutorManager;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The zoomable view of a huge image. The image is split to a pyramid of tiles, each level of the pyramid has the half
+ * size of the previous level. Only the tiles of the visible region on the level of the current zoom are decoded in
+ * background and kept in a bounded cache of the least recently used tiles, while tiles are loading, the view shows a
+ * small overview of the whole image.
+ *
+ * @author JavaSaBr
+ */
+public class TiledImageView extends Pane {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(TiledImageView.class);
+
+    @NotNull
+    private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
+
+    /**
+     * The size of tiles in pixels.
+     */
+    private static final int TILE_SIZE = 256;
+
+    /**
+     * The max size of the overview.
+     */
+    private static final int OVERVIEW_SIZE = 1024;
+
+    /**
+     * The max count of cached tiles, by default the cache takes up to 64 MB.
+     */
+    private static final int PROP_MAX_TILES = Integer.getInteger("editor.imageViewer.maxTiles", 256);
+
+    private static final double MIN_SCALE = 1D / 64;
+
+    private static final double MAX_SCALE = 32;
+
+    private static final double ZOOM_FACTOR = 1.2;
+
+    /**
+     * The cache of decoded tiles by keys of tiles.
+     */
+    @NotNull
+    private final LinkedHashMap<Long, Image> tiles;
+
+    /**
+     * The views of showed tiles by keys of tiles.
+     */
+    @NotNull
+    private final Map<Long, ImageView> tileViews;
+
+    /**
+     * The keys of missed tiles of the visible region which are need to load.
+     */
+    @NotNull
+    private final Deque<Long> requests;
+
+    /**
+     * The view of the overview.
+     */
+    @NotNull
+    private final ImageView overviewView;
+
+    /**
+     * The reader of the image.
+     */
+    @Nullable
+    private TiledImageReader reader;
+
+    /**
+     * The reader which is reading a tile now, if the reader is replaced during reading, it's closed by the loader.
+     */
+    @Nullable
+    private TiledImageReader readingReader;
+
+    /**
+     * The width of the image.
+     */
+    private int imageWidth;
+
+    /**
+     * The height of the image.
+     */
+    private int imageHeight;
+
+    /**
+     * The count of pixels of the view in a pixel of the image.
+     */
+    private double scale;
+
+    /**
+     * The position of the image in the view.
+     */
+    private double imageX, imageY;
+
+    /**
+     * The last position of mouse during dragging.
+     */
+    private double dragX, dragY;
+
+    /**
+     * True if need to fit the image to the view after layout.
+     */
+    private boolean needFit;
+
+    /**
+     * True if a tile loader is running.
+     */
+    private boolean loading;
+
+    /**
+     * Instantiates a new Tiled image view.
+     */
+    public TiledImageView() {
+        this.tiles = new LinkedHashMap<Long, Image>(64, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(@NotNull final Map.Entry<Long, Image> eldest) {
+                return size() > PROP_MAX_TILES;
+            }
+        };
+        this.tileViews = new HashMap<>();
+        this.requests = new ArrayDeque<>();
+        this.overviewView = new ImageView();
+        this.overviewView.setManaged(false);
+        this.scale = 1D;
+
+        final Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+
+        setClip(clip);
+        getChildren().add(overviewView);
+
+        widthProperty().addListener((observable, oldValue, newValue) -> updateLayout());
+        heightProperty().addListener((observable, oldValue, newValue) -> updateLayout());
+
+        setOnScroll(this::processScroll);
+        setOnMousePressed(this::processMousePressed);
+        setOnMouseDragged(this::processMouseDragged);
+        setOnMouseClicked(this::processMouseClicked);
+    }
+
+    /**
+     * Show the image of the reader, the previous reader is closed.
+     *
+     * @param reader   the reader of the image.
+     * @param overview the overview of the whole image.
+     */
+    @FXThread
+    public void setImage(@NotNull final TiledImageReader reader, @NotNull final Image overview) {
+        clear();
+
+        synchronized (requests) {
+            this.reader = reader;
+        }
+
+        show(overview, reader.getWidth(), reader.getHeight());
+    }
+
+    /**
+     * Show the image without tiles.
+     *
+     * @param image the image.
+     */
+    @FXThread
+    public void setImage(@NotNull final Image image) {
+        clear();
+        show(image, (int) image.getWidth(), (int) image.getHeight());
+    }
+
+    /**
+     * Close the reader and clear all tiles. If the reader is reading a tile now, it's closed by the loader after
+     * reading.
+     */
+    @FXThread
+    public void clear() {
+
+        final TiledImageReader reader;
+        final boolean reading;
+
+        synchronized (requests) {
+            requests.clear();
+            reader = this.reader;
+            reading = reader != null && readingReader == reader;
+            this.reader = null;
+        }
+
+        if (reader != null && !reading) {
+            EXECUTOR_MANAGER.addBackgroundTask(() -> closeReader(reader));
+        }
+
+        tiles.clear();
+        tileViews.values().forEach(getChildren()::remove);
+        tileViews.clear();
+        overviewView.setImage(null);
+    }
+
+    /**
+     * Read the overview of the image.
+     *
+     * @param reader the reader of the image.
+     * @return the overview.
+     * @throws IOException if the image can't be read.
+     */
+    @NotNull
+    @BackgroundThread
+    public static Image readOverview(@NotNull final TiledImageReader reader) throws IOException {
+
+        final int width = reader.getWidth();
+        final int height = reader.getHeight();
+        final int step = Math.max(1, (Math.max(width, height) + OVERVIEW_SIZE - 1) / OVERVIEW_SIZE);
+
+        return SwingFXUtils.toFXImage(reader.read(0, 0, width, height, step), null);
+    }
+
+    @FXThread
+    private void show(@NotNull final Image overview, final int width, final int height) {
+        this.imageWidth = width;
+        this.imageHeight = height;
+        this.needFit = true;
+        overviewView.setImage(overview);
+        updateLayout();
+    }
+
+    /**
+     * Fit the image to the view without zooming in.
+     */
+    @FXThread
+    public void fit() {
+
+        final double width = getWidth();
+        final double height = getHeight();
+
+        if (width < 1 || height < 1 || imageWidth < 1 || imageHeight < 1) {
+            needFit = true;
+            return;
+        }
+
+        needFit = false;
+        scale = Math.min(1D, Math.min(width / imageWidth, height / imageHeight));
+        imageX = Math.floor((width - imageWidth * scale) / 2);
+        imageY = Math.floor((height - imageHeight * scale) / 2);
+
+        updateTiles();
+    }
+
+    @FXThread
+    private void updateLayout() {
+        if (needFit) {
+            fit();
+        } else {
+            updateTiles();
+        }
+    }
+
+    @FXThread
+    private void processScroll(@NotNull final ScrollEvent event) {
+
+        final double deltaY = event.getDeltaY();
+        if (deltaY == 0 || imageWidth < 1) return;
+
+        final double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE,
+                deltaY > 0 ? scale * ZOOM_FACTOR : scale / ZOOM_FACTOR));
+
+        // keep the pixel under the cursor on its place
+        final double x = event.getX();
+        final double y = event.getY();
+
+        imageX = x - (x - imageX) * newScale / scale;
+        imageY = y - (y - imageY) * newScale / scale;
+        scale = newScale;
+
+        updateTiles();
+        event.consume();
+    }
+
+    @FXThread
+    private void processMousePressed(@NotNull final MouseEvent event) {
+        dragX = event.getX();
+        dragY = event.getY();
+    }
+
+    @FXThread
+    private void processMouseDragged(@NotNull final MouseEvent event) {
+
+        imageX += event.getX() - dragX;
+        imageY += event.getY() - dragY;
+        dragX = event.getX();
+        dragY = event.getY();
+
+        updateTiles();
+    }
+
+    @FXThread
+    private void processMouseClicked(@NotNull final MouseEvent event) {
+        if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() > 1) {
+            fit();
+        }
+    }
+
+    /**
+     * Show the loaded tiles of the visible region and request loading of missed tiles.
+     */
+    @FXThread
+    private void updateTiles() {
+
+        overviewView.setLayoutX(imageX);
+        overviewView.setLayoutY(imageY);
+        overviewView.setFitWidth(imageWidth * scale);
+        overviewView.setFitHeight(imageHeight * scale);
+        overviewView.setSmooth(scale < 1D);
+
+        final TiledImageReader reader = this.reader;
+
+        if (reader == null) {
+            return;
+        }
+
+        final int level = getLevel();
+        final int step = 1 << level;
+        final int tileSpan = TILE_SIZE * step;
+
+        // the visible region in pixels of the image
+        final double left = Math.max(0, -imageX / scale);
+        final double top = Math.max(0, -imageY / scale);
+        final double right = Math.min(imageWidth, (getWidth() - imageX) / scale);
+        final double bottom = Math.min(imageHeight, (getHeight() - imageY) / scale);
+
+        final Map<Long, ImageView> visible = new HashMap<>();
+        final Deque<Long> missed = new ArrayDeque<>();
+
+        if (left < right && top < bottom) {
+
+            final int lastColumn = (int) ((right - 1) / tileSpan);
+            final int lastRow = (int) ((bottom - 1) / tileSpan);
+
+            for (int row = (int) (top / tileSpan); row <= lastRow; row++) {
+                for (int column = (int) (left / tileSpan); column <= lastColumn; column++) {
+
+                    final long key = toKey(level, column, row);
+                    final Image tile = tiles.get(key);
+
+                    if (tile == null) {
+                        missed.add(key);
+                        continue;
+                    }
+
+                    ImageView tileView = tileViews.remove(key);
+
+                    if (tileView == null) {
+                        tileView = new ImageView(tile);
+                        tileView.setManaged(false);
+                        getChildren().add(tileView);
+                    }
+
+                    placeTile(tileView, column * tileSpan, row * tileSpan, tileSpan);
+                    visible.put(key, tileView);
+                }
+            }
+        }
+
+        // the tiles of other regions and levels aren't visible anymore
+        tileViews.values().forEach(getChildren()::remove);
+        tileViews.clear();
+        tileViews.putAll(visible);
+
+        requestTiles(missed);
+    }
+
+    /**
+     * @return the level of the pyramid for the current zoom.
+     */
+    @FXThread
+    private int getLevel() {
+
+        int level = 0;
+
+        for (int size = Math.max(imageWidth, imageHeight); size > TILE_SIZE && scale * (2 << level) <= 1D; size /= 2) {
+            level++;
+        }
+
+        return level;
+    }
+
+    @FXThread
+    private void placeTile(@NotNull final ImageView tileView, final int x, final int y, final int tileSpan) {
+
+        // snap borders of tiles to pixels of the view to avoid gaps between tiles
+        final double tileLeft = Math.floor(imageX + x * scale);
+        final double tileTop = Math.floor(imageY + y * scale);
+        final double tileRight = Math.floor(imageX + Math.min(x + tileSpan, imageWidth) * scale);
+        final double tileBottom = Math.floor(imageY + Math.min(y + tileSpan, imageHeight) * scale);
+
+        tileView.setLayoutX(tileLeft);
+        tileView.setLayoutY(tileTop);
+        tileView.setFitWidth(Math.max(1, tileRight - tileLeft));
+        tileView.setFitHeight(Math.max(1, tileBottom - tileTop));
+        tileView.setSmooth(scale < 1D);
+    }
+
+    /**
+     * Replace the waiting requests by the missed tiles of the visible region.
+     */
+    @FXThread
+    private void requestTiles(@NotNull final Deque<Long> missed) {
+        synchronized (requests) {
+
+            requests.clear();
+            requests.addAll(missed);
+
+            if (requests.isEmpty() || loading) {
+                return;
+            }
+
+            loading = true;
+        }
+
+        EXECUTOR_MANAGER.addBackgroundTask(this::loadTiles, TaskPriority.INTERACTIVE);
+    }
+
+    @BackgroundThread
+    private void loadTiles() {
+
+        while (true) {
+
+            final TiledImageReader reader;
+            final long key;
+
+            synchronized (requests) {
+
+                final Long next = requests.pollFirst();
+
+                if (next == null || this.reader == null) {
+                    loading = false;
+                    return;
+                }
+
+                reader = this.reader;
+                readingReader = reader;
+                key = next;
+            }
+
+            final Image tile = loadTile(reader, key);
+            final boolean replaced;
+
+            synchronized (requests) {
+                readingReader = null;
+                replaced = this.reader != reader;
+            }
+
+            if (replaced) {
+                closeReader(reader);
+            } else if (tile != null) {
+                EXECUTOR_MANAGER.addFXTask(() -> addTile(reader, key, tile));
+            }
+        }
+    }
+
+    @Nullable
+    @BackgroundThread
+    private Image loadTile(@NotNull final TiledImageReader reader, final long key) {
+
+        final int step = 1 << getLevel(key);
+        final int tileSpan = TILE_SIZE * step;
+        final int x = getColumn(key) * tileSpan;
+        final int y = getRow(key) * tileSpan;
+        final int width = Math.min(tileSpan, reader.getWidth() - x);
+        final int height = Math.min(tileSpan, reader.getHeight() - y);
+
+        if (width < 1 || height < 1) {
+            return null;
+        }
+
+        try {
+            final BufferedImage tile = reader.read(x, y, width, height, step);
+            return SwingFXUtils.toFXImage(tile, null);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warning(this, e);
+            return null;
+        }
+    }
+
+    @FXThread
+    private void addTile(@NotNull final TiledImageReader reader, final long key, @NotNull final Image tile) {
+        if (this.reader != reader) return;
+        tiles.put(key, tile);
+        updateTiles();
+    }
+
+    @BackgroundThread
+    private void closeReader(@NotNull final TiledImageReader reader) {
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    private static long toKey(final int level, final int column, final int row) {
+        return ((long) level << 48) | ((long) column << 24) | row;
+    }
+
+    private static int getLevel(final long key) {
+        return (int) (key >>> 48);
+    }
+
+    private static int getColumn(final long key) {
+        return (int) ((key >>> 24) & 0xFFFFFF);
+    }
+
+    private static int getRow(final long key) {
+        return (int) (key & 0xFFFFFF);
+    }
+}
@@ -1,6 +1,5 @@
 package com.ss.editor.ui.control.layer;
 
-import static com.ss.editor.ui.util.UIUtils.findItemForValue;
 import com.jme3.scene.Spatial;
 import com.ss.editor.extension.scene.SceneLayer;
 import com.ss.editor.model.undo.editor.SceneChangeConsumer;
@@ -42,20 +41,19 @@ public class LayerNodeTree extends NodeTree<SceneChangeConsumer> {
      * @param spatial the spatial.
      */
     public void notifyAdded(@NotNull final Spatial spatial) {
-        spatial.depthFirstTraversal(child -> {
+        addPendingChange(() -> spatial.depthFirstTraversal(child -> {
 
             final SceneLayer layer = SceneLayer.getLayer(child);
             if (layer == SceneLayer.NO_LAYER) return;
 
-            final TreeItem<TreeNode<?>> newLayerItem = findItemForValue(getTreeView(), layer);
-            final TreeItem<TreeNode<?>> treeItem = findItemForValue(getTreeView(), child);
+            final TreeItem<TreeNode<?>> newLayerItem = getItem(layer);
+            final TreeItem<TreeNode<?>> treeItem = getItem(child);
 
-            if (newLayerItem != null && treeItem == null) {
-                final TreeNode<?> objectNode = FACTORY_REGISTRY.createFor(child);
-                newLayerItem.getChildren().add(new TreeItem<>(objectNode));
+            if (newLayerItem != null && treeItem == null && isLoaded(newLayerItem)) {
+                addItem(newLayerItem, createItem(FACTORY_REGISTRY.createFor(child)), -1);
             }
 
-        }, Spatial.DFSMode.POST_ORDER);
+        }, Spatial.DFSMode.POST_ORDER));
     }
 
     /**
@@ -64,19 +62,20 @@ public class LayerNodeTree extends NodeTree<SceneChangeConsumer> {
      * @param spatial the spatial.
      */
     public void notifyRemoved(@NotNull final Spatial spatial) {
-        spatial.depthFirstTraversal(child -> {
+        addPendingChange(() -> spatial.depthFirstTraversal(child -> {
 
             final SceneLayer layer = SceneLayer.getLayer(child);
             if (layer == SceneLayer.NO_LAYER) return;
 
-            final TreeItem<TreeNode<?>> newLayerItem = findItemForValue(getTreeView(), layer);
-            final TreeItem<TreeNode<?>> treeItem = findItemForValue(getTreeView(), child);
+            final TreeItem<TreeNode<?>> newLayerItem = getItem(layer);
+            final TreeItem<TreeNode<?>> treeItem = getItem(child);
 
             if (newLayerItem != null && treeItem != null) {
-                newLayerItem.getChildren().remove(treeItem);
+                removeItem(treeItem);
+                unregister(treeItem);
             }
 
-        }, Spatial.DFSMode.POST_ORDER);
+        }, Spatial.DFSMode.POST_ORDER));
     }
 
     /**
@@ -86,22 +85,38 @@ public class LayerNodeTree extends NodeTree<SceneChangeConsumer> {
      * @param newLayer the new layer.
      */
     public void notifyChangedLayer(@NotNull final Spatial object, @Nullable final SceneLayer newLayer) {
+        addPendingChange(() -> {
 
-        final TreeNode<?> objectNode = FACTORY_REGISTRY.createFor(object);
-        TreeItem<TreeNode<?>> objectItem = findItemForValue(getTreeView(), objectNode);
+            TreeItem<TreeNode<?>> objectItem = getItem(object);
 
-        if (objectItem == null && newLayer != null) {
-            objectItem = new TreeItem<>(objectNode);
-        } else if (objectItem != null) {
-            final TreeItem<TreeNode<?>> parent = objectItem.getParent();
-            parent.getChildren().remove(objectItem);
-        }
+            if (objectItem == null && newLayer != null) {
+                objectItem = createItem(FACTORY_REGISTRY.createFor(object));
+            } else if (objectItem != null) {
+                removeItem(objectItem);
+            }
 
-        final TreeItem<TreeNode<?>> newLayerItem =
-                newLayer == null ? null : findItemForValue(getTreeView(), FACTORY_REGISTRY.createFor(newLayer));
+            final TreeItem<TreeNode<?>> newLayerItem = newLayer == null ? null : getItem(newLayer);
 
-        if (newLayerItem != null) {
-            newLayerItem.getChildren().add(objectItem);
+            if (newLayerItem != null && objectItem != null && isLoaded(newLayerItem)) {
+                addItem(newLayerItem, objectItem, -1);
+            } else if (objectItem != null) {
+                unregister(objectItem);
+            }
+        });
+    }
+
+    @Nullable
+    @Override
+    protected Object getParentObject(@NotNull final Object object) {
+
+        if (object instanceof Spatial) {
+            final SceneLayer layer = SceneLayer.getLayer((Spatial) object);
+            return layer == SceneLayer.NO_LAYER ? null : layer;
+        } else if (object instanceof SceneLayer) {
+            final TreeItem<TreeNode<?>> root = getTreeView().getRoot();
+            return root == null ? null : root.getValue().getElement();
         }
+
+        return null;
     }
 }
@@ -331,6 +331,7 @@ public class Texture2DMaterialParamControl extends MaterialParamControl {
         if (param == null) {
 
             final ImageView preview = getTexturePreview();
+            IMAGE_MANAGER.cancelImagePreview(preview);
             preview.setImage(null);
 
             final CheckBox flipButton = getFlipButton();
@@ -361,7 +362,7 @@ public class Texture2DMaterialParamControl extends MaterialParamControl {
         final Path realFile = EditorUtil.getRealFile(textureKey.getName());
 
         final ImageView preview = getTexturePreview();
-        preview.setImage(IMAGE_MANAGER.getImagePreview(realFile, 28, 28));
+        IMAGE_MANAGER.loadImagePreview(preview, realFile, 28, 28);
 
         textureTooltip.showImage(realFile);
     }
@@ -1,8 +1,14 @@
 package com.ss.editor.ui.control.model.tree;
 
+import com.jme3.light.Light;
+import com.jme3.light.LightList;
+import com.jme3.scene.Spatial;
+import com.jme3.scene.control.AbstractControl;
+import com.jme3.scene.control.Control;
 import com.ss.editor.model.undo.editor.ModelChangeConsumer;
 import com.ss.editor.ui.control.tree.NodeTree;
 import com.ss.editor.ui.control.tree.NodeTreeCell;
+import com.ss.editor.util.NodeUtils;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -31,4 +37,62 @@ public class ModelNodeTree extends NodeTree<ModelChangeConsumer> {
     protected NodeTreeCell<ModelChangeConsumer, ?> createNodeTreeCell() {
         return new ModelNodeTreeCell(this);
     }
+
+    @Nullable
+    @Override
+    protected Object getParentObject(@NotNull final Object object) {
+
+        if (object instanceof Spatial) {
+            return ((Spatial) object).getParent();
+        } else if (object instanceof AbstractControl) {
+            return ((AbstractControl) object).getSpatial();
+        }
+
+        final ModelChangeConsumer changeConsumer = getChangeConsumer();
+        if (changeConsumer == null) return null;
+
+        final Spatial model = changeConsumer.getCurrentModel();
+
+        if (object instanceof Light) {
+            return NodeUtils.findSpatial(model, spatial -> hasLight(spatial, (Light) object));
+        } else if (object instanceof Control) {
+            return NodeUtils.findSpatial(model, spatial -> hasControl(spatial, (Control) object));
+        }
+
+        return null;
+    }
+
+    /**
+     * Check of containing the light in the local light list of the spatial.
+     *
+     * @param spatial the spatial.
+     * @param light   the light.
+     * @return true if the spatial owns the light.
+     */
+    private static boolean hasLight(@NotNull final Spatial spatial, @NotNull final Light light) {
+
+        final LightList lightList = spatial.getLocalLightList();
+
+        for (int i = 0, length = lightList.size(); i < length; i++) {
+            if (lightList.get(i) == light) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Check of containing the control in the spatial.
+     *
+     * @param spatial the spatial.
+     * @param control the control.
+     * @return true if the spatial owns the control.
+     */
+    private static boolean hasControl(@NotNull final Spatial spatial, @NotNull final Control control) {
+
+        for (int i = 0, length = spatial.getNumControls(); i < length; i++) {
+            if (spatial.getControl(i) == control) return true;
+        }
+
+        return false;
+    }
 }
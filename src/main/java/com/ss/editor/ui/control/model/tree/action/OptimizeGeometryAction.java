@@ -1,17 +1,14 @@
 package com.ss.editor.ui.control.model.tree.action;
 
-import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.jme3.scene.Node;
 import com.ss.editor.Messages;
 import com.ss.editor.annotation.FXThread;
-import com.ss.editor.model.undo.editor.ChangeConsumer;
 import com.ss.editor.model.undo.editor.ModelChangeConsumer;
 import com.ss.editor.ui.Icons;
-import com.ss.editor.ui.control.model.tree.action.operation.OptimizeGeometryOperation;
+import com.ss.editor.ui.control.model.tree.action.job.OptimizeGeometryJob;
 import com.ss.editor.ui.control.tree.NodeTree;
 import com.ss.editor.ui.control.tree.node.TreeNode;
 import javafx.scene.image.Image;
-import jme3tools.optimize.GeometryBatchFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -51,12 +48,8 @@ public class OptimizeGeometryAction extends AbstractNodeAction<ModelChangeConsum
 
         final NodeTree<?> nodeTree = getNodeTree();
         final TreeNode<?> node = getNode();
-        final Node oldElement = (Node) node.getElement();
-        final Node newElement = (Node) oldElement.clone();
 
-        GeometryBatchFactory.optimize(newElement);
-
-        final ChangeConsumer changeConsumer = notNull(nodeTree.getChangeConsumer());
-        changeConsumer.execute(new OptimizeGeometryOperation(newElement, oldElement, oldElement.getParent()));
+        final OptimizeGeometryJob job = new OptimizeGeometryJob(nodeTree, (Node) node.getElement());
+        job.start();
     }
 }
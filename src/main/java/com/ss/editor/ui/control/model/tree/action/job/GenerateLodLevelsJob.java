@@ -0,0 +1,121 @@
+package com.ss.editor.ui.control.model.tree.action.job;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.ss.editor.Messages;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.model.undo.editor.ChangeConsumer;
+import com.ss.editor.ui.control.model.property.operation.ModelPropertyOperation;
+import com.ss.editor.ui.control.tree.NodeTree;
+import com.ss.rlib.util.array.Array;
+import jme3tools.optimize.LodGenerator;
+import jme3tools.optimize.LodGenerator.TriangleReductionMethod;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The job to generate LoD levels of a geometry.
+ * <p>
+ * The generator can't be interrupted, so the result of a cancelled job is just discarded.
+ *
+ * @author JavaSaBr
+ */
+public class GenerateLodLevelsJob extends MeshJob {
+
+    /**
+     * The geometry.
+     */
+    @NotNull
+    private final Geometry geometry;
+
+    /**
+     * The reduction method.
+     */
+    @NotNull
+    private final TriangleReductionMethod method;
+
+    /**
+     * The reduction values of levels.
+     */
+    @NotNull
+    private final float[] values;
+
+    /**
+     * The copy of the geometry.
+     */
+    @Nullable
+    private Geometry snapshot;
+
+    /**
+     * The previous LoD levels.
+     */
+    @Nullable
+    private VertexBuffer[] prevLodLevels;
+
+    /**
+     * The generated LoD levels.
+     */
+    @Nullable
+    private volatile VertexBuffer[] newLodLevels;
+
+    /**
+     * Instantiates a new Generate lod levels job.
+     *
+     * @param nodeTree the node tree
+     * @param geometry the geometry
+     * @param method   the reduction method
+     * @param values   the reduction values of levels
+     */
+    public GenerateLodLevelsJob(@NotNull final NodeTree<?> nodeTree, @NotNull final Geometry geometry,
+                                @NotNull final TriangleReductionMethod method, @NotNull final float[] values) {
+        super(nodeTree, Messages.GENERATE_LOD_DIALOG_TITLE);
+        this.geometry = geometry;
+        this.method = method;
+        this.values = values;
+    }
+
+    @BackgroundThread
+    @Override
+    protected void takeSnapshot() {
+
+        final Mesh mesh = geometry.getMesh();
+        final int currentLevels = mesh.getNumLodLevels();
+
+        final VertexBuffer[] prevLodLevels = new VertexBuffer[currentLevels];
+
+        for (int i = 0; i < currentLevels; i++) {
+            prevLodLevels[i] = mesh.getLodLevel(i);
+        }
+
+        this.prevLodLevels = prevLodLevels;
+        this.snapshot = new Geometry(geometry.getName(), mesh.deepClone());
+    }
+
+    @BackgroundThread
+    @Override
+    protected void createSteps(@NotNull final Array<Runnable> steps) {
+        steps.add(() -> {
+            final LodGenerator generator = new LodGenerator(notNull(snapshot));
+            newLodLevels = generator.computeLods(method, values);
+        });
+    }
+
+    @FXThread
+    @Override
+    protected void apply() {
+
+        final NodeTree<?> nodeTree = getNodeTree();
+        final ChangeConsumer consumer = notNull(nodeTree.getChangeConsumer());
+
+        final ModelPropertyOperation<Geometry, VertexBuffer[]> operation =
+                new ModelPropertyOperation<>(geometry, Messages.MODEL_PROPERTY_LOD, notNull(newLodLevels),
+                        notNull(prevLodLevels));
+
+        operation.setApplyHandler((geom, buffers) -> geom.getMesh().setLodLevels(buffers));
+
+        consumer.execute(operation);
+    }
+}
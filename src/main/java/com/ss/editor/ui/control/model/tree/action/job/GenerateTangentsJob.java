@@ -0,0 +1,101 @@
+package com.ss.editor.ui.control.model.tree.action.job;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.ss.editor.Messages;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.model.tool.TangentGenerator;
+import com.ss.editor.model.undo.editor.ChangeConsumer;
+import com.ss.editor.ui.control.model.tree.action.operation.ChangeMeshOperation;
+import com.ss.editor.ui.control.tree.NodeTree;
+import com.ss.rlib.util.array.Array;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The job to generate tangents of a geometry, the tangents are generated in a copy of the mesh which replaces the
+ * current mesh of the geometry.
+ *
+ * @author JavaSaBr
+ */
+public class GenerateTangentsJob extends MeshJob {
+
+    /**
+     * The geometry.
+     */
+    @NotNull
+    private final Geometry geometry;
+
+    /**
+     * True if need to use the Mikktspace algorithm.
+     */
+    private final boolean mikktspace;
+
+    /**
+     * True if need to split mirrored vertices.
+     */
+    private final boolean splitMirrored;
+
+    /**
+     * The copy of the geometry with a copy of its mesh.
+     */
+    @Nullable
+    private Geometry snapshot;
+
+    /**
+     * The current mesh of the geometry.
+     */
+    @Nullable
+    private Mesh oldMesh;
+
+    /**
+     * Instantiates a new Generate tangents job.
+     *
+     * @param nodeTree      the node tree
+     * @param geometry      the geometry
+     * @param mikktspace    true if need to use the Mikktspace algorithm
+     * @param splitMirrored true if need to split mirrored vertices
+     */
+    public GenerateTangentsJob(@NotNull final NodeTree<?> nodeTree, @NotNull final Geometry geometry,
+                               final boolean mikktspace, final boolean splitMirrored) {
+        super(nodeTree, Messages.GENERATE_TANGENTS_DIALOG_TITLE);
+        this.geometry = geometry;
+        this.mikktspace = mikktspace;
+        this.splitMirrored = splitMirrored;
+    }
+
+    @BackgroundThread
+    @Override
+    protected void takeSnapshot() {
+        oldMesh = geometry.getMesh();
+        snapshot = new Geometry(geometry.getName(), oldMesh.deepClone());
+    }
+
+    @BackgroundThread
+    @Override
+    protected void createSteps(@NotNull final Array<Runnable> steps) {
+        steps.add(() -> {
+
+            final Geometry snapshot = notNull(this.snapshot);
+
+            if (mikktspace) {
+                TangentGenerator.useMikktspaceGenerator(snapshot);
+            } else {
+                TangentGenerator.useStandardGenerator(snapshot, splitMirrored);
+            }
+        });
+    }
+
+    @FXThread
+    @Override
+    protected void apply() {
+
+        final Geometry snapshot = notNull(this.snapshot);
+
+        final NodeTree<?> nodeTree = getNodeTree();
+        final ChangeConsumer changeConsumer = notNull(nodeTree.getChangeConsumer());
+        changeConsumer.execute(new ChangeMeshOperation(snapshot.getMesh(), notNull(oldMesh), geometry));
+    }
+}
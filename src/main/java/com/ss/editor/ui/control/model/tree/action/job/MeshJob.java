@@ -0,0 +1,300 @@
+package com.ss.editor.ui.control.model.tree.action.job;
+
+import com.ss.editor.Editor;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.executor.TaskPriority;
+import com.ss.editor.manager.ExecutorManager;
+import com.ss.editor.ui.control.tree.NodeTree;
+import com.ss.editor.util.EditorUtil;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The base implementation of a job to process meshes of a model.
+ * <p>
+ * A job takes a copy of processed data under the render lock, splits the work to independent steps which are
+ * executed in parallel in the background, and applies the result in the FX thread as an editor operation. The
+ * progress of a job is shown in the {@link MeshJobDialog} which allows to cancel the job, a cancelled job doesn't
+ * change the model.
+ *
+ * @author JavaSaBr
+ */
+public abstract class MeshJob {
+
+    @NotNull
+    protected static final Logger LOGGER = LoggerManager.getLogger(MeshJob.class);
+
+    @NotNull
+    protected static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
+
+    @NotNull
+    private static final Editor EDITOR = Editor.getInstance();
+
+    /**
+     * The node tree component.
+     */
+    @NotNull
+    private final NodeTree<?> nodeTree;
+
+    /**
+     * The title of this job.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The flag of cancelling this job.
+     */
+    @NotNull
+    private final AtomicBoolean cancelled;
+
+    /**
+     * The count of completed steps.
+     */
+    @NotNull
+    private final AtomicInteger completed;
+
+    /**
+     * The dialog to show progress of this job.
+     */
+    @Nullable
+    private MeshJobDialog dialog;
+
+    /**
+     * The futures of submitted steps.
+     */
+    @Nullable
+    private volatile CompletableFuture<?>[] futures;
+
+    /**
+     * The count of steps of this job.
+     */
+    private volatile int total;
+
+    /**
+     * The last shown progress in percents.
+     */
+    private volatile int lastPercent;
+
+    /**
+     * Instantiates a new Mesh job.
+     *
+     * @param nodeTree the node tree
+     * @param title    the title
+     */
+    protected MeshJob(@NotNull final NodeTree<?> nodeTree, @NotNull final String title) {
+        this.nodeTree = nodeTree;
+        this.title = title;
+        this.cancelled = new AtomicBoolean();
+        this.completed = new AtomicInteger();
+        this.total = 1;
+        this.lastPercent = -1;
+    }
+
+    /**
+     * Gets node tree.
+     *
+     * @return the node tree component.
+     */
+    @NotNull
+    @FromAnyThread
+    protected NodeTree<?> getNodeTree() {
+        return nodeTree;
+    }
+
+    /**
+     * Gets title.
+     *
+     * @return the title of this job.
+     */
+    @NotNull
+    @FromAnyThread
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Is cancelled boolean.
+     *
+     * @return true if this job was cancelled.
+     */
+    @FromAnyThread
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Start this job.
+     */
+    @FXThread
+    public void start() {
+
+        final MeshJobDialog dialog = new MeshJobDialog(this);
+        dialog.show();
+
+        this.dialog = dialog;
+
+        EXECUTOR_MANAGER.addBackgroundTask(this::prepare, TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Cancel this job, the result of already running steps is discarded.
+     */
+    @FromAnyThread
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            cancelFutures();
+        }
+    }
+
+    /**
+     * Cancel all submitted steps which are not started yet.
+     */
+    @FromAnyThread
+    private void cancelFutures() {
+
+        final CompletableFuture<?>[] futures = this.futures;
+        if (futures == null) return;
+
+        for (final CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Take the snapshot and submit all steps of this job.
+     */
+    @BackgroundThread
+    private void prepare() {
+
+        final Array<Runnable> steps = ArrayFactory.newArray(Runnable.class);
+
+        try {
+
+            final long stamp = EDITOR.asyncLock();
+            try {
+                takeSnapshot();
+            } finally {
+                EDITOR.asyncUnlock(stamp);
+            }
+
+            createSteps(steps);
+
+        } catch (final Exception e) {
+            EXECUTOR_MANAGER.addFXTask(() -> finish(e));
+            return;
+        }
+
+        total = Math.max(steps.size(), 1);
+
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[steps.size()];
+
+        for (int i = 0; i < futures.length; i++) {
+            final Runnable step = steps.get(i);
+            futures[i] = EXECUTOR_MANAGER.submitBackgroundTask(() -> runStep(step), TaskPriority.BULK);
+        }
+
+        this.futures = futures;
+
+        // the job can be cancelled before the futures were published
+        if (isCancelled()) {
+            cancelFutures();
+        }
+
+        CompletableFuture.allOf(futures)
+                .whenComplete((result, error) -> EXECUTOR_MANAGER.addFXTask(() -> finish(error)));
+    }
+
+    /**
+     * Run the step of this job.
+     *
+     * @param step the step.
+     */
+    @BackgroundThread
+    private void runStep(@NotNull final Runnable step) {
+        if (isCancelled()) return;
+        step.run();
+        updateProgress(completed.incrementAndGet());
+    }
+
+    /**
+     * Update the shown progress of this job.
+     *
+     * @param completed the count of completed steps.
+     */
+    @BackgroundThread
+    private void updateProgress(final int completed) {
+
+        final int percent = completed * 100 / total;
+        if (percent == lastPercent) return;
+
+        lastPercent = percent;
+
+        EXECUTOR_MANAGER.addFXTask(() -> {
+            final MeshJobDialog dialog = this.dialog;
+            if (dialog != null) dialog.updateProgress(percent / 100D);
+        });
+    }
+
+    /**
+     * Finish this job.
+     *
+     * @param error the error of processing or null.
+     */
+    @FXThread
+    private void finish(@Nullable final Throwable error) {
+
+        final MeshJobDialog dialog = this.dialog;
+        if (dialog != null) dialog.finish();
+
+        Throwable cause = error;
+
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (isCancelled() || cause instanceof CancellationException) {
+            return;
+        } else if (cause instanceof Exception) {
+            EditorUtil.handleException(LOGGER, this, (Exception) cause);
+            return;
+        } else if (cause != null) {
+            EditorUtil.handleException(LOGGER, this, new RuntimeException(cause));
+            return;
+        }
+
+        apply();
+    }
+
+    /**
+     * Take the snapshot of processed data, this method is called under the render lock.
+     */
+    @BackgroundThread
+    protected abstract void takeSnapshot();
+
+    /**
+     * Create independent steps of processing the snapshot, the steps are executed in parallel.
+     *
+     * @param steps the container of steps.
+     */
+    @BackgroundThread
+    protected abstract void createSteps(@NotNull Array<Runnable> steps);
+
+    /**
+     * Apply the result of this job to the model.
+     */
+    @FXThread
+    protected abstract void apply();
+}
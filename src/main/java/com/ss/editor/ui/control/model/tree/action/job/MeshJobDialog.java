@@ -0,0 +1,119 @@
+package com.ss.editor.ui.control.model.tree.action.job;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.ss.editor.Messages;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.ui.dialog.AbstractSimpleEditorDialog;
+import com.ss.rlib.ui.util.FXUtils;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+
+/**
+ * The implementation of a dialog to show progress of a {@link MeshJob}, closing the dialog cancels the job.
+ *
+ * @author JavaSaBr
+ */
+public class MeshJobDialog extends AbstractSimpleEditorDialog {
+
+    @NotNull
+    private static final Point DIALOG_SIZE = new Point(400, -1);
+
+    /**
+     * The job.
+     */
+    @NotNull
+    private final MeshJob job;
+
+    /**
+     * The progress bar.
+     */
+    @Nullable
+    private ProgressBar progressBar;
+
+    /**
+     * True if the job was finished.
+     */
+    private boolean finished;
+
+    /**
+     * Instantiates a new Mesh job dialog.
+     *
+     * @param job the job
+     */
+    public MeshJobDialog(@NotNull final MeshJob job) {
+        this.job = job;
+        getDialog().setTitle(job.getTitle());
+    }
+
+    @Override
+    protected void createContent(@NotNull final VBox root) {
+        super.createContent(root);
+
+        progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progressBar.prefWidthProperty().bind(root.widthProperty());
+
+        FXUtils.addToPane(progressBar, root);
+    }
+
+    /**
+     * @return the progress bar.
+     */
+    @NotNull
+    private ProgressBar getProgressBar() {
+        return notNull(progressBar);
+    }
+
+    /**
+     * Update the progress of the job.
+     *
+     * @param progress the progress from 0 to 1.
+     */
+    @FXThread
+    public void updateProgress(final double progress) {
+        if (finished) return;
+        getProgressBar().setProgress(progress);
+    }
+
+    /**
+     * Close this dialog after finishing the job.
+     */
+    @FXThread
+    public void finish() {
+        if (finished) return;
+        finished = true;
+        hide();
+    }
+
+    @FXThread
+    @Override
+    public void hide() {
+
+        if (!finished) {
+            finished = true;
+            job.cancel();
+        }
+
+        super.hide();
+    }
+
+    @Override
+    protected boolean needOkButton() {
+        return false;
+    }
+
+    @NotNull
+    @Override
+    protected String getButtonCloseText() {
+        return Messages.SIMPLE_DIALOG_BUTTON_CANCEL;
+    }
+
+    @NotNull
+    @Override
+    protected Point getSize() {
+        return DIALOG_SIZE;
+    }
+}
@@ -0,0 +1,177 @@
+package com.ss.editor.ui.control.model.tree.action.job;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.jme3.material.Material;
+import com.jme3.math.Transform;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import com.ss.editor.Messages;
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.model.undo.editor.ChangeConsumer;
+import com.ss.editor.ui.control.model.tree.action.operation.OptimizeGeometryOperation;
+import com.ss.editor.ui.control.tree.NodeTree;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import jme3tools.optimize.GeometryBatchFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The job to optimize a node by merging its geometries with the same material, geometries of each material are
+ * merged in parallel.
+ *
+ * @author JavaSaBr
+ */
+public class OptimizeGeometryJob extends MeshJob {
+
+    /**
+     * The optimized node.
+     */
+    @NotNull
+    private final Node node;
+
+    /**
+     * The list of materials of merged groups.
+     */
+    @NotNull
+    private final Array<Material> materials;
+
+    /**
+     * The list of merged groups of geometries.
+     */
+    @NotNull
+    private final Array<List<Geometry>> groups;
+
+    /**
+     * The merged geometries by the indexes of the groups.
+     */
+    @Nullable
+    private volatile Geometry[] batches;
+
+    /**
+     * The copy of the optimized node.
+     */
+    @Nullable
+    private Node snapshot;
+
+    /**
+     * Instantiates a new Optimize geometry job.
+     *
+     * @param nodeTree the node tree
+     * @param node     the node
+     */
+    public OptimizeGeometryJob(@NotNull final NodeTree<?> nodeTree, @NotNull final Node node) {
+        super(nodeTree, Messages.MODEL_NODE_TREE_ACTION_OPTIMIZE_GEOMETRY);
+        this.node = node;
+        this.materials = ArrayFactory.newArray(Material.class);
+        this.groups = ArrayFactory.newArray(List.class);
+    }
+
+    @BackgroundThread
+    @Override
+    protected void takeSnapshot() {
+        snapshot = (Node) node.deepClone();
+    }
+
+    @BackgroundThread
+    @Override
+    protected void createSteps(@NotNull final Array<Runnable> steps) {
+
+        final Node snapshot = notNull(this.snapshot);
+
+        // the world matrices are computed once here, so merging doesn't change the shared state of the snapshot
+        snapshot.updateGeometricState();
+
+        final List<Geometry> geometries = new ArrayList<>();
+        GeometryBatchFactory.gatherGeoms(snapshot, geometries);
+
+        for (final Geometry geometry : geometries) {
+            getGroup(geometry.getMaterial()).add(geometry);
+        }
+
+        batches = new Geometry[groups.size()];
+
+        for (int i = 0; i < groups.size(); i++) {
+            final int index = i;
+            steps.add(() -> merge(index));
+        }
+    }
+
+    /**
+     * Get or create the group of geometries for the material.
+     *
+     * @param material the material.
+     * @return the group.
+     */
+    @NotNull
+    @BackgroundThread
+    private List<Geometry> getGroup(@NotNull final Material material) {
+
+        int index = materials.indexOf(material);
+
+        if (index < 0) {
+            for (int i = 0; i < materials.size(); i++) {
+                if (material.contentEquals(materials.get(i))) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+
+        if (index < 0) {
+            materials.add(material);
+            groups.add(new ArrayList<>());
+            index = groups.size() - 1;
+        }
+
+        return groups.get(index);
+    }
+
+    /**
+     * Merge the group of geometries.
+     *
+     * @param index the index of the group.
+     */
+    @BackgroundThread
+    private void merge(final int index) {
+
+        final Mesh mesh = new Mesh();
+
+        GeometryBatchFactory.mergeGeometries(groups.get(index), mesh);
+
+        mesh.updateCounts();
+
+        final Geometry batch = new Geometry("batch[" + index + "]", mesh);
+        batch.setMaterial(materials.get(index));
+        batch.updateModelBound();
+
+        notNull(batches)[index] = batch;
+    }
+
+    @FXThread
+    @Override
+    protected void apply() {
+
+        final Node snapshot = notNull(this.snapshot);
+
+        for (final Geometry batch : notNull(batches)) {
+            snapshot.attachChild(batch);
+        }
+
+        for (final List<Geometry> group : groups) {
+            group.forEach(Geometry::removeFromParent);
+        }
+
+        // since the node is returned unaltered the transform must be reset
+        snapshot.setLocalTransform(Transform.IDENTITY);
+
+        final NodeTree<?> nodeTree = getNodeTree();
+        final ChangeConsumer changeConsumer = notNull(nodeTree.getChangeConsumer());
+        changeConsumer.execute(new OptimizeGeometryOperation(snapshot, node, node.getParent()));
+    }
+}
@@ -3,11 +3,8 @@ package com.ss.editor.ui.control.model.tree.dialog;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import static javafx.collections.FXCollections.observableArrayList;
 import com.jme3.scene.Geometry;
-import com.jme3.scene.Mesh;
 import com.ss.editor.Messages;
-import com.ss.editor.model.tool.TangentGenerator;
-import com.ss.editor.model.undo.editor.ChangeConsumer;
-import com.ss.editor.ui.control.model.tree.action.operation.ChangeMeshOperation;
+import com.ss.editor.ui.control.model.tree.action.job.GenerateTangentsJob;
 import com.ss.editor.ui.control.tree.NodeTree;
 import com.ss.editor.ui.control.tree.node.TreeNode;
 import com.ss.editor.ui.css.CSSClasses;
@@ -174,23 +171,16 @@ public class GenerateTangentsDialog extends AbstractSimpleEditorDialog {
 
         final TreeNode<?> node = getNode();
         final Geometry geometry = (Geometry) node.getElement();
-        final Mesh newMesh = geometry.getMesh();
-        final Mesh oldMesh = newMesh.deepClone();
 
         final ComboBox<AlgorithmType> algorithmTypeComboBox = getAlgorithmTypeComboBox();
         final AlgorithmType algorithmType = algorithmTypeComboBox.getSelectionModel().getSelectedItem();
-
-        if (algorithmType == AlgorithmType.STANDARD) {
-            final CheckBox splitMirroredCheckBox = getSplitMirroredCheckBox();
-            TangentGenerator.useStandardGenerator(geometry, splitMirroredCheckBox.isSelected());
-        } else {
-            TangentGenerator.useMikktspaceGenerator(geometry);
-        }
-
-        final ChangeConsumer changeConsumer = notNull(nodeTree.getChangeConsumer());
-        changeConsumer.execute(new ChangeMeshOperation(newMesh, oldMesh, geometry));
+        final CheckBox splitMirroredCheckBox = getSplitMirroredCheckBox();
 
         super.processOk();
+
+        final GenerateTangentsJob job = new GenerateTangentsJob(nodeTree, geometry,
+                algorithmType == AlgorithmType.MIKKTSPACE, splitMirroredCheckBox.isSelected());
+        job.start();
     }
 
     @NotNull
@@ -5,18 +5,14 @@ import static com.ss.rlib.util.ObjectUtils.notNull;
 import static javafx.collections.FXCollections.observableArrayList;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
-import com.jme3.scene.VertexBuffer;
 import com.ss.editor.Messages;
-import com.ss.editor.manager.ExecutorManager;
-import com.ss.editor.model.undo.editor.ChangeConsumer;
 import com.ss.editor.ui.FXConstants;
 import com.ss.editor.ui.Icons;
-import com.ss.editor.ui.control.model.property.operation.ModelPropertyOperation;
+import com.ss.editor.ui.control.model.tree.action.job.GenerateLodLevelsJob;
 import com.ss.editor.ui.control.tree.NodeTree;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.editor.ui.dialog.AbstractSimpleEditorDialog;
 import com.ss.editor.ui.util.DynamicIconSupport;
-import com.ss.editor.util.EditorUtil;
 import com.ss.rlib.ui.util.FXUtils;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -27,7 +23,6 @@ import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import jme3tools.optimize.LodGenerator;
 import jme3tools.optimize.LodGenerator.TriangleReductionMethod;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -47,10 +42,6 @@ public class GenerateLodLevelsDialog extends AbstractSimpleEditorDialog {
     @NotNull
     private static final Point DIALOG_SIZE = new Point(360, -1);
 
-
-    @NotNull
-    private static final ExecutorManager EXECUTOR_MANAGER = ExecutorManager.getInstance();
-
     /**
      * The enum Reduction method.
      */
@@ -285,25 +276,6 @@ public class GenerateLodLevelsDialog extends AbstractSimpleEditorDialog {
 
     @Override
     protected void processOk() {
-        EditorUtil.incrementLoading();
-        EXECUTOR_MANAGER.addBackgroundTask(this::processGenerate);
-        super.processOk();
-    }
-
-    /**
-     * Process of generating.
-     */
-    private void processGenerate() {
-
-        final Geometry geometry = getGeometry();
-        final Mesh mesh = getMesh();
-        final int currentLevels = mesh.getNumLodLevels();
-
-        final VertexBuffer[] prevLodLevels = new VertexBuffer[currentLevels];
-
-        for (int i = 0; i < currentLevels; i++) {
-            prevLodLevels[i] = mesh.getLodLevel(i);
-        }
 
         final ReductionMethod method = getMethod();
         final TriangleReductionMethod resultMethod =
@@ -318,23 +290,10 @@ public class GenerateLodLevelsDialog extends AbstractSimpleEditorDialog {
             values[i] = items.get(i).floatValue();
         }
 
-        final LodGenerator generator = new LodGenerator(geometry);
-        final VertexBuffer[] newLodLevels = generator.computeLods(resultMethod, values);
-
-        EXECUTOR_MANAGER.addFXTask(() -> {
-
-            final NodeTree<?> nodeTree = getNodeTree();
-            final ChangeConsumer consumer = notNull(nodeTree.getChangeConsumer());
-
-            final ModelPropertyOperation<Geometry, VertexBuffer[]> operation =
-                    new ModelPropertyOperation<>(geometry, Messages.MODEL_PROPERTY_LOD, newLodLevels, prevLodLevels);
-
-            operation.setApplyHandler((geom, buffers) -> geom.getMesh().setLodLevels(buffers));
-
-            consumer.execute(operation);
+        super.processOk();
 
-            EditorUtil.decrementLoading();
-        });
+        final GenerateLodLevelsJob job = new GenerateLodLevelsJob(getNodeTree(), getGeometry(), resultMethod, values);
+        job.start();
     }
 
     @NotNull
@@ -213,6 +213,7 @@ public abstract class AbstractTexture2DPropertyControl<C extends ChangeConsumer,
         final ImageView preview = getTexturePreview();
 
         if (key == null) {
+            IMAGE_MANAGER.cancelImagePreview(preview);
             preview.setImage(null);
             textureTooltip.clean();
         } else {
@@ -220,10 +221,10 @@ public abstract class AbstractTexture2DPropertyControl<C extends ChangeConsumer,
             final Path realFile = notNull(getRealFile(key.getName()));
 
             if (Files.exists(realFile)) {
-                preview.setImage(IMAGE_MANAGER.getImagePreview(realFile, 24, 24));
+                IMAGE_MANAGER.loadImagePreview(preview, realFile, 24, 24);
                 textureTooltip.showImage(realFile);
             } else {
-                preview.setImage(IMAGE_MANAGER.getImagePreview(key.getName(), 24, 24));
+                IMAGE_MANAGER.loadImagePreview(preview, key.getName(), 24, 24);
                 textureTooltip.showImage(key.getName());
             }
         }
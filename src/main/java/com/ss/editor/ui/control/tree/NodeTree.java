@@ -1,6 +1,5 @@
 package com.ss.editor.ui.control.tree;
 
-import static com.ss.editor.ui.util.UIUtils.findItemForValue;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.ss.editor.annotation.FXThread;
 import com.ss.editor.manager.ExecutorManager;
@@ -10,16 +9,27 @@ import com.ss.editor.ui.control.tree.node.TreeNodeFactoryRegistry;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.rlib.ui.util.FXUtils;
 import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.dictionary.DictionaryFactory;
+import com.ss.rlib.util.dictionary.LongDictionary;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
- * The implementation of {@link TreeView} to present some structure.
+ * The implementation of {@link TreeView} to present some structure. Children of tree items are materialized only
+ * when they are requested by the tree, materialized items are indexed by their objects and all notifications about
+ * changes of the structure which are received during one frame are applied together.
  *
  * @param <C> the type parameter
  * @author JavaSaBr
@@ -53,6 +63,42 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @Nullable
     private TreeView<TreeNode<?>> treeView;
 
+    /**
+     * The index of materialized tree items by their objects.
+     */
+    @NotNull
+    private final IdentityHashMap<Object, TreeItem<TreeNode<?>>> itemIndex;
+
+    /**
+     * The index of materialized tree items by object ids of their tree nodes.
+     */
+    @NotNull
+    private final LongDictionary<TreeItem<TreeNode<?>>> idIndex;
+
+    /**
+     * The list of changes of the tree which are waiting to apply.
+     */
+    @NotNull
+    private final Array<Runnable> pendingChanges;
+
+    /**
+     * The changed lists of children of the current batch of changes.
+     */
+    @NotNull
+    private final ObjectDictionary<TreeItem<TreeNode<?>>, List<TreeItem<TreeNode<?>>>> stagedChildren;
+
+    /**
+     * The new parents of items of the current batch of changes.
+     */
+    @NotNull
+    private final ObjectDictionary<TreeItem<TreeNode<?>>, TreeItem<TreeNode<?>>> stagedParents;
+
+    /**
+     * The item to select after applying the current batch of changes.
+     */
+    @Nullable
+    private TreeItem<TreeNode<?>> toSelect;
+
     /**
      * Instantiates a new Abstract node tree.
      *
@@ -62,6 +108,11 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     public NodeTree(@NotNull final Consumer<Object> selectionHandler, @Nullable final C consumer) {
         this.selectionHandler = selectionHandler;
         this.changeConsumer = consumer;
+        this.itemIndex = new IdentityHashMap<>();
+        this.idIndex = DictionaryFactory.newLongDictionary();
+        this.pendingChanges = ArrayFactory.newArray(Runnable.class);
+        this.stagedChildren = DictionaryFactory.newObjectDictionary();
+        this.stagedParents = DictionaryFactory.newObjectDictionary();
         createComponents();
         FXUtils.addClassTo(this, CSSClasses.ABSTRACT_NODE_TREE_CONTAINER);
     }
@@ -133,58 +184,348 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
             treeView.setRoot(null);
         }
 
+        pendingChanges.clear();
+        stagedChildren.clear();
+        stagedParents.clear();
+        itemIndex.clear();
+        idIndex.clear();
+
         final TreeNode<?> rootElement = FACTORY_REGISTRY.createFor(object);
-        final TreeItem<TreeNode<?>> newRoot = new TreeItem<>(rootElement);
+        final TreeItem<TreeNode<?>> newRoot = createItem(rootElement);
         newRoot.setExpanded(true);
 
-        fill(newRoot, false, 1);
-
         treeView.setRoot(newRoot);
     }
 
     /**
-     * Fill the item.
+     * Create a new tree item for the node and register it in the index of items, the children of the item are
+     * materialized only when they are requested first time.
+     *
+     * @param treeNode the tree node.
+     * @return the new tree item.
      */
+    @NotNull
     @FXThread
-    private void fill(@NotNull final TreeItem<TreeNode<?>> treeItem, final boolean expanded, final int level) {
-        treeItem.setExpanded(expanded || level == 1);
+    protected TreeItem<TreeNode<?>> createItem(@NotNull final TreeNode<?> treeNode) {
+        final NodeTreeItem treeItem = new NodeTreeItem(treeNode);
+        itemIndex.put(treeNode.getElement(), treeItem);
+        idIndex.put(treeNode.getObjectId(), treeItem);
+        return treeItem;
+    }
 
-        final TreeNode<?> element = treeItem.getValue();
-        if (!element.hasChildren(this)) return;
+    /**
+     * Load children of the item from the model.
+     */
+    @FXThread
+    private void loadChildren(@NotNull final TreeItem<TreeNode<?>> treeItem,
+                              @NotNull final ObservableList<TreeItem<TreeNode<?>>> items) {
 
-        final ObservableList<TreeItem<TreeNode<?>>> items = treeItem.getChildren();
+        final TreeNode<?> element = treeItem.getValue();
+        if (element == null || !element.hasChildren(this)) return;
 
         final Array<TreeNode<?>> children = element.getChildren(this);
-        children.forEach(child -> {
-            element.notifyChildPreAdd(child);
-            items.add(new TreeItem<>(child));
-            element.notifyChildAdded(child);
+        final Array<TreeItem<TreeNode<?>>> newItems = ArrayFactory.newArray(TreeItem.class, children.size());
+
+        children.forEach(element::notifyChildPreAdd);
+        children.forEach(child -> newItems.add(createItem(child)));
+
+        items.addAll(newItems);
+
+        children.forEach(element::notifyChildAdded);
+    }
+
+    /**
+     * Remove the item and all its materialized children from the index of items.
+     *
+     * @param treeItem the tree item.
+     */
+    @FXThread
+    protected void unregister(@NotNull final TreeItem<TreeNode<?>> treeItem) {
+
+        final TreeNode<?> treeNode = treeItem.getValue();
+
+        if (treeNode != null && itemIndex.get(treeNode.getElement()) == treeItem) {
+            itemIndex.remove(treeNode.getElement());
+        }
+
+        if (treeNode != null && idIndex.get(treeNode.getObjectId()) == treeItem) {
+            idIndex.remove(treeNode.getObjectId());
+        }
+
+        stagedParents.remove(treeItem);
+
+        if (!isLoaded(treeItem)) return;
+
+        final List<TreeItem<TreeNode<?>>> staged = stagedChildren.remove(treeItem);
+
+        if (staged != null) {
+            staged.forEach(this::unregister);
+        } else {
+            treeItem.getChildren().forEach(this::unregister);
+        }
+    }
+
+    /**
+     * Expand the item.
+     */
+    @FXThread
+    private void expand(@NotNull final TreeItem<TreeNode<?>> treeItem, final boolean deep) {
+        treeItem.setExpanded(true);
+        if (!deep || treeItem.isLeaf()) return;
+        treeItem.getChildren().forEach(child -> expand(child, true));
+    }
+
+    /**
+     * Check of materializing children of the item.
+     *
+     * @param treeItem the tree item.
+     * @return true if children of the item are already materialized.
+     */
+    @FXThread
+    protected boolean isLoaded(@NotNull final TreeItem<TreeNode<?>> treeItem) {
+        return !(treeItem instanceof NodeTreeItem) || ((NodeTreeItem) treeItem).isLoaded();
+    }
+
+    /**
+     * Find a materialized tree item of the object.
+     *
+     * @param object the object or a tree node of the object.
+     * @return the tree item or null.
+     */
+    @Nullable
+    @FXThread
+    public TreeItem<TreeNode<?>> findItem(@Nullable final Object object) {
+        if (object == null) return null;
+        flushChanges();
+        return getItem(object);
+    }
+
+    /**
+     * Find a materialized tree item by the object id of its tree node.
+     *
+     * @param objectId the object id.
+     * @return the tree item or null.
+     */
+    @Nullable
+    @FXThread
+    public TreeItem<TreeNode<?>> findItem(final long objectId) {
+        flushChanges();
+        return idIndex.get(objectId);
+    }
+
+    /**
+     * Get a materialized tree item of the object without applying pending changes.
+     *
+     * @param object the object or a tree node of the object.
+     * @return the tree item or null.
+     */
+    @Nullable
+    @FXThread
+    protected TreeItem<TreeNode<?>> getItem(@Nullable final Object object) {
+        if (object == null) return null;
+        final Object element = object instanceof TreeNode ? ((TreeNode<?>) object).getElement() : object;
+        return itemIndex.get(element);
+    }
+
+    /**
+     * Get a parent of the item considering changes which are not applied yet.
+     *
+     * @param treeItem the tree item.
+     * @return the parent item or null.
+     */
+    @Nullable
+    @FXThread
+    protected TreeItem<TreeNode<?>> getParentItem(@NotNull final TreeItem<TreeNode<?>> treeItem) {
+        final TreeItem<TreeNode<?>> parentItem = stagedParents.get(treeItem);
+        return parentItem != null ? parentItem : treeItem.getParent();
+    }
+
+    /**
+     * Get a list of children of the item which are changed by the current batch of changes.
+     */
+    @NotNull
+    @FXThread
+    private List<TreeItem<TreeNode<?>>> getStagedChildren(@NotNull final TreeItem<TreeNode<?>> parentItem) {
+
+        List<TreeItem<TreeNode<?>>> staged = stagedChildren.get(parentItem);
+
+        if (staged == null) {
+            staged = new ArrayList<>(parentItem.getChildren());
+            stagedChildren.put(parentItem, staged);
+        }
+
+        return staged;
+    }
+
+    /**
+     * Add the item to children of the parent item in the current batch of changes.
+     *
+     * @param parentItem the parent item.
+     * @param treeItem   the added item.
+     * @param index      the index or -1 to add to the end.
+     */
+    @FXThread
+    protected void addItem(@NotNull final TreeItem<TreeNode<?>> parentItem,
+                           @NotNull final TreeItem<TreeNode<?>> treeItem, final int index) {
+
+        final List<TreeItem<TreeNode<?>>> staged = getStagedChildren(parentItem);
+        final TreeNode<?> parent = parentItem.getValue();
+        final TreeNode<?> child = treeItem.getValue();
+
+        parent.notifyChildPreAdd(child);
+
+        if (index < 0 || index >= staged.size()) {
+            staged.add(treeItem);
+        } else {
+            staged.add(index, treeItem);
+        }
+
+        stagedParents.put(treeItem, parentItem);
+        parent.notifyChildAdded(child);
+    }
+
+    /**
+     * Remove the item from children of its parent in the current batch of changes.
+     *
+     * @param treeItem the removed item.
+     * @return the index of the removed item or -1.
+     */
+    @FXThread
+    protected int removeItem(@NotNull final TreeItem<TreeNode<?>> treeItem) {
+
+        final TreeItem<TreeNode<?>> parentItem = getParentItem(treeItem);
+        if (parentItem == null) return -1;
+
+        final List<TreeItem<TreeNode<?>>> staged = getStagedChildren(parentItem);
+        final TreeNode<?> parent = parentItem.getValue();
+        final TreeNode<?> child = treeItem.getValue();
+
+        final int index = staged.indexOf(treeItem);
+        if (index < 0) return -1;
+
+        parent.notifyChildPreRemove(child);
+        staged.remove(index);
+        stagedParents.remove(treeItem);
+        parent.notifyChildRemoved(child);
+
+        return index;
+    }
+
+    /**
+     * Add the change of the tree to apply it with other changes of this frame.
+     *
+     * @param change the change.
+     */
+    @FXThread
+    protected void addPendingChange(@NotNull final Runnable change) {
+        if (pendingChanges.isEmpty()) {
+            EXECUTOR_MANAGER.addFXTask(this::flushChanges);
+        }
+        pendingChanges.add(change);
+    }
+
+    /**
+     * Apply all pending changes to the tree as one mutation of each changed list of children.
+     */
+    @FXThread
+    protected void flushChanges() {
+        if (pendingChanges.isEmpty()) return;
+
+        final Array<Runnable> changes = ArrayFactory.newArray(Runnable.class, pendingChanges.size());
+        changes.addAll(pendingChanges);
+        pendingChanges.clear();
+
+        final MultipleSelectionModel<TreeItem<TreeNode<?>>> selectionModel = getTreeView().getSelectionModel();
+        final TreeItem<TreeNode<?>> selectedItem = selectionModel.getSelectedItem();
+
+        toSelect = null;
+
+        try {
+            changes.forEach(Runnable::run);
+        } finally {
+            applyStagedChildren();
+        }
+
+        final TreeItem<TreeNode<?>> newSelected = toSelect;
+        toSelect = null;
+
+        if (newSelected != null) {
+            selectionModel.select(newSelected);
+        } else if (selectedItem != null && selectionModel.getSelectedItem() != selectedItem) {
+            final TreeNode<?> selected = selectedItem.getValue();
+            if (selected != null && getItem(selected) == selectedItem) selectionModel.select(selectedItem);
+        }
+    }
+
+    /**
+     * Apply the staged lists of children, firstly all removals to detach moved items from their old parents and then
+     * all additions.
+     */
+    @FXThread
+    private void applyStagedChildren() {
+        if (stagedChildren.isEmpty()) return;
+
+        stagedChildren.forEach((parentItem, staged) -> {
+
+            final Set<TreeItem<TreeNode<?>>> newChildren = new HashSet<>(staged);
+
+            final ObservableList<TreeItem<TreeNode<?>>> children = parentItem.getChildren();
+            final Set<TreeItem<TreeNode<?>>> toRemove = new HashSet<>();
+
+            for (final TreeItem<TreeNode<?>> child : children) {
+                if (!newChildren.contains(child)) toRemove.add(child);
+            }
+
+            if (!toRemove.isEmpty()) children.removeAll(toRemove);
+        });
+
+        stagedChildren.forEach((parentItem, staged) -> {
+
+            final ObservableList<TreeItem<TreeNode<?>>> children = parentItem.getChildren();
+            final int size = children.size();
+
+            boolean prefix = size <= staged.size();
+
+            for (int i = 0; prefix && i < size; i++) {
+                prefix = children.get(i) == staged.get(i);
+            }
+
+            if (!prefix) {
+                children.setAll(staged);
+            } else if (size < staged.size()) {
+                children.addAll(staged.subList(size, staged.size()));
+            }
+
+            if (children.isEmpty() && parentItem.isExpanded()) {
+                parentItem.setExpanded(false);
+            }
         });
 
-        items.forEach(item -> fill(item, expanded, level == -1 ? -1 : level + 1));
+        stagedChildren.clear();
+        stagedParents.clear();
     }
 
     /**
-     * Fill the node.
+     * Reload children of the node from the model.
      *
      * @param treeNode the model node
      */
     @FXThread
     public void refresh(@NotNull final TreeNode<?> treeNode) {
 
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(getTreeView(), treeNode);
-        if (treeItem == null) return;
+        final TreeItem<TreeNode<?>> treeItem = findItem(treeNode);
+        if (treeItem == null || !isLoaded(treeItem)) return;
 
         final ObservableList<TreeItem<TreeNode<?>>> items = treeItem.getChildren();
+        items.forEach(this::unregister);
         items.clear();
 
-        final TreeNode<?> element = treeItem.getValue();
-        if (!element.hasChildren(this)) return;
-
-        final Array<TreeNode<?>> children = element.getChildren(this);
-        children.forEach(child -> items.add(new TreeItem<>(child)));
-
-        items.forEach(modelNodeTreeItem -> fill(modelNodeTreeItem, true, -1));
+        if (treeItem instanceof NodeTreeItem) {
+            ((NodeTreeItem) treeItem).setLoaded(false);
+            if (treeItem.isExpanded()) treeItem.getChildren();
+        } else {
+            loadChildren(treeItem, items);
+        }
     }
 
     /**
@@ -195,7 +536,7 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @FXThread
     public void update(@NotNull final TreeNode<?> treeNode) {
 
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(getTreeView(), treeNode);
+        final TreeItem<TreeNode<?>> treeItem = findItem(treeNode);
         if (treeItem == null) return;
 
         treeItem.setValue(null);
@@ -233,8 +574,8 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @FXThread
     public void notifyMoved(@NotNull final Object prevParent, @NotNull final Object newParent,
                             @NotNull final Object node, final int index) {
-        notifyMoved(FACTORY_REGISTRY.createFor(prevParent), FACTORY_REGISTRY.createFor(newParent),
-                FACTORY_REGISTRY.createFor(node), index);
+        addPendingChange(() -> notifyMoved(FACTORY_REGISTRY.createFor(prevParent),
+                FACTORY_REGISTRY.createFor(newParent), FACTORY_REGISTRY.createFor(node), index));
     }
 
     /**
@@ -243,32 +584,28 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @FXThread
     private void notifyMoved(@Nullable final TreeNode<?> prevParent, @Nullable final TreeNode<?> newParent,
                              @Nullable final TreeNode<?> node, final int index) {
+        if (node == null) return;
 
-        final TreeView<TreeNode<?>> treeView = getTreeView();
-        final TreeItem<TreeNode<?>> prevParentItem = findItemForValue(treeView, prevParent);
-        final TreeItem<TreeNode<?>> newParentItem = findItemForValue(treeView, newParent);
-        final TreeItem<TreeNode<?>> nodeItem = findItemForValue(treeView, node);
+        final TreeItem<TreeNode<?>> newParentItem = getItem(newParent);
+        final TreeItem<TreeNode<?>> nodeItem = getItem(node);
 
-        if (prevParentItem == null || newParentItem == null || nodeItem == null) {
+        if (nodeItem != null && getItem(prevParent) == getParentItem(nodeItem)) {
+            removeItem(nodeItem);
+        } else if (nodeItem != null) {
             return;
         }
 
-        final TreeNode<?> prevParenTreeNode = prevParentItem.getValue();
-        prevParenTreeNode.notifyChildPreRemove(node);
-        prevParentItem.getChildren().remove(nodeItem);
-        prevParenTreeNode.notifyChildRemoved(node);
-
-        final TreeNode<?> newParentTreeNode = newParentItem.getValue();
-        newParentTreeNode.notifyChildAdded(node);
-
-        if (index >= 0) {
-            newParentItem.getChildren().add(index, nodeItem);
+        if (newParentItem == null) {
+            if (nodeItem != null) unregister(nodeItem);
+            return;
+        } else if (nodeItem == null || !isLoaded(newParentItem)) {
+            if (nodeItem != null) unregister(nodeItem);
+            newParentItem.setExpanded(true);
+            addNewItem(newParentItem, node, index);
         } else {
-            newParentItem.getChildren().add(nodeItem);
+            addItem(newParentItem, nodeItem, index);
         }
 
-        newParentTreeNode.notifyChildAdded(node);
-
         EXECUTOR_MANAGER.addFXTask(() -> select(node.getElement()));
     }
 
@@ -280,7 +617,7 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
      */
     @FXThread
     public void notifyChanged(@Nullable Object parent, @NotNull final Object object) {
-        notifyChanged(FACTORY_REGISTRY.createFor(object));
+        addPendingChange(() -> notifyChanged(FACTORY_REGISTRY.createFor(object)));
     }
 
     /**
@@ -290,11 +627,10 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     private void notifyChanged(@Nullable final TreeNode<?> treeNode) {
         if (treeNode == null) return;
 
-        final TreeView<TreeNode<?>> treeView = getTreeView();
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(treeView, treeNode);
+        final TreeItem<TreeNode<?>> treeItem = getItem(treeNode);
         if (treeItem == null) return;
 
-        final TreeItem<TreeNode<?>> parentItem = treeItem.getParent();
+        final TreeItem<TreeNode<?>> parentItem = getParentItem(treeItem);
         if (parentItem == null) {
             treeItem.setValue(null);
             treeItem.setValue(treeNode);
@@ -328,49 +664,58 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @FXThread
     public void notifyReplace(@Nullable final Object parent, @Nullable final Object oldChild,
                               @Nullable final Object newChild, final boolean needExpand, final boolean needDeepExpand) {
+        addPendingChange(() -> replace(parent, oldChild, newChild, needExpand, needDeepExpand));
+    }
 
-        final TreeView<TreeNode<?>> treeView = getTreeView();
-        final TreeItem<TreeNode<?>> parentItem = findItemForValue(treeView, parent);
+    /**
+     * Replace the element.
+     */
+    @FXThread
+    private void replace(@Nullable final Object parent, @Nullable final Object oldChild,
+                         @Nullable final Object newChild, final boolean needExpand, final boolean needDeepExpand) {
+
+        final TreeItem<TreeNode<?>> parentItem = getItem(parent);
 
         if (parentItem == null) {
             if (newChild == null) return;
-            final TreeItem<TreeNode<?>> childItem = new TreeItem<>(FACTORY_REGISTRY.createFor(newChild));
-            fill(childItem, needDeepExpand, -1);
+
+            final TreeView<TreeNode<?>> treeView = getTreeView();
+            final TreeItem<TreeNode<?>> currentRoot = treeView.getRoot();
+
+            if (currentRoot != null) {
+                unregister(currentRoot);
+            }
+
+            final TreeItem<TreeNode<?>> childItem = createItem(FACTORY_REGISTRY.createFor(newChild));
+            if (needDeepExpand) expand(childItem, true);
             childItem.setExpanded(needExpand);
             treeView.setRoot(childItem);
             return;
         }
 
-        int index = 0;
+        if (!isLoaded(parentItem)) return;
 
-        final TreeNode<?> parentNode = parentItem.getValue();
-        final MultipleSelectionModel<TreeItem<TreeNode<?>>> selectionModel = treeView.getSelectionModel();
-        final ObservableList<TreeItem<TreeNode<?>>> children = parentItem.getChildren();
-        final TreeItem<TreeNode<?>> oldChildItem = oldChild == null ? null : findItemForValue(treeView, oldChild);
-        final TreeItem<TreeNode<?>> selectedItem = selectionModel.getSelectedItem();
+        final TreeItem<TreeNode<?>> selectedItem = getTreeView().getSelectionModel().getSelectedItem();
+        final TreeItem<TreeNode<?>> oldChildItem = getItem(oldChild);
 
-        final boolean needSelect = selectedItem == oldChildItem;
+        int index = 0;
+        boolean needSelect = false;
 
-        if (oldChildItem != null) {
-            final TreeNode<?> oldChildNode = oldChildItem.getValue();
-            parentNode.notifyChildPreRemove(oldChildNode);
-            index = children.indexOf(oldChildItem);
-            children.remove(oldChildItem);
-            parentNode.notifyChildRemoved(oldChildNode);
+        if (oldChildItem != null && getParentItem(oldChildItem) == parentItem) {
+            needSelect = selectedItem == oldChildItem || toSelect == oldChildItem;
+            index = removeItem(oldChildItem);
+            unregister(oldChildItem);
         }
 
         if (newChild == null) return;
 
-        final TreeItem<TreeNode<?>> childItem = new TreeItem<>(FACTORY_REGISTRY.createFor(newChild));
-        final TreeNode<?> newChildNode = childItem.getValue();
-        fill(childItem, needExpand, -1);
+        final TreeItem<TreeNode<?>> childItem = createItem(FACTORY_REGISTRY.createFor(newChild));
+        if (needDeepExpand) expand(childItem, true);
         childItem.setExpanded(needExpand);
 
-        parentNode.notifyChildPreAdd(newChildNode);
-        children.add(index, childItem);
-        parentNode.notifyChildAdded(newChildNode);
+        addItem(parentItem, childItem, Math.max(index, 0));
 
-        if (needSelect) selectionModel.select(childItem);
+        if (needSelect) toSelect = childItem;
     }
 
     /**
@@ -382,7 +727,7 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
      */
     @FXThread
     public void notifyAdded(@Nullable final Object parent, @Nullable final Object child, final int index) {
-        notifyAdded(FACTORY_REGISTRY.createFor(parent), FACTORY_REGISTRY.createFor(child), index);
+        addPendingChange(() -> notifyAdded(FACTORY_REGISTRY.createFor(parent), FACTORY_REGISTRY.createFor(child), index));
     }
 
     /**
@@ -392,22 +737,27 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     private void notifyAdded(@Nullable final TreeNode<?> parent, @Nullable final TreeNode<?> child, final int index) {
         if (child == null) return;
 
-        final TreeView<TreeNode<?>> treeView = getTreeView();
-        final TreeItem<TreeNode<?>> parentItem = findItemForValue(treeView, parent);
+        final TreeItem<TreeNode<?>> parentItem = getItem(parent);
         if (parentItem == null) return;
 
-        parent.notifyChildPreAdd(child);
+        parentItem.setExpanded(true);
+        addNewItem(parentItem, child, index);
+    }
 
-        final TreeItem<TreeNode<?>> childItem = new TreeItem<>(child);
+    /**
+     * Add a new item for the node to the parent item if the parent has materialized children.
+     */
+    @FXThread
+    private void addNewItem(@NotNull final TreeItem<TreeNode<?>> parentItem, @NotNull final TreeNode<?> child,
+                            final int index) {
 
-        final ObservableList<TreeItem<TreeNode<?>>> children = parentItem.getChildren();
-        if (index == -1) children.add(childItem);
-        else children.add(index, childItem);
+        // not materialized children will be loaded from the model which already contains the child
+        if (!isLoaded(parentItem)) return;
 
-        parentItem.setExpanded(true);
-        parent.notifyChildAdded(child);
+        final TreeItem<TreeNode<?>> existed = getItem(child);
+        if (existed != null && getParentItem(existed) == parentItem) return;
 
-        fill(childItem, false, -1);
+        addItem(parentItem, createItem(child), index);
     }
 
     /**
@@ -418,7 +768,7 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
      */
     @FXThread
     public void notifyRemoved(@Nullable final Object parent, @NotNull final Object child) {
-        notifyRemoved(FACTORY_REGISTRY.createFor(child));
+        addPendingChange(() -> notifyRemoved(FACTORY_REGISTRY.createFor(child)));
     }
 
     /**
@@ -428,20 +778,11 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     private void notifyRemoved(@Nullable final TreeNode<?> treeNode) {
         if (treeNode == null) return;
 
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(getTreeView(), treeNode);
+        final TreeItem<TreeNode<?>> treeItem = getItem(treeNode);
         if (treeItem == null) return;
 
-        final TreeItem<TreeNode<?>> parentItem = treeItem.getParent();
-        final TreeNode<?> parentTreeNode = parentItem.getValue();
-
-        final ObservableList<TreeItem<TreeNode<?>>> children = parentItem.getChildren();
-        parentTreeNode.notifyChildPreRemove(treeNode);
-        children.remove(treeItem);
-        parentTreeNode.notifyChildRemoved(treeNode);
-
-        if (parentItem.isExpanded() && children.isEmpty()) {
-            parentItem.setExpanded(false);
-        }
+        removeItem(treeItem);
+        unregister(treeItem);
     }
 
     /**
@@ -454,7 +795,7 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @FXThread
     public TreeNode<?> findParent(@NotNull final TreeNode<?> treeNode) {
 
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(getTreeView(), treeNode);
+        final TreeItem<TreeNode<?>> treeItem = findItem(treeNode);
         if (treeItem == null) return null;
 
         final TreeItem<TreeNode<?>> parent = treeItem.getParent();
@@ -469,11 +810,10 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     @FXThread
     public void startEdit(@NotNull final TreeNode<?> treeNode) {
 
-        final TreeView<TreeNode<?>> treeView = getTreeView();
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(treeView, treeNode);
+        final TreeItem<TreeNode<?>> treeItem = findItem(treeNode);
         if (treeItem == null) return;
 
-        treeView.edit(treeItem);
+        getTreeView().edit(treeItem);
     }
 
     /**
@@ -492,8 +832,7 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
             return;
         }
 
-        final TreeNode<Object> treeNode = FACTORY_REGISTRY.createFor(object);
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(treeView, treeNode);
+        final TreeItem<TreeNode<?>> treeItem = materialize(object);
 
         if (treeItem == null) {
             selectionModel.select(null);
@@ -503,6 +842,39 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
         selectionModel.select(treeItem);
     }
 
+    /**
+     * Find a tree item of the object and materialize the path to it if it's required.
+     */
+    @Nullable
+    @FXThread
+    private TreeItem<TreeNode<?>> materialize(@NotNull final Object object) {
+
+        final TreeItem<TreeNode<?>> treeItem = findItem(object);
+        if (treeItem != null) return treeItem;
+
+        final Object parent = getParentObject(object);
+        final TreeItem<TreeNode<?>> parentItem = parent == null ? null : materialize(parent);
+        if (parentItem == null) return null;
+
+        // loads children of the parent
+        parentItem.setExpanded(true);
+        parentItem.getChildren();
+
+        return getItem(object);
+    }
+
+    /**
+     * Get a parent object of the object in the model to materialize a path to not loaded items.
+     *
+     * @param object the object.
+     * @return the parent object or null.
+     */
+    @Nullable
+    @FXThread
+    protected Object getParentObject(@NotNull final Object object) {
+        return null;
+    }
+
     /**
      * Gets selected.
      *
@@ -554,4 +926,57 @@ public abstract class NodeTree<C extends ChangeConsumer> extends VBox {
     public C getChangeConsumer() {
         return changeConsumer;
     }
+
+    /**
+     * The tree item which materializes its children on first request.
+     */
+    private class NodeTreeItem extends TreeItem<TreeNode<?>> {
+
+        /**
+         * The flag of materialized children.
+         */
+        private boolean loaded;
+
+        private NodeTreeItem(@NotNull final TreeNode<?> treeNode) {
+            super(treeNode);
+        }
+
+        @Override
+        public ObservableList<TreeItem<TreeNode<?>>> getChildren() {
+
+            final ObservableList<TreeItem<TreeNode<?>>> children = super.getChildren();
+
+            if (!loaded) {
+                loaded = true;
+                loadChildren(this, children);
+            }
+
+            return children;
+        }
+
+        @Override
+        public boolean isLeaf() {
+
+            if (loaded) {
+                return super.getChildren().isEmpty();
+            }
+
+            final TreeNode<?> treeNode = getValue();
+            return treeNode == null || !treeNode.hasChildren(NodeTree.this);
+        }
+
+        /**
+         * @return true if children of this item are materialized.
+         */
+        private boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * @param loaded true if children of this item are materialized.
+         */
+        private void setLoaded(final boolean loaded) {
+            this.loaded = loaded;
+        }
+    }
 }
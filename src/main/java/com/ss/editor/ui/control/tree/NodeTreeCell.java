@@ -1,7 +1,5 @@
 package com.ss.editor.ui.control.tree;
 
-import static com.ss.editor.ui.util.UIUtils.findItem;
-import static com.ss.editor.ui.util.UIUtils.findItemForValue;
 import static com.ss.rlib.util.ClassUtils.unsafeCast;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.ss.editor.manager.ExecutorManager;
@@ -375,7 +373,7 @@ public abstract class NodeTreeCell<C extends ChangeConsumer, M extends NodeTree<
         if (item == null) return;
 
         final TreeView<TreeNode<?>> treeView = getTreeView();
-        final TreeItem<TreeNode<?>> treeItem = findItemForValue(treeView, item);
+        final TreeItem<TreeNode<?>> treeItem = getTreeItem();
         if (treeView.getRoot() == treeItem) return;
 
         TransferMode transferMode = item.canMove() ? TransferMode.MOVE : null;
@@ -413,12 +411,11 @@ public abstract class NodeTreeCell<C extends ChangeConsumer, M extends NodeTree<
 
         if (objectId != null) {
 
-            final TreeView<TreeNode<?>> treeView = getTreeView();
-            final TreeItem<TreeNode<?>> dragTreeItem = findItem(treeView, objectId);
+            final TreeItem<TreeNode<?>> dragTreeItem = nodeTree.findItem(objectId);
             final TreeNode<?> dragItem = dragTreeItem == null ? null : dragTreeItem.getValue();
             if (dragItem == null || !item.canAccept(dragItem, isCopy)) return;
 
-            final TreeItem<TreeNode<?>> newParentItem = findItemForValue(treeView, item);
+            final TreeItem<TreeNode<?>> newParentItem = getTreeItem();
             if (newParentItem == null) return;
 
             item.accept(changeConsumer, dragItem.getElement(), isCopy);
@@ -446,8 +443,7 @@ public abstract class NodeTreeCell<C extends ChangeConsumer, M extends NodeTree<
 
         if (objectId != null) {
 
-            final TreeView<TreeNode<?>> treeView = getTreeView();
-            final TreeItem<TreeNode<?>> dragTreeItem = findItem(treeView, objectId);
+            final TreeItem<TreeNode<?>> dragTreeItem = getNodeTree().findItem(objectId);
             final TreeNode<?> dragItem = dragTreeItem == null ? null : dragTreeItem.getValue();
             if (dragItem == null || !item.canAccept(dragItem, isCopy)) return;
 
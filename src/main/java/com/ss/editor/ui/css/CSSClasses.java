@@ -457,6 +457,11 @@ public interface CSSClasses {
      */
     String AUDIO_VIEW_EDITOR_CONTAINER = "audio-view-editor-container";
 
+    /**
+     * The constant AUDIO_VIEW_EDITOR_WAVEFORM.
+     */
+    String AUDIO_VIEW_EDITOR_WAVEFORM = "audio-view-editor-waveform";
+
     /**
      * The constant TEXT_EDITOR_TEXT_AREA.
      */
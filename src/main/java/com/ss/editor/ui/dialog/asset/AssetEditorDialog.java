@@ -1,8 +1,6 @@
 package com.ss.editor.ui.dialog.asset;
 
 import static com.ss.editor.Messages.ASSET_EDITOR_DIALOG_TITLE;
-import static com.ss.editor.ui.component.asset.tree.resource.ResourceElementFactory.createFor;
-import static com.ss.editor.ui.util.UIUtils.findItemForValue;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import com.ss.editor.Editor;
 import com.ss.editor.Messages;
@@ -16,8 +14,7 @@ import com.ss.editor.ui.component.asset.tree.resource.ResourceElement;
 import com.ss.editor.ui.css.CSSClasses;
 import com.ss.editor.ui.dialog.EditorDialog;
 import com.ss.editor.ui.event.FXEventManager;
-import com.ss.editor.ui.event.impl.CreatedFileEvent;
-import com.ss.editor.ui.event.impl.DeletedFileEvent;
+import com.ss.editor.ui.event.impl.ChangedFilesEvent;
 import com.ss.editor.ui.event.impl.RequestSelectFileEvent;
 import com.ss.editor.util.EditorUtil;
 import com.ss.rlib.ui.util.FXUtils;
@@ -91,14 +88,11 @@ public class AssetEditorDialog<C> extends EditorDialog {
     protected static final Editor EDITOR = Editor.getInstance();
 
     @NotNull
-    private final EventHandler<Event> createdFileHandler = event -> processEvent((CreatedFileEvent) event);
+    private final EventHandler<Event> changedFilesHandler = event -> processEvent((ChangedFilesEvent) event);
 
     @NotNull
     private final EventHandler<Event> selectFileHandle = event -> processEvent((RequestSelectFileEvent) event);
 
-    @NotNull
-    private final EventHandler<Event> deletedFileHandler = event -> processEvent((DeletedFileEvent) event);
-
     /**
      * The list of waited files to select.
      */
@@ -287,39 +281,30 @@ public class AssetEditorDialog<C> extends EditorDialog {
 
         resourceTree.fill(currentAsset);
 
-        FX_EVENT_MANAGER.addEventHandler(CreatedFileEvent.EVENT_TYPE, createdFileHandler);
+        FX_EVENT_MANAGER.addEventHandler(ChangedFilesEvent.EVENT_TYPE, changedFilesHandler);
         FX_EVENT_MANAGER.addEventHandler(RequestSelectFileEvent.EVENT_TYPE, selectFileHandle);
-        FX_EVENT_MANAGER.addEventHandler(DeletedFileEvent.EVENT_TYPE, deletedFileHandler);
 
         EXECUTOR_MANAGER.addFXTask(resourceTree::requestFocus);
     }
 
     /**
-     * Handle creating file event.
+     * Handle changed files event.
      */
-    private void processEvent(@NotNull final CreatedFileEvent event) {
-
-        final Path file = event.getFile();
-
-        final Array<Path> waitedFilesToSelect = getWaitedFilesToSelect();
-        final boolean waitedSelect = waitedFilesToSelect.contains(file);
+    private void processEvent(@NotNull final ChangedFilesEvent event) {
 
         final ResourceTree resourceTree = getResourceTree();
-        resourceTree.notifyCreated(file);
-
-        if (waitedSelect) waitedFilesToSelect.fastRemove(file);
-        if (waitedSelect || event.isNeedSelect()) resourceTree.expandTo(file, true);
-    }
+        final Array<Path> waitedFilesToSelect = getWaitedFilesToSelect();
 
-    /**
-     * Handle deleting file event.
-     */
-    private void processEvent(@NotNull final DeletedFileEvent event) {
+        event.getDeleted().forEach(resourceTree, (file, tree) -> tree.notifyDeleted(file));
+        event.getCreated().forEach(file -> {
 
-        final Path file = event.getFile();
+            resourceTree.notifyCreated(file);
 
-        final ResourceTree resourceTree = getResourceTree();
-        resourceTree.notifyDeleted(file);
+            if (waitedFilesToSelect.contains(file)) {
+                waitedFilesToSelect.fastRemove(file);
+                resourceTree.expandTo(file, true);
+            }
+        });
     }
 
     /**
@@ -330,8 +315,7 @@ public class AssetEditorDialog<C> extends EditorDialog {
         final Path file = event.getFile();
 
         final ResourceTree resourceTree = getResourceTree();
-        final ResourceElement element = createFor(file);
-        final TreeItem<ResourceElement> treeItem = findItemForValue(resourceTree.getRoot(), element);
+        final TreeItem<ResourceElement> treeItem = resourceTree.findItem(file);
 
         if (treeItem == null) {
             getWaitedFilesToSelect().add(file);
@@ -410,6 +394,8 @@ public class AssetEditorDialog<C> extends EditorDialog {
         final ImageView imageView = getImageView();
         imageView.setVisible(false);
 
+        JAVA_FX_IMAGE_MANAGER.cancelImagePreview(imageView);
+
         final TextArea textView = getTextView();
         textView.setVisible(false);
 
@@ -429,8 +415,8 @@ public class AssetEditorDialog<C> extends EditorDialog {
 
         } else if (JavaFXImageManager.isImage(file)) {
 
-            final Image preview = JAVA_FX_IMAGE_MANAGER.getImagePreview(file, width, height);
-            imageView.setImage(preview);
+            imageView.imageProperty().unbind();
+            JAVA_FX_IMAGE_MANAGER.loadImagePreview(imageView, file, width, height);
             imageView.setVisible(true);
 
         } else if (JMEFilePreviewManager.isAudioFile(file)) {
@@ -451,9 +437,8 @@ public class AssetEditorDialog<C> extends EditorDialog {
     @Override
     public void hide() {
 
-        FX_EVENT_MANAGER.removeEventHandler(CreatedFileEvent.EVENT_TYPE, createdFileHandler);
+        FX_EVENT_MANAGER.removeEventHandler(ChangedFilesEvent.EVENT_TYPE, changedFilesHandler);
         FX_EVENT_MANAGER.removeEventHandler(RequestSelectFileEvent.EVENT_TYPE, selectFileHandle);
-        FX_EVENT_MANAGER.removeEventHandler(DeletedFileEvent.EVENT_TYPE, deletedFileHandler);
 
         final JMEFilePreviewManager previewManager = JMEFilePreviewManager.getInstance();
         previewManager.clear();
@@ -0,0 +1,347 @@
+package com.ss.editor.ui.dialog.converter;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.ss.editor.Messages;
+import com.ss.editor.annotation.FXThread;
+import com.ss.editor.file.converter.BatchModelConverter;
+import com.ss.editor.ui.control.choose.ChooseFolderControl;
+import com.ss.editor.ui.css.CSSClasses;
+import com.ss.editor.ui.dialog.AbstractSimpleEditorDialog;
+import com.ss.rlib.ui.util.FXUtils;
+import com.ss.rlib.util.array.Array;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.GridPane;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.nio.file.Path;
+
+/**
+ * The dialog with settings and progress of converting all models of selected files and folders.
+ *
+ * @author JavaSaBr
+ */
+public class BatchModelConverterDialog extends AbstractSimpleEditorDialog {
+
+    @NotNull
+    private static final Point DIALOG_SIZE = new Point(570, -1);
+
+    /**
+     * The selected files and folders.
+     */
+    @NotNull
+    private final Array<Path> sources;
+
+    /**
+     * The destination folder control.
+     */
+    @Nullable
+    private ChooseFolderControl destinationControl;
+
+    /**
+     * The export materials check box.
+     */
+    @Nullable
+    private CheckBox exportMaterialsCheckBox;
+
+    /**
+     * The materials destination folder.
+     */
+    @Nullable
+    private ChooseFolderControl materialsFolderControl;
+
+    /**
+     * The overwrite materials check box.
+     */
+    @Nullable
+    private CheckBox overwriteMaterialsCheckBox;
+
+    /**
+     * The skip unchanged models check box.
+     */
+    @Nullable
+    private CheckBox skipUnchangedCheckBox;
+
+    /**
+     * The progress bar.
+     */
+    @Nullable
+    private ProgressBar progressBar;
+
+    /**
+     * The progress label.
+     */
+    @Nullable
+    private Label progressLabel;
+
+    /**
+     * The running converter.
+     */
+    @Nullable
+    private BatchModelConverter converter;
+
+    /**
+     * Instantiates a new Batch model converter dialog.
+     *
+     * @param sources the selected files and folders
+     */
+    public BatchModelConverterDialog(@NotNull final Array<Path> sources) {
+        this.sources = sources;
+        getDestinationControl().setFolder(BatchModelConverter.getBaseFolder(sources));
+        getSkipUnchangedCheckBox().setSelected(true);
+        validate();
+    }
+
+    @Override
+    protected void createContent(@NotNull final GridPane root) {
+        super.createContent(root);
+
+        final Label destinationLabel = new Label(Messages.MODEL_CONVERTER_DIALOG_DESTINATION_FOLDER + ":");
+        destinationLabel.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_LABEL_W_PERCENT2));
+
+        destinationControl = new ChooseFolderControl();
+        destinationControl.maxWidthProperty().bind(root.widthProperty().multiply(DEFAULT_FIELD_W_PERCENT2));
+        destinationControl.setChangeHandler(this::validate);
+
+        final Label exportMaterialsLabel = new Label(Messages.MODEL_CONVERTER_DIALOG_EXPORT_MATERIALS + ":");
+        exportMaterialsLabel.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_LABEL_W_PERCENT2));
+
+        exportMaterialsCheckBox = new CheckBox();
+        exportMaterialsCheckBox.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_FIELD_W_PERCENT2));
+        exportMaterialsCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> validate());
+
+        final Label materialsFolderLabel = new Label(Messages.MODEL_CONVERTER_DIALOG_MATERIAL_FOLDER + ":");
+        materialsFolderLabel.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_LABEL_W_PERCENT2));
+
+        materialsFolderControl = new ChooseFolderControl();
+        materialsFolderControl.maxWidthProperty().bind(root.widthProperty().multiply(DEFAULT_FIELD_W_PERCENT2));
+        materialsFolderControl.disableProperty().bind(exportMaterialsCheckBox.selectedProperty().not());
+        materialsFolderControl.setChangeHandler(this::validate);
+
+        final Label overwiteMaterials = new Label(Messages.MODEL_CONVERTER_DIALOG_OVERWRITE_MATERIALS + ":");
+        overwiteMaterials.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_LABEL_W_PERCENT2));
+
+        overwriteMaterialsCheckBox = new CheckBox();
+        overwriteMaterialsCheckBox.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_FIELD_W_PERCENT2));
+        overwriteMaterialsCheckBox.disableProperty().bind(exportMaterialsCheckBox.selectedProperty().not());
+
+        final Label skipUnchangedLabel = new Label(Messages.MODEL_CONVERTER_DIALOG_SKIP_UNCHANGED + ":");
+        skipUnchangedLabel.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_LABEL_W_PERCENT2));
+
+        skipUnchangedCheckBox = new CheckBox();
+        skipUnchangedCheckBox.prefWidthProperty().bind(root.widthProperty().multiply(DEFAULT_FIELD_W_PERCENT2));
+
+        progressBar = new ProgressBar(0);
+        progressBar.prefWidthProperty().bind(root.widthProperty());
+        progressBar.setVisible(false);
+
+        progressLabel = new Label();
+        progressLabel.prefWidthProperty().bind(root.widthProperty());
+
+        root.add(destinationLabel, 0, 0);
+        root.add(destinationControl, 1, 0);
+        root.add(exportMaterialsLabel, 0, 1);
+        root.add(exportMaterialsCheckBox, 1, 1);
+        root.add(materialsFolderLabel, 0, 2);
+        root.add(materialsFolderControl, 1, 2);
+        root.add(overwiteMaterials, 0, 3);
+        root.add(overwriteMaterialsCheckBox, 1, 3);
+        root.add(skipUnchangedLabel, 0, 4);
+        root.add(skipUnchangedCheckBox, 1, 4);
+        root.add(progressBar, 0, 5, 2, 1);
+        root.add(progressLabel, 0, 6, 2, 1);
+
+        FXUtils.addClassTo(destinationLabel, exportMaterialsLabel, materialsFolderLabel, overwiteMaterials,
+                skipUnchangedLabel, CSSClasses.DIALOG_DYNAMIC_LABEL);
+    }
+
+    @Override
+    protected boolean isGridStructure() {
+        return true;
+    }
+
+    /**
+     * Validate.
+     */
+    private void validate() {
+
+        final Button okButton = notNull(getOkButton());
+        okButton.setDisable(true);
+
+        if (converter != null || getDestinationControl().getFolder() == null) {
+            return;
+        }
+
+        final CheckBox exportMaterialsCheckBox = getExportMaterialsCheckBox();
+        final ChooseFolderControl materialsFolderControl = getMaterialsFolderControl();
+
+        if (exportMaterialsCheckBox.isSelected() && materialsFolderControl.getFolder() == null) {
+            return;
+        }
+
+        okButton.setDisable(false);
+    }
+
+    /**
+     * @return the destination folder control.
+     */
+    @NotNull
+    private ChooseFolderControl getDestinationControl() {
+        return notNull(destinationControl);
+    }
+
+    /**
+     * @return the export materials check box.
+     */
+    @NotNull
+    private CheckBox getExportMaterialsCheckBox() {
+        return notNull(exportMaterialsCheckBox);
+    }
+
+    /**
+     * @return the materials destination folder control.
+     */
+    @NotNull
+    private ChooseFolderControl getMaterialsFolderControl() {
+        return notNull(materialsFolderControl);
+    }
+
+    /**
+     * @return the overwrite materials check box.
+     */
+    @NotNull
+    private CheckBox getOverwriteMaterialsCheckBox() {
+        return notNull(overwriteMaterialsCheckBox);
+    }
+
+    /**
+     * @return the skip unchanged models check box.
+     */
+    @NotNull
+    private CheckBox getSkipUnchangedCheckBox() {
+        return notNull(skipUnchangedCheckBox);
+    }
+
+    /**
+     * @return the progress bar.
+     */
+    @NotNull
+    private ProgressBar getProgressBar() {
+        return notNull(progressBar);
+    }
+
+    /**
+     * @return the progress label.
+     */
+    @NotNull
+    private Label getProgressLabel() {
+        return notNull(progressLabel);
+    }
+
+    @Override
+    protected void processOk() {
+
+        final Path destinationFolder = notNull(getDestinationControl().getFolder());
+        final Path materialsFolder = getExportMaterialsCheckBox().isSelected() ?
+                getMaterialsFolderControl().getFolder() : null;
+
+        final BatchModelConverter converter = new BatchModelConverter(sources, destinationFolder,
+                materialsFolder, getOverwriteMaterialsCheckBox().isSelected(),
+                getSkipUnchangedCheckBox().isSelected());
+
+        converter.setProgressHandler(this::updateProgress);
+        converter.setFinishHandler(this::finish);
+
+        this.converter = converter;
+
+        getDestinationControl().setDisable(true);
+        getExportMaterialsCheckBox().setDisable(true);
+        getSkipUnchangedCheckBox().setDisable(true);
+        getOverwriteMaterialsCheckBox().disableProperty().unbind();
+        getOverwriteMaterialsCheckBox().setDisable(true);
+        getMaterialsFolderControl().disableProperty().unbind();
+        getMaterialsFolderControl().setDisable(true);
+
+        final ProgressBar progressBar = getProgressBar();
+        progressBar.setVisible(true);
+        progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+
+        notNull(getCloseButton()).setText(Messages.SIMPLE_DIALOG_BUTTON_CANCEL);
+
+        validate();
+
+        converter.start();
+    }
+
+    /**
+     * Update the progress of converting.
+     *
+     * @param converter the converter.
+     */
+    @FXThread
+    private void updateProgress(@NotNull final BatchModelConverter converter) {
+
+        final int total = converter.getTotal();
+        final int processed = converter.getProcessed();
+
+        getProgressBar().setProgress(total < 1 ? 1D : processed / (double) total);
+        getProgressLabel().setText(Messages.MODEL_CONVERTER_DIALOG_PROGRESS
+                .replace("%processed%", String.valueOf(processed))
+                .replace("%total%", String.valueOf(total)));
+    }
+
+    /**
+     * Show the summary of converting.
+     *
+     * @param converter the converter.
+     */
+    @FXThread
+    private void finish(@NotNull final BatchModelConverter converter) {
+
+        updateProgress(converter);
+
+        getProgressLabel().setText(Messages.MODEL_CONVERTER_DIALOG_SUMMARY
+                .replace("%converted%", String.valueOf(converter.getConverted()))
+                .replace("%skipped%", String.valueOf(converter.getSkipped()))
+                .replace("%failed%", String.valueOf(converter.getFailed())));
+
+        notNull(getCloseButton()).setText(Messages.SIMPLE_DIALOG_BUTTON_CLOSE);
+
+        this.converter = null;
+    }
+
+    @FXThread
+    @Override
+    public void hide() {
+
+        final BatchModelConverter converter = this.converter;
+
+        if (converter != null) {
+            converter.cancel();
+        }
+
+        super.hide();
+    }
+
+    @NotNull
+    @Override
+    protected String getTitleText() {
+        return Messages.MODEL_CONVERTER_DIALOG_BATCH_TITLE;
+    }
+
+    @NotNull
+    @Override
+    protected String getButtonOkText() {
+        return Messages.MODEL_CONVERTER_DIALOG_BUTTON_OK;
+    }
+
+    @NotNull
+    @Override
+    protected Point getSize() {
+        return DIALOG_SIZE;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ss.editor.ui.event.impl;
+
+import static com.ss.rlib.util.ObjectUtils.notNull;
+import com.ss.editor.ui.event.SceneEvent;
+import com.ss.rlib.util.array.Array;
+import javafx.event.Event;
+import javafx.event.EventType;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * The event about a set of changes of files in an asset folder. All changes of a file which were happened during
+ * one batch of the watcher are already coalesced, so each file is in only one list of this event.
+ *
+ * @author JavaSaBr
+ */
+public class ChangedFilesEvent extends SceneEvent {
+
+    /**
+     * The constant EVENT_TYPE.
+     */
+    @NotNull
+    public static final EventType<SceneEvent> EVENT_TYPE;
+
+    static {
+        synchronized (Event.class) {
+            EVENT_TYPE = new EventType<>(SceneEvent.EVENT_TYPE, ChangedFilesEvent.class.getSimpleName());
+        }
+    }
+
+    private static final String CREATED = "created";
+    private static final String DELETED = "deleted";
+    private static final String MODIFIED = "modified";
+    private static final String DIRECTORIES = "directories";
+
+    /**
+     * Instantiates a new Changed files event.
+     *
+     * @param created     the list of created files.
+     * @param deleted     the list of deleted files.
+     * @param modified    the list of modified files.
+     * @param directories the list of created and deleted files which are directories.
+     */
+    public ChangedFilesEvent(@NotNull final Array<Path> created, @NotNull final Array<Path> deleted,
+                             @NotNull final Array<Path> modified, @NotNull final Array<Path> directories) {
+        super(EVENT_TYPE);
+        set(CREATED, created);
+        set(DELETED, deleted);
+        set(MODIFIED, modified);
+        set(DIRECTORIES, directories);
+    }
+
+    /**
+     * Gets created files.
+     *
+     * @return the list of created files.
+     */
+    @NotNull
+    public Array<Path> getCreated() {
+        return notNull(get(CREATED));
+    }
+
+    /**
+     * Gets deleted files.
+     *
+     * @return the list of deleted files.
+     */
+    @NotNull
+    public Array<Path> getDeleted() {
+        return notNull(get(DELETED));
+    }
+
+    /**
+     * Gets modified files.
+     *
+     * @return the list of modified files.
+     */
+    @NotNull
+    public Array<Path> getModified() {
+        return notNull(get(MODIFIED));
+    }
+
+    /**
+     * Is directory boolean.
+     *
+     * @param file the created or deleted file.
+     * @return true if the file is directory.
+     */
+    public boolean isDirectory(@NotNull final Path file) {
+        final Array<Path> directories = notNull(get(DIRECTORIES));
+        return directories.contains(file);
+    }
+}
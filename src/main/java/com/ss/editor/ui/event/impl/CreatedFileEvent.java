@@ -12,7 +12,9 @@ import java.nio.file.Path;
  * The event about created a new file.
  *
  * @author JavaSaBr
+ * @deprecated use {@link ChangedFilesEvent} which contains all changed files of a batch.
  */
+@Deprecated
 public class CreatedFileEvent extends SceneEvent {
 
     /**
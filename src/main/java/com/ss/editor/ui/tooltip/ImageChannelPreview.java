@@ -182,7 +182,11 @@ public class ImageChannelPreview extends CustomTooltip<GridPane> {
      */
     @FXThread
     public void showImage(@Nullable final Path file) {
-        buildPreview(file == null ? null : IMAGE_MANAGER.getImagePreview(file, 120, 120));
+        if (file == null) {
+            clean();
+        } else {
+            IMAGE_MANAGER.loadImagePreview(this, file, 120, 120, this::buildPreview);
+        }
     }
 
     /**
@@ -190,6 +194,7 @@ public class ImageChannelPreview extends CustomTooltip<GridPane> {
      */
     @FXThread
     public void clean() {
+        IMAGE_MANAGER.cancelImagePreview(this);
         buildPreview(null);
     }
 
@@ -200,7 +205,7 @@ public class ImageChannelPreview extends CustomTooltip<GridPane> {
      */
     @FXThread
     public void showImage(@Nullable final String resourcePath) {
-        buildPreview(IMAGE_MANAGER.getImagePreview(resourcePath, 120, 120));
+        IMAGE_MANAGER.loadImagePreview(this, resourcePath, 120, 120, this::buildPreview);
     }
 
     private void buildPreview(@Nullable final Image image) {
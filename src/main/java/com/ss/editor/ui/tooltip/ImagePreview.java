@@ -90,6 +90,6 @@ public class ImagePreview extends CustomTooltip<BorderPane> {
      */
     @FXThread
     public void showImage(@Nullable final Path file) {
-        getImageView().setImage(IMAGE_MANAGER.getImagePreview(file, 200, 200));
+        IMAGE_MANAGER.loadImagePreview(getImageView(), file, 200, 200);
     }
 }
@@ -102,8 +102,7 @@ public class EditingUtils {
      */
     public static float calculateRadiusPercent(float radius, float x, float z) {
         // find percentage for each 'unit' in radius
-        Vector2f point = new Vector2f(x,z);
-        float val = Math.abs(point.length()) / radius;
+        float val = (float) Math.sqrt(x * x + z * z) / radius;
         val = 1f - val;
         return val;
     }
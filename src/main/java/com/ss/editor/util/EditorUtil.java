@@ -13,7 +13,9 @@ import com.jme3.system.JmeSystem;
 import com.jme3.system.Platform;
 import com.ss.editor.JFXApplication;
 import com.ss.editor.analytics.google.GAnalytics;
+import com.ss.editor.annotation.BackgroundThread;
 import com.ss.editor.annotation.FXThread;
+import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.config.EditorConfig;
 import com.ss.editor.extension.scene.SceneLayer;
 import com.ss.editor.extension.scene.SceneNode;
@@ -44,7 +46,11 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -71,6 +77,11 @@ public abstract class EditorUtil {
      */
     public static final DataFormat GNOME_FILES = new DataFormat("x-special/gnome-copied-files");
 
+    @NotNull
+    private static final String HASH_ALGORITHM = "SHA-1";
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
     @NotNull
     private static final ThreadLocal<SimpleDateFormat> LOCATE_DATE_FORMAT = withInitial(() ->
             new SimpleDateFormat("HH:mm:ss:SSS"));
@@ -519,6 +530,65 @@ public abstract class EditorUtil {
         }
     }
 
+    /**
+     * Compute the SHA-1 hash of the content of the file.
+     *
+     * @param file the file.
+     * @return the hash in hex format.
+     * @throws IOException if the file can't be read.
+     */
+    @NotNull
+    @BackgroundThread
+    public static String computeHash(@NotNull final Path file) throws IOException {
+
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[HASH_BUFFER_SIZE];
+
+        try (final InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return toHex(digest);
+    }
+
+    /**
+     * Compute the SHA-1 hash of the string.
+     *
+     * @param value the string.
+     * @return the hash in hex format.
+     */
+    @NotNull
+    @FromAnyThread
+    public static String computeHash(@NotNull final String value) {
+        final MessageDigest digest = newDigest();
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        return toHex(digest);
+    }
+
+    @NotNull
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @NotNull
+    private static String toHex(@NotNull final MessageDigest digest) {
+
+        final StringBuilder builder = new StringBuilder();
+
+        for (final byte value : digest.digest()) {
+            builder.append(Character.forDigit((value >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(value & 0xF, 16));
+        }
+
+        return builder.toString();
+    }
+
     /**
      * Format the float number.
      *
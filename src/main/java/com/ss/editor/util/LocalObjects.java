@@ -17,6 +17,12 @@ public class LocalObjects {
 
     private static final int SIZE = 50;
 
+    /**
+     * The local objects of threads which aren't editor threads, like workers of the background pool.
+     */
+    @NotNull
+    private static final ThreadLocal<LocalObjects> THREAD_LOCAL = ThreadLocal.withInitial(LocalObjects::new);
+
     /**
      * Get local objects.
      *
@@ -24,7 +30,14 @@ public class LocalObjects {
      */
     @NotNull
     public static LocalObjects get() {
-        return ((EditorThread) currentThread()).getLocal();
+
+        final Thread thread = currentThread();
+
+        if (thread instanceof EditorThread) {
+            return ((EditorThread) thread).getLocal();
+        }
+
+        return THREAD_LOCAL.get();
     }
 
     /**
@@ -3,9 +3,6 @@ package com.ss.editor.util;
 import static com.ss.editor.util.EditorUtil.*;
 import static com.ss.rlib.util.ObjectUtils.notNull;
 import static com.ss.rlib.util.array.ArrayFactory.toArray;
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.nio.file.StandardOpenOption.WRITE;
 import com.jme3.asset.AssetKey;
 import com.jme3.asset.AssetManager;
 import com.jme3.asset.MaterialKey;
@@ -16,19 +13,20 @@ import com.jme3.shader.Shader;
 import com.jme3.shader.VarType;
 import com.jme3.texture.Image;
 import com.jme3.texture.Texture;
+import com.jme3.util.BufferUtils;
 import com.ss.editor.Editor;
 import com.ss.editor.FileExtensions;
+import com.ss.editor.file.writer.TextureWriter;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
 import com.ss.rlib.util.FileUtils;
 import com.ss.rlib.util.StringUtils;
-import jme3tools.converters.ImageToAwt;
+import com.ss.rlib.util.dictionary.ObjectDictionary;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,6 +40,9 @@ import java.util.List;
  */
 public class MaterialUtils {
 
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(MaterialUtils.class);
+
     @NotNull
     private static final Editor EDITOR = Editor.getInstance();
 
@@ -394,6 +395,66 @@ public class MaterialUtils {
                 .forEach(MaterialUtils::saveIfNeedTexture);
     }
 
+    /**
+     * Collect copies of changed textures of a material, so the copies can be saved later without any locks. The
+     * changes of the textures are cleared only when the copies are saved.
+     *
+     * @param material  the material.
+     * @param copies    the dictionary to store copies of changed images by files to save.
+     * @param originals the dictionary to store changed images by files to save.
+     */
+    public static void collectChangedTextures(@NotNull final Material material,
+                                              @NotNull final ObjectDictionary<Path, Image> copies,
+                                              @NotNull final ObjectDictionary<Path, Image> originals) {
+
+        final Collection<MatParam> params = material.getParams();
+        params.stream().filter(matParam -> matParam.getVarType() == VarType.Texture2D)
+                .map(MatParam::getValue)
+                .map(Texture.class::cast)
+                .forEach(texture -> collectChangedTexture(texture, copies, originals));
+    }
+
+    /**
+     * Save collected copies of changed textures and clear the saved changes of the original textures.
+     *
+     * @param copies    the dictionary with copies of changed images by files to save.
+     * @param originals the dictionary with changed images by files to save.
+     * @throws IOException if some texture wasn't saved.
+     */
+    public static void saveTextures(@NotNull final ObjectDictionary<Path, Image> copies,
+                                    @NotNull final ObjectDictionary<Path, Image> originals) throws IOException {
+
+        TextureWriter.getInstance().write(copies);
+
+        final long stamp = EDITOR.asyncLock();
+        try {
+            // the copies keep the count of changes at the moment of copying, so new changes are kept
+            copies.forEach((file, copy) -> notNull(originals.get(file)).clearChanges(copy.getChanges()));
+        } finally {
+            EDITOR.asyncUnlock(stamp);
+        }
+    }
+
+    private static void collectChangedTexture(@NotNull final Texture texture,
+                                              @NotNull final ObjectDictionary<Path, Image> copies,
+                                              @NotNull final ObjectDictionary<Path, Image> originals) {
+
+        final Image image = texture.getImage();
+        if (!image.isChanged()) return;
+
+        final AssetKey key = texture.getKey();
+        final Path file = notNull(getRealFile(key.getName()));
+        final Image copy = image.clone();
+        final List<ByteBuffer> data = image.getData();
+
+        for (int i = 0, length = data.size(); i < length; i++) {
+            copy.setData(i, BufferUtils.clone(data.get(i)));
+        }
+
+        copies.put(file, copy);
+        originals.put(file, image);
+    }
+
     /**
      * Save if need a texture.
      *
@@ -406,12 +467,12 @@ public class MaterialUtils {
 
         final AssetKey key = texture.getKey();
         final Path file = notNull(getRealFile(key.getName()));
-        final BufferedImage bufferedImage = ImageToAwt.convert(image, false, true, 0);
 
-        try (final OutputStream out = Files.newOutputStream(file, WRITE, TRUNCATE_EXISTING, CREATE)) {
-            ImageIO.write(bufferedImage, "png", out);
+        try {
+            TextureWriter.getInstance().write(file, image);
         } catch (final IOException e) {
-            e.printStackTrace();
+            LOGGER.warning(e);
+            return;
         }
 
         image.clearChanges();
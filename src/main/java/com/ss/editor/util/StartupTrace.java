@@ -0,0 +1,156 @@
+package com.ss.editor.util;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import com.ss.editor.annotation.FromAnyThread;
+import com.ss.editor.config.Config;
+import com.ss.rlib.logging.Logger;
+import com.ss.rlib.logging.LoggerManager;
+import com.ss.rlib.util.ArrayUtils;
+import com.ss.rlib.util.array.Array;
+import com.ss.rlib.util.array.ArrayFactory;
+import com.ss.rlib.util.array.ConcurrentArray;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The trace of timings of starting the editor. Each run of the editor rewrites the file of the trace in the app
+ * folder in user home, so the timings of runs can be compared.
+ *
+ * @author JavaSaBr
+ */
+public final class StartupTrace {
+
+    @NotNull
+    private static final Logger LOGGER = LoggerManager.getLogger(StartupTrace.class);
+
+    @NotNull
+    private static final StartupTrace INSTANCE = new StartupTrace();
+
+    @NotNull
+    private static final String TRACE_FILE = "startup-trace.log";
+
+    /**
+     * Gets instance.
+     *
+     * @return the instance
+     */
+    @NotNull
+    @FromAnyThread
+    public static StartupTrace getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The traced phases.
+     */
+    @NotNull
+    private final ConcurrentArray<Phase> phases;
+
+    /**
+     * The start time of the JVM.
+     */
+    private final long startTime;
+
+    private StartupTrace() {
+        this.phases = ArrayFactory.newConcurrentStampedLockArray(Phase.class);
+        this.startTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Begin a new phase.
+     *
+     * @return the time of beginning of the phase.
+     */
+    @FromAnyThread
+    public long begin() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * End the phase.
+     *
+     * @param name  the name of the phase.
+     * @param begin the time of beginning of the phase.
+     */
+    @FromAnyThread
+    public void end(@NotNull final String name, final long begin) {
+        final String thread = Thread.currentThread().getName();
+        final Phase phase = new Phase(name, thread, begin, System.currentTimeMillis() - begin);
+        ArrayUtils.runInWriteLock(phases, phase, Array::add);
+    }
+
+    /**
+     * Mark the moment of the startup.
+     *
+     * @param name the name of the moment.
+     */
+    @FromAnyThread
+    public void mark(@NotNull final String name) {
+        end(name, begin());
+    }
+
+    /**
+     * Write the trace to the file.
+     */
+    @FromAnyThread
+    public void write() {
+
+        final Path file = Config.getAppFolderInUserHome().resolve(TRACE_FILE);
+        final Phase[] sorted = ArrayUtils.getInReadLock(phases, array -> array.toArray(Phase.class));
+        if (sorted == null) return;
+
+        Arrays.sort(sorted, Comparator.comparingLong(phase -> phase.begin));
+
+        try {
+
+            Files.createDirectories(file.getParent());
+
+            try (final PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, WRITE, TRUNCATE_EXISTING,
+                    CREATE))) {
+
+                out.println(String.format("%-40s %-32s %10s %10s", "phase", "thread", "start(ms)", "time(ms)"));
+
+                for (final Phase phase : sorted) {
+                    out.println(String.format("%-40s %-32s %10d %10d", phase.name, phase.thread,
+                            phase.begin - startTime, phase.duration));
+                }
+            }
+
+        } catch (final IOException e) {
+            LOGGER.warning(this, e);
+        }
+    }
+
+    /**
+     * The traced phase.
+     */
+    private static class Phase {
+
+        @NotNull
+        private final String name;
+
+        @NotNull
+        private final String thread;
+
+        private final long begin;
+
+        private final long duration;
+
+        private Phase(@NotNull final String name, @NotNull final String thread, final long begin,
+                      final long duration) {
+            this.name = name;
+            this.thread = thread;
+            this.begin = begin;
+            this.duration = duration;
+        }
+    }
+}